@@ -49,6 +49,7 @@ import org.apache.camel.spi.ProcessorFactory;
 import org.apache.camel.spi.Registry;
 import org.apache.camel.spi.ServicePool;
 import org.apache.camel.spi.ShutdownStrategy;
+import org.apache.camel.spi.StreamCacheSpool;
 import org.apache.camel.spi.TypeConverterRegistry;
 import org.apache.camel.spi.UuidGenerator;
 
@@ -943,6 +944,20 @@ public interface CamelContext extends SuspendableService, RuntimeConfiguration {
      */
     void setInflightRepository(InflightRepository repository);
 
+    /**
+     * Gets the memory and disk shared by the stream caches
+     *
+     * @return the spool
+     */
+    StreamCacheSpool getStreamCacheSpool();
+
+    /**
+     * Sets a custom spool of the stream caches to use
+     *
+     * @param spool the spool
+     */
+    void setStreamCacheSpool(StreamCacheSpool spool);
+
     /**
      * Gets the the application context class loader which may be helpful for running camel in other containers
      *
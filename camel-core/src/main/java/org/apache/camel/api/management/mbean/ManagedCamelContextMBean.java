@@ -75,6 +75,18 @@ public interface ManagedCamelContextMBean {
     @ManagedAttribute(description = "Average load over the last fifteen minutes")
     String getLoad15();
 
+    @ManagedAttribute(description = "Type converter cache hits")
+    Long getTypeConverterCacheHits();
+
+    @ManagedAttribute(description = "Type converter cache misses")
+    Long getTypeConverterCacheMisses();
+
+    @ManagedAttribute(description = "Number of type pairs in the type converter cache")
+    Integer getTypeConverterCacheSize();
+
+    @ManagedOperation(description = "Reset type converter cache statistics")
+    void resetTypeConverterCacheStatistics();
+
     @ManagedOperation(description = "Start Camel")
     void start() throws Exception;
 
@@ -53,6 +53,27 @@ public interface ManagedPerformanceCounterMBean {
     @ManagedAttribute(description = "Last Processing Time [milliseconds]")
     long getLastProcessingTime() throws Exception;
 
+    @ManagedAttribute(description = "50th Percentile Processing Time [milliseconds]")
+    long getP50ProcessingTime() throws Exception;
+
+    @ManagedAttribute(description = "99th Percentile Processing Time [milliseconds]")
+    long getP99ProcessingTime() throws Exception;
+
+    @ManagedAttribute(description = "99.9th Percentile Processing Time [milliseconds]")
+    long getP999ProcessingTime() throws Exception;
+
+    @ManagedOperation(description = "Processing Time [milliseconds] at the given percentile")
+    long processingTimePercentile(double percentile) throws Exception;
+
+    @ManagedAttribute(description = "Processing time histogram enabled")
+    boolean isProcessingTimeHistogramEnabled();
+
+    @ManagedAttribute(description = "Processing time histogram enabled")
+    void setProcessingTimeHistogramEnabled(boolean enabled);
+
+    @ManagedOperation(description = "Reset processing time histogram")
+    void resetProcessingTimeHistogram();
+
     @ManagedAttribute(description = "Last Exchange Completed Timestamp")
     Date getLastExchangeCompletedTimestamp();
 
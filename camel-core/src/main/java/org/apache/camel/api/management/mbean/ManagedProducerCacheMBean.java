@@ -36,6 +36,12 @@ public interface ManagedProducerCacheMBean extends ManagedServiceMBean {
     @ManagedAttribute(description = "Cache misses")
     Long getMisses();
 
+    @ManagedAttribute(description = "Cache evicted")
+    Long getEvicted();
+
+    @ManagedAttribute(description = "Number of times a thread waited for another thread creating a producer")
+    Long getLockContentions();
+
     @ManagedOperation(description = "Reset cache statistics")
     void resetStatistics();
 
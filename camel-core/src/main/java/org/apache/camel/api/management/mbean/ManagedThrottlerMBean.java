@@ -17,6 +17,7 @@
 package org.apache.camel.api.management.mbean;
 
 import org.apache.camel.api.management.ManagedAttribute;
+import org.apache.camel.api.management.ManagedOperation;
 
 public interface ManagedThrottlerMBean extends ManagedProcessorMBean {
 
@@ -32,4 +33,19 @@ public interface ManagedThrottlerMBean extends ManagedProcessorMBean {
     @ManagedAttribute(description = "Time period in millis")
     void setTimePeriodMillis(long timePeriodMillis);
 
+    @ManagedAttribute(description = "Maximum requests per period when unused requests of idle periods are carried over")
+    long getMaximumBurst();
+
+    @ManagedAttribute(description = "Number of exchanges which have been delayed")
+    long getThrottledExchanges();
+
+    @ManagedAttribute(description = "Number of exchanges which are delayed asynchronously and waiting to continue")
+    int getPendingExchanges();
+
+    @ManagedAttribute(description = "Number of correlation keys which are throttled")
+    int getCorrelationKeys();
+
+    @ManagedOperation(description = "Reset the throttled exchanges statistic")
+    void resetThrottledExchanges();
+
 }
\ No newline at end of file
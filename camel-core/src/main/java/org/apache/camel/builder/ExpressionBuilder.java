@@ -16,13 +16,17 @@
  */
 package org.apache.camel.builder;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.nio.charset.Charset;
 import java.text.SimpleDateFormat;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Scanner;
 import java.util.regex.Pattern;
@@ -35,12 +39,14 @@ import org.apache.camel.InvalidPayloadException;
 import org.apache.camel.Message;
 import org.apache.camel.NoSuchEndpointException;
 import org.apache.camel.Producer;
+import org.apache.camel.WrappedFile;
 import org.apache.camel.component.bean.BeanInvocation;
 import org.apache.camel.component.properties.PropertiesComponent;
 import org.apache.camel.language.bean.BeanLanguage;
 import org.apache.camel.model.language.MethodCallExpression;
 import org.apache.camel.spi.Language;
 import org.apache.camel.support.ExpressionAdapter;
+import org.apache.camel.support.MappedFileTokenIterator;
 import org.apache.camel.support.TokenPairExpressionIterator;
 import org.apache.camel.support.TokenXMLPairExpressionIterator;
 import org.apache.camel.util.ExchangeHelper;
@@ -1020,12 +1026,19 @@ public final class ExpressionBuilder {
     /**
      * Returns a tokenize expression which will tokenize the string with the
      * given token
+     * <p/>
+     * If the value is a file then the file is tokenized using a {@link MappedFileTokenIterator}
+     * when possible, otherwise a {@link Scanner} is used.
      */
     public static Expression tokenizeExpression(final Expression expression,
                                                 final String token) {
         return new ExpressionAdapter() {
             public Object evaluate(Exchange exchange) {
                 Object value = expression.evaluate(exchange, Object.class);
+                Iterator<?> it = createMappedFileTokenIterator(exchange, value, token);
+                if (it != null) {
+                    return it;
+                }
                 Scanner scanner = ObjectHelper.getScanner(exchange, value);
                 scanner.useDelimiter(token);
                 return scanner;
@@ -1038,6 +1051,41 @@ public final class ExpressionBuilder {
         };
     }
 
+    /**
+     * Creates a {@link MappedFileTokenIterator} if the value is a file which can be tokenized by matching the
+     * token directly on the bytes of the file.
+     *
+     * @return the iterator, or <tt>null</tt> if not possible
+     */
+    private static Iterator<?> createMappedFileTokenIterator(Exchange exchange, Object value, String token) {
+        if (value instanceof WrappedFile) {
+            // generic file is just a wrapper for the real file
+            value = ((WrappedFile<?>) value).getFile();
+        }
+        // do not memory map on windows as the file cannot be moved or deleted afterwards
+        // until the memory mapped buffers has been garbage collected
+        if (!(value instanceof File) || FileUtil.isWindows()) {
+            return null;
+        }
+        // the scanner treats the token as a reg exp, so the token must not contain any reg exp characters
+        for (int i = 0; i < token.length(); i++) {
+            if ("\\^$.|?*+()[]{}".indexOf(token.charAt(i)) != -1) {
+                return null;
+            }
+        }
+
+        String charsetName = IOHelper.getCharsetName(exchange, false);
+        Charset charset = charsetName != null ? Charset.forName(charsetName) : Charset.defaultCharset();
+        if (!MappedFileTokenIterator.isSupportedCharset(charset)) {
+            return null;
+        }
+        try {
+            return new MappedFileTokenIterator((File) value, token, charset);
+        } catch (IOException e) {
+            throw ObjectHelper.wrapRuntimeCamelException(e);
+        }
+    }
+
     /**
      * Returns an {@link TokenPairExpressionIterator} expression
      */
@@ -17,15 +17,22 @@
 package org.apache.camel.component.bean;
 
 import java.lang.reflect.Method;
+import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.camel.CamelContext;
 import org.apache.camel.util.CastUtils;
+import org.apache.camel.util.LRUCache;
 import org.apache.camel.util.LRUSoftCache;
 
 /**
  * Represents a cache of {@link MethodInfo} objects to avoid the expense of introspection for each
  * invocation of a method via a proxy.
+ * <p/>
+ * The caches are looked up without locking. Custom caches which are neither a {@link ConcurrentMap}
+ * nor a {@link LRUCache} are therefore synchronized. If two threads miss the cache at the same time
+ * they may both introspect the method, which is harmless.
  *
  * @version 
  */
@@ -44,11 +51,11 @@ public class MethodInfoCache {
 
     public MethodInfoCache(CamelContext camelContext, Map<Class<?>, BeanInfo> classCache, Map<Method, MethodInfo> methodCache) {
         this.camelContext = camelContext;
-        this.classCache = classCache;
-        this.methodCache = methodCache;
+        this.classCache = threadSafe(classCache);
+        this.methodCache = threadSafe(methodCache);
     }
 
-    public synchronized MethodInfo getMethodInfo(Method method) {
+    public MethodInfo getMethodInfo(Method method) {
         MethodInfo answer = methodCache.get(method);
         if (answer == null) {
             answer = createMethodInfo(method);
@@ -63,7 +70,7 @@ public class MethodInfoCache {
         return info.getMethodInfo(method);
     }
 
-    protected synchronized BeanInfo getBeanInfo(Class<?> declaringClass) {
+    protected BeanInfo getBeanInfo(Class<?> declaringClass) {
         BeanInfo beanInfo = classCache.get(declaringClass);
         if (beanInfo == null) {
             beanInfo = createBeanInfo(declaringClass);
@@ -81,6 +88,13 @@ public class MethodInfoCache {
         return new LRUSoftCache<Object, Object>(size);
     }
 
+    private static <K, V> Map<K, V> threadSafe(Map<K, V> cache) {
+        if (cache instanceof ConcurrentMap || cache instanceof LRUCache) {
+            return cache;
+        }
+        return Collections.synchronizedMap(cache);
+    }
+
     private static Map<Class<?>, BeanInfo> createClassCache(int size) {
         return CastUtils.cast(createLruCache(size));
     }
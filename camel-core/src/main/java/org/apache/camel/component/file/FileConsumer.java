@@ -17,7 +17,14 @@
 package org.apache.camel.component.file;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.camel.Processor;
 import org.apache.camel.util.FileUtil;
@@ -25,18 +32,49 @@ import org.apache.camel.util.ObjectHelper;
 
 /**
  * File consumer.
+ * <p/>
+ * If the endpoint is configured with <tt>indexDirectory=true</tt> the consumer keeps an index of the
+ * directories, and only lists a directory again when its last modified time has changed, which is when
+ * files are added, removed or renamed. Only the new files, and the files which are left in the directory
+ * after they were processed, are then checked and turned into {@link GenericFile}s. Files which are
+ * changed in place, or which become valid without the directory changing, are picked up by a full poll
+ * of all the directories at every reconcile interval.
  */
 public class FileConsumer extends GenericFileConsumer<File> {
 
+    // the last modified time of directories may only have a granularity of seconds
+    private static final long MODIFIED_GRANULARITY = 2000;
+
     private String endpointPath;
+    private final Map<String, DirectoryIndex> index = new HashMap<String, DirectoryIndex>();
+    private long lastReconcile;
+    private boolean reconcile;
 
     public FileConsumer(GenericFileEndpoint<File> endpoint, Processor processor, GenericFileOperations<File> operations) {
         super(endpoint, processor, operations);
         this.endpointPath = endpoint.getConfiguration().getDirectory();
     }
 
+    @Override
+    protected int poll() throws Exception {
+        if (getEndpoint().isIndexDirectory()) {
+            long now = System.currentTimeMillis();
+            reconcile = lastReconcile == 0 || now - lastReconcile >= getEndpoint().getReconcileInterval();
+            if (reconcile) {
+                log.debug("Reconciling the index of directory: {}", endpointPath);
+                index.clear();
+                lastReconcile = now;
+            }
+        }
+        return super.poll();
+    }
+
     @Override
     protected boolean pollDirectory(String fileName, List<GenericFile<File>> fileList, int depth) {
+        if (getEndpoint().isIndexDirectory()) {
+            return pollIndexedDirectory(fileName, fileList, depth);
+        }
+
         log.trace("pollDirectory from fileName: {}", fileName);
 
         depth++;
@@ -109,6 +147,91 @@ public class FileConsumer extends GenericFileConsumer<File> {
         return true;
     }
 
+    /**
+     * Polls the given directory using the index, so only the new files and the files left after
+     * processing are checked.
+     */
+    protected boolean pollIndexedDirectory(String fileName, List<GenericFile<File>> fileList, int depth) {
+        log.trace("pollIndexedDirectory from fileName: {}", fileName);
+
+        depth++;
+
+        File directory = new File(fileName);
+        if (!directory.exists() || !directory.isDirectory()) {
+            log.debug("Cannot poll as directory does not exists or its not a directory: {}", directory);
+            index.remove(fileName);
+            if (getEndpoint().isDirectoryMustExist()) {
+                throw new GenericFileOperationFailedException("Directory does not exist: " + directory);
+            }
+            return true;
+        }
+
+        DirectoryIndex dir = index.get(fileName);
+        if (dir == null) {
+            dir = new DirectoryIndex();
+            index.put(fileName, dir);
+        }
+
+        long modified = directory.lastModified();
+        if (dir.mustList(modified)) {
+            long listedAt = System.currentTimeMillis();
+            String[] names = directory.list();
+            log.trace("Listed {} names in directory: {}", names != null ? names.length : 0, directory.getPath());
+            // the files skipped before may become valid when their done file is added
+            dir.listed(modified, listedAt, names != null ? names : new String[0], endpoint.getDoneFileName() != null);
+        }
+
+        for (Iterator<String> it = dir.candidates.iterator(); it.hasNext();) {
+            // check if we can continue polling in files, the remaining candidates are kept for the next poll
+            if (!canPollMoreFiles(fileList)) {
+                return false;
+            }
+
+            String name = it.next();
+            File file = new File(directory, name);
+            if (file.isDirectory()) {
+                it.remove();
+                dir.directories.add(name);
+                continue;
+            } else if (!file.exists()) {
+                it.remove();
+                continue;
+            }
+
+            GenericFile<File> gf = asGenericFile(endpointPath, file);
+            if (isValidFile(gf, false) && depth >= endpoint.minDepth) {
+                // keep the file as candidate, so it is checked again if it is left in the directory
+                // such as when it is still in progress or the processing was rolled back
+                if (isInProgress(gf)) {
+                    if (log.isTraceEnabled()) {
+                        log.trace("Skipping as file is already in progress: {}", gf.getFileName());
+                    }
+                } else {
+                    log.trace("Adding valid file: {}", file);
+                    fileList.add(gf);
+                }
+            } else {
+                // skip the file until it changes
+                it.remove();
+                dir.skipped.add(name);
+            }
+        }
+
+        if (endpoint.isRecursive() && depth < endpoint.getMaxDepth()) {
+            for (String name : dir.directories.toArray(new String[dir.directories.size()])) {
+                GenericFile<File> gf = asGenericFile(endpointPath, new File(directory, name));
+                if (isValidFile(gf, true)) {
+                    boolean canPollMore = pollIndexedDirectory(fileName + File.separator + name, fileList, depth);
+                    if (!canPollMore) {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
     /**
      * Creates a new GenericFile<File> based on the given file.
      *
@@ -162,4 +285,47 @@ public class FileConsumer extends GenericFileConsumer<File> {
     public FileEndpoint getEndpoint() {
         return (FileEndpoint) super.getEndpoint();
     }
+
+    @Override
+    protected void doStop() throws Exception {
+        super.doStop();
+        index.clear();
+        lastReconcile = 0;
+    }
+
+    /**
+     * The index of a directory, which is only accessed by the polling thread.
+     */
+    private static final class DirectoryIndex {
+        private long modified = -1;
+        private long listedAt;
+        // the files to check in the next poll, in the order they were listed
+        private final Set<String> candidates = new LinkedHashSet<String>();
+        private final Set<String> skipped = new HashSet<String>();
+        private final Set<String> directories = new LinkedHashSet<String>();
+
+        private boolean mustList(long modified) {
+            // a change right after the last listing may not have changed the last modified time
+            return modified != this.modified || modified == 0 || listedAt - modified < MODIFIED_GRANULARITY;
+        }
+
+        private void listed(long modified, long listedAt, String[] names, boolean recheckSkipped) {
+            this.modified = modified;
+            this.listedAt = listedAt;
+
+            Set<String> present = new HashSet<String>(Arrays.asList(names));
+            candidates.retainAll(present);
+            skipped.retainAll(present);
+            directories.retainAll(present);
+            if (recheckSkipped) {
+                skipped.clear();
+            }
+
+            for (String name : names) {
+                if (!skipped.contains(name) && !directories.contains(name)) {
+                    candidates.add(name);
+                }
+            }
+        }
+    }
 }
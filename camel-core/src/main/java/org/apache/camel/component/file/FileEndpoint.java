@@ -34,6 +34,8 @@ public class FileEndpoint extends GenericFileEndpoint<File> {
     private FileOperations operations = new FileOperations(this);
     private File file;
     private boolean copyAndDeleteOnRenameFail = true;
+    private boolean indexDirectory;
+    private long reconcileInterval = 60000;
 
     public FileEndpoint() {
         // use marker file as default exclusive read locks
@@ -157,4 +159,30 @@ public class FileEndpoint extends GenericFileEndpoint<File> {
     public void setCopyAndDeleteOnRenameFail(boolean copyAndDeleteOnRenameFail) {
         this.copyAndDeleteOnRenameFail = copyAndDeleteOnRenameFail;
     }
+
+    public boolean isIndexDirectory() {
+        return indexDirectory;
+    }
+
+    /**
+     * Sets whether the consumer should keep an index of the directories, so a directory is only listed
+     * again when it has changed, and only new files are checked.
+     */
+    public void setIndexDirectory(boolean indexDirectory) {
+        this.indexDirectory = indexDirectory;
+    }
+
+    public long getReconcileInterval() {
+        return reconcileInterval;
+    }
+
+    /**
+     * Sets the interval in millis of the full polls which rebuild the directory index,
+     * when <tt>indexDirectory</tt> is enabled.
+     * <p/>
+     * Is by default 60000 millis.
+     */
+    public void setReconcileInterval(long reconcileInterval) {
+        this.reconcileInterval = reconcileInterval;
+    }
 }
@@ -17,7 +17,6 @@
 package org.apache.camel.component.file;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -152,6 +151,10 @@ public class FileOperations implements GenericFileOperations<File> {
         return true;
     }
 
+    public void releaseRetrievedFileResources(Exchange exchange) throws GenericFileOperationFailedException {
+        // noop as we used type converters to read the body content for java.io.File
+    }
+
     public boolean storeFile(String fileName, Exchange exchange) throws GenericFileOperationFailedException {
         ObjectHelper.notNull(endpoint, "endpoint");
 
@@ -245,18 +248,12 @@ public class FileOperations implements GenericFileOperations<File> {
     }
 
     private void writeFileByFile(File source, File target) throws IOException {
-        FileChannel in = new FileInputStream(source).getChannel();
         FileChannel out = null;
         try {
             out = prepareOutputFileChannel(target, out);
-            LOG.trace("Using FileChannel to transfer from: {} to: {}", in, out);
-            long size = in.size();
-            long position = 0;
-            while (position < size) {
-                position += in.transferTo(position, endpoint.getBufferSize(), out);
-            }
+            LOG.trace("Using FileChannel to transfer from: {} to: {}", source, out);
+            new FileRegion(source).transferTo(out, endpoint.getBufferSize());
         } finally {
-            IOHelper.close(in, source.getName(), LOG);
             IOHelper.close(out, target.getName(), LOG);
         }
     }
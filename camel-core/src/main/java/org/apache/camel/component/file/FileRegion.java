@@ -0,0 +1,165 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.file;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+import org.apache.camel.util.IOHelper;
+import org.apache.camel.util.ObjectHelper;
+
+/**
+ * A region of a file to be sent as a message body, which allows producers to transfer the content
+ * of the file to a channel using {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)},
+ * so the operating system can copy the content to the file or socket without copying it through the heap.
+ * <p/>
+ * Use the type converter to convert a {@link File} or a {@link GenericFile} body to a file region.
+ *
+ * @version 
+ */
+public final class FileRegion {
+
+    /**
+     * The default number of bytes to transfer at a time, as some platforms will not transfer
+     * large regions in one call.
+     */
+    public static final long DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+    private final File file;
+    private final long position;
+    private final long count;
+
+    /**
+     * Creates a region of the whole file.
+     *
+     * @param file the file
+     */
+    public FileRegion(File file) {
+        this(file, 0, file.length());
+    }
+
+    /**
+     * Creates a region of the file.
+     *
+     * @param file     the file
+     * @param position the position in the file to start from
+     * @param count    the number of bytes in the region
+     */
+    public FileRegion(File file, long position, long count) {
+        ObjectHelper.notNull(file, "file");
+        if (position < 0 || count < 0) {
+            throw new IllegalArgumentException("Position and count must not be negative, was: " + position + " and: " + count);
+        }
+        this.file = file;
+        this.position = position;
+        this.count = count;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Opens a channel to read the file, which the caller must close.
+     *
+     * @return the channel
+     * @throws IOException is thrown if the file could not be opened
+     */
+    public FileChannel openChannel() throws IOException {
+        return new FileInputStream(file).getChannel();
+    }
+
+    /**
+     * Transfers the region to the given channel.
+     *
+     * @param target the channel
+     * @return the number of bytes transferred
+     * @throws IOException is thrown if the region could not be transferred
+     */
+    public long transferTo(WritableByteChannel target) throws IOException {
+        return transferTo(target, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Transfers the region to the given channel, a chunk at a time.
+     *
+     * @param target    the channel
+     * @param chunkSize the maximum number of bytes to transfer at a time
+     * @return the number of bytes transferred
+     * @throws IOException is thrown if the region could not be transferred
+     */
+    public long transferTo(WritableByteChannel target, long chunkSize) throws IOException {
+        FileChannel in = openChannel();
+        try {
+            return transferTo(in, target, chunkSize);
+        } finally {
+            IOHelper.close(in);
+        }
+    }
+
+    /**
+     * Transfers the region to the given stream, using the channel of the stream if its a file stream.
+     *
+     * @param out the stream
+     * @return the number of bytes transferred
+     * @throws IOException is thrown if the region could not be transferred
+     */
+    public long transferTo(OutputStream out) throws IOException {
+        if (out instanceof FileOutputStream) {
+            return transferTo(((FileOutputStream) out).getChannel());
+        }
+        // the channel must not be closed as that would close the stream
+        WritableByteChannel target = Channels.newChannel(out);
+        long answer = transferTo(target);
+        out.flush();
+        return answer;
+    }
+
+    private long transferTo(FileChannel in, WritableByteChannel target, long chunkSize) throws IOException {
+        // the file may have been truncated since the region was created
+        long end = Math.min(position + count, in.size());
+        long current = position;
+        while (current < end) {
+            long transferred = in.transferTo(current, Math.min(chunkSize, end - current), target);
+            if (transferred <= 0) {
+                // the channel could not accept more bytes (non blocking channels) or the file was truncated
+                break;
+            }
+            current += transferred;
+        }
+        return current - position;
+    }
+
+    @Override
+    public String toString() {
+        return "FileRegion[" + file + ", position=" + position + ", count=" + count + "]";
+    }
+}
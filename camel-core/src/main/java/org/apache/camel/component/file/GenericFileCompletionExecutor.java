@@ -0,0 +1,177 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.file;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.camel.Exchange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the completion work of processed files, such as moving or deleting the files and adding them to
+ * the idempotent repository, in batches on a single thread, so the threads processing the files are
+ * not held up by the file operations.
+ * <p/>
+ * If ordered, the files of a poll are completed in the order of their {@link Exchange#BATCH_INDEX},
+ * so a file is not completed before all the files before it in the batch.
+ *
+ * @version 
+ */
+public class GenericFileCompletionExecutor {
+
+    private static final transient Logger LOG = LoggerFactory.getLogger(GenericFileCompletionExecutor.class);
+    private final ExecutorService executorService;
+    private final boolean ordered;
+    private final Queue<Completion> queue = new ConcurrentLinkedQueue<Completion>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final Runnable drainTask = new Runnable() {
+        public void run() {
+            drain();
+        }
+    };
+
+    public GenericFileCompletionExecutor(ExecutorService executorService, boolean ordered) {
+        this.executorService = executorService;
+        this.ordered = ordered;
+    }
+
+    /**
+     * Creates a new batch, for the files of a poll.
+     *
+     * @param size the number of files in the batch
+     * @return the batch
+     */
+    public Batch newBatch(int size) {
+        return new Batch(size);
+    }
+
+    /**
+     * Completes the given file in the background.
+     *
+     * @param onCompletion the completion of the file
+     * @param exchange the exchange of the file
+     * @param batch the batch of the file
+     * @param index the index of the file in the batch
+     */
+    public void complete(GenericFileOnCompletion<?> onCompletion, Exchange exchange, Batch batch, int index) {
+        submit(new Completion(onCompletion, exchange, batch, index));
+    }
+
+    /**
+     * Marks the given file as not to be completed, such as when it could not begin processing,
+     * so the files after it in the batch are not held up.
+     *
+     * @param batch the batch of the file
+     * @param index the index of the file in the batch
+     */
+    public void skip(Batch batch, int index) {
+        if (ordered) {
+            submit(new Completion(null, null, batch, index));
+        }
+    }
+
+    /**
+     * Gets the number of files waiting to be completed.
+     */
+    public int size() {
+        return queue.size();
+    }
+
+    private void submit(Completion completion) {
+        queue.offer(completion);
+        if (draining.compareAndSet(false, true)) {
+            try {
+                executorService.execute(drainTask);
+            } catch (RejectedExecutionException e) {
+                // the executor is shutting down so complete the files in this thread
+                drain();
+            }
+        }
+    }
+
+    private void drain() {
+        do {
+            Completion completion;
+            while ((completion = queue.poll()) != null) {
+                if (!ordered) {
+                    completion.run();
+                    continue;
+                }
+                // run the completion and any completions after it which are waiting for their turn
+                Batch batch = completion.batch;
+                batch.waiting.put(completion.index, completion);
+                Completion next;
+                while ((next = batch.waiting.remove(batch.next)) != null) {
+                    batch.next++;
+                    next.run();
+                }
+            }
+            draining.set(false);
+            // another completion may have been added after the queue was empty, but before we stopped draining
+        } while (!queue.isEmpty() && draining.compareAndSet(false, true));
+    }
+
+    /**
+     * The files of a poll, when completing in order.
+     */
+    public static final class Batch {
+        private final int size;
+        // only accessed by the draining thread
+        private final Map<Integer, Completion> waiting = new TreeMap<Integer, Completion>();
+        private int next;
+
+        private Batch(int size) {
+            this.size = size;
+        }
+
+        public int getSize() {
+            return size;
+        }
+    }
+
+    private static final class Completion {
+        private final GenericFileOnCompletion<?> onCompletion;
+        private final Exchange exchange;
+        private final Batch batch;
+        private final int index;
+
+        private Completion(GenericFileOnCompletion<?> onCompletion, Exchange exchange, Batch batch, int index) {
+            this.onCompletion = onCompletion;
+            this.exchange = exchange;
+            this.batch = batch;
+            this.index = index;
+        }
+
+        private void run() {
+            if (onCompletion == null) {
+                return;
+            }
+            try {
+                onCompletion.onCompletion(exchange);
+            } catch (Throwable e) {
+                LOG.warn("Error completing file using exchange: " + exchange + ". This exception will be ignored.", e);
+            }
+        }
+    }
+}
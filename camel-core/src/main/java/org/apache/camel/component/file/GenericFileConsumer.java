@@ -21,12 +21,16 @@ import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.camel.AsyncCallback;
 import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
 import org.apache.camel.ShutdownRunningTask;
+import org.apache.camel.ThreadPoolRejectedPolicy;
 import org.apache.camel.impl.ScheduledBatchPollingConsumer;
+import org.apache.camel.spi.ThreadPoolProfile;
 import org.apache.camel.util.CastUtils;
 import org.apache.camel.util.ObjectHelper;
 import org.apache.camel.util.StopWatch;
@@ -46,6 +50,11 @@ public abstract class GenericFileConsumer<T> extends ScheduledBatchPollingConsum
     protected volatile ShutdownRunningTask shutdownRunningTask;
     protected volatile int pendingExchanges;
     protected Processor customProcessor;
+    private ExecutorService workerPool;
+    private ExecutorService completionPool;
+    private GenericFileCompletionExecutor completionExecutor;
+    private GenericFileCompletionExecutor.Batch currentBatch;
+    private final AtomicInteger queuedExchanges = new AtomicInteger();
 
     public GenericFileConsumer(GenericFileEndpoint<T> endpoint, Processor processor, GenericFileOperations<T> operations) {
         super(endpoint, processor);
@@ -148,6 +157,10 @@ public abstract class GenericFileConsumer<T> extends ScheduledBatchPollingConsum
             total = maxMessagesPerPoll;
         }
 
+        if (completionExecutor != null) {
+            currentBatch = completionExecutor.newBatch(total);
+        }
+
         for (int index = 0; index < total && isBatchAllowed(); index++) {
             // only loop if we are started (allowed to run)
             // use poll to remove the head so it does not consume memory even after we have processed it
@@ -164,6 +177,7 @@ public abstract class GenericFileConsumer<T> extends ScheduledBatchPollingConsum
             if (customProcessor != null) {
                 // use a custom processor
                 customProcessExchange(exchange, customProcessor);
+                skipCompletion(exchange);
             } else {
                 // process the exchange regular
                 processExchange(exchange);
@@ -241,6 +255,16 @@ public abstract class GenericFileConsumer<T> extends ScheduledBatchPollingConsum
      * @param exchange the exchange
      */
     protected void processExchange(final Exchange exchange) {
+        processExchange(exchange, operations);
+    }
+
+    /**
+     * Processes the exchange using the given operations to retrieve and complete the file
+     *
+     * @param exchange the exchange
+     * @param fileOperations the operations
+     */
+    protected void processExchange(final Exchange exchange, final GenericFileOperations<T> fileOperations) {
         GenericFile<T> file = getExchangeFileProperty(exchange);
         log.trace("Processing file: {}", file);
 
@@ -252,11 +276,12 @@ public abstract class GenericFileConsumer<T> extends ScheduledBatchPollingConsum
         try {
             final GenericFileProcessStrategy<T> processStrategy = endpoint.getGenericFileProcessStrategy();
 
-            boolean begin = processStrategy.begin(operations, endpoint, exchange, file);
+            boolean begin = processStrategy.begin(fileOperations, endpoint, exchange, file);
             if (!begin) {
                 log.debug(endpoint + " cannot begin processing file: {}", file);
                 // begin returned false, so remove file from the in progress list as its no longer in progress
                 endpoint.getInProgressRepository().remove(absoluteFileName);
+                skipCompletion(exchange);
                 return;
             }
         } catch (Exception e) {
@@ -264,6 +289,7 @@ public abstract class GenericFileConsumer<T> extends ScheduledBatchPollingConsum
                 log.debug(endpoint + " cannot begin processing file: " + file + " due to: " + e.getMessage(), e);
             }
             endpoint.getInProgressRepository().remove(absoluteFileName);
+            skipCompletion(exchange);
             return;
         }
 
@@ -277,7 +303,7 @@ public abstract class GenericFileConsumer<T> extends ScheduledBatchPollingConsum
             log.trace("Retrieving file: {} from: {}", name, endpoint);
 
             // retrieve the file and check it was a success
-            boolean retrieved = operations.retrieveFile(name, exchange);
+            boolean retrieved = fileOperations.retrieveFile(name, exchange);
             if (!retrieved) {
                 // throw exception to handle the problem with retrieving the file
                 // then if the method return false or throws an exception is handled the same in here
@@ -289,21 +315,43 @@ public abstract class GenericFileConsumer<T> extends ScheduledBatchPollingConsum
 
             // register on completion callback that does the completion strategies
             // (for instance to move the file after we have processed it)
-            exchange.addOnCompletion(new GenericFileOnCompletion<T>(endpoint, operations, target, absoluteFileName));
+            GenericFileOnCompletion<T> onCompletion = new GenericFileOnCompletion<T>(endpoint, fileOperations, target, absoluteFileName);
+            if (completionExecutor != null) {
+                // let the completion executor do the completion strategies in the background
+                onCompletion.setCompletionExecutor(completionExecutor, currentBatch, getBatchIndex(exchange));
+            }
+            exchange.addOnCompletion(onCompletion);
 
             log.debug("About to process file: {} using exchange: {}", target, exchange);
 
             // process the exchange using the async consumer to support async routing engine
             // which can be supported by this file consumer as all the done work is
             // provided in the GenericFileOnCompletion
-            getAsyncProcessor().process(exchange, new AsyncCallback() {
+            final AsyncCallback callback = new AsyncCallback() {
                 public void done(boolean doneSync) {
                     // noop
                     if (log.isTraceEnabled()) {
                         log.trace("Done processing file: {} {}", target, doneSync ? "synchronously" : "asynchronously");
                     }
                 }
-            });
+            };
+
+            if (workerPool != null) {
+                // hand over the exchange to the worker pool so we can continue with the next file,
+                // and the pool will run the tasks in this thread if its busy
+                queuedExchanges.incrementAndGet();
+                workerPool.execute(new Runnable() {
+                    public void run() {
+                        try {
+                            getAsyncProcessor().process(exchange, callback);
+                        } finally {
+                            queuedExchanges.decrementAndGet();
+                        }
+                    }
+                });
+            } else {
+                getAsyncProcessor().process(exchange, callback);
+            }
 
         } catch (Exception e) {
             // remove file from the in progress list due to failure
@@ -311,10 +359,28 @@ public abstract class GenericFileConsumer<T> extends ScheduledBatchPollingConsum
             // from in progress when it takes over and processes the file, which may happen
             // by another thread at a later time. So its only safe to remove it if there was an exception)
             endpoint.getInProgressRepository().remove(absoluteFileName);
+            skipCompletion(exchange);
             handleException(e);
         }
     }
 
+    /**
+     * Marks the file of the exchange as not to be completed by the completion executor,
+     * so it does not hold up completing the files after it in the batch.
+     *
+     * @param exchange the exchange
+     */
+    protected void skipCompletion(Exchange exchange) {
+        if (completionExecutor != null) {
+            completionExecutor.skip(currentBatch, getBatchIndex(exchange));
+        }
+    }
+
+    private static int getBatchIndex(Exchange exchange) {
+        Integer index = exchange.getProperty(Exchange.BATCH_INDEX, Integer.class);
+        return index != null ? index : 0;
+    }
+
     /**
      * Processes the exchange using a custom processor.
      *
@@ -498,5 +564,57 @@ public abstract class GenericFileConsumer<T> extends ScheduledBatchPollingConsum
 
         // prepare on startup
         endpoint.getGenericFileProcessStrategy().prepareOnStartup(operations, endpoint);
+
+        if (isUseWorkerPool()) {
+            // use a bounded pool where the polling thread will process the file itself if all workers are busy
+            ThreadPoolProfile profile = new ThreadPoolProfile("FileConsumerWorker");
+            profile.setPoolSize(endpoint.getConcurrentConsumers());
+            profile.setMaxPoolSize(endpoint.getConcurrentConsumers());
+            profile.setMaxQueueSize(endpoint.getConcurrentConsumers());
+            profile.setRejectedPolicy(ThreadPoolRejectedPolicy.CallerRuns);
+            workerPool = endpoint.getCamelContext().getExecutorServiceManager().newThreadPool(this, "FileConsumerWorker", profile);
+            completionPool = endpoint.getCamelContext().getExecutorServiceManager().newSingleThreadExecutor(this, "FileConsumerCompletion");
+            completionExecutor = new GenericFileCompletionExecutor(completionPool, endpoint.isOrderedCompletion());
+        }
+    }
+
+    /**
+     * Whether the polled files are processed by a pool of worker threads and completed in the background,
+     * when <tt>parallelProcessing</tt> is enabled.
+     * <p/>
+     * Consumers which cannot share their operations between threads can override this and process
+     * the files in parallel in their own way.
+     */
+    protected boolean isUseWorkerPool() {
+        return endpoint.isParallelProcessing();
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        super.doStop();
+
+        // shutdown the workers before the completion pool, as the workers complete the files
+        if (workerPool != null) {
+            endpoint.getCamelContext().getExecutorServiceManager().shutdown(workerPool);
+            workerPool = null;
+        }
+        if (completionPool != null) {
+            endpoint.getCamelContext().getExecutorServiceManager().shutdown(completionPool);
+            completionPool = null;
+        }
+        completionExecutor = null;
+        currentBatch = null;
+    }
+
+    @Override
+    public int getPendingExchangesSize() {
+        int answer = super.getPendingExchangesSize();
+        // files handed over to the workers or waiting to be completed are also pending
+        answer += queuedExchanges.get();
+        GenericFileCompletionExecutor executor = completionExecutor;
+        if (executor != null) {
+            answer += executor.size();
+        }
+        return answer;
     }
 }
@@ -63,6 +63,21 @@ public final class GenericFileConverter {
         return null;
     }
 
+    @Converter
+    public static FileRegion fileToFileRegion(File file) {
+        return new FileRegion(file);
+    }
+
+    @Converter
+    public static FileRegion genericFileToFileRegion(GenericFile<?> file, Exchange exchange) {
+        // only a local file can be transferred as a file region
+        if (file.getFile() instanceof java.io.File) {
+            return new FileRegion((File) file.getFile());
+        }
+        // otherwise there is no file region as the content is not in a local file
+        return null;
+    }
+
     @Converter
     public static InputStream genericFileToInputStream(GenericFile<?> file, Exchange exchange) throws IOException {
         if (exchange != null) {
@@ -92,9 +92,13 @@ public abstract class GenericFileEndpoint<T> extends ScheduledPollEndpoint imple
     protected String readLock = "none";
     protected long readLockCheckInterval = 1000;
     protected long readLockTimeout = 10000;
+    protected boolean readLockNonBlocking;
     protected GenericFileExclusiveReadLockStrategy<T> exclusiveReadLockStrategy;
     protected boolean keepLastModified;
     protected String doneFileName;
+    protected boolean parallelProcessing;
+    protected int concurrentConsumers = 10;
+    protected boolean orderedCompletion;
 
     public GenericFileEndpoint() {
     }
@@ -508,6 +512,18 @@ public abstract class GenericFileEndpoint<T> extends ScheduledPollEndpoint imple
         this.readLockTimeout = readLockTimeout;
     }
 
+    public boolean isReadLockNonBlocking() {
+        return readLockNonBlocking;
+    }
+
+    /**
+     * Sets whether the <tt>changed</tt> read lock checks a file once per poll and grants the read lock
+     * on a later poll, instead of waiting on the consumer thread until the file is no longer being changed.
+     */
+    public void setReadLockNonBlocking(boolean readLockNonBlocking) {
+        this.readLockNonBlocking = readLockNonBlocking;
+    }
+
     public int getBufferSize() {
         return bufferSize;
     }
@@ -592,6 +608,41 @@ public abstract class GenericFileEndpoint<T> extends ScheduledPollEndpoint imple
         this.minDepth = minDepth;
     }
 
+    public boolean isParallelProcessing() {
+        return parallelProcessing;
+    }
+
+    /**
+     * Sets whether the polled files are processed by a pool of worker threads, so the next poll can
+     * overlap with the processing, and the files are completed in the background.
+     */
+    public void setParallelProcessing(boolean parallelProcessing) {
+        this.parallelProcessing = parallelProcessing;
+    }
+
+    public int getConcurrentConsumers() {
+        return concurrentConsumers;
+    }
+
+    /**
+     * Sets the number of worker threads processing files, when <tt>parallelProcessing</tt> is enabled.
+     */
+    public void setConcurrentConsumers(int concurrentConsumers) {
+        this.concurrentConsumers = concurrentConsumers;
+    }
+
+    public boolean isOrderedCompletion() {
+        return orderedCompletion;
+    }
+
+    /**
+     * Sets whether the files of a poll are completed in the order of their batch index,
+     * when <tt>parallelProcessing</tt> is enabled.
+     */
+    public void setOrderedCompletion(boolean orderedCompletion) {
+        this.orderedCompletion = orderedCompletion;
+    }
+
     public IdempotentRepository<String> getInProgressRepository() {
         return inProgressRepository;
     }
@@ -707,6 +758,7 @@ public abstract class GenericFileEndpoint<T> extends ScheduledPollEndpoint imple
         if (readLockTimeout > 0) {
             params.put("readLockTimeout", readLockTimeout);
         }
+        params.put("readLockNonBlocking", readLockNonBlocking);
 
         return params;
     }
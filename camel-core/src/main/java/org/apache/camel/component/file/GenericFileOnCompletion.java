@@ -40,6 +40,9 @@ public class GenericFileOnCompletion<T> implements Synchronization {
     private ExceptionHandler exceptionHandler;
     private GenericFile<T> file;
     private String absoluteFileName;
+    private GenericFileCompletionExecutor completionExecutor;
+    private GenericFileCompletionExecutor.Batch batch;
+    private int index;
 
     public GenericFileOnCompletion(GenericFileEndpoint<T> endpoint, GenericFileOperations<T> operations,
                                    GenericFile<T> file, String absoluteFileName) {
@@ -50,11 +53,25 @@ public class GenericFileOnCompletion<T> implements Synchronization {
     }
 
     public void onComplete(Exchange exchange) {
-        onCompletion(exchange);
+        completeFile(exchange);
     }
 
     public void onFailure(Exchange exchange) {
-        onCompletion(exchange);
+        completeFile(exchange);
+    }
+
+    /**
+     * Runs the completion work in the background using the given executor, instead of in the thread
+     * completing the exchange.
+     *
+     * @param completionExecutor the executor
+     * @param batch the batch of the file
+     * @param index the index of the file in the batch
+     */
+    public void setCompletionExecutor(GenericFileCompletionExecutor completionExecutor, GenericFileCompletionExecutor.Batch batch, int index) {
+        this.completionExecutor = completionExecutor;
+        this.batch = batch;
+        this.index = index;
     }
 
     public ExceptionHandler getExceptionHandler() {
@@ -68,6 +85,14 @@ public class GenericFileOnCompletion<T> implements Synchronization {
         this.exceptionHandler = exceptionHandler;
     }
 
+    private void completeFile(Exchange exchange) {
+        if (completionExecutor != null) {
+            completionExecutor.complete(this, exchange, batch, index);
+        } else {
+            onCompletion(exchange);
+        }
+    }
+
     protected void onCompletion(Exchange exchange) {
         GenericFileProcessStrategy<T> processStrategy = endpoint.getGenericFileProcessStrategy();
 
@@ -76,6 +101,9 @@ public class GenericFileOnCompletion<T> implements Synchronization {
         // commit or rollback
         boolean committed = false;
         try {
+            // release the retrieved file first, as a remote file being streamed holds up the connection
+            operations.releaseRetrievedFileResources(exchange);
+
             boolean failed = exchange.isFailed();
             if (!failed) {
                 // commit the file strategy if there was no failure or already handled by the DeadLetterChannel
@@ -78,6 +78,15 @@ public interface GenericFileOperations<T> {
      */
     boolean retrieveFile(String name, Exchange exchange) throws GenericFileOperationFailedException;
 
+    /**
+     * Releases any resources held for the retrieved file, such as an open stream to the remote file
+     * when the content is streamed into the message body.
+     *
+     * @param exchange the exchange of the retrieved file
+     * @throws GenericFileOperationFailedException can be thrown
+     */
+    void releaseRetrievedFileResources(Exchange exchange) throws GenericFileOperationFailedException;
+
     /**
      * Stores the content as a new remote file (upload)
      *
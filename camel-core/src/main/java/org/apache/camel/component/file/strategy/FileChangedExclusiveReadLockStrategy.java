@@ -18,6 +18,7 @@ package org.apache.camel.component.file.strategy;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.Callable;
 
 import org.apache.camel.Exchange;
 import org.apache.camel.component.file.GenericFile;
@@ -30,18 +31,27 @@ import org.slf4j.LoggerFactory;
 /**
  * Acquires exclusive read lock to the given file by checking whether the file is being
  * changed by scanning the file at different intervals (to detect changes).
+ * <p/>
+ * If non blocking, the file is checked once per poll instead of waiting for it, and the read lock is
+ * granted on a later poll when the file has not changed for at least the check interval.
  */
 public class FileChangedExclusiveReadLockStrategy extends MarkerFileExclusiveReadLockStrategy {
     private static final transient Logger LOG = LoggerFactory.getLogger(FileChangedExclusiveReadLockStrategy.class);
     private long timeout;
     private long checkInterval = 1000;
+    private boolean nonBlocking;
+    private final GenericFileChangedCandidates candidates = new GenericFileChangedCandidates();
 
     @Override
     public void prepareOnStartup(GenericFileOperations<File> operations, GenericFileEndpoint<File> endpoint) {
-        // noop
+        candidates.clear();
     }
 
     public boolean acquireExclusiveReadLock(GenericFileOperations<File> operations, GenericFile<File> file, Exchange exchange) throws Exception {
+        if (nonBlocking) {
+            return acquireExclusiveReadLockNonBlocking(operations, file, exchange);
+        }
+
         File target = new File(file.getAbsoluteFilePath());
         boolean exclusive = false;
 
@@ -104,6 +114,31 @@ public class FileChangedExclusiveReadLockStrategy extends MarkerFileExclusiveRea
         return exclusive;
     }
 
+    private boolean acquireExclusiveReadLockNonBlocking(GenericFileOperations<File> operations, GenericFile<File> file, Exchange exchange) throws Exception {
+        final File target = new File(file.getAbsoluteFilePath());
+        Callable<GenericFileChangedCandidates.FileStat> stat = new Callable<GenericFileChangedCandidates.FileStat>() {
+            public GenericFileChangedCandidates.FileStat call() throws Exception {
+                return new GenericFileChangedCandidates.FileStat(target.lastModified(), target.length());
+            }
+        };
+        if (!candidates.tryAcquire(file.getAbsoluteFilePath(), timeout, checkInterval, 0, stat)) {
+            return false;
+        }
+
+        try {
+            // let super handle the last part of acquiring the lock now the file is stable
+            return super.acquireExclusiveReadLock(operations, file, exchange);
+        } catch (IOException e) {
+            // must handle IOException as some apps on Windows etc. will still somehow hold a lock to a file
+            if (timeout == 0) {
+                // if not using timeout, then we cant retry, so rethrow
+                throw e;
+            }
+            LOG.debug("Cannot acquire read lock. Will try again on a later poll.", e);
+            return false;
+        }
+    }
+
     private boolean sleep() {
         LOG.trace("Exclusive read lock not granted. Sleeping for {} millis.", checkInterval);
         try {
@@ -131,4 +166,16 @@ public class FileChangedExclusiveReadLockStrategy extends MarkerFileExclusiveRea
         this.checkInterval = checkInterval;
     }
 
+    public boolean isNonBlocking() {
+        return nonBlocking;
+    }
+
+    /**
+     * Sets whether to check the file once per poll, instead of waiting on the consumer thread
+     * until the file is no longer being changed.
+     */
+    public void setNonBlocking(boolean nonBlocking) {
+        this.nonBlocking = nonBlocking;
+    }
+
 }
@@ -0,0 +1,230 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.file.strategy;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps track of files which are candidates to be consumed across polls, until their length and
+ * last modified timestamp is stable, so a read lock strategy can check whether a file is being changed
+ * without waiting for the file on the consumer thread.
+ * <p/>
+ * Files which are no longer polled, such as files which has been deleted, are forgotten after
+ * a poll where they were not seen.
+ */
+public class GenericFileChangedCandidates {
+    private static final transient Logger LOG = LoggerFactory.getLogger(GenericFileChangedCandidates.class);
+
+    private final Map<String, Candidate> candidates = new HashMap<String, Candidate>();
+    private long lastPurge;
+    private long previousPurge;
+
+    /**
+     * Tries to acquire the read lock to the file, which is granted when the file has not changed since
+     * it was checked on an earlier poll, at least the check interval ago.
+     * <p/>
+     * The file is only checked using the given stat callback when the check interval has elapsed, so the
+     * callback can use an expensive operation such as listing a remote directory.
+     *
+     * @param key           the absolute file name
+     * @param timeout       the timeout in millis after which the file is skipped, use 0 for no timeout
+     * @param checkInterval the check interval in millis
+     * @param minLength     the minimum length of the file before it is regarded as stable
+     * @param stat          callback which gets the current last modified timestamp and length of the file,
+     *                      or <tt>null</tt> if the file cannot be found
+     * @return <tt>true</tt> if the read lock is granted
+     * @throws Exception is thrown if the callback failed and no timeout is used, as we then cannot retry
+     */
+    public boolean tryAcquire(String key, long timeout, long checkInterval, long minLength, Callable<FileStat> stat) throws Exception {
+        if (isTimedOut(key, timeout)) {
+            LOG.warn("Cannot acquire read lock within {} millis. Will skip the file: {}", timeout, key);
+            return false;
+        }
+        if (!isCheckDue(key, checkInterval)) {
+            LOG.trace("Exclusive read lock not granted. File: {} was checked less than {} millis ago.", key, checkInterval);
+            return false;
+        }
+
+        FileStat current;
+        try {
+            current = stat.call();
+        } catch (Exception e) {
+            if (timeout == 0) {
+                // if not using timeout, then we cant retry, so rethrow
+                throw e;
+            }
+            LOG.debug("Cannot acquire read lock. Will try again on a later poll.", e);
+            return false;
+        }
+        if (current == null) {
+            current = new FileStat(0, 0);
+        }
+        LOG.trace("Last modified: {}, length: {}", current.getLastModified(), current.getLength());
+
+        if (isStable(key, current.getLastModified(), current.getLength(), minLength)) {
+            LOG.trace("Read lock acquired for file: {}", key);
+            return true;
+        }
+        LOG.trace("Exclusive read lock not granted. File: {} may still be changing, will check again on a later poll.", key);
+        return false;
+    }
+
+    /**
+     * Whether the file should be checked for changes, which is the case when the file is new,
+     * or the check interval has elapsed since the file was last checked.
+     *
+     * @param key           the absolute file name
+     * @param checkInterval the check interval in millis
+     * @return <tt>true</tt> if the file should be checked
+     */
+    private synchronized boolean isCheckDue(String key, long checkInterval) {
+        long now = System.currentTimeMillis();
+        purge(now, checkInterval);
+
+        Candidate candidate = candidates.get(key);
+        if (candidate == null) {
+            return true;
+        }
+        candidate.lastSeen = now;
+        return now - candidate.lastChecked >= checkInterval;
+    }
+
+    /**
+     * Whether the file has been tracked for longer than the timeout, in which case the file is forgotten,
+     * so its tracked again from the next poll.
+     *
+     * @param key     the absolute file name
+     * @param timeout the timeout in millis, use 0 for no timeout
+     * @return <tt>true</tt> if timed out
+     */
+    private synchronized boolean isTimedOut(String key, long timeout) {
+        Candidate candidate = candidates.get(key);
+        if (timeout <= 0 || candidate == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() - candidate.firstSeen > timeout) {
+            candidates.remove(key);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Whether the file is stable, which is when the file has the same length and last modified timestamp
+     * as when it was checked the last time, and is at least the minimum length. A stable file is no longer tracked,
+     * while a file which is too short is still tracked so it can time out.
+     *
+     * @param key          the absolute file name
+     * @param lastModified the current last modified timestamp of the file
+     * @param length       the current length of the file
+     * @param minLength    the minimum length of the file
+     * @return <tt>true</tt> if the file is stable
+     */
+    private synchronized boolean isStable(String key, long lastModified, long length, long minLength) {
+        long now = System.currentTimeMillis();
+        Candidate candidate = candidates.get(key);
+        if (candidate == null) {
+            candidate = new Candidate(now);
+            candidates.put(key, candidate);
+        } else if (candidate.lastModified == lastModified && candidate.length == length && length >= minLength) {
+            candidates.remove(key);
+            return true;
+        }
+
+        candidate.lastModified = lastModified;
+        candidate.length = length;
+        candidate.lastChecked = now;
+        candidate.lastSeen = now;
+        return false;
+    }
+
+    /**
+     * Stops tracking the file.
+     *
+     * @param key the absolute file name
+     */
+    public synchronized void remove(String key) {
+        candidates.remove(key);
+    }
+
+    /**
+     * Stops tracking all files.
+     */
+    public synchronized void clear() {
+        candidates.clear();
+    }
+
+    /**
+     * Gets the number of tracked files.
+     */
+    public synchronized int size() {
+        return candidates.size();
+    }
+
+    private void purge(long now, long interval) {
+        if (now - lastPurge < interval) {
+            return;
+        }
+        // forget the files which has not been seen since the purge before the last, as polls have run in between
+        for (Iterator<Candidate> it = candidates.values().iterator(); it.hasNext();) {
+            if (it.next().lastSeen < previousPurge) {
+                it.remove();
+            }
+        }
+        previousPurge = lastPurge;
+        lastPurge = now;
+    }
+
+    /**
+     * The last modified timestamp and length of a file at the time it was checked.
+     */
+    public static final class FileStat {
+        private final long lastModified;
+        private final long length;
+
+        public FileStat(long lastModified, long length) {
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public long getLength() {
+            return length;
+        }
+    }
+
+    private static final class Candidate {
+        private final long firstSeen;
+        private long lastChecked;
+        private long lastSeen;
+        private long lastModified;
+        private long length;
+
+        private Candidate(long firstSeen) {
+            this.firstSeen = firstSeen;
+        }
+    }
+}
@@ -0,0 +1,609 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.seda;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultExchange;
+import org.apache.camel.impl.DefaultExchangeHolder;
+import org.apache.camel.util.FileUtil;
+import org.apache.camel.util.IOHelper;
+import org.apache.camel.util.ObjectHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A persistent {@link BlockingQueue} for the SEDA and VM components, which survives restarts.
+ * <p/>
+ * Every exchange added to the queue is marshalled using {@link DefaultExchangeHolder} and appended to a log of
+ * memory mapped segment files, and when the exchange has been processed by a {@link SedaConsumer} an acknowledgement
+ * is appended to the log. When the queue is created it replays the log and adds the exchanges which was not
+ * acknowledged back to the queue. Segments are deleted when all the exchanges they hold have been acknowledged.
+ * <p/>
+ * As the log is memory mapped the data is safe when the JVM crashes, as soon as an exchange has been added.
+ * To also be safe when the operating system crashes the segment is forced to disk for every
+ * <tt>syncBatchSize</tt> records written, and when the queue is closed.
+ * <p/>
+ * Only the message bodies, headers and properties which are serializable are persisted, and the exchanges
+ * are replayed using the {@link org.apache.camel.ExchangePattern#InOnly} pattern.
+ * <p/>
+ * Use {@link #open(CamelContext, File, int, int, int)} to share the queue between all users of the same directory,
+ * in which case the log is only closed when all of them have closed the queue.
+ *
+ * @version 
+ */
+public class PersistentBlockingQueue extends AbstractQueue<Exchange> implements BlockingQueue<Exchange>, Closeable {
+    public static final int DEFAULT_SEGMENT_SIZE = 32 * 1024 * 1024;
+    public static final int DEFAULT_SYNC_BATCH_SIZE = 100;
+
+    private static final transient Logger LOG = LoggerFactory.getLogger(PersistentBlockingQueue.class);
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final byte END = 0;
+    private static final byte ADD = 1;
+    private static final byte ACK = 2;
+    private static final int ADD_HEADER_LENGTH = 1 + 8 + 4;
+    private static final int ACK_LENGTH = 1 + 8;
+    // the queues opened using the open method by their directory, so users of the same directory share the log
+    private static final Map<File, PersistentBlockingQueue> OPEN_QUEUES = new HashMap<File, PersistentBlockingQueue>();
+
+    private final CamelContext camelContext;
+    private final File directory;
+    private final int capacity;
+    private final int segmentSize;
+    private final int syncBatchSize;
+    private final BlockingQueue<Exchange> queue;
+    private final Map<Exchange, Long> sequences = new ConcurrentHashMap<Exchange, Long>();
+    private final LinkedList<Segment> segments = new LinkedList<Segment>();
+    private final Object lock = new Object();
+    private Segment current;
+    private long nextSequence;
+    private int unsynced;
+    private volatile boolean closed;
+    // guarded by OPEN_QUEUES
+    private int references = 1;
+
+    /**
+     * A segment file of the log
+     */
+    private static final class Segment {
+        private final long index;
+        private final File file;
+        private FileChannel channel;
+        private MappedByteBuffer buffer;
+        private long firstSequence;
+        private int pending;
+
+        private Segment(long index, File file) {
+            this.index = index;
+            this.file = file;
+        }
+
+        private void close() {
+            if (buffer != null) {
+                buffer.force();
+                // release the mapping now, as it otherwise keeps the file open until garbage collected
+                IOHelper.unmap(buffer);
+                buffer = null;
+            }
+            IOHelper.close(channel, file.getName(), LOG);
+            channel = null;
+        }
+    }
+
+    public PersistentBlockingQueue(CamelContext camelContext, File directory, int capacity) throws IOException {
+        this(camelContext, directory, capacity, DEFAULT_SEGMENT_SIZE, DEFAULT_SYNC_BATCH_SIZE);
+    }
+
+    /**
+     * Creates the queue, and replays the exchanges from the log in the given directory (if any).
+     *
+     * @param camelContext  the camel context used for creating the replayed exchanges
+     * @param directory     the directory for the segment files of this queue
+     * @param capacity      the capacity of the queue, use 0 or negative for unbounded
+     * @param segmentSize   the size in bytes of each segment file
+     * @param syncBatchSize the number of records to write before forcing the segment to disk
+     * @throws IOException is thrown if the log could not be replayed
+     */
+    public PersistentBlockingQueue(CamelContext camelContext, File directory, int capacity, int segmentSize,
+                                   int syncBatchSize) throws IOException {
+        ObjectHelper.notNull(camelContext, "camelContext");
+        ObjectHelper.notNull(directory, "directory");
+        if (segmentSize <= ADD_HEADER_LENGTH) {
+            throw new IllegalArgumentException("SegmentSize must be larger than " + ADD_HEADER_LENGTH + ", was " + segmentSize);
+        }
+        this.camelContext = camelContext;
+        this.directory = directory;
+        this.capacity = capacity;
+        this.segmentSize = segmentSize;
+        this.syncBatchSize = Math.max(1, syncBatchSize);
+
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Cannot create directory " + directory);
+        }
+        List<Exchange> replayed = replay();
+        if (capacity > 0 && replayed.size() > capacity) {
+            LOG.warn("Replayed {} exchanges which is more than the capacity {} of the queue at {}",
+                    new Object[]{replayed.size(), capacity, directory});
+            capacity = replayed.size();
+        }
+        this.queue = capacity > 0 ? new LinkedBlockingQueue<Exchange>(capacity) : new LinkedBlockingQueue<Exchange>();
+        queue.addAll(replayed);
+    }
+
+    /**
+     * Opens the queue in the given directory, or returns the queue which is already open in the directory.
+     * <p/>
+     * The log is closed when the queue has been closed as many times as it has been opened.
+     *
+     * @param camelContext  the camel context used for creating the replayed exchanges
+     * @param directory     the directory for the segment files of this queue
+     * @param capacity      the capacity of the queue, use 0 or negative for unbounded
+     * @param segmentSize   the size in bytes of each segment file
+     * @param syncBatchSize the number of records to write before forcing the segment to disk
+     * @return the queue
+     * @throws IOException is thrown if the log could not be replayed
+     */
+    public static PersistentBlockingQueue open(CamelContext camelContext, File directory, int capacity, int segmentSize,
+                                               int syncBatchSize) throws IOException {
+        File key = directory.getAbsoluteFile();
+        synchronized (OPEN_QUEUES) {
+            PersistentBlockingQueue answer = OPEN_QUEUES.get(key);
+            if (answer != null) {
+                answer.references++;
+                return answer;
+            }
+            answer = new PersistentBlockingQueue(camelContext, directory, capacity, segmentSize, syncBatchSize);
+            OPEN_QUEUES.put(key, answer);
+            return answer;
+        }
+    }
+
+    /**
+     * Opens this queue again after it has been closed, which replays the exchanges from the log.
+     *
+     * @return the opened queue, which is a new instance if this queue has been closed
+     * @throws IOException is thrown if the log could not be replayed
+     * @see #open(CamelContext, File, int, int, int)
+     */
+    public PersistentBlockingQueue reopen() throws IOException {
+        return open(camelContext, directory, capacity, segmentSize, syncBatchSize);
+    }
+
+    /**
+     * Gets the directory of the segment files for the queue with the given uri.
+     *
+     * @param directory the base directory for persistent queues
+     * @param uri       the uri of the queue (without parameters)
+     * @return the directory
+     */
+    public static File queueDirectory(String directory, String uri) {
+        String name = uri.replaceFirst(":(//)?", "-").replaceAll("[^A-Za-z0-9._-]", "_");
+        return new File(directory, name);
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    public int getSyncBatchSize() {
+        return syncBatchSize;
+    }
+
+    /**
+     * Whether the queue has been closed, after which it can no longer be used
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Acknowledges the exchange has been processed, which removes it from the log.
+     *
+     * @param exchange the exchange which was taken from this queue
+     */
+    public void acknowledge(Exchange exchange) {
+        Long sequence = sequences.remove(exchange);
+        if (sequence != null) {
+            writeAck(sequence);
+        }
+    }
+
+    public boolean offer(Exchange exchange) {
+        if (queue.remainingCapacity() == 0) {
+            return false;
+        }
+        writeAdd(exchange);
+        if (queue.offer(exchange)) {
+            return true;
+        }
+        acknowledge(exchange);
+        return false;
+    }
+
+    public void put(Exchange exchange) throws InterruptedException {
+        writeAdd(exchange);
+        try {
+            queue.put(exchange);
+        } catch (InterruptedException e) {
+            acknowledge(exchange);
+            throw e;
+        }
+    }
+
+    public boolean offer(Exchange exchange, long timeout, TimeUnit unit) throws InterruptedException {
+        writeAdd(exchange);
+        boolean added = false;
+        try {
+            added = queue.offer(exchange, timeout, unit);
+        } finally {
+            if (!added) {
+                acknowledge(exchange);
+            }
+        }
+        return added;
+    }
+
+    public Exchange poll() {
+        return queue.poll();
+    }
+
+    public Exchange take() throws InterruptedException {
+        return queue.take();
+    }
+
+    public Exchange poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.poll(timeout, unit);
+    }
+
+    public Exchange peek() {
+        return queue.peek();
+    }
+
+    public int drainTo(Collection<? super Exchange> c) {
+        return queue.drainTo(c);
+    }
+
+    public int drainTo(Collection<? super Exchange> c, int maxElements) {
+        return queue.drainTo(c, maxElements);
+    }
+
+    public int remainingCapacity() {
+        return queue.remainingCapacity();
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (queue.remove(o)) {
+            acknowledge((Exchange) o);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void clear() {
+        List<Exchange> removed = new ArrayList<Exchange>();
+        queue.drainTo(removed);
+        for (Exchange exchange : removed) {
+            acknowledge(exchange);
+        }
+    }
+
+    @Override
+    public Iterator<Exchange> iterator() {
+        final Iterator<Exchange> it = queue.iterator();
+        return new Iterator<Exchange>() {
+            private Exchange last;
+
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            public Exchange next() {
+                last = it.next();
+                return last;
+            }
+
+            public void remove() {
+                it.remove();
+                acknowledge(last);
+            }
+        };
+    }
+
+    /**
+     * Closes the log, the exchanges still in the queue are replayed when the queue is created again.
+     * <p/>
+     * If the queue was opened using {@link #open(CamelContext, File, int, int, int)} the log is only closed
+     * when the queue has been closed as many times as it has been opened.
+     */
+    public void close() {
+        synchronized (OPEN_QUEUES) {
+            if (--references > 0) {
+                return;
+            }
+            File key = directory.getAbsoluteFile();
+            if (OPEN_QUEUES.get(key) == this) {
+                OPEN_QUEUES.remove(key);
+            }
+        }
+        synchronized (lock) {
+            if (!closed) {
+                closed = true;
+                if (current != null) {
+                    current.close();
+                }
+                LOG.debug("Closed persistent queue at {} with {} pending exchanges", directory, queue.size());
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PersistentBlockingQueue[" + directory + "]";
+    }
+
+    private void writeAdd(Exchange exchange) {
+        byte[] data = marshal(exchange);
+        synchronized (lock) {
+            ensureOpen();
+            ensureCapacity(ADD_HEADER_LENGTH + data.length);
+            long sequence = nextSequence++;
+            current.buffer.put(ADD).putLong(sequence).putInt(data.length).put(data);
+            current.pending++;
+            sequences.put(exchange, sequence);
+            afterWrite();
+        }
+    }
+
+    private void writeAck(long sequence) {
+        synchronized (lock) {
+            if (closed) {
+                // the exchange is replayed when the queue is created again
+                return;
+            }
+            // find the segment holding the exchange, which is the newest segment starting before the sequence
+            Iterator<Segment> it = segments.descendingIterator();
+            while (it.hasNext()) {
+                Segment segment = it.next();
+                if (segment.firstSequence <= sequence) {
+                    if (segment.pending > 0) {
+                        segment.pending--;
+                    }
+                    break;
+                }
+            }
+            ensureCapacity(ACK_LENGTH);
+            current.buffer.put(ACK).putLong(sequence);
+            afterWrite();
+            deleteAcknowledgedSegments();
+        }
+    }
+
+    private void afterWrite() {
+        if (++unsynced >= syncBatchSize) {
+            current.buffer.force();
+            unsynced = 0;
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Queue is closed: " + this);
+        }
+    }
+
+    private void ensureCapacity(int length) {
+        // keep room for an end marker so the replay knows where the segment ends
+        if (current == null || current.buffer.remaining() < length + 1) {
+            if (current != null) {
+                current.close();
+                unsynced = 0;
+            }
+            long index = current != null ? current.index + 1 : nextSegmentIndex();
+            current = openSegment(index, Math.max(segmentSize, length + 1));
+            current.firstSequence = nextSequence;
+            segments.add(current);
+        }
+    }
+
+    private long nextSegmentIndex() {
+        return segments.isEmpty() ? 0 : segments.getLast().index + 1;
+    }
+
+    private Segment openSegment(long index, int size) {
+        File file = new File(directory, SEGMENT_PREFIX + index + SEGMENT_SUFFIX);
+        Segment segment = new Segment(index, file);
+        try {
+            segment.channel = new RandomAccessFile(file, "rw").getChannel();
+            segment.buffer = segment.channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            segment.close();
+            throw ObjectHelper.wrapRuntimeCamelException(e);
+        }
+        LOG.trace("Opened segment {}", file);
+        return segment;
+    }
+
+    private void deleteAcknowledgedSegments() {
+        // delete in order, as a segment may hold acknowledgements for the older segments
+        while (segments.size() > 1 && segments.getFirst().pending == 0) {
+            Segment segment = segments.removeFirst();
+            segment.close();
+            LOG.trace("Deleting acknowledged segment {}", segment.file);
+            FileUtil.deleteFile(segment.file);
+        }
+    }
+
+    private List<Exchange> replay() throws IOException {
+        File[] files = directory.listFiles(new FileFilter() {
+            public boolean accept(File file) {
+                return file.isFile() && file.getName().startsWith(SEGMENT_PREFIX) && file.getName().endsWith(SEGMENT_SUFFIX);
+            }
+        });
+        Arrays.sort(files, new Comparator<File>() {
+            public int compare(File f1, File f2) {
+                return Long.valueOf(segmentIndex(f1)).compareTo(segmentIndex(f2));
+            }
+        });
+
+        Map<Long, byte[]> added = new LinkedHashMap<Long, byte[]>();
+        Map<Long, Segment> owners = new HashMap<Long, Segment>();
+        for (File file : files) {
+            Segment segment = new Segment(segmentIndex(file), file);
+            segments.add(segment);
+            readSegment(segment, added, owners);
+        }
+
+        List<Exchange> answer = new ArrayList<Exchange>(added.size());
+        for (Map.Entry<Long, byte[]> entry : added.entrySet()) {
+            Segment segment = owners.get(entry.getKey());
+            Exchange exchange = unmarshal(entry.getValue());
+            if (exchange != null) {
+                segment.pending++;
+                sequences.put(exchange, entry.getKey());
+                answer.add(exchange);
+            }
+        }
+        for (Segment segment : segments) {
+            segment.firstSequence = Long.MAX_VALUE;
+        }
+        for (Map.Entry<Long, Segment> entry : owners.entrySet()) {
+            Segment segment = entry.getValue();
+            segment.firstSequence = Math.min(segment.firstSequence, entry.getKey());
+        }
+
+        // the segments without any pending exchanges are no longer needed
+        while (!segments.isEmpty() && segments.getFirst().pending == 0) {
+            FileUtil.deleteFile(segments.removeFirst().file);
+        }
+        if (!answer.isEmpty()) {
+            LOG.info("Replayed {} exchanges from persistent queue at {}", answer.size(), directory);
+        }
+        return answer;
+    }
+
+    private void readSegment(Segment segment, Map<Long, byte[]> added, Map<Long, Segment> owners) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(segment.file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            try {
+                readRecords(segment, buffer, added, owners);
+            } finally {
+                IOHelper.unmap(buffer);
+            }
+        } finally {
+            IOHelper.close(raf, segment.file.getName(), LOG);
+        }
+    }
+
+    private void readRecords(Segment segment, MappedByteBuffer buffer, Map<Long, byte[]> added, Map<Long, Segment> owners) {
+        while (buffer.remaining() >= ACK_LENGTH) {
+            byte type = buffer.get();
+            if (type == ADD && buffer.remaining() >= ADD_HEADER_LENGTH - 1) {
+                long sequence = buffer.getLong();
+                int length = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    LOG.warn("Incomplete record in segment {}, the remainder of the segment is ignored", segment.file);
+                    break;
+                }
+                byte[] data = new byte[length];
+                buffer.get(data);
+                added.put(sequence, data);
+                owners.put(sequence, segment);
+                nextSequence = Math.max(nextSequence, sequence + 1);
+            } else if (type == ACK) {
+                long sequence = buffer.getLong();
+                added.remove(sequence);
+                owners.remove(sequence);
+            } else {
+                // end of the segment
+                break;
+            }
+        }
+    }
+
+    private static long segmentIndex(File file) {
+        String name = file.getName();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static byte[] marshal(Exchange exchange) {
+        DefaultExchangeHolder holder = DefaultExchangeHolder.marshal(exchange);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(256);
+        try {
+            ObjectOutputStream oos = new ObjectOutputStream(bos);
+            oos.writeObject(holder);
+            oos.close();
+        } catch (IOException e) {
+            throw ObjectHelper.wrapRuntimeCamelException(e);
+        }
+        return bos.toByteArray();
+    }
+
+    private Exchange unmarshal(byte[] data) {
+        try {
+            ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(data));
+            DefaultExchangeHolder holder = (DefaultExchangeHolder) ois.readObject();
+            Exchange exchange = new DefaultExchange(camelContext);
+            DefaultExchangeHolder.unmarshal(exchange, holder);
+            return exchange;
+        } catch (Exception e) {
+            LOG.warn("Cannot replay exchange from persistent queue at " + directory + " due " + e.getMessage() + ". This exchange is discarded.", e);
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,62 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.seda;
+
+import java.util.Comparator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+
+import org.apache.camel.util.ObjectHelper;
+
+/**
+ * Creates a {@link PriorityBlockingQueue} which orders the elements using the configured {@link Comparator}.
+ * <p/>
+ * The queue is always unbounded, the capacity is only used as the initial capacity.
+ *
+ * @version 
+ */
+public class PriorityBlockingQueueFactory<E> implements BlockingQueueFactory<E> {
+    private static final int DEFAULT_INITIAL_CAPACITY = 11;
+    private Comparator<E> comparator;
+
+    public PriorityBlockingQueueFactory() {
+    }
+
+    public PriorityBlockingQueueFactory(Comparator<E> comparator) {
+        this.comparator = comparator;
+    }
+
+    public Comparator<E> getComparator() {
+        return comparator;
+    }
+
+    /**
+     * Sets the comparator used to order the elements in the queue (mandatory)
+     */
+    public void setComparator(Comparator<E> comparator) {
+        this.comparator = comparator;
+    }
+
+    public BlockingQueue<E> create() {
+        return create(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public BlockingQueue<E> create(int capacity) {
+        ObjectHelper.notNull(comparator, "comparator", this);
+        return new PriorityBlockingQueue<E>(capacity, comparator);
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.seda;
+
+/**
+ * Policy for what the {@link SedaProducer} should do when the queue is full.
+ * <p/>
+ * If <tt>blockWhenFull</tt> is enabled then the policy is applied if the queue is still full
+ * when the <tt>offerTimeout</tt> has elapsed.
+ *
+ * @version 
+ */
+public enum QueueFullPolicy {
+
+    /**
+     * Fails the exchange with an {@link IllegalStateException}, which is the default.
+     */
+    Fail,
+
+    /**
+     * Processes the exchange with a consumer of the endpoint using the caller thread, which slows
+     * down the producer to the pace of the consumers. If there is no active consumer in the same
+     * {@link org.apache.camel.CamelContext} (eg a <tt>vm</tt> consumer in another context) then the exchange fails.
+     */
+    CallerRuns,
+
+    /**
+     * Sends the exchange to the configured <tt>overflowUri</tt> endpoint instead.
+     */
+    Overflow
+
+}
@@ -0,0 +1,51 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.seda;
+
+import java.util.concurrent.BlockingQueue;
+
+import org.apache.camel.util.concurrent.RingBufferBlockingQueue;
+
+/**
+ * Creates a bounded lock-free {@link RingBufferBlockingQueue}, which is suited for high throughput
+ * hand offs between many producers and concurrent consumers.
+ *
+ * @version 
+ */
+public class RingBufferBlockingQueueFactory<E> implements BlockingQueueFactory<E> {
+    private int defaultCapacity = 1024;
+
+    public int getDefaultCapacity() {
+        return defaultCapacity;
+    }
+
+    /**
+     * Sets the capacity to use when no size has been configured on the endpoint (default 1024).
+     * The capacity is rounded up to the nearest power of two.
+     */
+    public void setDefaultCapacity(int defaultCapacity) {
+        this.defaultCapacity = defaultCapacity;
+    }
+
+    public BlockingQueue<E> create() {
+        return create(defaultCapacity);
+    }
+
+    public BlockingQueue<E> create(int capacity) {
+        return new RingBufferBlockingQueue<E>(capacity);
+    }
+}
@@ -16,14 +16,16 @@
  */
 package org.apache.camel.component.seda;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
 
 import org.apache.camel.Endpoint;
 import org.apache.camel.Exchange;
 import org.apache.camel.impl.DefaultComponent;
+import org.apache.camel.util.ObjectHelper;
 
 /**
  * An implementation of the <a href="http://camel.apache.org/seda.html">SEDA components</a>
@@ -35,7 +37,13 @@ public class SedaComponent extends DefaultComponent {
     protected final int maxConcurrentConsumers = 500;
     protected int queueSize;
     protected int defaultConcurrentConsumers = 1;
+    protected BlockingQueueFactory<Exchange> defaultQueueFactory = new LinkedBlockingQueueFactory<Exchange>();
+    protected String persistentDirectory;
+    protected int segmentSize = PersistentBlockingQueue.DEFAULT_SEGMENT_SIZE;
+    protected int syncBatchSize = PersistentBlockingQueue.DEFAULT_SYNC_BATCH_SIZE;
     private final Map<String, BlockingQueue<Exchange>> queues = new HashMap<String, BlockingQueue<Exchange>>();
+    // the queue factories given using the queueFactory option when the queues were created
+    private final Map<String, BlockingQueueFactory<Exchange>> queueFactories = new HashMap<String, BlockingQueueFactory<Exchange>>();
     
     public void setQueueSize(int size) {
         queueSize = size;
@@ -53,28 +61,171 @@ public class SedaComponent extends DefaultComponent {
         return defaultConcurrentConsumers;
     }
 
+    public BlockingQueueFactory<Exchange> getDefaultQueueFactory() {
+        return defaultQueueFactory;
+    }
+
+    /**
+     * Sets the default factory used to create the queues, which can be overridden per endpoint
+     * using the <tt>queueFactory</tt> option.
+     */
+    public void setDefaultQueueFactory(BlockingQueueFactory<Exchange> defaultQueueFactory) {
+        this.defaultQueueFactory = defaultQueueFactory;
+    }
+
+    public String getPersistentDirectory() {
+        return persistentDirectory;
+    }
+
+    /**
+     * Sets the base directory for persistent queues, which can be overridden per endpoint
+     * using the <tt>persistentDirectory</tt> option.
+     */
+    public void setPersistentDirectory(String persistentDirectory) {
+        this.persistentDirectory = persistentDirectory;
+    }
+
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * Sets the size in bytes of the segment files of persistent queues (default 32mb)
+     */
+    public void setSegmentSize(int segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    public int getSyncBatchSize() {
+        return syncBatchSize;
+    }
+
+    /**
+     * Sets the number of records written to persistent queues before forcing them to disk (default 100)
+     */
+    public void setSyncBatchSize(int syncBatchSize) {
+        this.syncBatchSize = syncBatchSize;
+    }
+
     public synchronized BlockingQueue<Exchange> createQueue(String uri, Map<String, Object> parameters) {
         String key = getQueueKey(uri);
 
         if (queues.containsKey(key)) {
-            return queues.get(key);
+            BlockingQueue<Exchange> queue = queues.get(key);
+            validateQueueParameters(key, queue, parameters);
+            return queue;
+        }
+
+        BlockingQueue<Exchange> queue = doCreateQueue(key, parameters);
+        queues.put(key, queue);
+        return queue;
+    }
+
+    /**
+     * Creates a new queue using the <tt>size</tt>, <tt>queueFactory</tt>, <tt>persistent</tt>, <tt>persistentDirectory</tt>,
+     * <tt>segmentSize</tt> and <tt>syncBatchSize</tt> options
+     * from the given parameters, falling back to the defaults configured on this component.
+     *
+     * @param key        the key of the queue, which is the uri without parameters
+     * @param parameters the parameters
+     * @return the queue
+     */
+    @SuppressWarnings("unchecked")
+    protected BlockingQueue<Exchange> doCreateQueue(String key, Map<String, Object> parameters) {
+        BlockingQueueFactory<Exchange> factory = resolveAndRemoveReferenceParameter(parameters, "queueFactory", BlockingQueueFactory.class);
+        if (factory != null) {
+            getQueueFactories().put(key, factory);
         }
+        boolean persistent = getAndRemoveParameter(parameters, "persistent", Boolean.class, false);
+        String directory = getAndRemoveParameter(parameters, "persistentDirectory", String.class, getPersistentDirectory());
+        int segmentSize = getAndRemoveParameter(parameters, "segmentSize", Integer.class, getSegmentSize());
+        int syncBatchSize = getAndRemoveParameter(parameters, "syncBatchSize", Integer.class, getSyncBatchSize());
 
-        // create queue
-        BlockingQueue<Exchange> queue;
         Integer size = getAndRemoveParameter(parameters, "size", Integer.class);
-        if (size != null && size > 0) {
-            queue = new LinkedBlockingQueue<Exchange>(size);
+        if (size == null || size <= 0) {
+            size = getQueueSize();
+        }
+
+        if (persistent) {
+            if (factory != null) {
+                throw new IllegalArgumentException("Cannot use both queueFactory and persistent on " + key);
+            }
+            ObjectHelper.notEmpty(directory, "persistentDirectory", this);
+            try {
+                return PersistentBlockingQueue.open(getCamelContext(), PersistentBlockingQueue.queueDirectory(directory, key),
+                        size, segmentSize, syncBatchSize);
+            } catch (IOException e) {
+                throw ObjectHelper.wrapRuntimeCamelException(e);
+            }
+        }
+
+        if (factory == null) {
+            factory = getDefaultQueueFactory();
+        }
+        if (size > 0) {
+            return factory.create(size);
         } else {
-            if (getQueueSize() > 0) {
-                queue = new LinkedBlockingQueue<Exchange>(getQueueSize());
-            } else {
-                queue = new LinkedBlockingQueue<Exchange>();
+            return factory.create();
+        }
+    }
+
+    /**
+     * Validates the <tt>queueFactory</tt> and persistent options from the given parameters against
+     * an already created queue, as these options can only be used when the queue is created.
+     *
+     * @param key        the key of the queue, which is the uri without parameters
+     * @param queue      the existing queue
+     * @param parameters the parameters
+     * @throws IllegalArgumentException if the options does not match the existing queue
+     */
+    @SuppressWarnings("unchecked")
+    protected void validateQueueParameters(String key, BlockingQueue<Exchange> queue, Map<String, Object> parameters) {
+        boolean isPersistent = queue instanceof PersistentBlockingQueue;
+
+        Boolean persistent = getAndRemoveParameter(parameters, "persistent", Boolean.class);
+        if (persistent != null && persistent != isPersistent) {
+            throw new IllegalArgumentException("Cannot use persistent=" + persistent + " on " + key
+                    + " as the queue already exists and is " + (isPersistent ? "persistent" : "not persistent"));
+        }
+
+        String directory = getAndRemoveParameter(parameters, "persistentDirectory", String.class);
+        if (directory != null) {
+            if (!isPersistent) {
+                throw new IllegalArgumentException("Cannot use persistentDirectory on " + key + " as the queue already exists and is not persistent");
+            }
+            File existing = ((PersistentBlockingQueue) queue).getDirectory();
+            if (!PersistentBlockingQueue.queueDirectory(directory, key).getAbsoluteFile().equals(existing.getAbsoluteFile())) {
+                throw new IllegalArgumentException("Cannot use persistentDirectory=" + directory + " on " + key
+                        + " as the queue already exists in directory " + existing);
             }
         }
 
-        queues.put(key, queue);
-        return queue;
+        Integer segmentSize = getAndRemoveParameter(parameters, "segmentSize", Integer.class);
+        Integer syncBatchSize = getAndRemoveParameter(parameters, "syncBatchSize", Integer.class);
+        if (segmentSize != null || syncBatchSize != null) {
+            if (!isPersistent) {
+                throw new IllegalArgumentException("Cannot use segmentSize or syncBatchSize on " + key + " as the queue already exists and is not persistent");
+            }
+            PersistentBlockingQueue existing = (PersistentBlockingQueue) queue;
+            if ((segmentSize != null && segmentSize != existing.getSegmentSize())
+                    || (syncBatchSize != null && Math.max(1, syncBatchSize) != existing.getSyncBatchSize())) {
+                throw new IllegalArgumentException("Cannot use segmentSize=" + segmentSize + " and syncBatchSize=" + syncBatchSize + " on " + key
+                        + " as the queue already exists with segmentSize=" + existing.getSegmentSize() + " and syncBatchSize=" + existing.getSyncBatchSize());
+            }
+        }
+
+        BlockingQueueFactory<Exchange> factory = resolveAndRemoveReferenceParameter(parameters, "queueFactory", BlockingQueueFactory.class);
+        if (factory != null && (isPersistent || factory != getQueueFactories().get(key))) {
+            throw new IllegalArgumentException("Cannot use queueFactory on " + key + " as the queue already exists and was created using "
+                    + (isPersistent ? "persistent" : "another queue factory"));
+        }
+    }
+
+    /**
+     * Gets the queue factories given using the <tt>queueFactory</tt> option when the queues were created, by the queue key.
+     */
+    protected Map<String, BlockingQueueFactory<Exchange>> getQueueFactories() {
+        return queueFactories;
     }
 
     @Override
@@ -100,7 +251,14 @@ public class SedaComponent extends DefaultComponent {
 
     @Override
     protected void doStop() throws Exception {
+        for (BlockingQueue<Exchange> queue : queues.values()) {
+            if (queue instanceof PersistentBlockingQueue) {
+                // keep the pending exchanges so they are replayed on startup
+                ((PersistentBlockingQueue) queue).close();
+            }
+        }
         queues.clear();
+        queueFactories.clear();
         super.doStop();
     }
 }
@@ -16,6 +16,8 @@
  */
 package org.apache.camel.component.seda;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
@@ -47,6 +49,9 @@ import org.slf4j.LoggerFactory;
  * <p/>
  * In this implementation there is a little <i>slack period</i> when you suspend/stop the consumer, by which
  * the consumer may pickup a newly arrived messages and process it. That period is up till 1 second.
+ * <p/>
+ * If the endpoint has been configured with a <tt>pollBatchSize</tt> larger than 1, then each consumer thread
+ * drains up to that number of messages from the queue in one go, and processes them in order before polling again.
  *
  * @version 
  */
@@ -136,6 +141,8 @@ public class SedaConsumer extends ServiceSupport implements Consumer, Runnable,
 
     protected void doRun() {
         BlockingQueue<Exchange> queue = endpoint.getQueue();
+        int batchSize = endpoint.getPollBatchSize();
+        List<Exchange> batch = batchSize > 1 ? new ArrayList<Exchange>(batchSize - 1) : null;
         // loop while we are allowed, or if we are stopping loop until the queue is empty
         while (queue != null && (isRunAllowed())) {
 
@@ -161,28 +168,20 @@ public class SedaConsumer extends ServiceSupport implements Consumer, Runnable,
                 continue;
             }
 
-            Exchange exchange = null;
             try {
-                exchange = queue.poll(1000, TimeUnit.MILLISECONDS);
+                Exchange exchange = queue.poll(1000, TimeUnit.MILLISECONDS);
                 if (exchange != null) {
-                    try {
-                        // send a new copied exchange with new camel context
-                        Exchange newExchange = prepareExchange(exchange);
-                        // process the exchange
-                        sendToConsumers(newExchange);
-                        // copy the message back
-                        if (newExchange.hasOut()) {
-                            exchange.setOut(newExchange.getOut().copy());
-                        } else {
-                            exchange.setIn(newExchange.getIn());
-                        }
-                        // log exception if an exception occurred and was not handled
-                        if (newExchange.getException() != null) {
-                            exchange.setException(newExchange.getException());
-                            getExceptionHandler().handleException("Error processing exchange", exchange, exchange.getException());
+                    processExchange(exchange);
+                    onProcessed(queue, exchange);
+                    if (batchSize > 1) {
+                        // drain more exchanges which are ready so we do not need to poll for each of them
+                        batch.clear();
+                        queue.drainTo(batch, batchSize - 1);
+                        for (Exchange next : batch) {
+                            processExchange(next);
+                            onProcessed(queue, next);
                         }
-                    } catch (Exception e) {
-                        getExceptionHandler().handleException("Error processing exchange", exchange, e);
+                        batch.clear();
                     }
                 } else if (shutdownPending && queue.isEmpty()) {
                     LOG.trace("Shutdown is pending, so this consumer thread is breaking out because the task queue is empty.");
@@ -193,11 +192,7 @@ public class SedaConsumer extends ServiceSupport implements Consumer, Runnable,
                 LOG.debug("Sleep interrupted, are we stopping? {}", isStopping() || isStopped());
                 continue;
             } catch (Throwable e) {
-                if (exchange != null) {
-                    getExceptionHandler().handleException("Error processing exchange", exchange, e);
-                } else {
-                    getExceptionHandler().handleException(e);
-                }
+                getExceptionHandler().handleException(e);
             }
         }
 
@@ -205,6 +200,40 @@ public class SedaConsumer extends ServiceSupport implements Consumer, Runnable,
         LOG.debug("Ending this polling consumer thread, there are still {} consumer threads left.", latch.getCount());
     }
 
+    /**
+     * Processes the exchange taken from the queue and copies the result back to the exchange.
+     *
+     * @param exchange the exchange taken from the queue
+     */
+    protected void processExchange(Exchange exchange) {
+        try {
+            // send a new copied exchange with new camel context
+            Exchange newExchange = prepareExchange(exchange);
+            // process the exchange
+            sendToConsumers(newExchange);
+            // copy the message back
+            if (newExchange.hasOut()) {
+                exchange.setOut(newExchange.getOut().copy());
+            } else {
+                exchange.setIn(newExchange.getIn());
+            }
+            // log exception if an exception occurred and was not handled
+            if (newExchange.getException() != null) {
+                exchange.setException(newExchange.getException());
+                getExceptionHandler().handleException("Error processing exchange", exchange, exchange.getException());
+            }
+        } catch (Throwable e) {
+            getExceptionHandler().handleException("Error processing exchange", exchange, e);
+        }
+    }
+
+    private static void onProcessed(BlockingQueue<Exchange> queue, Exchange exchange) {
+        if (queue instanceof PersistentBlockingQueue) {
+            // the exchange is done so it should not be replayed
+            ((PersistentBlockingQueue) queue).acknowledge(exchange);
+        }
+    }
+
     /**
      * Strategy to prepare exchange for being processed by this consumer
      *
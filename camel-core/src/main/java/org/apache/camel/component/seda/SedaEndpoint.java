@@ -16,6 +16,7 @@
  */
 package org.apache.camel.component.seda;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -23,10 +24,11 @@ import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.camel.Component;
 import org.apache.camel.Consumer;
+import org.apache.camel.Endpoint;
 import org.apache.camel.Exchange;
 import org.apache.camel.MultipleConsumersSupport;
 import org.apache.camel.Processor;
@@ -38,6 +40,7 @@ import org.apache.camel.api.management.ManagedResource;
 import org.apache.camel.impl.DefaultEndpoint;
 import org.apache.camel.processor.MulticastProcessor;
 import org.apache.camel.spi.BrowsableEndpoint;
+import org.apache.camel.util.ObjectHelper;
 import org.apache.camel.util.ServiceHelper;
 
 /**
@@ -57,8 +60,23 @@ public class SedaEndpoint extends DefaultEndpoint implements BrowsableEndpoint,
     private final Set<SedaProducer> producers = new CopyOnWriteArraySet<SedaProducer>();
     private final Set<SedaConsumer> consumers = new CopyOnWriteArraySet<SedaConsumer>();
     private volatile MulticastProcessor consumerMulticastProcessor;
+    private volatile SedaConsumer callerRunsConsumer;
     private volatile boolean multicastStarted;
     private boolean blockWhenFull;
+    private int pollBatchSize = 1;
+    private BlockingQueueFactory<Exchange> queueFactory;
+    private long offerTimeout;
+    private QueueFullPolicy queueFullPolicy = QueueFullPolicy.Fail;
+    private String overflowUri;
+    private boolean persistent;
+    private String persistentDirectory;
+    private int segmentSize = PersistentBlockingQueue.DEFAULT_SEGMENT_SIZE;
+    private int syncBatchSize = PersistentBlockingQueue.DEFAULT_SYNC_BATCH_SIZE;
+    private boolean closeQueueOnStop;
+    private final AtomicLong queueFullCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong callerRunsCount = new AtomicLong();
+    private final AtomicLong overflowCount = new AtomicLong();
 
     public SedaEndpoint() {
     }
@@ -82,17 +100,52 @@ public class SedaEndpoint extends DefaultEndpoint implements BrowsableEndpoint,
         return new SedaConsumer(this, processor);
     }
 
+    /**
+     * Gets the queue, which is created if not already created. A persistent queue which has been closed,
+     * such as when the component has been stopped, is opened again.
+     */
     public synchronized BlockingQueue<Exchange> getQueue() {
-        if (queue == null) {
+        if (queue instanceof PersistentBlockingQueue && ((PersistentBlockingQueue) queue).isClosed()) {
+            try {
+                queue = ((PersistentBlockingQueue) queue).reopen();
+                // we opened the queue so we should close it
+                closeQueueOnStop = true;
+            } catch (IOException e) {
+                throw ObjectHelper.wrapRuntimeCamelException(e);
+            }
+        } else if (queue == null && persistent) {
+            ObjectHelper.notEmpty(persistentDirectory, "persistentDirectory", this);
+            try {
+                queue = PersistentBlockingQueue.open(getCamelContext(),
+                        PersistentBlockingQueue.queueDirectory(persistentDirectory, getQueueKey()), size, segmentSize, syncBatchSize);
+                // we created the queue so we should close it
+                closeQueueOnStop = true;
+            } catch (IOException e) {
+                throw ObjectHelper.wrapRuntimeCamelException(e);
+            }
+        } else if (queue == null) {
+            BlockingQueueFactory<Exchange> factory = queueFactory;
+            if (factory == null) {
+                factory = new LinkedBlockingQueueFactory<Exchange>();
+            }
             if (size > 0) {
-                queue = new LinkedBlockingQueue<Exchange>(size);
+                queue = factory.create(size);
             } else {
-                queue = new LinkedBlockingQueue<Exchange>();
+                queue = factory.create();
             }
         }
         return queue;
     }
 
+    private String getQueueKey() {
+        if (getComponent() instanceof SedaComponent) {
+            return ((SedaComponent) getComponent()).getQueueKey(getEndpointUri());
+        }
+        // the queue is shared by the uri without parameters
+        String uri = getEndpointUri();
+        return uri.contains("?") ? uri.substring(0, uri.indexOf('?')) : uri;
+    }
+
     protected synchronized MulticastProcessor getConsumerMulticastProcessor() throws Exception {
         if (!multicastStarted && consumerMulticastProcessor != null) {
             // only start it on-demand to avoid starting it during stopping
@@ -160,6 +213,243 @@ public class SedaEndpoint extends DefaultEndpoint implements BrowsableEndpoint,
         return blockWhenFull;
     }
 
+    /**
+     * Sets the timeout in millis a producer blocks when the queue is full and <tt>blockWhenFull</tt> is enabled,
+     * before the {@link QueueFullPolicy} is applied. The default is 0, which means to block until there is room.
+     */
+    public void setOfferTimeout(long offerTimeout) {
+        this.offerTimeout = offerTimeout;
+    }
+
+    @ManagedAttribute(description = "Timeout in millis the caller blocks sending to a full queue")
+    public long getOfferTimeout() {
+        return offerTimeout;
+    }
+
+    /**
+     * Sets the policy to apply when the queue is full (after blocking if <tt>blockWhenFull</tt> is enabled).
+     */
+    public void setQueueFullPolicy(QueueFullPolicy queueFullPolicy) {
+        this.queueFullPolicy = queueFullPolicy;
+    }
+
+    @ManagedAttribute(description = "Policy when the queue is full")
+    public QueueFullPolicy getQueueFullPolicy() {
+        return queueFullPolicy;
+    }
+
+    /**
+     * Sets the uri of the endpoint to send exchanges to when the queue is full and
+     * the {@link QueueFullPolicy#Overflow} policy is used.
+     */
+    public void setOverflowUri(String overflowUri) {
+        this.overflowUri = overflowUri;
+    }
+
+    @ManagedAttribute(description = "Endpoint uri to send to when the queue is full")
+    public String getOverflowUri() {
+        return overflowUri;
+    }
+
+    @ManagedAttribute(description = "Number of times a producer found the queue full")
+    public long getQueueFullCount() {
+        return queueFullCount.get();
+    }
+
+    @ManagedAttribute(description = "Number of exchanges failed because the queue was full")
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    @ManagedAttribute(description = "Number of exchanges processed by the caller thread because the queue was full")
+    public long getCallerRunsCount() {
+        return callerRunsCount.get();
+    }
+
+    @ManagedAttribute(description = "Number of exchanges sent to the overflow endpoint because the queue was full")
+    public long getOverflowCount() {
+        return overflowCount.get();
+    }
+
+    /**
+     * Resets the counters of how many times the queue was full
+     */
+    @ManagedOperation(description = "Resets the queue full statistics")
+    public void resetQueueFullStatistics() {
+        queueFullCount.set(0);
+        rejectedCount.set(0);
+        callerRunsCount.set(0);
+        overflowCount.set(0);
+    }
+
+    void onQueueFull() {
+        queueFullCount.incrementAndGet();
+    }
+
+    void onRejected() {
+        rejectedCount.incrementAndGet();
+    }
+
+    void onCallerRuns() {
+        callerRunsCount.incrementAndGet();
+    }
+
+    void onOverflow() {
+        overflowCount.incrementAndGet();
+    }
+
+    /**
+     * Gets a started consumer of the queue, to process an exchange using the caller thread when the queue is full.
+     * <p/>
+     * The consumer is kept, so the consumers are only looked up again when it is stopped or suspended.
+     *
+     * @return the consumer, or <tt>null</tt> if the queue has no started consumers
+     */
+    SedaConsumer getCallerRunsConsumer() {
+        SedaConsumer answer = callerRunsConsumer;
+        if (answer == null || !answer.isStarted() || answer.isSuspended()) {
+            answer = chooseCallerRunsConsumer(this);
+            if (answer == null) {
+                // the consumers may be on another endpoint using the same queue, eg with other uri options
+                BlockingQueue<Exchange> current = getQueue();
+                for (Endpoint other : getCamelContext().getEndpoints()) {
+                    if (other != this && other instanceof SedaEndpoint && ((SedaEndpoint) other).getQueue() == current) {
+                        answer = chooseCallerRunsConsumer((SedaEndpoint) other);
+                        if (answer != null) {
+                            break;
+                        }
+                    }
+                }
+            }
+            callerRunsConsumer = answer;
+        }
+        return answer;
+    }
+
+    private static SedaConsumer chooseCallerRunsConsumer(SedaEndpoint endpoint) {
+        for (SedaConsumer consumer : endpoint.consumers) {
+            if (consumer.isStarted() && !consumer.isSuspended()) {
+                return consumer;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Sets whether the queue should be persistent, which can only be configured before the queue is created.
+     *
+     * @throws IllegalStateException if the queue has already been created
+     */
+    public void setPersistent(boolean persistent) {
+        if (queue != null && persistent != isPersistent()) {
+            throw new IllegalStateException("Cannot change persistent on " + getEndpointUri() + " as the queue has already been created");
+        }
+        this.persistent = persistent;
+    }
+
+    /**
+     * Whether the queue is persistent, which is determined by the queue once it has been created.
+     */
+    @ManagedAttribute(description = "Whether the queue is persistent")
+    public boolean isPersistent() {
+        BlockingQueue<Exchange> answer = queue;
+        return answer != null ? answer instanceof PersistentBlockingQueue : persistent;
+    }
+
+    /**
+     * Sets the base directory for the persistent queue, which can only be configured before the queue is created.
+     *
+     * @throws IllegalStateException if the queue has already been created
+     */
+    public void setPersistentDirectory(String persistentDirectory) {
+        if (queue != null) {
+            throw new IllegalStateException("Cannot change persistentDirectory on " + getEndpointUri() + " as the queue has already been created");
+        }
+        this.persistentDirectory = persistentDirectory;
+    }
+
+    public String getPersistentDirectory() {
+        return persistentDirectory;
+    }
+
+    /**
+     * Gets the size in bytes of the segment files of the persistent queue.
+     */
+    public int getSegmentSize() {
+        BlockingQueue<Exchange> answer = queue;
+        return answer instanceof PersistentBlockingQueue ? ((PersistentBlockingQueue) answer).getSegmentSize() : segmentSize;
+    }
+
+    /**
+     * Sets the size in bytes of the segment files of the persistent queue (default 32mb),
+     * which can only be configured before the queue is created.
+     *
+     * @throws IllegalStateException if the queue has already been created
+     */
+    public void setSegmentSize(int segmentSize) {
+        if (queue != null) {
+            throw new IllegalStateException("Cannot change segmentSize on " + getEndpointUri() + " as the queue has already been created");
+        }
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Gets the number of records written to the persistent queue before forcing them to disk.
+     */
+    public int getSyncBatchSize() {
+        BlockingQueue<Exchange> answer = queue;
+        return answer instanceof PersistentBlockingQueue ? ((PersistentBlockingQueue) answer).getSyncBatchSize() : syncBatchSize;
+    }
+
+    /**
+     * Sets the number of records written to the persistent queue before forcing them to disk (default 100),
+     * which can only be configured before the queue is created.
+     *
+     * @throws IllegalStateException if the queue has already been created
+     */
+    public void setSyncBatchSize(int syncBatchSize) {
+        if (queue != null) {
+            throw new IllegalStateException("Cannot change syncBatchSize on " + getEndpointUri() + " as the queue has already been created");
+        }
+        this.syncBatchSize = syncBatchSize;
+    }
+
+    public BlockingQueueFactory<Exchange> getQueueFactory() {
+        return queueFactory;
+    }
+
+    /**
+     * Sets the factory used to create the queue, which can only be configured before the queue is created.
+     *
+     * @throws IllegalStateException if the queue has already been created
+     */
+    public void setQueueFactory(BlockingQueueFactory<Exchange> queueFactory) {
+        if (queue != null) {
+            throw new IllegalStateException("Cannot change queueFactory on " + getEndpointUri() + " as the queue has already been created");
+        }
+        this.queueFactory = queueFactory;
+    }
+
+    @ManagedAttribute(description = "Queue implementation")
+    public String getQueueType() {
+        return getQueue().getClass().getName();
+    }
+
+    /**
+     * Sets the maximum number of exchanges each consumer thread takes from the queue in one go.
+     * <p/>
+     * Exchanges are drained from the queue in batches which reduces the contention on the queue
+     * when there is a high throughput. The default is 1, which means one exchange at a time.
+     */
+    public void setPollBatchSize(int pollBatchSize) {
+        this.pollBatchSize = pollBatchSize;
+    }
+
+    @ManagedAttribute(description = "Maximum number of exchanges to take from the queue in one go")
+    public int getPollBatchSize() {
+        return pollBatchSize;
+    }
+
     public void setConcurrentConsumers(int concurrentConsumers) {
         this.concurrentConsumers = concurrentConsumers;
     }
@@ -234,6 +524,16 @@ public class SedaEndpoint extends DefaultEndpoint implements BrowsableEndpoint,
         return new HashSet<SedaProducer>(producers);
     }
 
+    @Override
+    protected void doStop() throws Exception {
+        if (closeQueueOnStop && queue instanceof PersistentBlockingQueue) {
+            // keep the closed queue, so its opened again if we are started again
+            ((PersistentBlockingQueue) queue).close();
+            closeQueueOnStop = false;
+        }
+        super.doStop();
+    }
+
     void onStarted(SedaProducer producer) {
         producers.add(producer);
     }
@@ -251,6 +551,9 @@ public class SedaEndpoint extends DefaultEndpoint implements BrowsableEndpoint,
 
     void onStopped(SedaConsumer consumer) throws Exception {
         consumers.remove(consumer);
+        if (callerRunsConsumer == consumer) {
+            callerRunsConsumer = null;
+        }
         if (isMultipleConsumers()) {
             updateMulticastProcessor();
         }
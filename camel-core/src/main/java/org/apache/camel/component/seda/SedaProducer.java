@@ -21,22 +21,29 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.camel.AsyncCallback;
+import org.apache.camel.CamelExchangeException;
 import org.apache.camel.Exchange;
 import org.apache.camel.ExchangeTimedOutException;
+import org.apache.camel.Producer;
 import org.apache.camel.WaitForTaskToComplete;
 import org.apache.camel.impl.DefaultAsyncProducer;
 import org.apache.camel.support.SynchronizationAdapter;
 import org.apache.camel.util.ExchangeHelper;
+import org.apache.camel.util.ObjectHelper;
+import org.apache.camel.util.ServiceHelper;
 
 /**
  * @version 
  */
 public class SedaProducer extends DefaultAsyncProducer {
-    protected final BlockingQueue<Exchange> queue;
+    protected volatile BlockingQueue<Exchange> queue;
     private final SedaEndpoint endpoint;
     private final WaitForTaskToComplete waitForTaskToComplete;
     private final long timeout;
     private final boolean blockWhenFull;
+    private final long offerTimeout;
+    private final QueueFullPolicy queueFullPolicy;
+    private Producer overflowProducer;
 
     /**
      * @deprecated use the other constructor
@@ -54,10 +61,18 @@ public class SedaProducer extends DefaultAsyncProducer {
         this.waitForTaskToComplete = waitForTaskToComplete;
         this.timeout = timeout;
         this.blockWhenFull = blockWhenFull;
+        this.offerTimeout = endpoint.getOfferTimeout();
+        this.queueFullPolicy = endpoint.getQueueFullPolicy() != null ? endpoint.getQueueFullPolicy() : QueueFullPolicy.Fail;
     }
 
     @Override
     public boolean process(final Exchange exchange, final AsyncCallback callback) {
+        BlockingQueue<Exchange> current = queue;
+        if (current instanceof PersistentBlockingQueue && ((PersistentBlockingQueue) current).isClosed()) {
+            // the persistent queue was closed when the component was stopped, so get the queue opened again
+            queue = endpoint.getQueue();
+        }
+
         // use a new copy of the exchange to route async and handover the on completion to the new copy
         // so its the new copy that performs the on completion callback when its done
         Exchange copy = ExchangeHelper.createCorrelatedCopy(exchange, true);
@@ -112,7 +127,11 @@ public class SedaProducer extends DefaultAsyncProducer {
             });
 
             log.trace("Adding Exchange to queue: {}", copy);
-            addToQueue(copy);
+            if (!addToQueue(exchange, copy)) {
+                // the exchange was routed to the overflow endpoint so there is nothing to wait for
+                callback.done(true);
+                return true;
+            }
 
             if (timeout > 0) {
                 if (log.isTraceEnabled()) {
@@ -146,7 +165,7 @@ public class SedaProducer extends DefaultAsyncProducer {
         } else {
             // no wait, eg its a InOnly then just add to queue and return
             log.trace("Adding Exchange to queue: {}", copy);
-            addToQueue(copy);
+            addToQueue(exchange, copy);
         }
 
         // we use OnCompletion on the Exchange to callback and wait for the Exchange to be done
@@ -158,34 +177,82 @@ public class SedaProducer extends DefaultAsyncProducer {
     @Override
     protected void doStart() throws Exception {
         super.doStart();
+        if (queueFullPolicy == QueueFullPolicy.Overflow) {
+            ObjectHelper.notEmpty(endpoint.getOverflowUri(), "overflowUri", endpoint);
+            overflowProducer = endpoint.getCamelContext().getEndpoint(endpoint.getOverflowUri()).createProducer();
+            ServiceHelper.startService(overflowProducer);
+        }
         endpoint.onStarted(this);
     }
 
     @Override
     protected void doStop() throws Exception {
         endpoint.onStopped(this);
+        ServiceHelper.stopService(overflowProducer);
+        overflowProducer = null;
         super.doStop();
     }
 
     /**
      * Strategy method for adding the exchange to the queue.
      * <p>
-     * Will perform a blocking "put" if blockWhenFull is true, otherwise it will
-     * simply add which will throw exception if the queue is full
-     * 
-     * @param exchange the exchange to add to the queue
+     * Will perform a blocking "put" if blockWhenFull is true (or "offer" with the offerTimeout if configured),
+     * otherwise it will simply offer the exchange. If the queue is full then the {@link QueueFullPolicy} is applied.
+     *
+     * @param exchange the original exchange
+     * @param copy     the copy of the exchange to add to the queue
+     * @return <tt>true</tt> if the copy was added to the queue or processed using the caller thread,
+     *         <tt>false</tt> if the original exchange was sent to the overflow endpoint instead, or failed
+     *         because the thread was interrupted while waiting for room in the queue
+     * @throws IllegalStateException if the queue is full and the exchange could not be handled by the policy
      */
-    protected void addToQueue(Exchange exchange) {
+    protected boolean addToQueue(Exchange exchange, Exchange copy) {
+        if (queue.offer(copy)) {
+            return true;
+        }
+        endpoint.onQueueFull();
+
         if (blockWhenFull) {
             try {
-                queue.put(exchange);
+                if (offerTimeout <= 0) {
+                    queue.put(copy);
+                    return true;
+                } else if (queue.offer(copy, offerTimeout, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
             } catch (InterruptedException e) {
-                // ignore
                 log.debug("Put interrupted, are we stopping? {}", isStopping() || isStopped());
+                // keep the interrupt so the caller can react on it, and fail the exchange as it was not added
+                Thread.currentThread().interrupt();
+                copy.handoverCompletions(exchange);
+                exchange.setException(new CamelExchangeException("Interrupted while waiting to add to the queue", exchange, e));
+                return false;
             }
-        } else {
-            queue.add(exchange);
         }
+
+        if (queueFullPolicy == QueueFullPolicy.CallerRuns) {
+            SedaConsumer consumer = endpoint.getCallerRunsConsumer();
+            if (consumer != null) {
+                log.trace("Queue full so processing Exchange using caller thread: {}", copy);
+                endpoint.onCallerRuns();
+                consumer.processExchange(copy);
+                return true;
+            }
+        } else if (queueFullPolicy == QueueFullPolicy.Overflow && overflowProducer != null) {
+            log.trace("Queue full so sending Exchange to overflow endpoint: {}", endpoint.getOverflowUri());
+            endpoint.onOverflow();
+            // the copy will not be routed so give the on completions back to the original exchange
+            copy.handoverCompletions(exchange);
+            try {
+                overflowProducer.process(exchange);
+            } catch (Exception e) {
+                exchange.setException(e);
+            }
+            return false;
+        }
+
+        endpoint.onRejected();
+        throw new IllegalStateException("Queue full");
     }
 
 }
@@ -19,10 +19,11 @@ package org.apache.camel.component.vm;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.camel.Exchange;
+import org.apache.camel.component.seda.BlockingQueueFactory;
+import org.apache.camel.component.seda.PersistentBlockingQueue;
 import org.apache.camel.component.seda.SedaComponent;
 
 /**
@@ -35,6 +36,7 @@ import org.apache.camel.component.seda.SedaComponent;
  */
 public class VmComponent extends SedaComponent {
     protected static final Map<String, BlockingQueue<Exchange>> QUEUES = new HashMap<String, BlockingQueue<Exchange>>();
+    protected static final Map<String, BlockingQueueFactory<Exchange>> QUEUE_FACTORIES = new HashMap<String, BlockingQueueFactory<Exchange>>();
     private static final AtomicInteger START_COUNTER = new AtomicInteger();
 
     @Override
@@ -42,26 +44,22 @@ public class VmComponent extends SedaComponent {
         String key = getQueueKey(uri);
 
         if (QUEUES.containsKey(key)) {
-            return QUEUES.get(key);
-        }
-
-        // create queue
-        BlockingQueue<Exchange> queue;
-        Integer size = getAndRemoveParameter(parameters, "size", Integer.class);
-        if (size != null && size > 0) {
-            queue = new LinkedBlockingQueue<Exchange>(size);
-        } else {
-            if (getQueueSize() > 0) {
-                queue = new LinkedBlockingQueue<Exchange>(getQueueSize());
-            } else {
-                queue = new LinkedBlockingQueue<Exchange>();
-            }
+            BlockingQueue<Exchange> queue = QUEUES.get(key);
+            validateQueueParameters(key, queue, parameters);
+            return queue;
         }
 
+        BlockingQueue<Exchange> queue = doCreateQueue(key, parameters);
         QUEUES.put(key, queue);
         return queue;
     }
 
+    @Override
+    protected Map<String, BlockingQueueFactory<Exchange>> getQueueFactories() {
+        // the queues are shared between contexts, and so are the factories they were created with
+        return QUEUE_FACTORIES;
+    }
+
     @Override
     protected void doStart() throws Exception {
         super.doStart();
@@ -74,9 +72,15 @@ public class VmComponent extends SedaComponent {
         if (START_COUNTER.decrementAndGet() == 0) {
             synchronized (QUEUES) {
                 for (BlockingQueue<Exchange> q : QUEUES.values()) {
-                    q.clear();
+                    if (q instanceof PersistentBlockingQueue) {
+                        // keep the pending exchanges so they are replayed on startup
+                        ((PersistentBlockingQueue) q).close();
+                    } else {
+                        q.clear();
+                    }
                 }
                 QUEUES.clear();
+                QUEUE_FACTORIES.clear();
             }
         }
     }
@@ -0,0 +1,125 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.converter.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import org.apache.camel.StreamCache;
+import org.apache.camel.util.IOHelper;
+
+/**
+ * A {@link StreamCache} which reads a number of {@link ByteBuffer}s one after the other, such as chunks
+ * of direct memory or a memory mapped file. The buffers are read from their position to their limit.
+ * <p/>
+ * The owner of the buffers releases the cache before the buffers are reused, and the cache can then no longer be read.
+ */
+public class ByteBufferInputStreamCache extends InputStream implements StreamCache {
+    private ByteBuffer[] buffers;
+    private int current;
+
+    public ByteBufferInputStreamCache(ByteBuffer... buffers) {
+        this.buffers = new ByteBuffer[buffers.length];
+        for (int i = 0; i < buffers.length; i++) {
+            // use a view so reading does not affect the given buffers, and mark the start for reset
+            this.buffers[i] = buffers[i].slice();
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        ByteBuffer buffer = nextBuffer();
+        return buffer != null ? buffer.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        ByteBuffer buffer = nextBuffer();
+        if (buffer == null) {
+            return -1;
+        }
+        int count = Math.min(len, buffer.remaining());
+        buffer.get(b, off, count);
+        return count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n) {
+            ByteBuffer buffer = nextBuffer();
+            if (buffer == null) {
+                break;
+            }
+            int count = (int) Math.min(n - skipped, buffer.remaining());
+            buffer.position(buffer.position() + count);
+            skipped += count;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        if (buffers == null) {
+            throw new IOException("Stream cache is released");
+        }
+        long answer = 0;
+        for (int i = current; i < buffers.length; i++) {
+            answer += buffers[i].remaining();
+        }
+        return (int) Math.min(answer, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void reset() {
+        if (buffers != null) {
+            for (ByteBuffer buffer : buffers) {
+                buffer.rewind();
+            }
+        }
+        current = 0;
+    }
+
+    public void writeTo(OutputStream os) throws IOException {
+        IOHelper.copy(this, os);
+    }
+
+    /**
+     * Releases the buffers, as they are going to be reused.
+     */
+    void release() {
+        buffers = null;
+    }
+
+    private ByteBuffer nextBuffer() throws IOException {
+        if (buffers == null) {
+            throw new IOException("Stream cache is released");
+        }
+        while (current < buffers.length) {
+            if (buffers[current].hasRemaining()) {
+                return buffers[current];
+            }
+            current++;
+        }
+        return null;
+    }
+}
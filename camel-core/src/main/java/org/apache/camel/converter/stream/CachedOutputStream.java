@@ -17,16 +17,19 @@
 package org.apache.camel.converter.stream;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.camel.Exchange;
 import org.apache.camel.StreamCache;
+import org.apache.camel.spi.StreamCacheSpool;
 import org.apache.camel.support.SynchronizationAdapter;
 import org.apache.camel.util.FileUtil;
 import org.apache.camel.util.IOHelper;
@@ -41,15 +44,29 @@ import org.slf4j.LoggerFactory;
  * You can get a cached input stream of this stream. The temp file which is created with this 
  * output stream will be deleted when you close this output stream or the all cached 
  * fileInputStream is closed after the exchange is completed.
+ * <p/>
+ * The content below the threshold is kept in memory chunks taken from the {@link StreamCacheSpool}
+ * of the {@link org.apache.camel.CamelContext}, which are returned to its pool when this output stream
+ * is closed. If the spool allows direct memory, the content above the threshold is kept in direct memory
+ * until the direct memory limit of the spool is reached, and only then spooled to disk.
  */
 public class CachedOutputStream extends OutputStream {
     public static final String THRESHOLD = "CamelCachedOutputStreamThreshold";
     public static final String TEMP_DIR = "CamelCachedOutputStreamOutputDirectory";
     private static final transient Logger LOG = LoggerFactory.getLogger(CachedOutputStream.class);
-    
-    private OutputStream currentStream = new ByteArrayOutputStream(2048);
+
+    private final StreamCacheSpool spool;
+    private final List<byte[]> chunks = new ArrayList<byte[]>();
+    private final List<ByteBuffer> directChunks = new ArrayList<ByteBuffer>();
+    private final List<ByteBufferInputStreamCache> directCaches = new ArrayList<ByteBufferInputStreamCache>();
+    private final byte[] single = new byte[1];
+    private int chunkPosition;
+    private long memoryLength;
+    private boolean direct;
+    private OutputStream fileStream;
     private boolean inMemory = true;
-    private int totalLength;
+    private long totalLength;
+    private long spooled;
     private File tempFile;
     private FileInputStreamCache fileInputStreamCache;
 
@@ -69,6 +86,7 @@ public class CachedOutputStream extends OutputStream {
         if (dir != null) {
             this.outputDir = exchange.getContext().getTypeConverter().convertTo(File.class, dir);
         }
+        this.spool = exchange.getContext().getStreamCacheSpool();
         
         if (closedOnCompletion) {
             // add on completion so we can cleanup after the exchange is done such as deleting temporary files
@@ -94,20 +112,20 @@ public class CachedOutputStream extends OutputStream {
     }
 
     public void flush() throws IOException {
-        currentStream.flush();       
+        if (fileStream != null) {
+            fileStream.flush();
+        }
     }
 
     public void close() throws IOException {
-        currentStream.close();
-        cleanUpTempFile();
-    }
-
-    public boolean equals(Object obj) {
-        return currentStream.equals(obj);
-    }
-
-    public int hashCode() {
-        return currentStream.hashCode();
+        try {
+            if (fileStream != null) {
+                fileStream.close();
+            }
+        } finally {
+            releaseMemory();
+            cleanUpTempFile();
+        }
     }
 
     public String toString() {
@@ -116,46 +134,39 @@ public class CachedOutputStream extends OutputStream {
 
     public void write(byte[] b, int off, int len) throws IOException {
         this.totalLength += len;
-        if (threshold > 0 && inMemory && totalLength > threshold && currentStream instanceof ByteArrayOutputStream) {
-            pageToFileStream();
+        if (threshold > 0 && inMemory && !direct && totalLength > threshold) {
+            // use direct memory, if the spool has any, before spooling to disk
+            direct = true;
+        }
+        if (!inMemory) {
+            writeToFile(b, off, len);
+        } else if (direct) {
+            writeToDirectMemory(b, off, len);
+        } else {
+            writeToMemory(b, off, len);
         }
-        currentStream.write(b, off, len);
     }
 
     public void write(byte[] b) throws IOException {
-        this.totalLength += b.length;
-        if (threshold > 0 && inMemory && totalLength > threshold && currentStream instanceof ByteArrayOutputStream) {
-            pageToFileStream();
-        }
-        currentStream.write(b);
+        write(b, 0, b.length);
     }
 
     public void write(int b) throws IOException {
-        this.totalLength++;
-        if (threshold > 0 && inMemory && totalLength > threshold && currentStream instanceof ByteArrayOutputStream) {
-            pageToFileStream();
-        }
-        currentStream.write(b);
+        single[0] = (byte) b;
+        write(single, 0, 1);
     }
 
     public InputStream getInputStream() throws IOException {
         flush();
 
         if (inMemory) {
-            if (currentStream instanceof ByteArrayOutputStream) {
-                return new ByteArrayInputStream(((ByteArrayOutputStream) currentStream).toByteArray());
+            if (directChunks.isEmpty()) {
+                return new ByteArrayInputStream(toByteArray());
             } else {
-                throw new IllegalStateException("CurrentStream should be an instance of ByteArrayOutputStream but is: " + currentStream.getClass().getName());
+                return createDirectCache();
             }
         } else {
-            try {
-                if (fileInputStreamCache == null) {
-                    fileInputStreamCache = new FileInputStreamCache(tempFile);
-                }
-                return fileInputStreamCache;
-            } catch (FileNotFoundException e) {
-                throw new IOException("Cached file " + tempFile + " not found", e);
-            }
+            return getFileInputStreamCache();
         }
     }    
     
@@ -169,49 +180,193 @@ public class CachedOutputStream extends OutputStream {
         flush();
 
         if (inMemory) {
-            if (currentStream instanceof ByteArrayOutputStream) {
-                return new InputStreamCache(((ByteArrayOutputStream) currentStream).toByteArray());
+            if (directChunks.isEmpty()) {
+                return new InputStreamCache(toByteArray());
             } else {
-                throw new IllegalStateException("CurrentStream should be an instance of ByteArrayOutputStream but is: " + currentStream.getClass().getName());
+                return createDirectCache();
             }
         } else {
-            try {
-                if (fileInputStreamCache == null) {
-                    fileInputStreamCache = new FileInputStreamCache(tempFile);
+            return getFileInputStreamCache();
+        }
+    }
+
+    private FileInputStreamCache getFileInputStreamCache() throws IOException {
+        try {
+            if (fileInputStreamCache == null) {
+                fileInputStreamCache = new FileInputStreamCache(tempFile, spool.isMappedReads());
+            }
+            return fileInputStreamCache;
+        } catch (FileNotFoundException e) {
+            throw new IOException("Cached file " + tempFile + " not found", e);
+        }
+    }
+
+    private void writeToMemory(byte[] b, int off, int len) {
+        while (len > 0) {
+            byte[] chunk = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+            if (chunk == null || chunkPosition == chunk.length) {
+                chunk = spool.acquireChunk();
+                chunks.add(chunk);
+                chunkPosition = 0;
+            }
+            int count = Math.min(len, chunk.length - chunkPosition);
+            System.arraycopy(b, off, chunk, chunkPosition, count);
+            chunkPosition += count;
+            memoryLength += count;
+            off += count;
+            len -= count;
+        }
+    }
+
+    private void writeToDirectMemory(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            ByteBuffer chunk = directChunks.isEmpty() ? null : directChunks.get(directChunks.size() - 1);
+            if (chunk == null || !chunk.hasRemaining()) {
+                chunk = spool.acquireDirectChunk();
+                if (chunk == null) {
+                    // no direct memory left so spool to disk instead
+                    pageToFileStream();
+                    writeToFile(b, off, len);
+                    return;
                 }
-                return fileInputStreamCache;
-            } catch (FileNotFoundException e) {
-                throw new IOException("Cached file " + tempFile + " not found", e);
+                directChunks.add(chunk);
             }
+            int count = Math.min(len, chunk.remaining());
+            chunk.put(b, off, count);
+            memoryLength += count;
+            off += count;
+            len -= count;
+        }
+    }
+
+    private void writeToFile(byte[] b, int off, int len) throws IOException {
+        if (fileStream == null) {
+            throw new IOException("Cannot write to stream cache file " + tempFile + " as it could not be created");
+        }
+        if (!spool.reserveSpool(len)) {
+            throw new IOException("Cannot spool stream cache to file " + tempFile + " as the spool quota is exceeded");
+        }
+        spooled += len;
+        fileStream.write(b, off, len);
+    }
+
+    private byte[] toByteArray() {
+        if (memoryLength > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Cannot cache " + memoryLength + " bytes in a byte array");
+        }
+        byte[] answer = new byte[(int) memoryLength];
+        int position = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            byte[] chunk = chunks.get(i);
+            int count = i < chunks.size() - 1 ? chunk.length : chunkPosition;
+            System.arraycopy(chunk, 0, answer, position, count);
+            position += count;
+        }
+        for (ByteBuffer chunk : directChunks) {
+            ByteBuffer content = chunk.duplicate();
+            content.flip();
+            int count = content.remaining();
+            content.get(answer, position, count);
+            position += count;
+        }
+        return answer;
+    }
+
+    private ByteBufferInputStreamCache createDirectCache() {
+        ByteBufferInputStreamCache answer = new ByteBufferInputStreamCache(toByteBuffers());
+        // keep the cache so it can be released before the direct chunks are returned to the pool
+        directCaches.add(answer);
+        return answer;
+    }
+
+    private ByteBuffer[] toByteBuffers() {
+        // the heap chunks are copied, but the direct chunks are shared until the caches are released
+        ByteBuffer[] answer = new ByteBuffer[directChunks.size() + 1];
+        int heapLength = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            heapLength += i < chunks.size() - 1 ? chunks.get(i).length : chunkPosition;
         }
+        byte[] heap = new byte[heapLength];
+        int position = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            byte[] chunk = chunks.get(i);
+            int count = i < chunks.size() - 1 ? chunk.length : chunkPosition;
+            System.arraycopy(chunk, 0, heap, position, count);
+            position += count;
+        }
+        answer[0] = ByteBuffer.wrap(heap);
+        for (int i = 0; i < directChunks.size(); i++) {
+            ByteBuffer content = directChunks.get(i).asReadOnlyBuffer();
+            content.flip();
+            answer[i + 1] = content;
+        }
+        return answer;
+    }
+
+    private void releaseMemory() {
+        for (byte[] chunk : chunks) {
+            spool.releaseChunk(chunk);
+        }
+        chunks.clear();
+        chunkPosition = 0;
+        for (ByteBufferInputStreamCache cache : directCaches) {
+            cache.release();
+        }
+        directCaches.clear();
+        for (ByteBuffer chunk : directChunks) {
+            spool.releaseDirectChunk(chunk);
+        }
+        directChunks.clear();
+        memoryLength = 0;
     }
 
     private void cleanUpTempFile() {
+        if (fileInputStreamCache != null) {
+            // unmap the file so its disk space is released when it is deleted
+            fileInputStreamCache.close();
+            fileInputStreamCache = null;
+        }
         // cleanup temporary file
         if (tempFile != null) {
             FileUtil.deleteFile(tempFile);
             tempFile = null;
         }
+        if (spooled > 0) {
+            spool.releaseSpool(spooled);
+            spooled = 0;
+        }
     }
 
     private void pageToFileStream() throws IOException {
-        flush();
-
-        ByteArrayOutputStream bout = (ByteArrayOutputStream)currentStream;
-        if (outputDir == null) {
-            tempFile = FileUtil.createTempFile("cos", ".tmp");
-        } else {
-            tempFile = FileUtil.createTempFile("cos", ".tmp", outputDir);
-        }
+        tempFile = spool.createSpoolFile(outputDir);
 
         LOG.trace("Creating temporary stream cache file: {}", tempFile);
 
         try {
-            currentStream = IOHelper.buffered(new FileOutputStream(tempFile));
-            bout.writeTo(currentStream);
+            if (!spool.reserveSpool(memoryLength)) {
+                throw new IOException("Cannot spool stream cache to file " + tempFile + " as the spool quota is exceeded");
+            }
+            spooled += memoryLength;
+
+            FileOutputStream fos = new FileOutputStream(tempFile);
+            fileStream = IOHelper.buffered(fos);
+            for (int i = 0; i < chunks.size(); i++) {
+                byte[] chunk = chunks.get(i);
+                fileStream.write(chunk, 0, i < chunks.size() - 1 ? chunk.length : chunkPosition);
+            }
+            if (!directChunks.isEmpty()) {
+                fileStream.flush();
+                for (ByteBuffer chunk : directChunks) {
+                    chunk.flip();
+                    while (chunk.hasRemaining()) {
+                        fos.getChannel().write(chunk);
+                    }
+                }
+            }
         } finally {
             // ensure flag is flipped to file based
             inMemory = false;
+            releaseMemory();
         }
     }
     
@@ -22,24 +22,54 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 
 import org.apache.camel.RuntimeCamelException;
 import org.apache.camel.StreamCache;
 import org.apache.camel.util.IOHelper;
 
+/**
+ * A {@link StreamCache} of the content of a file, which is read through a buffered stream
+ * or by mapping the file into memory.
+ * <p/>
+ * A mapped file is unmapped when the cache is closed, so the disk space of a deleted file is released
+ * right away rather than when the mapping is garbage collected. The cache can therefore not be read
+ * after it is closed.
+ */
 public class FileInputStreamCache extends InputStream implements StreamCache {
     private InputStream stream;
     private File file;
+    private boolean mapped;
+    private MappedByteBuffer buffer;
 
     public FileInputStreamCache(File file) throws FileNotFoundException {
+        this(file, false);
+    }
+
+    /**
+     * Creates the cache of the given file.
+     *
+     * @param file the file
+     * @param mapped whether to map the file into memory, which avoids copying the content through a buffer
+     * @throws FileNotFoundException is thrown if the file does not exist
+     */
+    public FileInputStreamCache(File file, boolean mapped) throws FileNotFoundException {
         this.file = file;
-        this.stream = IOHelper.buffered(new FileInputStream(file));
+        this.mapped = mapped && file.length() <= Integer.MAX_VALUE;
+        this.stream = createStream();
     }
     
     @Override
     public void close() {
         if (stream != null) {
             IOHelper.close(stream);
+            stream = null;
+        }
+        if (buffer != null) {
+            IOHelper.unmap(buffer);
+            buffer = null;
         }
     }
 
@@ -49,27 +79,63 @@ public class FileInputStreamCache extends InputStream implements StreamCache {
             // reset by closing and creating a new stream based on the file
             close();
             // reset by creating a new stream based on the file
-            stream = IOHelper.buffered(new FileInputStream(file));
+            stream = createStream();
         } catch (FileNotFoundException e) {
             throw new RuntimeCamelException("Cannot reset stream from file " + file, e);
         }            
     }
 
     public void writeTo(OutputStream os) throws IOException {
-        IOHelper.copy(getInputStream(), os);
+        IOHelper.copy(getOpenInputStream(), os);
     }
 
     @Override
     public int available() throws IOException {
-        return getInputStream().available();
+        return getOpenInputStream().available();
     }
 
     @Override
     public int read() throws IOException {
-        return getInputStream().read();
+        return getOpenInputStream().read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        return getOpenInputStream().read(b, off, len);
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        return getOpenInputStream().skip(n);
     }
 
     protected InputStream getInputStream() {
         return stream;
     }
+
+    private InputStream getOpenInputStream() throws IOException {
+        InputStream answer = getInputStream();
+        if (answer == null) {
+            // a mapped file may be unmapped, so it must not be read anymore
+            throw new IOException("Stream cache of file " + file + " is closed");
+        }
+        return answer;
+    }
+
+    private InputStream createStream() throws FileNotFoundException {
+        if (!mapped) {
+            return IOHelper.buffered(new FileInputStream(file));
+        }
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            // the mapping stays valid after the file is closed
+            FileChannel channel = raf.getChannel();
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new ByteBufferInputStreamCache(buffer);
+        } catch (IOException e) {
+            throw new RuntimeCamelException("Cannot map file " + file, e);
+        } finally {
+            IOHelper.close(raf);
+        }
+    }
 }
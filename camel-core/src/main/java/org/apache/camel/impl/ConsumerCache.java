@@ -42,6 +42,8 @@ public class ConsumerCache extends ServiceSupport {
     private final CamelContext camelContext;
     private final Map<String, PollingConsumer> consumers;
     private final Object source;
+    // incremented when a consumer is created, so the cache is only looked up again if it may have changed
+    private volatile int created;
 
     public ConsumerCache(Object source, CamelContext camelContext) {
         this(source, camelContext, CamelContextHelper.getMaximumCachePoolSize(camelContext));
@@ -70,9 +72,25 @@ public class ConsumerCache extends ServiceSupport {
         return new LRUSoftCache<String, PollingConsumer>(cacheSize);
     }
 
-    public synchronized PollingConsumer getConsumer(Endpoint endpoint) {
+    public PollingConsumer getConsumer(Endpoint endpoint) {
         String key = endpoint.getEndpointUri();
+        int version = created;
+
+        // lookup without locking, as the cache is thread safe
         PollingConsumer answer = consumers.get(key);
+        if (answer == null) {
+            answer = doCreateConsumer(endpoint, key, version);
+        }
+        return answer;
+    }
+
+    protected synchronized PollingConsumer doCreateConsumer(Endpoint endpoint, String key, int version) {
+        PollingConsumer answer = null;
+        if (created != version) {
+            // another thread created a consumer in the mean time, which may be the one we need
+            answer = consumers.get(key);
+        }
+
         if (answer == null) {
             try {
                 answer = endpoint.createPollingConsumer();
@@ -92,6 +110,7 @@ public class ConsumerCache extends ServiceSupport {
             } else {
                 LOG.debug("Consumer for endpoint: {} is not singleton and thus not added to consumer cache", key);
             }
+            created++;
         }
         return answer;
     }
@@ -189,6 +208,22 @@ public class ConsumerCache extends ServiceSupport {
         return misses;
     }
 
+    /**
+     * Gets the cache evicted statistic
+     * <p/>
+     * Will return <tt>-1</tt> if it cannot determine this if a custom cache was used.
+     *
+     * @return the evicted
+     */
+    public long getEvicted() {
+        long evicted = -1;
+        if (consumers instanceof LRUCache) {
+            LRUCache<String, PollingConsumer> cache = (LRUCache<String, PollingConsumer>)consumers;
+            evicted = cache.getEvicted();
+        }
+        return evicted;
+    }
+
     /**
      * Resets the cache statistics
      */
@@ -112,6 +112,7 @@ import org.apache.camel.spi.RouteContext;
 import org.apache.camel.spi.RouteStartupOrder;
 import org.apache.camel.spi.ServicePool;
 import org.apache.camel.spi.ShutdownStrategy;
+import org.apache.camel.spi.StreamCacheSpool;
 import org.apache.camel.spi.TypeConverterRegistry;
 import org.apache.camel.spi.UuidGenerator;
 import org.apache.camel.support.ServiceSupport;
@@ -193,6 +194,7 @@ public class DefaultCamelContext extends ServiceSupport implements ModelCamelCon
     private ProcessorFactory processorFactory;
     private InterceptStrategy defaultTracer;
     private InflightRepository inflightRepository = new DefaultInflightRepository();
+    private StreamCacheSpool streamCacheSpool = new DefaultStreamCacheSpool();
     private final List<RouteStartupOrder> routeStartupOrder = new ArrayList<RouteStartupOrder>();
     // start auto assigning route ids using numbering 1000 and upwards
     private int defaultRouteStartupOrder = 1000;
@@ -1520,6 +1522,7 @@ public class DefaultCamelContext extends ServiceSupport implements ModelCamelCon
         addService(executorServiceManager);
         addService(producerServicePool);
         addService(inflightRepository);
+        addService(streamCacheSpool);
         addService(shutdownStrategy);
         addService(packageScanClassResolver);
 
@@ -2283,6 +2286,14 @@ public class DefaultCamelContext extends ServiceSupport implements ModelCamelCon
         this.inflightRepository = repository;
     }
 
+    public StreamCacheSpool getStreamCacheSpool() {
+        return streamCacheSpool;
+    }
+
+    public void setStreamCacheSpool(StreamCacheSpool spool) {
+        this.streamCacheSpool = spool;
+    }
+
     public void setAutoStartup(Boolean autoStartup) {
         this.autoStartup = autoStartup;
     }
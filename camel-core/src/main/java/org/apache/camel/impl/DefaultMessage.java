@@ -24,6 +24,7 @@ import javax.activation.DataHandler;
 import org.apache.camel.Exchange;
 import org.apache.camel.Message;
 import org.apache.camel.util.CaseInsensitiveMap;
+import org.apache.camel.util.CopyOnWriteHeaderMap;
 import org.apache.camel.util.EndpointHelper;
 import org.apache.camel.util.MessageHelper;
 
@@ -34,6 +35,9 @@ import org.apache.camel.util.MessageHelper;
  * This allows us to be able to lookup headers using case insensitive keys, making it easier for end users
  * as they do not have to be worried about using exact keys.
  * See more details at {@link org.apache.camel.util.CaseInsensitiveMap}.
+ * <p/>
+ * The headers are by default created as a {@link CopyOnWriteHeaderMap}, so copying the message shares
+ * the headers with the copy until either message changes its headers.
  *
  * @version 
  */
@@ -53,6 +57,22 @@ public class DefaultMessage extends MessageSupport {
         fault = that.isFault();
     }
 
+    @Override
+    protected void copyHeadersFrom(Message that) {
+        Map<String, Object> source = that.getHeaders();
+        if (source instanceof CopyOnWriteHeaderMap) {
+            if (headers == null) {
+                headers = ((CopyOnWriteHeaderMap) source).copy();
+                return;
+            } else if (headers instanceof CopyOnWriteHeaderMap) {
+                // keep our map instance as it may be referenced
+                ((CopyOnWriteHeaderMap) headers).copyFrom((CopyOnWriteHeaderMap) source);
+                return;
+            }
+        }
+        super.copyHeadersFrom(that);
+    }
+
     public boolean isFault() {
         return fault;
     }
@@ -170,7 +190,7 @@ public class DefaultMessage extends MessageSupport {
     }
 
     public void setHeaders(Map<String, Object> headers) {
-        if (headers instanceof CaseInsensitiveMap) {
+        if (headers instanceof CaseInsensitiveMap || headers instanceof CopyOnWriteHeaderMap) {
             this.headers = headers;
         } else {
             // wrap it in a case insensitive map
@@ -199,7 +219,7 @@ public class DefaultMessage extends MessageSupport {
      *         the underlying inbound transport
      */
     protected Map<String, Object> createHeaders() {
-        Map<String, Object> map = new CaseInsensitiveMap();
+        Map<String, Object> map = new CopyOnWriteHeaderMap();
         populateInitialHeaders(map);
         return map;
     }
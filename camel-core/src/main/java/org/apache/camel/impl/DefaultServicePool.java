@@ -30,6 +30,9 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Default implementation to inherit for a basic service pool.
+ * <p/>
+ * The services are pooled in a queue per key, and the pool does not lock, so services
+ * for different keys can be acquired and released at the same time.
  *
  * @version 
  */
@@ -53,7 +56,7 @@ public abstract class DefaultServicePool<Key, Service> extends ServiceSupport im
         this.capacity = capacity;
     }
 
-    public synchronized int size() {
+    public int size() {
         int size = 0;
         for (BlockingQueue<Service> entry : pool.values()) {
             size += entry.size();
@@ -61,11 +64,15 @@ public abstract class DefaultServicePool<Key, Service> extends ServiceSupport im
         return size;
     }
 
-    public synchronized Service addAndAcquire(Key key, Service service) {
+    public Service addAndAcquire(Key key, Service service) {
         BlockingQueue<Service> entry = pool.get(key);
         if (entry == null) {
             entry = new ArrayBlockingQueue<Service>(capacity);
-            pool.put(key, entry);
+            BlockingQueue<Service> existing = pool.putIfAbsent(key, entry);
+            if (existing != null) {
+                // another thread added the queue
+                entry = existing;
+            }
         }
         log.trace("AddAndAcquire key: {} service: {}", key, service);
 
@@ -76,19 +83,19 @@ public abstract class DefaultServicePool<Key, Service> extends ServiceSupport im
         return service;
     }
 
-    public synchronized Service acquire(Key key) {
+    public Service acquire(Key key) {
         BlockingQueue<Service> services = pool.get(key);
-        if (services == null || services.isEmpty()) {
+        Service answer = services != null ? services.poll() : null;
+        if (answer == null) {
             log.trace("No free services in pool to acquire for key: {}", key);
             return null;
         }
 
-        Service answer = services.poll();
         log.trace("Acquire: {} service: {}", key, answer);
         return answer;
     }
 
-    public synchronized void release(Key key, Service service) {
+    public void release(Key key, Service service) {
         log.trace("Release: {} service: {}", key, service);
         BlockingQueue<Service> services = pool.get(key);
         if (services != null) {
@@ -0,0 +1,246 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.camel.spi.StreamCacheSpool;
+import org.apache.camel.support.ServiceSupport;
+import org.apache.camel.util.FileUtil;
+
+/**
+ * Default implementation of {@link StreamCacheSpool} which pools the heap and direct memory chunks in queues
+ * and keeps count of the memory and disk used with atomic counters.
+ * <p/>
+ * The direct memory is by default disabled, and the disk space is by default unlimited.
+ *
+ * @version 
+ */
+public class DefaultStreamCacheSpool extends ServiceSupport implements StreamCacheSpool {
+
+    private final Queue<byte[]> pool = new ConcurrentLinkedQueue<byte[]>();
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final Queue<ByteBuffer> directPool = new ConcurrentLinkedQueue<ByteBuffer>();
+    private final AtomicLong memoryUsed = new AtomicLong();
+    private final AtomicLong directMemoryUsed = new AtomicLong();
+    private final AtomicLong spoolUsed = new AtomicLong();
+    private final AtomicLong spoolCounter = new AtomicLong();
+    private final String spoolId = Long.toString(System.currentTimeMillis(), 36);
+    private int chunkSize = 4096;
+    private int maxPooledChunks = 1024;
+    private long directMemoryLimit;
+    private long spoolQuota;
+    private boolean mappedReads = !FileUtil.isWindows();
+
+    public byte[] acquireChunk() {
+        byte[] chunk = pool.poll();
+        if (chunk != null) {
+            pooled.decrementAndGet();
+        } else {
+            chunk = new byte[chunkSize];
+        }
+        memoryUsed.addAndGet(chunk.length);
+        return chunk;
+    }
+
+    public void releaseChunk(byte[] chunk) {
+        memoryUsed.addAndGet(-chunk.length);
+        // only pool chunks of the current size, and no more than the maximum
+        if (chunk.length == chunkSize) {
+            if (pooled.incrementAndGet() <= maxPooledChunks) {
+                pool.offer(chunk);
+            } else {
+                pooled.decrementAndGet();
+            }
+        }
+    }
+
+    public ByteBuffer acquireDirectChunk() {
+        while (true) {
+            long used = directMemoryUsed.get();
+            if (used + chunkSize > directMemoryLimit) {
+                return null;
+            }
+            if (directMemoryUsed.compareAndSet(used, used + chunkSize)) {
+                break;
+            }
+        }
+        // allocating direct memory is expensive, so the chunks are reused
+        ByteBuffer chunk = directPool.poll();
+        while (chunk != null && chunk.capacity() != chunkSize) {
+            chunk = directPool.poll();
+        }
+        return chunk != null ? chunk : ByteBuffer.allocateDirect(chunkSize);
+    }
+
+    public void releaseDirectChunk(ByteBuffer chunk) {
+        directMemoryUsed.addAndGet(-chunk.capacity());
+        // the pool is bounded by the direct memory limit, as a chunk is only allocated when the pool is empty
+        if (chunk.capacity() == chunkSize) {
+            chunk.clear();
+            directPool.offer(chunk);
+        }
+    }
+
+    public File createSpoolFile(File directory) throws IOException {
+        File dir = directory != null ? directory : FileUtil.getDefaultTempDir();
+        if (!dir.isDirectory()) {
+            dir.mkdirs();
+        }
+        while (true) {
+            // unique names within the directory, which is cheaper than File.createTempFile
+            File file = new File(dir, "cos" + spoolId + "-" + spoolCounter.incrementAndGet() + ".tmp");
+            if (file.createNewFile()) {
+                return file;
+            }
+        }
+    }
+
+    public boolean reserveSpool(long bytes) {
+        if (spoolQuota <= 0) {
+            spoolUsed.addAndGet(bytes);
+            return true;
+        }
+        while (true) {
+            long used = spoolUsed.get();
+            if (used + bytes > spoolQuota) {
+                return false;
+            }
+            if (spoolUsed.compareAndSet(used, used + bytes)) {
+                return true;
+            }
+        }
+    }
+
+    public void releaseSpool(long bytes) {
+        spoolUsed.addAndGet(-bytes);
+    }
+
+    public long getMemoryUsed() {
+        return memoryUsed.get();
+    }
+
+    public long getDirectMemoryUsed() {
+        return directMemoryUsed.get();
+    }
+
+    public long getSpoolUsed() {
+        return spoolUsed.get();
+    }
+
+    /**
+     * Gets the number of heap memory chunks in the pool.
+     */
+    public int getPooledChunks() {
+        return pool.size();
+    }
+
+    /**
+     * Gets the number of direct memory chunks in the pool.
+     */
+    public int getPooledDirectChunks() {
+        return directPool.size();
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Sets the size of the memory chunks.
+     * <p/>
+     * Is by default 4096 bytes.
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("The chunkSize must be a positive number, was: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    public int getMaxPooledChunks() {
+        return maxPooledChunks;
+    }
+
+    /**
+     * Sets the maximum number of heap memory chunks to keep in the pool.
+     * <p/>
+     * Is by default 1024 chunks.
+     */
+    public void setMaxPooledChunks(int maxPooledChunks) {
+        this.maxPooledChunks = maxPooledChunks;
+    }
+
+    public long getDirectMemoryLimit() {
+        return directMemoryLimit;
+    }
+
+    /**
+     * Sets the maximum direct memory in bytes used by the stream caches, before their content is spooled to disk.
+     * <p/>
+     * Is by default 0, which disables the direct memory.
+     */
+    public void setDirectMemoryLimit(long directMemoryLimit) {
+        this.directMemoryLimit = directMemoryLimit;
+    }
+
+    public long getSpoolQuota() {
+        return spoolQuota;
+    }
+
+    /**
+     * Sets the maximum disk space in bytes used by the stream caches. A stream cache which would exceed
+     * the quota fails with an {@link IOException}.
+     * <p/>
+     * Is by default 0, which is unlimited.
+     */
+    public void setSpoolQuota(long spoolQuota) {
+        this.spoolQuota = spoolQuota;
+    }
+
+    public boolean isMappedReads() {
+        return mappedReads;
+    }
+
+    /**
+     * Sets whether spooled content is read by mapping the spool file into memory.
+     * <p/>
+     * Is by default enabled, except on Windows where a mapped file cannot be deleted until it is unmapped.
+     */
+    public void setMappedReads(boolean mappedReads) {
+        this.mappedReads = mappedReads;
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        // noop
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        pool.clear();
+        pooled.set(0);
+        directPool.clear();
+    }
+
+}
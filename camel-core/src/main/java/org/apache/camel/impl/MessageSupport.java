@@ -134,13 +134,8 @@ public abstract class MessageSupport implements Message {
 
         setMessageId(that.getMessageId());
         setBody(that.getBody());
-        if (hasHeaders()) {
-            getHeaders().clear();
-        }
-        if (that.hasHeaders()) {
-            getHeaders().putAll(that.getHeaders());
-        }
-        
+        copyHeadersFrom(that);
+
         if (hasAttachments()) {
             getAttachments().clear();
         }
@@ -149,6 +144,20 @@ public abstract class MessageSupport implements Message {
         }
     }
 
+    /**
+     * Copies the headers from the given message, replacing the existing headers of this message.
+     *
+     * @param that the message to copy the headers from
+     */
+    protected void copyHeadersFrom(Message that) {
+        if (hasHeaders()) {
+            getHeaders().clear();
+        }
+        if (that.hasHeaders()) {
+            getHeaders().putAll(that.getHeaders());
+        }
+    }
+
     public Exchange getExchange() {
         return exchange;
     }
@@ -17,6 +17,10 @@
 package org.apache.camel.impl;
 
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.camel.AsyncCallback;
 import org.apache.camel.AsyncProcessor;
@@ -45,16 +49,25 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Cache containing created {@link Producer}.
+ * <p/>
+ * Looking up a cached producer does not lock. Creating a producer locks one of a number of striped locks
+ * selected by the endpoint uri, so producers for different endpoints can be created at the same time,
+ * while a singleton producer is only created once.
  *
  * @version 
  */
 public class ProducerCache extends ServiceSupport {
     private static final transient Logger LOG = LoggerFactory.getLogger(ProducerCache.class);
+    private static final int LOCK_STRIPES = 16;
 
     private final CamelContext camelContext;
     private final ServicePool<Endpoint, Producer> pool;
     private final Map<String, Producer> producers;
     private final Object source;
+    private final Lock[] locks = new Lock[LOCK_STRIPES];
+    // incremented when a producer is created using the lock of the same index
+    private final AtomicIntegerArray versions = new AtomicIntegerArray(LOCK_STRIPES);
+    private final AtomicLong lockContentions = new AtomicLong();
 
     public ProducerCache(Object source, CamelContext camelContext) {
         this(source, camelContext, CamelContextHelper.getMaximumCachePoolSize(camelContext));
@@ -69,6 +82,9 @@ public class ProducerCache extends ServiceSupport {
         this.camelContext = camelContext;
         this.pool = producerServicePool;
         this.producers = cache;
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
     }
 
     /**
@@ -363,32 +379,57 @@ public class ProducerCache extends ServiceSupport {
         });
     }
 
-    protected synchronized Producer doGetProducer(Endpoint endpoint, boolean pooled) {
+    protected Producer doGetProducer(Endpoint endpoint, boolean pooled) {
         String key = endpoint.getEndpointUri();
+        int index = (key.hashCode() & 0x7fffffff) % LOCK_STRIPES;
+        int version = versions.get(index);
+
         Producer answer = producers.get(key);
         if (pooled && answer == null) {
             // try acquire from connection pool
             answer = pool.acquire(endpoint);
         }
+        if (answer != null) {
+            return answer;
+        }
 
-        if (answer == null) {
-            // create a new producer
-            try {
-                answer = endpoint.createProducer();
-                // must then start service so producer is ready to be used
-                ServiceHelper.startService(answer);
-            } catch (Exception e) {
-                throw new FailedToCreateProducerException(endpoint, e);
+        Lock lock = locks[index];
+        if (!lock.tryLock()) {
+            // another thread is creating a producer using the same lock
+            lockContentions.incrementAndGet();
+            lock.lock();
+        }
+        try {
+            if (versions.get(index) != version) {
+                // another thread created a producer in the mean time, which may be the one we need
+                answer = producers.get(key);
+                if (pooled && answer == null) {
+                    answer = pool.acquire(endpoint);
+                }
             }
 
-            // add producer to cache or pool if applicable
-            if (pooled && answer instanceof ServicePoolAware) {
-                LOG.debug("Adding to producer service pool with key: {} for producer: {}", endpoint, answer);
-                answer = pool.addAndAcquire(endpoint, answer);
-            } else if (answer.isSingleton()) {
-                LOG.debug("Adding to producer cache with key: {} for producer: {}", endpoint, answer);
-                producers.put(key, answer);
+            if (answer == null) {
+                // create a new producer
+                try {
+                    answer = endpoint.createProducer();
+                    // must then start service so producer is ready to be used
+                    ServiceHelper.startService(answer);
+                } catch (Exception e) {
+                    throw new FailedToCreateProducerException(endpoint, e);
+                }
+
+                // add producer to cache or pool if applicable
+                if (pooled && answer instanceof ServicePoolAware) {
+                    LOG.debug("Adding to producer service pool with key: {} for producer: {}", endpoint, answer);
+                    answer = pool.addAndAcquire(endpoint, answer);
+                } else if (answer.isSingleton()) {
+                    LOG.debug("Adding to producer cache with key: {} for producer: {}", endpoint, answer);
+                    producers.put(key, answer);
+                }
+                versions.incrementAndGet(index);
             }
+        } finally {
+            lock.unlock();
         }
 
         return answer;
@@ -466,6 +507,31 @@ public class ProducerCache extends ServiceSupport {
         return misses;
     }
 
+    /**
+     * Gets the cache evicted statistic
+     * <p/>
+     * Will return <tt>-1</tt> if it cannot determine this if a custom cache was used.
+     *
+     * @return the evicted
+     */
+    public long getEvicted() {
+        long evicted = -1;
+        if (producers instanceof LRUCache) {
+            LRUCache<String, Producer> cache = (LRUCache<String, Producer>)producers;
+            evicted = cache.getEvicted();
+        }
+        return evicted;
+    }
+
+    /**
+     * Gets the number of times a thread had to wait for another thread creating a producer
+     *
+     * @return the lock contentions
+     */
+    public long getLockContentions() {
+        return lockContentions.get();
+    }
+
     /**
      * Resets the cache statistics
      */
@@ -474,6 +540,7 @@ public class ProducerCache extends ServiceSupport {
             LRUCache<String, Producer> cache = (LRUCache<String, Producer>)producers;
             cache.resetStatistics();
         }
+        lockContentions.set(0);
     }
 
     /**
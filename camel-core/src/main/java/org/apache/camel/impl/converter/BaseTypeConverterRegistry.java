@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 
 import org.apache.camel.CamelExecutionException;
@@ -41,19 +42,32 @@ import org.apache.camel.support.ServiceSupport;
 import org.apache.camel.util.ObjectHelper;
 import org.apache.camel.util.StopWatch;
 import org.apache.camel.util.TimeUtils;
+import org.apache.camel.util.concurrent.LongAdder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Base implementation of a type converter registry used for
  * <a href="http://camel.apache.org/type-converter.html">type converters</a> in Camel.
+ * <p/>
+ * The converters found for a pair of types are cached by the from type and then by the to type,
+ * so converting a value does not need to create a {@link TypeMapping} key when the types
+ * have been converted before. The cache also remembers the types which cannot be converted.
  *
  * @version 
  */
 public abstract class BaseTypeConverterRegistry extends ServiceSupport implements TypeConverter, TypeConverterRegistry {
+    // cache markers for no type converter (so try the fallback converters) and types which cannot be converted
+    private static final Object NO_CONVERTER = new Object();
+    private static final Object MISS_CONVERTER = new Object();
+
     protected final transient Logger log = LoggerFactory.getLogger(getClass());
     protected final Map<TypeMapping, TypeConverter> typeMappings = new ConcurrentHashMap<TypeMapping, TypeConverter>();
     protected final Map<TypeMapping, TypeMapping> misses = new ConcurrentHashMap<TypeMapping, TypeMapping>();
+    // the cache is replaced when invalidated, so lookups in progress cannot add stale entries to the new cache
+    private volatile ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, Object>> cache = createCache();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
     protected final List<TypeConverterLoader> typeConverterLoaders = new ArrayList<TypeConverterLoader>();
     protected final List<FallbackTypeConverter> fallbackConverters = new ArrayList<FallbackTypeConverter>();
     protected final PackageScanClassResolver resolver;
@@ -170,17 +184,40 @@ public abstract class BaseTypeConverterRegistry extends ServiceSupport implement
             return type.cast(value);
         }
 
-        // check if we have tried it before and if its a miss
-        TypeMapping key = new TypeMapping(type, value.getClass());
-        if (misses.containsKey(key)) {
-            // we have tried before but we cannot convert this one
-            return Void.TYPE;
+        Class<?> fromType = value.getClass();
+        ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, Object>> currentCache = cache;
+        ConcurrentMap<Class<?>, Object> toTypes = currentCache.get(fromType);
+        Object cached = toTypes != null ? toTypes.get(type) : null;
+
+        if (cached != null) {
+            hits.increment();
+            if (cached == MISS_CONVERTER) {
+                // we have tried before but we cannot convert this one
+                return Void.TYPE;
+            }
+        } else {
+            cacheMisses.increment();
+            // check if we have tried it before and if its a miss
+            TypeMapping key = new TypeMapping(type, fromType);
+            if (misses.containsKey(key)) {
+                cacheConverter(currentCache, type, fromType, MISS_CONVERTER);
+                // we have tried before but we cannot convert this one
+                return Void.TYPE;
+            }
+
+            // try to find a suitable type converter
+            cached = getOrFindTypeConverter(type, value);
+            if (cached == null) {
+                cached = NO_CONVERTER;
+            }
+            cacheConverter(currentCache, type, fromType, cached);
         }
 
-        // try to find a suitable type converter
-        TypeConverter converter = getOrFindTypeConverter(type, value);
-        if (converter != null) {
-            log.trace("Using converter: {} to convert {}", converter, key);
+        if (cached != NO_CONVERTER) {
+            TypeConverter converter = (TypeConverter) cached;
+            if (log.isTraceEnabled()) {
+                log.trace("Using converter: {} to convert [{}=>{}]", new Object[]{converter, fromType, type});
+            }
             Object rc = converter.convertTo(type, exchange, value);
             if (rc != null) {
                 return rc;
@@ -227,7 +264,9 @@ public abstract class BaseTypeConverterRegistry extends ServiceSupport implement
         }
 
         // Could not find suitable conversion, so remember it
+        TypeMapping key = new TypeMapping(type, fromType);
         misses.put(key, key);
+        cacheConverter(currentCache, type, fromType, MISS_CONVERTER);
 
         // Could not find suitable conversion, so return Void to indicate not found
         return Void.TYPE;
@@ -248,6 +287,8 @@ public abstract class BaseTypeConverterRegistry extends ServiceSupport implement
                 typeMappings.put(key, typeConverter);
                 // remove any previous misses, as we added the new type converter
                 misses.remove(key);
+                // the new type converter may be a better match for types which have been converted before
+                invalidateCache();
             }
         }
     }
@@ -258,6 +299,9 @@ public abstract class BaseTypeConverterRegistry extends ServiceSupport implement
 
         // add in top of fallback as the toString() fallback will nearly always be able to convert
         fallbackConverters.add(0, new FallbackTypeConverter(typeConverter, canPromote));
+        // the new fallback type converter may be able to convert the types we could not convert before
+        misses.clear();
+        invalidateCache();
         if (typeConverter instanceof TypeConverterAware) {
             TypeConverterAware typeConverterAware = (TypeConverterAware) typeConverter;
             typeConverterAware.setTypeConverter(this);
@@ -306,6 +350,60 @@ public abstract class BaseTypeConverterRegistry extends ServiceSupport implement
         return typeMappings;
     }
 
+    /**
+     * Gets the number of type conversions where the type converter was found in the cache
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of type conversions where the type converter had to be looked up
+     */
+    public long getMisses() {
+        return cacheMisses.sum();
+    }
+
+    /**
+     * Gets the number of type pairs in the cache
+     */
+    public int getCacheSize() {
+        int size = 0;
+        for (ConcurrentMap<Class<?>, Object> toTypes : cache.values()) {
+            size += toTypes.size();
+        }
+        return size;
+    }
+
+    /**
+     * Reset the cache statistics such as hits and misses.
+     */
+    public void resetStatistics() {
+        hits.reset();
+        cacheMisses.reset();
+    }
+
+    private static ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, Object>> createCache() {
+        return new ConcurrentHashMap<Class<?>, ConcurrentMap<Class<?>, Object>>();
+    }
+
+    private static void cacheConverter(ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, Object>> cache,
+                                       Class<?> toType, Class<?> fromType, Object converter) {
+        ConcurrentMap<Class<?>, Object> toTypes = cache.get(fromType);
+        if (toTypes == null) {
+            toTypes = new ConcurrentHashMap<Class<?>, Object>();
+            ConcurrentMap<Class<?>, Object> existing = cache.putIfAbsent(fromType, toTypes);
+            if (existing != null) {
+                toTypes = existing;
+            }
+        }
+        toTypes.put(toType, converter);
+    }
+
+    protected void invalidateCache() {
+        cache = createCache();
+    }
+
     protected <T> TypeConverter getOrFindTypeConverter(Class<?> toType, Object value) {
         Class<?> fromType = null;
         if (value != null) {
@@ -445,6 +543,8 @@ public abstract class BaseTypeConverterRegistry extends ServiceSupport implement
     protected void doStop() throws Exception {
         typeMappings.clear();
         misses.clear();
+        invalidateCache();
+        resetStatistics();
         propertyEditorTypeConverter.clear();
     }
 
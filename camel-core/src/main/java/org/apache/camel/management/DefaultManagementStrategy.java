@@ -56,6 +56,7 @@ public class DefaultManagementStrategy implements ManagementStrategy, CamelConte
     private boolean onlyManageProcessorWithCustomId;
     private ManagementAgent managementAgent;
     private ManagementStatisticsLevel statisticsLevel = ManagementStatisticsLevel.All;
+    private boolean processingTimeHistogramEnabled;
     private CamelContext camelContext;
 
     public List<EventNotifier> getEventNotifiers() {
@@ -181,6 +182,14 @@ public class DefaultManagementStrategy implements ManagementStrategy, CamelConte
         return statisticsLevel;
     }
 
+    public void setProcessingTimeHistogramEnabled(boolean enabled) {
+        this.processingTimeHistogramEnabled = enabled;
+    }
+
+    public boolean isProcessingTimeHistogramEnabled() {
+        return processingTimeHistogramEnabled;
+    }
+
     public void start() throws Exception {
         if (eventNotifiers != null) {
             ServiceHelper.startServices(eventNotifiers);
@@ -30,11 +30,13 @@ import org.apache.camel.ServiceStatus;
 import org.apache.camel.TimerListener;
 import org.apache.camel.api.management.ManagedResource;
 import org.apache.camel.api.management.mbean.ManagedCamelContextMBean;
+import org.apache.camel.impl.converter.BaseTypeConverterRegistry;
 import org.apache.camel.model.ModelCamelContext;
 import org.apache.camel.model.ModelHelper;
 import org.apache.camel.model.RouteDefinition;
 import org.apache.camel.model.RoutesDefinition;
 import org.apache.camel.spi.ManagementStrategy;
+import org.apache.camel.spi.TypeConverterRegistry;
 
 /**
  * @version 
@@ -133,6 +135,37 @@ public class ManagedCamelContext implements TimerListener, ManagedCamelContextMB
         return String.format("%.2f", load.getLoad15());
     }
 
+    public Long getTypeConverterCacheHits() {
+        BaseTypeConverterRegistry registry = getBaseTypeConverterRegistry();
+        return registry != null ? registry.getHits() : 0L;
+    }
+
+    public Long getTypeConverterCacheMisses() {
+        BaseTypeConverterRegistry registry = getBaseTypeConverterRegistry();
+        return registry != null ? registry.getMisses() : 0L;
+    }
+
+    public Integer getTypeConverterCacheSize() {
+        BaseTypeConverterRegistry registry = getBaseTypeConverterRegistry();
+        return registry != null ? registry.getCacheSize() : 0;
+    }
+
+    public void resetTypeConverterCacheStatistics() {
+        BaseTypeConverterRegistry registry = getBaseTypeConverterRegistry();
+        if (registry != null) {
+            registry.resetStatistics();
+        }
+    }
+
+    private BaseTypeConverterRegistry getBaseTypeConverterRegistry() {
+        TypeConverterRegistry registry = context.getTypeConverterRegistry();
+        if (registry instanceof BaseTypeConverterRegistry) {
+            return (BaseTypeConverterRegistry) registry;
+        }
+        // the registry is custom, such as in OSGi, and has no cache statistics
+        return null;
+    }
+
     @Override
     public void onTimer() {
         load.update(getInflightExchanges());
@@ -36,7 +36,7 @@ public abstract class ManagedCounter implements ManagedCounterMBean {
         return exchangesTotal.getValue();
     }
 
-    public synchronized void increment() {
+    public void increment() {
         exchangesTotal.increment();
     }
 }
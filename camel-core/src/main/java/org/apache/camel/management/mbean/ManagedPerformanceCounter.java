@@ -27,6 +27,9 @@ import org.apache.camel.util.ExchangeHelper;
 
 @ManagedResource(description = "PerformanceCounter")
 public abstract class ManagedPerformanceCounter extends ManagedCounter implements PerformanceCounter, ManagedPerformanceCounterMBean {
+    // processing times above one hour are recorded as one hour in the histogram
+    private static final long HISTOGRAM_HIGHEST_TRACKABLE_VALUE = 60 * 60 * 1000L;
+
     private Statistic exchangesCompleted;
     private Statistic exchangesFailed;
     private Statistic failuresHandled;
@@ -35,16 +38,16 @@ public abstract class ManagedPerformanceCounter extends ManagedCounter implement
     private Statistic maxProcessingTime;
     private Statistic totalProcessingTime;
     private Statistic lastProcessingTime;
-    private Statistic meanProcessingTime;
     private Statistic firstExchangeCompletedTimestamp;
-    private String firstExchangeCompletedExchangeId;
+    private volatile String firstExchangeCompletedExchangeId;
     private Statistic firstExchangeFailureTimestamp;
-    private String firstExchangeFailureExchangeId;
+    private volatile String firstExchangeFailureExchangeId;
     private Statistic lastExchangeCompletedTimestamp;
-    private String lastExchangeCompletedExchangeId;
+    private volatile String lastExchangeCompletedExchangeId;
     private Statistic lastExchangeFailureTimestamp;
-    private String lastExchangeFailureExchangeId;
+    private volatile String lastExchangeFailureExchangeId;
     private boolean statisticsEnabled = true;
+    private volatile Histogram processingTimeHistogram;
 
     public void init(ManagementStrategy strategy) {
         super.init(strategy);
@@ -58,7 +61,6 @@ public abstract class ManagedPerformanceCounter extends ManagedCounter implement
         this.maxProcessingTime = new Statistic("org.apache.camel.maximumProcessingTime", this, Statistic.UpdateMode.MAXIMUM);
         this.totalProcessingTime = new Statistic("org.apache.camel.totalProcessingTime", this, Statistic.UpdateMode.COUNTER);
         this.lastProcessingTime = new Statistic("org.apache.camel.lastProcessingTime", this, Statistic.UpdateMode.VALUE);
-        this.meanProcessingTime = new Statistic("org.apache.camel.meanProcessingTime", this, Statistic.UpdateMode.VALUE);
 
         this.firstExchangeCompletedTimestamp = new Statistic("org.apache.camel.firstExchangeCompletedTimestamp", this, Statistic.UpdateMode.VALUE);
         this.firstExchangeFailureTimestamp = new Statistic("org.apache.camel.firstExchangeFailureTimestamp", this, Statistic.UpdateMode.VALUE);
@@ -77,7 +79,6 @@ public abstract class ManagedPerformanceCounter extends ManagedCounter implement
         maxProcessingTime.reset();
         totalProcessingTime.reset();
         lastProcessingTime.reset();
-        meanProcessingTime.reset();
         firstExchangeCompletedTimestamp.reset();
         firstExchangeCompletedExchangeId = null;
         firstExchangeFailureTimestamp.reset();
@@ -86,6 +87,7 @@ public abstract class ManagedPerformanceCounter extends ManagedCounter implement
         lastExchangeCompletedExchangeId = null;
         lastExchangeFailureTimestamp.reset();
         lastExchangeFailureExchangeId = null;
+        resetProcessingTimeHistogram();
     }
 
     public long getExchangesCompleted() throws Exception {
@@ -109,7 +111,9 @@ public abstract class ManagedPerformanceCounter extends ManagedCounter implement
     }
 
     public long getMeanProcessingTime() throws Exception {
-        return meanProcessingTime.getValue();
+        // calculate the mean when requested, instead of for every completed exchange
+        long count = exchangesCompleted.getValue();
+        return count > 0 ? totalProcessingTime.getValue() / count : 0;
     }
 
     public long getMaxProcessingTime() throws Exception {
@@ -124,6 +128,43 @@ public abstract class ManagedPerformanceCounter extends ManagedCounter implement
         return lastProcessingTime.getValue();
     }
 
+    public long getP50ProcessingTime() throws Exception {
+        return processingTimePercentile(50);
+    }
+
+    public long getP99ProcessingTime() throws Exception {
+        return processingTimePercentile(99);
+    }
+
+    public long getP999ProcessingTime() throws Exception {
+        return processingTimePercentile(99.9);
+    }
+
+    public long processingTimePercentile(double percentile) throws Exception {
+        Histogram histogram = processingTimeHistogram;
+        return histogram != null ? histogram.getValueAtPercentile(percentile) : 0;
+    }
+
+    public boolean isProcessingTimeHistogramEnabled() {
+        return processingTimeHistogram != null;
+    }
+
+    public synchronized void setProcessingTimeHistogramEnabled(boolean enabled) {
+        if (enabled && processingTimeHistogram == null) {
+            processingTimeHistogram = new Histogram(HISTOGRAM_HIGHEST_TRACKABLE_VALUE);
+        } else if (!enabled) {
+            // discard the histogram so it does not take up memory
+            processingTimeHistogram = null;
+        }
+    }
+
+    public void resetProcessingTimeHistogram() {
+        Histogram histogram = processingTimeHistogram;
+        if (histogram != null) {
+            histogram.reset();
+        }
+    }
+
     public Date getLastExchangeCompletedTimestamp() {
         long value = lastExchangeCompletedTimestamp.getValue();
         return value > 0 ? new Date(value) : null;
@@ -168,7 +209,7 @@ public abstract class ManagedPerformanceCounter extends ManagedCounter implement
         this.statisticsEnabled = statisticsEnabled;
     }
 
-    public synchronized void completedExchange(Exchange exchange, long time) {
+    public void completedExchange(Exchange exchange, long time) {
         increment();
         exchangesCompleted.increment();
 
@@ -180,25 +221,27 @@ public abstract class ManagedPerformanceCounter extends ManagedCounter implement
         maxProcessingTime.updateValue(time);
         totalProcessingTime.updateValue(time);
         lastProcessingTime.updateValue(time);
-
-        long now = new Date().getTime();
-        if (firstExchangeCompletedTimestamp.getUpdateCount() == 0) {
-            firstExchangeCompletedTimestamp.updateValue(now);
+        Histogram histogram = processingTimeHistogram;
+        if (histogram != null) {
+            histogram.recordValue(time);
         }
 
-        lastExchangeCompletedTimestamp.updateValue(now);
+        long now = System.currentTimeMillis();
         if (firstExchangeCompletedExchangeId == null) {
-            firstExchangeCompletedExchangeId = exchange.getExchangeId();
+            synchronized (this) {
+                // only lock for the first exchange, so the timestamp and id are from the same exchange
+                if (firstExchangeCompletedExchangeId == null) {
+                    firstExchangeCompletedTimestamp.updateValue(now);
+                    firstExchangeCompletedExchangeId = exchange.getExchangeId();
+                }
+            }
         }
-        lastExchangeCompletedExchangeId = exchange.getExchangeId();
 
-        // update mean
-        long count = exchangesCompleted.getValue();
-        long mean = count > 0 ? totalProcessingTime.getValue() / count : 0;
-        meanProcessingTime.updateValue(mean);
+        lastExchangeCompletedTimestamp.updateValue(now);
+        lastExchangeCompletedExchangeId = exchange.getExchangeId();
     }
 
-    public synchronized void failedExchange(Exchange exchange) {
+    public void failedExchange(Exchange exchange) {
         increment();
         exchangesFailed.increment();
 
@@ -206,15 +249,18 @@ public abstract class ManagedPerformanceCounter extends ManagedCounter implement
             redeliveries.increment();
         }
 
-        long now = new Date().getTime();
-        if (firstExchangeFailureTimestamp.getUpdateCount() == 0) {
-            firstExchangeFailureTimestamp.updateValue(now);
+        long now = System.currentTimeMillis();
+        if (firstExchangeFailureExchangeId == null) {
+            synchronized (this) {
+                // only lock for the first exchange, so the timestamp and id are from the same exchange
+                if (firstExchangeFailureExchangeId == null) {
+                    firstExchangeFailureTimestamp.updateValue(now);
+                    firstExchangeFailureExchangeId = exchange.getExchangeId();
+                }
+            }
         }
 
         lastExchangeFailureTimestamp.updateValue(now);
-        if (firstExchangeFailureExchangeId == null) {
-            firstExchangeFailureExchangeId = exchange.getExchangeId();
-        }
         lastExchangeFailureExchangeId = exchange.getExchangeId();
     }
 
@@ -48,6 +48,7 @@ public class ManagedProcessor extends ManagedPerformanceCounter implements Manag
 
         boolean enabled = context.getManagementStrategy().getStatisticsLevel() == ManagementStatisticsLevel.All;
         setStatisticsEnabled(enabled);
+        setProcessingTimeHistogramEnabled(enabled && context.getManagementStrategy().isProcessingTimeHistogramEnabled());
     }
 
     public CamelContext getContext() {
@@ -60,6 +60,14 @@ public class ManagedProducerCache extends ManagedService implements ManagedProdu
         return producerCache.getMisses();
     }
 
+    public Long getEvicted() {
+        return producerCache.getEvicted();
+    }
+
+    public Long getLockContentions() {
+        return producerCache.getLockContentions();
+    }
+
     public void resetStatistics() {
         producerCache.resetCacheStatistics();
     }
@@ -47,6 +47,7 @@ public class ManagedRoute extends ManagedPerformanceCounter implements TimerList
         this.description = route.toString();
         boolean enabled = context.getManagementStrategy().getStatisticsLevel() != ManagementStatisticsLevel.Off;
         setStatisticsEnabled(enabled);
+        setProcessingTimeHistogramEnabled(enabled && context.getManagementStrategy().isProcessingTimeHistogramEnabled());
     }
 
     public Route getRoute() {
@@ -55,4 +55,24 @@ public class ManagedThrottler extends ManagedProcessor implements ManagedThrottl
     public void setTimePeriodMillis(long timePeriodMillis) {
         getThrottler().setTimePeriodMillis(timePeriodMillis);
     }
+
+    public long getMaximumBurst() {
+        return Math.max(getThrottler().getMaximumBurst(), getThrottler().getCurrentMaximumRequestsPerPeriod());
+    }
+
+    public long getThrottledExchanges() {
+        return getThrottler().getThrottledExchanges();
+    }
+
+    public int getPendingExchanges() {
+        return getThrottler().getPendingExchanges();
+    }
+
+    public int getCorrelationKeys() {
+        return getThrottler().getCorrelationKeys();
+    }
+
+    public void resetThrottledExchanges() {
+        getThrottler().resetStatistics();
+    }
 }
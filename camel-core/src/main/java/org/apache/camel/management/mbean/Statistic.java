@@ -16,8 +16,14 @@
  */
 package org.apache.camel.management.mbean;
 
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.camel.util.concurrent.LongAdder;
+
 /**
  * Default implementation of {@link Statistic}
+ * <p/>
+ * The statistic can be updated by many threads concurrently without locking.
  */
 public class Statistic {
 
@@ -42,8 +48,12 @@ public class Statistic {
     }
 
     private final UpdateMode updateMode;
-    private long value;
-    private long updateCount;
+    // counters are striped so concurrent updates do not contend, the other modes use compare and set
+    private final LongAdder counter;
+    private final AtomicLong value;
+    // a plain atomic is enough for the update count, as it is only read by the tooling, while an adder per statistic
+    // would double the memory of the counters
+    private final AtomicLong updateCount = new AtomicLong();
 
     /**
      * Instantiates a new statistic.
@@ -54,58 +64,87 @@ public class Statistic {
      */
     public Statistic(String name, Object owner, UpdateMode updateMode) {
         this.updateMode = updateMode;
+        if (updateMode == UpdateMode.COUNTER) {
+            this.counter = new LongAdder();
+            this.value = null;
+        } else {
+            this.counter = null;
+            this.value = new AtomicLong(initialValue());
+        }
     }
 
-    public synchronized void updateValue(long newValue) {
+    public void updateValue(long newValue) {
         switch (this.updateMode) {
         case COUNTER:
-            this.value += newValue;
+            this.counter.add(newValue);
             break;
         case VALUE:
-            this.value = newValue;
+            this.value.set(newValue);
             break;
         case DIFFERENCE:
-            this.value -= newValue;
-            if (this.value < 0) {
-                this.value = -this.value;
-            }
+            long current;
+            long diff;
+            do {
+                current = this.value.get();
+                diff = Math.abs(current - newValue);
+            } while (!this.value.compareAndSet(current, diff));
             break;
         case MAXIMUM:
-            // initialize value at first time
-            if (this.updateCount == 0 || this.value < newValue) {
-                this.value = newValue;
-            }
+            long max;
+            do {
+                max = this.value.get();
+            } while (max < newValue && !this.value.compareAndSet(max, newValue));
             break;
         case MINIMUM:
-            // initialize value at first time
-            if (this.updateCount == 0 || this.value > newValue) {
-                this.value = newValue;
-            }
+            long min;
+            do {
+                min = this.value.get();
+            } while (min > newValue && !this.value.compareAndSet(min, newValue));
             break;
         default:
         }
-        this.updateCount++;
+        this.updateCount.incrementAndGet();
     }
 
-    public synchronized void increment() {
+    public void increment() {
         updateValue(1);
     }
 
-    public synchronized long getValue() {
-        return this.value;
+    public long getValue() {
+        if (this.counter != null) {
+            return this.counter.sum();
+        }
+        long answer = this.value.get();
+        // the minimum and maximum is 0 until the first update
+        return answer == initialValue() ? 0 : answer;
+    }
+
+    public long getUpdateCount() {
+        return this.updateCount.get();
     }
 
-    public synchronized long getUpdateCount() {
-        return this.updateCount;
+    public void reset() {
+        if (this.counter != null) {
+            this.counter.reset();
+        } else {
+            this.value.set(initialValue());
+        }
+        this.updateCount.set(0);
     }
 
-    public synchronized void reset() {
-        this.value = 0;
-        this.updateCount = 0;
+    private long initialValue() {
+        switch (this.updateMode) {
+        case MAXIMUM:
+            return Long.MIN_VALUE;
+        case MINIMUM:
+            return Long.MAX_VALUE;
+        default:
+            return 0;
+        }
     }
 
     public String toString() {
-        return "" + value;
+        return "" + getValue();
     }
 
 }
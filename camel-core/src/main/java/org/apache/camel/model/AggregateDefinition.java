@@ -89,6 +89,8 @@ public class AggregateDefinition extends ProcessorDefinition<AggregateDefinition
     @XmlAttribute
     private Long completionTimeout;
     @XmlAttribute
+    private Boolean completionTimeoutWheel;
+    @XmlAttribute
     private Boolean completionFromBatchConsumer;
     @XmlAttribute
     private Boolean groupExchanges;
@@ -102,6 +104,10 @@ public class AggregateDefinition extends ProcessorDefinition<AggregateDefinition
     private Boolean discardOnCompletionTimeout;
     @XmlAttribute
     private Boolean forceCompletionOnStop;
+    @XmlAttribute
+    private Boolean parallelAggregation;
+    @XmlAttribute
+    private Integer lockStripes;
 
     public AggregateDefinition() {
     }
@@ -198,6 +204,9 @@ public class AggregateDefinition extends ProcessorDefinition<AggregateDefinition
         if (getCompletionTimeout() != null) {
             answer.setCompletionTimeout(getCompletionTimeout());
         }
+        if (getCompletionTimeoutWheel() != null) {
+            answer.setCompletionTimeoutWheel(isCompletionTimeoutWheel());
+        }
         if (getCompletionInterval() != null) {
             answer.setCompletionInterval(getCompletionInterval());
         }
@@ -226,6 +235,12 @@ public class AggregateDefinition extends ProcessorDefinition<AggregateDefinition
         if (getForceCompletionOnStop() != null) {
             answer.setForceCompletionOnStop(getForceCompletionOnStop());
         }
+        if (getParallelAggregation() != null) {
+            answer.setParallelAggregation(isParallelAggregation());
+        }
+        if (getLockStripes() != null) {
+            answer.setLockStripes(getLockStripes());
+        }
 
         return answer;
     }
@@ -346,6 +361,18 @@ public class AggregateDefinition extends ProcessorDefinition<AggregateDefinition
         this.completionTimeout = completionTimeout;
     }
 
+    public Boolean getCompletionTimeoutWheel() {
+        return completionTimeoutWheel;
+    }
+
+    public boolean isCompletionTimeoutWheel() {
+        return completionTimeoutWheel != null && completionTimeoutWheel;
+    }
+
+    public void setCompletionTimeoutWheel(Boolean completionTimeoutWheel) {
+        this.completionTimeoutWheel = completionTimeoutWheel;
+    }
+
     public ExpressionSubElementDefinition getCompletionPredicate() {
         return completionPredicate;
     }
@@ -629,6 +656,19 @@ public class AggregateDefinition extends ProcessorDefinition<AggregateDefinition
         return this;
     }
 
+    /**
+     * Uses a time wheel to find the groups which has timed out, instead of scanning all the groups
+     * in progress every time the completion timeout checker runs.
+     * <p/>
+     * This is recommended when there is a large number of groups in progress.
+     *
+     * @return the builder
+     */
+    public AggregateDefinition completionTimeoutWheel() {
+        setCompletionTimeoutWheel(true);
+        return this;
+    }
+
     /**
      * Sets the aggregate strategy to use
      *
@@ -726,6 +766,52 @@ public class AggregateDefinition extends ProcessorDefinition<AggregateDefinition
         this.forceCompletionOnStop = forceCompletionOnStop;
     }
 
+    public Boolean getParallelAggregation() {
+        return parallelAggregation;
+    }
+
+    public boolean isParallelAggregation() {
+        return parallelAggregation != null && parallelAggregation;
+    }
+
+    public void setParallelAggregation(Boolean parallelAggregation) {
+        this.parallelAggregation = parallelAggregation;
+    }
+
+    public Integer getLockStripes() {
+        return lockStripes;
+    }
+
+    public void setLockStripes(Integer lockStripes) {
+        this.lockStripes = lockStripes;
+    }
+
+    /**
+     * Aggregates exchanges with different correlation keys in parallel, by using a lock per correlation key
+     * instead of a single lock for the entire aggregator.
+     * <p/>
+     * The aggregation repository must be thread safe for concurrent access to different keys.
+     *
+     * @return the builder
+     */
+    public AggregateDefinition parallelAggregation() {
+        setParallelAggregation(true);
+        return this;
+    }
+
+    /**
+     * Aggregates exchanges with different correlation keys in parallel, by using a lock per correlation key
+     * instead of a single lock for the entire aggregator.
+     *
+     * @param lockStripes  number of locks the correlation keys are striped over
+     * @return the builder
+     */
+    public AggregateDefinition parallelAggregation(int lockStripes) {
+        setParallelAggregation(true);
+        setLockStripes(lockStripes);
+        return this;
+    }
+
     /**
      * Sending the aggregated output in parallel
      *
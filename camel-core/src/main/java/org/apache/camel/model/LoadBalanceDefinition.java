@@ -33,13 +33,19 @@ import org.apache.camel.Expression;
 import org.apache.camel.Processor;
 import org.apache.camel.model.loadbalancer.CustomLoadBalancerDefinition;
 import org.apache.camel.model.loadbalancer.FailoverLoadBalancerDefinition;
+import org.apache.camel.model.loadbalancer.LeastActiveLoadBalancerDefinition;
+import org.apache.camel.model.loadbalancer.LeastLatencyLoadBalancerDefinition;
+import org.apache.camel.model.loadbalancer.PowerOfTwoChoicesLoadBalancerDefinition;
 import org.apache.camel.model.loadbalancer.RandomLoadBalancerDefinition;
 import org.apache.camel.model.loadbalancer.RoundRobinLoadBalancerDefinition;
 import org.apache.camel.model.loadbalancer.StickyLoadBalancerDefinition;
 import org.apache.camel.model.loadbalancer.TopicLoadBalancerDefinition;
 import org.apache.camel.model.loadbalancer.WeightedLoadBalancerDefinition;
 import org.apache.camel.processor.loadbalancer.FailOverLoadBalancer;
+import org.apache.camel.processor.loadbalancer.LeastActiveLoadBalancer;
+import org.apache.camel.processor.loadbalancer.LeastLatencyLoadBalancer;
 import org.apache.camel.processor.loadbalancer.LoadBalancer;
+import org.apache.camel.processor.loadbalancer.PowerOfTwoChoicesLoadBalancer;
 import org.apache.camel.processor.loadbalancer.RandomLoadBalancer;
 import org.apache.camel.processor.loadbalancer.RoundRobinLoadBalancer;
 import org.apache.camel.processor.loadbalancer.StickyLoadBalancer;
@@ -66,7 +72,10 @@ public class LoadBalanceDefinition extends ProcessorDefinition<LoadBalanceDefini
             @XmlElement(required = false, name = "roundRobin", type = RoundRobinLoadBalancerDefinition.class),
             @XmlElement(required = false, name = "sticky", type = StickyLoadBalancerDefinition.class),
             @XmlElement(required = false, name = "topic", type = TopicLoadBalancerDefinition.class),
-            @XmlElement(required = false, name = "weighted", type = WeightedLoadBalancerDefinition.class)}
+            @XmlElement(required = false, name = "weighted", type = WeightedLoadBalancerDefinition.class),
+            @XmlElement(required = false, name = "leastActive", type = LeastActiveLoadBalancerDefinition.class),
+            @XmlElement(required = false, name = "leastLatency", type = LeastLatencyLoadBalancerDefinition.class),
+            @XmlElement(required = false, name = "powerOfTwoChoices", type = PowerOfTwoChoicesLoadBalancerDefinition.class)}
     )
     private LoadBalancerDefinition loadBalancerType;
     @XmlElementRef
@@ -258,6 +267,38 @@ public class LoadBalanceDefinition extends ProcessorDefinition<LoadBalanceDefini
         return this;
     }
 
+    /**
+     * Uses least active load balancer, which sends to the processor with the fewest exchanges in flight
+     *
+     * @return the builder
+     */
+    public LoadBalanceDefinition leastActive() {
+        setLoadBalancerType(new LoadBalancerDefinition(new LeastActiveLoadBalancer()));
+        return this;
+    }
+
+    /**
+     * Uses least latency load balancer, which sends to the processor with the lowest average latency
+     * weighted by the exchanges in flight
+     *
+     * @return the builder
+     */
+    public LoadBalanceDefinition leastLatency() {
+        setLoadBalancerType(new LoadBalancerDefinition(new LeastLatencyLoadBalancer()));
+        return this;
+    }
+
+    /**
+     * Uses power of two choices load balancer, which picks two processors at random and sends to the one
+     * with the lower average latency weighted by the exchanges in flight
+     *
+     * @return the builder
+     */
+    public LoadBalanceDefinition powerOfTwoChoices() {
+        setLoadBalancerType(new LoadBalancerDefinition(new PowerOfTwoChoicesLoadBalancer()));
+        return this;
+    }
+
     /**
      * Uses the custom load balancer
      *
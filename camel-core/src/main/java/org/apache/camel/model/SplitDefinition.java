@@ -64,6 +64,8 @@ public class SplitDefinition extends ExpressionNode implements ExecutorServiceAw
     private Processor onPrepare;
     @XmlAttribute
     private Boolean shareUnitOfWork;
+    @XmlAttribute
+    private Integer maxInFlight;
 
     public SplitDefinition() {
     }
@@ -105,6 +107,9 @@ public class SplitDefinition extends ExpressionNode implements ExecutorServiceAw
         if (timeout > 0 && !isParallelProcessing()) {
             throw new IllegalArgumentException("Timeout is used but ParallelProcessing has not been enabled.");
         }
+        if (getMaxInFlight() != null && getMaxInFlight() > 0 && !isParallelProcessing()) {
+            throw new IllegalArgumentException("MaxInFlight is used but ParallelProcessing has not been enabled.");
+        }
         if (onPrepareRef != null) {
             onPrepare = CamelContextHelper.mandatoryLookup(routeContext.getCamelContext(), onPrepareRef, Processor.class);
         }
@@ -114,6 +119,9 @@ public class SplitDefinition extends ExpressionNode implements ExecutorServiceAw
         Splitter answer = new Splitter(routeContext.getCamelContext(), exp, childProcessor, aggregationStrategy,
                             isParallelProcessing(), executorService, isStreaming(), isStopOnException(),
                             timeout, onPrepare, isShareUnitOfWork());
+        if (getMaxInFlight() != null) {
+            answer.setMaxInFlight(getMaxInFlight());
+        }
         if (isShareUnitOfWork()) {
             // wrap answer in a sub unit of work, since we share the unit of work
             return new SubUnitOfWorkProcessor(answer);
@@ -239,6 +247,21 @@ public class SplitDefinition extends ExpressionNode implements ExecutorServiceAw
         return this;
     }
 
+    /**
+     * Sets the maximum number of messages in flight when using parallelProcessing.
+     * <p/>
+     * A message is in flight from when it has been split until its reply has been aggregated. When the limit
+     * is reached the splitter waits before it splits the next message. In combination with streaming this keeps
+     * the memory usage bounded regardless of how big the input is.
+     *
+     * @param maxInFlight the maximum number of messages in flight
+     * @return the builder
+     */
+    public SplitDefinition maxInFlight(int maxInFlight) {
+        setMaxInFlight(maxInFlight);
+        return this;
+    }
+
     /**
      * Shares the {@link org.apache.camel.spi.UnitOfWork} with the parent and each of the sub messages.
      *
@@ -363,4 +386,12 @@ public class SplitDefinition extends ExpressionNode implements ExecutorServiceAw
     public boolean isShareUnitOfWork() {
         return shareUnitOfWork != null && shareUnitOfWork;
     }
+
+    public Integer getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(Integer maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
 }
@@ -21,6 +21,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.XmlTransient;
 
@@ -30,6 +31,7 @@ import org.apache.camel.builder.ExpressionBuilder;
 import org.apache.camel.model.language.ExpressionDefinition;
 import org.apache.camel.processor.Throttler;
 import org.apache.camel.spi.RouteContext;
+import org.apache.camel.spi.ThrottlerRepository;
 import org.apache.camel.util.ObjectHelper;
 
 /**
@@ -52,6 +54,16 @@ public class ThrottleDefinition extends ExpressionNode implements ExecutorServic
     private Boolean asyncDelayed;
     @XmlAttribute
     private Boolean callerRunsWhenRejected;
+    @XmlAttribute
+    private Long maximumBurst;
+    @XmlElement(name = "correlationExpression", required = false)
+    private ExpressionSubElementDefinition correlationExpression;
+    @XmlAttribute
+    private String throttlerRepositoryRef;
+    @XmlTransient
+    private ThrottlerRepository throttlerRepository;
+    @XmlAttribute
+    private Long leaseSize;
     
     public ThrottleDefinition() {
     }
@@ -107,9 +119,37 @@ public class ThrottleDefinition extends ExpressionNode implements ExecutorServic
         } else {
             answer.setCallerRunsWhenRejected(getCallerRunsWhenRejected());
         }
+        if (getMaximumBurst() != null) {
+            answer.setMaximumBurst(getMaximumBurst());
+        }
+        if (getCorrelationExpression() != null) {
+            answer.setCorrelationExpression(getCorrelationExpression().createExpression(routeContext));
+        }
+        ThrottlerRepository repository = resolveThrottlerRepository(routeContext);
+        if (repository != null) {
+            // add as service to CamelContext so we can managed it and it ensures it will be shutdown when camel shutdowns
+            routeContext.getCamelContext().addService(repository);
+            answer.setThrottlerRepository(repository);
+        }
+        if (getLeaseSize() != null) {
+            answer.setLeaseSize(getLeaseSize());
+        }
         return answer;
     }
 
+    /**
+     * Strategy method to resolve the {@link org.apache.camel.spi.ThrottlerRepository} to use
+     *
+     * @param routeContext route context
+     * @return the repository, or <tt>null</tt> if none configured
+     */
+    protected ThrottlerRepository resolveThrottlerRepository(RouteContext routeContext) {
+        if (throttlerRepositoryRef != null) {
+            throttlerRepository = routeContext.lookup(throttlerRepositoryRef, ThrottlerRepository.class);
+        }
+        return throttlerRepository;
+    }
+
     private Expression createMaxRequestsPerPeriodExpression(RouteContext routeContext) {
         if (getExpression() != null) {
             if (ObjectHelper.isNotEmpty(getExpression().getExpression()) || getExpression().getExpressionValue() != null) {
@@ -143,6 +183,71 @@ public class ThrottleDefinition extends ExpressionNode implements ExecutorServic
         return this;
     }
 
+    /**
+     * Sets the maximum number of requests a time period can allow, when the unused requests of
+     * idle periods are carried over.
+     * <p/>
+     * Is by default the maximum request count per period, so no requests are carried over.
+     *
+     * @param maximumBurst  the maximum request count number for a time period
+     * @return the builder
+     */
+    public ThrottleDefinition maximumBurst(long maximumBurst) {
+        setMaximumBurst(maximumBurst);
+        return this;
+    }
+
+    /**
+     * Throttles the exchanges per correlation key, so each key is allowed the maximum request count
+     * per time period.
+     *
+     * @param correlationExpression  the expression to evaluate the correlation key
+     * @return the builder
+     */
+    public ThrottleDefinition correlationExpression(Expression correlationExpression) {
+        setCorrelationExpression(new ExpressionSubElementDefinition(correlationExpression));
+        return this;
+    }
+
+    /**
+     * Shares the maximum request count per time period with the other throttlers using the repository,
+     * such as the same route running on a number of Camel instances.
+     *
+     * @param throttlerRepository  the repository holding the request counts
+     * @return the builder
+     */
+    public ThrottleDefinition throttlerRepository(ThrottlerRepository throttlerRepository) {
+        setThrottlerRepository(throttlerRepository);
+        return this;
+    }
+
+    /**
+     * Shares the maximum request count per time period with the other throttlers using the repository,
+     * such as the same route running on a number of Camel instances.
+     *
+     * @param throttlerRepositoryRef  the reference name of the repository holding the request counts
+     * @return the builder
+     */
+    public ThrottleDefinition throttlerRepositoryRef(String throttlerRepositoryRef) {
+        setThrottlerRepositoryRef(throttlerRepositoryRef);
+        return this;
+    }
+
+    /**
+     * Sets the number of requests to lease at a time from the throttler repository.
+     * A larger lease means fewer calls to the repository, but the requests may be less evenly
+     * spread over the throttlers.
+     * <p/>
+     * Is by default a tenth of the maximum request count per period.
+     *
+     * @param leaseSize  the number of requests to lease at a time
+     * @return the builder
+     */
+    public ThrottleDefinition leaseSize(long leaseSize) {
+        setLeaseSize(leaseSize);
+        return this;
+    }
+
     /**
      * Whether or not the caller should run the task when it was rejected by the thread pool.
      * <p/>
@@ -218,4 +323,44 @@ public class ThrottleDefinition extends ExpressionNode implements ExecutorServic
     public void setExecutorServiceRef(String executorServiceRef) {
         this.executorServiceRef = executorServiceRef;
     }
+
+    public Long getMaximumBurst() {
+        return maximumBurst;
+    }
+
+    public void setMaximumBurst(Long maximumBurst) {
+        this.maximumBurst = maximumBurst;
+    }
+
+    public ExpressionSubElementDefinition getCorrelationExpression() {
+        return correlationExpression;
+    }
+
+    public void setCorrelationExpression(ExpressionSubElementDefinition correlationExpression) {
+        this.correlationExpression = correlationExpression;
+    }
+
+    public String getThrottlerRepositoryRef() {
+        return throttlerRepositoryRef;
+    }
+
+    public void setThrottlerRepositoryRef(String throttlerRepositoryRef) {
+        this.throttlerRepositoryRef = throttlerRepositoryRef;
+    }
+
+    public ThrottlerRepository getThrottlerRepository() {
+        return throttlerRepository;
+    }
+
+    public void setThrottlerRepository(ThrottlerRepository throttlerRepository) {
+        this.throttlerRepository = throttlerRepository;
+    }
+
+    public Long getLeaseSize() {
+        return leaseSize;
+    }
+
+    public void setLeaseSize(Long leaseSize) {
+        this.leaseSize = leaseSize;
+    }
 }
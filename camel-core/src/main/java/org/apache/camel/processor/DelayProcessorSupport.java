@@ -16,9 +16,12 @@
  */
 package org.apache.camel.processor;
 
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.camel.AsyncCallback;
 import org.apache.camel.Exchange;
@@ -31,7 +34,10 @@ import org.slf4j.LoggerFactory;
  * A useful base class for any processor which provides some kind of throttling
  * or delayed processing.
  * <p/>
- * This implementation will block while waiting.
+ * This implementation will block while waiting, unless asynchronous delay is enabled. The delayed exchanges
+ * are then kept in a {@link DelayQueue}, which is drained by a single task scheduled to run when the first
+ * exchange is due, so there is no scheduled task per exchange. The drain task only hands the due exchanges
+ * over to the executor service, which continues routing them in parallel.
  * 
  * @version 
  */
@@ -40,16 +46,35 @@ public abstract class DelayProcessorSupport extends DelegateAsyncProcessor {
     private final ScheduledExecutorService executorService;
     private boolean asyncDelayed;
     private boolean callerRunsWhenRejected = true;
+    private final DelayQueue<ProcessCall> delayed = new DelayQueue<ProcessCall>();
+    // the time the drain task is scheduled to run, or Long.MAX_VALUE if not scheduled
+    private final AtomicLong drainTime = new AtomicLong(Long.MAX_VALUE);
+    private final Runnable drainTask = new Runnable() {
+        public void run() {
+            drain();
+        }
+    };
 
     // TODO: Add option to cancel tasks on shutdown so we can stop fast
 
-    private final class ProcessCall implements Runnable {
+    private final class ProcessCall implements Runnable, Delayed {
         private final Exchange exchange;
         private final AsyncCallback callback;
+        private final long time;
 
-        public ProcessCall(Exchange exchange, AsyncCallback callback) {
+        public ProcessCall(Exchange exchange, AsyncCallback callback, long time) {
             this.exchange = exchange;
             this.callback = callback;
+            this.time = time;
+        }
+
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(time - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        public int compareTo(Delayed other) {
+            long diff = getDelay(TimeUnit.MILLISECONDS) - other.getDelay(TimeUnit.MILLISECONDS);
+            return diff < 0 ? -1 : diff > 0 ? 1 : 0;
         }
 
         public void run() {
@@ -110,15 +135,20 @@ public abstract class DelayProcessorSupport extends DelegateAsyncProcessor {
                 return true;
             }
         } else {
-            // asynchronous delay so schedule a process call task
-            ProcessCall call = new ProcessCall(exchange, callback);
+            // asynchronous delay so queue a process call, which the drain task hands over to the executor
+            ProcessCall call = new ProcessCall(exchange, callback, System.currentTimeMillis() + delay);
             try {
-                log.trace("Scheduling delayed task to run in {} millis for exchangeId: {}",
+                log.trace("Queuing delayed task to run in {} millis for exchangeId: {}",
                         delay, exchange.getExchangeId());
-                executorService.schedule(call, delay, TimeUnit.MILLISECONDS);
+                delayed.add(call);
+                scheduleDrain(call.time);
                 // tell Camel routing engine we continue routing asynchronous
                 return false;
             } catch (RejectedExecutionException e) {
+                if (!delayed.remove(call)) {
+                    // a drain task scheduled earlier has taken the call so it will be run
+                    return false;
+                }
                 if (isCallerRunsWhenRejected()) {
                     if (!isRunAllowed()) {
                         exchange.setException(new RejectedExecutionException());
@@ -143,6 +173,13 @@ public abstract class DelayProcessorSupport extends DelegateAsyncProcessor {
         }
     }
 
+    /**
+     * Gets the number of exchanges which are delayed asynchronously and waiting to continue routing.
+     */
+    public int getPendingExchanges() {
+        return delayed.size();
+    }
+
     public boolean isAsyncDelayed() {
         return asyncDelayed;
     }
@@ -197,6 +234,63 @@ public abstract class DelayProcessorSupport extends DelegateAsyncProcessor {
         throw e;
     }
 
+    /**
+     * Schedules the drain task to run at the given time, unless it is already scheduled to run before.
+     */
+    private void scheduleDrain(long time) {
+        while (true) {
+            long current = drainTime.get();
+            if (time >= current) {
+                return;
+            }
+            if (drainTime.compareAndSet(current, time)) {
+                try {
+                    executorService.schedule(drainTask, time - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    drainTime.compareAndSet(time, Long.MAX_VALUE);
+                    throw e;
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Hands the process calls which are due over to the executor, and schedules the drain task again for the next call.
+     */
+    private void drain() {
+        drainTime.set(Long.MAX_VALUE);
+        ProcessCall call;
+        while ((call = delayed.poll()) != null) {
+            try {
+                executorService.execute(call);
+            } catch (RejectedExecutionException e) {
+                if (isCallerRunsWhenRejected() && isRunAllowed()) {
+                    log.debug("Executing delayed task rejected, so letting drain task run it for exchangeId: {}", call.exchange.getExchangeId());
+                    call.run();
+                } else {
+                    call.exchange.setException(e);
+                    call.callback.done(false);
+                }
+            }
+        }
+        ProcessCall next = delayed.peek();
+        if (next != null) {
+            try {
+                scheduleDrain(next.time);
+            } catch (RejectedExecutionException e) {
+                // the executor is shutting down so the remaining calls cannot be run
+                log.debug("Cannot schedule delayed tasks as the executor rejected the task");
+                for (ProcessCall remaining : delayed.toArray(new ProcessCall[0])) {
+                    if (delayed.remove(remaining)) {
+                        remaining.exchange.setException(e);
+                        remaining.callback.done(false);
+                    }
+                }
+            }
+        }
+    }
+
     protected long currentSystemTime() {
         return System.currentTimeMillis();
     }
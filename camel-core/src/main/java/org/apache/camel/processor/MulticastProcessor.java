@@ -31,6 +31,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -151,6 +152,7 @@ public class MulticastProcessor extends ServiceSupport implements AsyncProcessor
     private final long timeout;
     private final ConcurrentMap<PreparedErrorHandler, Processor> errorHandlers = new ConcurrentHashMap<PreparedErrorHandler, Processor>();
     private final boolean shareUnitOfWork;
+    private int maxInFlight;
 
     public MulticastProcessor(CamelContext camelContext, Collection<Processor> processors) {
         this(camelContext, processors, null);
@@ -255,6 +257,8 @@ public class MulticastProcessor extends ServiceSupport implements AsyncProcessor
 
         final AtomicInteger total = new AtomicInteger(0);
         final Iterator<ProcessorExchangePair> it = pairs.iterator();
+        // bounded window of tasks which are in flight (submitted but not yet aggregated)
+        final Semaphore inFlight = maxInFlight > 0 ? new Semaphore(maxInFlight) : null;
 
         if (it.hasNext()) {
             // when parallel then aggregate on the fly
@@ -267,12 +271,21 @@ public class MulticastProcessor extends ServiceSupport implements AsyncProcessor
             // while we submit new tasks, and those tasks complete concurrently
             // this allows us to optimize work and reduce memory consumption
             final AggregateOnTheFlyTask aggregateOnTheFlyTask = new AggregateOnTheFlyTask(result, original, total, completion, running,
-                    aggregationOnTheFlyDone, allTasksSubmitted, executionException);
+                    aggregationOnTheFlyDone, allTasksSubmitted, executionException, inFlight);
             final AtomicBoolean aggregationTaskSubmitted = new AtomicBoolean();
 
             LOG.trace("Starting to submit parallel tasks");
 
             while (it.hasNext()) {
+                if (inFlight != null) {
+                    // wait for room in the in flight window before we grab the next pair, which lets the iterator
+                    // pause reading from the source until the already submitted tasks has been aggregated
+                    // (no need to wait if we are no longer running or the aggregation is done due to a failure)
+                    while (running.get() && aggregationOnTheFlyDone.getCount() > 0 && !inFlight.tryAcquire(1, TimeUnit.SECONDS)) {
+                        LOG.trace("Waiting for room in the in flight window of {} tasks", maxInFlight);
+                    }
+                }
+
                 final ProcessorExchangePair pair = it.next();
                 final Exchange subExchange = pair.getExchange();
                 updateNewExchange(subExchange, total.intValue(), pairs, it);
@@ -362,11 +375,12 @@ public class MulticastProcessor extends ServiceSupport implements AsyncProcessor
         private final CountDownLatch aggregationOnTheFlyDone;
         private final AtomicBoolean allTasksSubmitted;
         private final AtomicException executionException;
+        private final Semaphore inFlight;
 
         private AggregateOnTheFlyTask(AtomicExchange result, Exchange original, AtomicInteger total,
                                       CompletionService<Exchange> completion, AtomicBoolean running,
                                       CountDownLatch aggregationOnTheFlyDone, AtomicBoolean allTasksSubmitted,
-                                      AtomicException executionException) {
+                                      AtomicException executionException, Semaphore inFlight) {
             this.result = result;
             this.original = original;
             this.total = total;
@@ -375,6 +389,7 @@ public class MulticastProcessor extends ServiceSupport implements AsyncProcessor
             this.aggregationOnTheFlyDone = aggregationOnTheFlyDone;
             this.allTasksSubmitted = allTasksSubmitted;
             this.executionException = executionException;
+            this.inFlight = inFlight;
         }
 
         public void run() {
@@ -478,6 +493,11 @@ public class MulticastProcessor extends ServiceSupport implements AsyncProcessor
                     // we got a result so aggregate it
                     AggregationStrategy strategy = getAggregationStrategy(subExchange);
                     doAggregate(strategy, result, subExchange);
+
+                    if (inFlight != null) {
+                        // the task is no longer in flight so make room for the next task
+                        inFlight.release();
+                    }
                 }
 
                 aggregated++;
@@ -1063,6 +1083,23 @@ public class MulticastProcessor extends ServiceSupport implements AsyncProcessor
         return shareUnitOfWork;
     }
 
+    /**
+     * The maximum number of tasks in flight when using parallel processing.
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Sets the maximum number of tasks in flight when using parallel processing, which is the number of tasks
+     * which has been submitted but not yet aggregated. When the limit is reached the next message is not created
+     * until a task has been aggregated, which in streaming mode bounds the memory usage regardless of the size
+     * of the input. Use <tt>0</tt> or negative value for unbounded, which is the default.
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
     public List<Processor> next() {
         if (!hasNext()) {
             return null;
@@ -17,12 +17,18 @@
 package org.apache.camel.processor;
 
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.camel.Exchange;
 import org.apache.camel.Expression;
 import org.apache.camel.Processor;
 import org.apache.camel.Traceable;
+import org.apache.camel.spi.ThrottlerRepository;
+import org.apache.camel.util.LRUCache;
 import org.apache.camel.util.ObjectHelper;
+import org.apache.camel.util.ServiceHelper;
+import org.apache.camel.util.concurrent.LongAdder;
 
 /**
  * A <a href="http://camel.apache.org/throttler.html">Throttler</a>
@@ -32,14 +38,40 @@ import org.apache.camel.util.ObjectHelper;
  * as only allowing 100 requests per second; or if huge load can cause a
  * particular system to malfunction or to reduce its throughput you might want
  * to introduce some throttling.
+ * <p/>
+ * The exchanges are assigned to time slots, which each allow the maximum number of requests. The slots
+ * are assigned using compare and set, so the throttler does not lock. When the throttler has been idle,
+ * the unused requests of the idle periods are carried over to the next slot, up to the maximum burst,
+ * which by default is the maximum number of requests per period.
+ * <p/>
+ * If a correlation expression is configured, the exchanges are throttled per correlation key, so each key
+ * has its own time slots.
+ * <p/>
+ * If a {@link ThrottlerRepository} is configured, the maximum number of requests per period is shared by
+ * all the throttlers using the repository, such as the same route on a number of Camel instances. The requests
+ * are then leased in batches from the repository, and each exchange takes a request from the local batch.
+ * The periods are aligned to the clock, so the instances agree on the periods. The quota in the repository
+ * is keyed by the correlation key, or by <tt>throttler</tt> if there is no correlation expression.
  * 
  * @version 
  */
 public class Throttler extends DelayProcessorSupport implements Traceable {
-    private long maximumRequestsPerPeriod;
+    private static final int MAX_CORRELATION_KEYS = 10000;
+    private static final String DEFAULT_KEY = "throttler";
+    private volatile long maximumRequestsPerPeriod;
     private Expression maxRequestsPerPeriodExpression;
     private long timePeriodMillis = 1000;
-    private volatile TimeSlot slot;
+    private long maximumBurst;
+    private Expression correlationExpression;
+    private final AtomicReference<TimeSlot> slot = new AtomicReference<TimeSlot>();
+    private final LRUCache<Object, AtomicReference<TimeSlot>> correlatedSlots
+        = new LRUCache<Object, AtomicReference<TimeSlot>>(MAX_CORRELATION_KEYS);
+    private final LongAdder throttledExchanges = new LongAdder();
+    private ThrottlerRepository throttlerRepository;
+    private long leaseSize;
+    private final AtomicReference<Lease> lease = new AtomicReference<Lease>();
+    private final LRUCache<Object, AtomicReference<Lease>> correlatedLeases
+        = new LRUCache<Object, AtomicReference<Lease>>(MAX_CORRELATION_KEYS);
 
     public Throttler(Processor processor, Expression maxRequestsPerPeriodExpression, long timePeriodMillis, ScheduledExecutorService executorService) {
         super(processor, executorService);
@@ -95,6 +127,73 @@ public class Throttler extends DelayProcessorSupport implements Traceable {
         this.timePeriodMillis = timePeriodMillis;
     }
 
+    public long getMaximumBurst() {
+        return maximumBurst;
+    }
+
+    /**
+     * Sets the maximum number of requests a time slot can allow, when the unused requests of idle periods
+     * are carried over. Is by default the maximum number of requests per period, so nothing is carried over.
+     */
+    public void setMaximumBurst(long maximumBurst) {
+        this.maximumBurst = maximumBurst;
+    }
+
+    public Expression getCorrelationExpression() {
+        return correlationExpression;
+    }
+
+    /**
+     * Sets the expression to throttle the exchanges per correlation key
+     */
+    public void setCorrelationExpression(Expression correlationExpression) {
+        this.correlationExpression = correlationExpression;
+    }
+
+    public ThrottlerRepository getThrottlerRepository() {
+        return throttlerRepository;
+    }
+
+    /**
+     * Sets the repository to share the maximum number of requests per period with other throttlers
+     */
+    public void setThrottlerRepository(ThrottlerRepository throttlerRepository) {
+        this.throttlerRepository = throttlerRepository;
+    }
+
+    public long getLeaseSize() {
+        return leaseSize;
+    }
+
+    /**
+     * Sets the number of requests to lease at a time from the throttler repository.
+     * Is by default a tenth of the maximum number of requests per period.
+     */
+    public void setLeaseSize(long leaseSize) {
+        this.leaseSize = leaseSize;
+    }
+
+    /**
+     * Gets the number of exchanges which have been delayed by the throttler.
+     */
+    public long getThrottledExchanges() {
+        return throttledExchanges.sum();
+    }
+
+    /**
+     * Gets the number of correlation keys which are throttled.
+     */
+    public int getCorrelationKeys() {
+        return throttlerRepository != null ? correlatedLeases.size() : correlatedSlots.size();
+    }
+
+    /**
+     * Resets the throttled exchanges statistic.
+     */
+    public void resetStatistics() {
+        throttledExchanges.reset();
+    }
+
     // Implementation methods
     // -----------------------------------------------------------------------
 
@@ -112,27 +211,136 @@ public class Throttler extends DelayProcessorSupport implements Traceable {
             throw new IllegalStateException("The maximumRequestsPerPeriod must be a positive number, was: " + maximumRequestsPerPeriod);
         }
 
-        TimeSlot slot = nextSlot();
-        if (!slot.isActive()) {
-            long delay = slot.startTime - currentSystemTime();
-            return delay;
+        Object key = null;
+        if (correlationExpression != null) {
+            key = correlationExpression.evaluate(exchange, Object.class);
+            if (key == null) {
+                throw new IllegalStateException("The correlation key evaluated to null for exchangeId: " + exchange.getExchangeId());
+            }
+        }
+
+        long delay;
+        if (throttlerRepository != null) {
+            delay = leaseRequest(key != null ? correlatedLeasesFor(key) : lease, key != null ? key.toString() : DEFAULT_KEY);
         } else {
-            return 0;
+            TimeSlot timeSlot = nextSlot(key != null ? correlatedSlotsFor(key) : this.slot);
+            delay = timeSlot.isActive() ? 0 : timeSlot.startTime - currentSystemTime();
         }
+
+        if (delay > 0) {
+            throttledExchanges.increment();
+        }
+        return delay;
     }
-    
+
+    @Override
+    protected void doStart() throws Exception {
+        ServiceHelper.startServices(throttlerRepository);
+        super.doStart();
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        super.doStop();
+        if (throttlerRepository != null) {
+            releaseLease(lease.getAndSet(null));
+            for (AtomicReference<Lease> ref : correlatedLeases.values()) {
+                releaseLease(ref.getAndSet(null));
+            }
+            correlatedLeases.clear();
+        }
+        // the repository may be shared so it is not stopped here
+    }
+
     /*
      * Determine what the next available time slot is for handling an Exchange
      */
-    protected synchronized TimeSlot nextSlot() {
-        if (slot == null) {
-            slot = new TimeSlot();
+    protected TimeSlot nextSlot() {
+        return nextSlot(slot);
+    }
+
+    private TimeSlot nextSlot(AtomicReference<TimeSlot> ref) {
+        while (true) {
+            TimeSlot current = ref.get();
+            if (current == null) {
+                ref.compareAndSet(null, new TimeSlot());
+            } else if (current.isExpired()) {
+                // carry over the requests of the idle periods
+                ref.compareAndSet(current, current.next());
+            } else if (current.assign()) {
+                return current;
+            } else {
+                // the slot is full so move on to the next slot, unless another thread did already
+                ref.compareAndSet(current, current.next());
+            }
+        }
+    }
+
+    /*
+     * Takes a request from the leased batch, and leases another batch when the batch is used up.
+     * Returns the delay until the period of the request starts.
+     */
+    private long leaseRequest(AtomicReference<Lease> ref, String key) {
+        long max = maximumRequestsPerPeriod;
+        long size = leaseSize > 0 ? Math.min(leaseSize, max) : Math.max(1, max / 10);
+        while (true) {
+            long now = currentSystemTime();
+            long period = now / timePeriodMillis;
+            Lease current = ref.get();
+            if (current == null || current.period < period) {
+                // the requests leased for an earlier period have expired
+                ref.compareAndSet(current, new Lease(key, period));
+            } else if (current.assign()) {
+                return current.period * timePeriodMillis - now;
+            } else {
+                // threads may lease at the same time, which is fine as the repository guards the quota
+                long leased = throttlerRepository.lease(key, current.period, timePeriodMillis, max, size);
+                if (leased > 0) {
+                    current.remaining.addAndGet(leased);
+                    if (ref.get() != current) {
+                        // another thread replaced the lease meanwhile, so return the requests
+                        // which no thread can take from the replaced lease anymore
+                        releaseLease(current);
+                    }
+                } else {
+                    // the quota of the period is used up so lease from the next period
+                    ref.compareAndSet(current, new Lease(key, current.period + 1));
+                }
+            }
+        }
+    }
+
+    private void releaseLease(Lease lease) {
+        if (lease != null) {
+            long unused = lease.remaining.getAndSet(0);
+            if (unused > 0 && lease.period >= currentSystemTime() / timePeriodMillis) {
+                throttlerRepository.release(lease.key, lease.period, unused);
+            }
+        }
+    }
+
+    private AtomicReference<Lease> correlatedLeasesFor(Object key) {
+        AtomicReference<Lease> answer = correlatedLeases.get(key);
+        if (answer == null) {
+            answer = new AtomicReference<Lease>();
+            AtomicReference<Lease> existing = correlatedLeases.putIfAbsent(key, answer);
+            if (existing != null) {
+                answer = existing;
+            }
         }
-        if (slot.isFull()) {
-            slot = slot.next();
+        return answer;
+    }
+
+    private AtomicReference<TimeSlot> correlatedSlotsFor(Object key) {
+        AtomicReference<TimeSlot> answer = correlatedSlots.get(key);
+        if (answer == null) {
+            answer = new AtomicReference<TimeSlot>();
+            AtomicReference<TimeSlot> existing = correlatedSlots.putIfAbsent(key, answer);
+            if (existing != null) {
+                answer = existing;
+            }
         }
-        slot.assign();
-        return slot;
+        return answer;
     }
 
     /*
@@ -140,20 +348,36 @@ public class Throttler extends DelayProcessorSupport implements Traceable {
     */
     protected class TimeSlot {
         
-        private volatile long capacity = Throttler.this.maximumRequestsPerPeriod;
+        private final AtomicLong capacity;
         private final long duration = Throttler.this.timePeriodMillis;
         private final long startTime;
 
         protected TimeSlot() {
-            this(System.currentTimeMillis());
+            this(System.currentTimeMillis(), Throttler.this.maximumRequestsPerPeriod);
         }
 
         protected TimeSlot(long startTime) {
+            this(startTime, Throttler.this.maximumRequestsPerPeriod);
+        }
+
+        protected TimeSlot(long startTime, long capacity) {
             this.startTime = startTime;
+            this.capacity = new AtomicLong(capacity);
         }
 
-        protected void assign() {
-            capacity--;
+        /*
+         * Assigns an exchange to this slot, returns false if the slot is full
+         */
+        protected boolean assign() {
+            while (true) {
+                long current = capacity.get();
+                if (current <= 0) {
+                    return false;
+                }
+                if (capacity.compareAndSet(current, current - 1)) {
+                    return true;
+                }
+            }
         }
         
         /*
@@ -161,15 +385,56 @@ public class Throttler extends DelayProcessorSupport implements Traceable {
          * (no time slots are being created in the past)
          */
         protected TimeSlot next() {
-            return new TimeSlot(Math.max(System.currentTimeMillis(), this.startTime + this.duration));
+            long now = System.currentTimeMillis();
+            long max = Throttler.this.maximumRequestsPerPeriod;
+            if (now < this.startTime + this.duration) {
+                return new TimeSlot(this.startTime + this.duration, max);
+            }
+
+            // this slot has expired, so the unused requests and the requests of the idle periods
+            // are carried over up to the maximum burst
+            long periods = (now - this.startTime) / this.duration;
+            long burst = Math.max(Throttler.this.maximumBurst, max);
+            long carried = Math.max(capacity.get(), 0) + (periods - 1) * max;
+            return new TimeSlot(now, Math.min(burst, max + carried));
         }
         
         protected boolean isActive() {
             return startTime <= System.currentTimeMillis();
         }
+
+        protected boolean isExpired() {
+            return startTime + duration <= System.currentTimeMillis();
+        }
         
         protected boolean isFull() {
-            return capacity <= 0;
+            return capacity.get() <= 0;
         }        
     }
+
+    /*
+     * The requests leased from the throttler repository for a period.
+     */
+    private static final class Lease {
+        private final String key;
+        private final long period;
+        private final AtomicLong remaining = new AtomicLong();
+
+        private Lease(String key, long period) {
+            this.key = key;
+            this.period = period;
+        }
+
+        private boolean assign() {
+            while (true) {
+                long current = remaining.get();
+                if (current <= 0) {
+                    return false;
+                }
+                if (remaining.compareAndSet(current, current - 1)) {
+                    return true;
+                }
+            }
+        }
+    }
 }
@@ -17,8 +17,7 @@
 package org.apache.camel.processor.aggregate;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -77,10 +76,13 @@ import org.slf4j.LoggerFactory;
 public class AggregateProcessor extends ServiceSupport implements Processor, Navigate<Processor>, Traceable {
 
     public static final String AGGREGATE_TIMEOUT_CHECKER = "AggregateTimeoutChecker";
+    public static final int DEFAULT_LOCK_STRIPES = 64;
 
     private static final Logger LOG = LoggerFactory.getLogger(AggregateProcessor.class);
 
     private final Lock lock = new ReentrantLock();
+    // striped locks per correlation key, only in use when parallel aggregation is enabled
+    private Lock[] correlationKeyLocks;
     private final CamelContext camelContext;
     private final Processor processor;
     private final AggregationStrategy aggregationStrategy;
@@ -94,7 +96,7 @@ public class AggregateProcessor extends ServiceSupport implements Processor, Nav
     private AggregationRepository aggregationRepository = new MemoryAggregationRepository();
     private Map<Object, Object> closedCorrelationKeys;
     private Set<String> batchConsumerCorrelationKeys = new LinkedHashSet<String>();
-    private final Set<String> inProgressCompleteExchanges = new HashSet<String>();
+    private final Set<String> inProgressCompleteExchanges = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
     private final Map<String, RedeliveryData> redeliveryState = new ConcurrentHashMap<String, RedeliveryData>();
 
     // keep booking about redelivery
@@ -106,12 +108,15 @@ public class AggregateProcessor extends ServiceSupport implements Processor, Nav
     private boolean ignoreInvalidCorrelationKeys;
     private Integer closeCorrelationKeyOnCompletion;
     private boolean parallelProcessing;
+    private boolean parallelAggregation;
+    private int lockStripes = DEFAULT_LOCK_STRIPES;
 
     // different ways to have completion triggered
     private boolean eagerCheckCompletion;
     private Predicate completionPredicate;
     private long completionTimeout;
     private Expression completionTimeoutExpression;
+    private boolean completionTimeoutWheel;
     private long completionInterval;
     private int completionSize;
     private Expression completionSizeExpression;
@@ -192,19 +197,42 @@ public class AggregateProcessor extends ServiceSupport implements Processor, Nav
         // when memory based then its fast using synchronized, but if the aggregation repository is IO
         // bound such as JPA etc then concurrent aggregation per correlation key could
         // improve performance as we can run aggregation repository get/add in parallel
-        lock.lock();
+        // (which is what parallel aggregation does by using a lock per correlation key)
+        Lock keyLock = getLock(key);
+        keyLock.lock();
         try {
             doAggregation(key, copy);
         } finally {
-            lock.unlock();
+            keyLock.unlock();
         }
     }
 
+    /**
+     * Gets the lock which must be held when aggregating or completing the given correlation key.
+     * <p/>
+     * If parallel aggregation is enabled, then the lock is selected from a fixed number of striped locks
+     * by the hash code of the key, so different correlation keys can be aggregated in parallel.
+     * Otherwise the shared aggregation lock is returned.
+     *
+     * @param key the correlation key
+     * @return the lock
+     */
+    protected Lock getLock(String key) {
+        Lock[] locks = correlationKeyLocks;
+        if (locks == null) {
+            return lock;
+        }
+        // spread the bits as string hash codes tend to only differ in the lower bits
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return locks[(hash & 0x7fffffff) % locks.length];
+    }
+
     /**
      * Aggregates the exchange with the given correlation key
      * <p/>
-     * This method <b>must</b> be run synchronized as we cannot aggregate the same correlation key
-     * in parallel.
+     * This method <b>must</b> be run while holding the lock for the given correlation key
+     * (see {@link #getLock(String)}) as we cannot aggregate the same correlation key in parallel.
      *
      * @param key      the correlation key
      * @param exchange the exchange
@@ -491,6 +519,21 @@ public class AggregateProcessor extends ServiceSupport implements Processor, Nav
         this.completionTimeoutExpression = completionTimeoutExpression;
     }
 
+    public boolean isCompletionTimeoutWheel() {
+        return completionTimeoutWheel;
+    }
+
+    /**
+     * Whether the completion timeout checker should use a time wheel to find the timed out correlation keys,
+     * instead of scanning all the correlation keys on every run. This is recommended when there is a large
+     * number of correlation keys in progress.
+     *
+     * @see DefaultTimeoutMap
+     */
+    public void setCompletionTimeoutWheel(boolean completionTimeoutWheel) {
+        this.completionTimeoutWheel = completionTimeoutWheel;
+    }
+
     public long getCompletionInterval() {
         return completionInterval;
     }
@@ -555,6 +598,35 @@ public class AggregateProcessor extends ServiceSupport implements Processor, Nav
         this.parallelProcessing = parallelProcessing;
     }
 
+    public boolean isParallelAggregation() {
+        return parallelAggregation;
+    }
+
+    /**
+     * Whether to aggregate exchanges for different correlation keys in parallel, by locking per correlation key
+     * instead of using a single shared lock for the aggregator.
+     * <p/>
+     * The {@link AggregationRepository} in use must be thread safe for concurrent access to different keys,
+     * which the {@link MemoryAggregationRepository} is. This option cannot be used together with
+     * completion from batch consumer, as that completes groups across all correlation keys.
+     */
+    public void setParallelAggregation(boolean parallelAggregation) {
+        this.parallelAggregation = parallelAggregation;
+    }
+
+    public int getLockStripes() {
+        return lockStripes;
+    }
+
+    /**
+     * Number of locks the correlation keys are striped over when parallel aggregation is enabled.
+     * <p/>
+     * Is by default {@link #DEFAULT_LOCK_STRIPES}.
+     */
+    public void setLockStripes(int lockStripes) {
+        this.lockStripes = lockStripes;
+    }
+
     public AggregationRepository getAggregationRepository() {
         return aggregationRepository;
     }
@@ -628,12 +700,19 @@ public class AggregateProcessor extends ServiceSupport implements Processor, Nav
     private final class AggregationTimeoutMap extends DefaultTimeoutMap<String, String> {
 
         private AggregationTimeoutMap(ScheduledExecutorService executor, long requestMapPollTimeMillis) {
-            // do NOT use locking on the timeout map as this aggregator has its own shared lock we will use instead
-            super(executor, requestMapPollTimeMillis, false);
+            // do NOT use locking on the timeout map as this aggregator has its own shared lock we will use instead,
+            // but when using parallel aggregation there is no shared lock so the timeout map must use its own lock
+            super(executor, requestMapPollTimeMillis, isParallelAggregation(), isCompletionTimeoutWheel());
         }
 
         @Override
         public void purge() {
+            if (isParallelAggregation()) {
+                // the lock per correlation key is acquired during eviction
+                super.purge();
+                return;
+            }
+
             // must acquire the shared aggregation lock to be able to purge
             lock.lock();
             try {
@@ -645,22 +724,36 @@ public class AggregateProcessor extends ServiceSupport implements Processor, Nav
 
         @Override
         public boolean onEviction(String key, String exchangeId) {
-            log.debug("Completion timeout triggered for correlation key: {}", key);
-
-            boolean inProgress = inProgressCompleteExchanges.contains(exchangeId);
-            if (inProgress) {
-                LOG.trace("Aggregated exchange with id: {} is already in progress.", exchangeId);
-                return true;
+            // the lock for the correlation key must be held to complete the group. When using parallel aggregation
+            // we hold the timeout map lock, and an incoming exchange may hold the key lock while waiting to update
+            // the timeout map, so we must only try to lock to avoid a deadlock. If the lock is busy then we veto
+            // the eviction, and the entry is evicted on the next purge instead.
+            // (when not using parallel aggregation its the shared lock which we already hold)
+            Lock keyLock = getLock(key);
+            if (!keyLock.tryLock()) {
+                LOG.trace("Cannot acquire lock for correlation key: {} will try completion timeout on next purge.", key);
+                return false;
             }
+            try {
+                log.debug("Completion timeout triggered for correlation key: {}", key);
 
-            // get the aggregated exchange
-            Exchange answer = aggregationRepository.get(camelContext, key);
-            if (answer != null) {
-                // indicate it was completed by timeout
-                answer.setProperty(Exchange.AGGREGATED_COMPLETED_BY, "timeout");
-                onCompletion(key, answer, true);
+                boolean inProgress = inProgressCompleteExchanges.contains(exchangeId);
+                if (inProgress) {
+                    LOG.trace("Aggregated exchange with id: {} is already in progress.", exchangeId);
+                    return true;
+                }
+
+                // get the aggregated exchange
+                Exchange answer = aggregationRepository.get(camelContext, key);
+                if (answer != null) {
+                    // indicate it was completed by timeout
+                    answer.setProperty(Exchange.AGGREGATED_COMPLETED_BY, "timeout");
+                    onCompletion(key, answer, true);
+                }
+                return true;
+            } finally {
+                keyLock.unlock();
             }
-            return true;
         }
     }
 
@@ -682,10 +775,11 @@ public class AggregateProcessor extends ServiceSupport implements Processor, Nav
             Set<String> keys = aggregationRepository.getKeys();
 
             if (keys != null && !keys.isEmpty()) {
-                // must acquire the shared aggregation lock to be able to trigger interval completion
-                lock.lock();
-                try {
-                    for (String key : keys) {
+                for (String key : keys) {
+                    // must acquire the aggregation lock for the key to be able to trigger interval completion
+                    Lock keyLock = getLock(key);
+                    keyLock.lock();
+                    try {
                         Exchange exchange = aggregationRepository.get(camelContext, key);
                         if (exchange != null) {
                             LOG.trace("Completion interval triggered for correlation key: {}", key);
@@ -693,9 +787,9 @@ public class AggregateProcessor extends ServiceSupport implements Processor, Nav
                             exchange.setProperty(Exchange.AGGREGATED_COMPLETED_BY, "interval");
                             onCompletion(key, exchange, false);
                         }
+                    } finally {
+                        keyLock.unlock();
                     }
-                } finally {
-                    lock.unlock();
                 }
             }
 
@@ -811,8 +905,25 @@ public class AggregateProcessor extends ServiceSupport implements Processor, Nav
                 closedCorrelationKeys = new LRUCache<Object, Object>(getCloseCorrelationKeyOnCompletion());
             } else {
                 LOG.info("Using ClosedCorrelationKeys with unbounded capacity");
-                closedCorrelationKeys = new HashMap<Object, Object>();
+                closedCorrelationKeys = new ConcurrentHashMap<Object, Object>();
+            }
+        }
+
+        if (isParallelAggregation()) {
+            if (isCompletionFromBatchConsumer()) {
+                throw new IllegalArgumentException("Option parallelAggregation cannot be used together with completionFromBatchConsumer.");
             }
+            if (getLockStripes() <= 0) {
+                throw new IllegalArgumentException("Option lockStripes must be a positive number, was: " + getLockStripes());
+            }
+            LOG.info("Using parallel aggregation with " + getLockStripes() + " locks striped by correlation key.");
+            Lock[] locks = new Lock[getLockStripes()];
+            for (int i = 0; i < locks.length; i++) {
+                locks[i] = new ReentrantLock();
+            }
+            correlationKeyLocks = locks;
+        } else {
+            correlationKeyLocks = null;
         }
 
         ServiceHelper.startServices(processor, aggregationRepository);
@@ -928,10 +1039,11 @@ public class AggregateProcessor extends ServiceSupport implements Processor, Nav
         Set<String> keys = aggregationRepository.getKeys();
 
         if (keys != null && !keys.isEmpty()) {
-            // must acquire the shared aggregation lock to be able to trigger force completion
-            lock.lock();
-            try {
-                for (String key : keys) {
+            for (String key : keys) {
+                // must acquire the aggregation lock for the key to be able to trigger force completion
+                Lock keyLock = getLock(key);
+                keyLock.lock();
+                try {
                     Exchange exchange = aggregationRepository.get(camelContext, key);
                     if (exchange != null) {
                         LOG.trace("force completion triggered for correlation key: {}", key);
@@ -939,9 +1051,9 @@ public class AggregateProcessor extends ServiceSupport implements Processor, Nav
                         exchange.setProperty(Exchange.AGGREGATED_COMPLETED_BY, "forceCompletion");
                         onCompletion(key, exchange, false);
                     }
+                } finally {
+                    keyLock.unlock();
                 }
-            } finally {
-                lock.unlock();
             }
         }
 
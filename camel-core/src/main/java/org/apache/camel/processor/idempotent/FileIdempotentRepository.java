@@ -16,11 +16,17 @@
  */
 package org.apache.camel.processor.idempotent;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.Scanner;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.camel.api.management.ManagedAttribute;
@@ -28,6 +34,7 @@ import org.apache.camel.api.management.ManagedOperation;
 import org.apache.camel.api.management.ManagedResource;
 import org.apache.camel.spi.IdempotentRepository;
 import org.apache.camel.support.ServiceSupport;
+import org.apache.camel.util.FileUtil;
 import org.apache.camel.util.IOHelper;
 import org.apache.camel.util.LRUCache;
 import org.apache.camel.util.ObjectHelper;
@@ -37,6 +44,19 @@ import org.slf4j.LoggerFactory;
 /**
  * A file based implementation of {@link org.apache.camel.spi.IdempotentRepository}.
  * <p/>
+ * The file store is an append only log. An added key is appended as a line, and a removed key is appended
+ * as a line starting with a <tt>NUL</tt> character, which tombstones the key. The log is read line by line
+ * when the repository is started, so the file can be much larger than the 1st level cache it is loaded into.
+ * <p/>
+ * When the log exceeds the max file store size, and has at least doubled in size since it was last trunked,
+ * it is trunked by writing the keys of the 1st level cache to a new log. Other threads keep adding keys
+ * meanwhile, and the keys they append while the new log is written are copied to the new log before it
+ * replaces the old log.
+ * <p/>
+ * The appended keys are written to the file in groups: a thread which appends a key flushes the keys
+ * appended by all the threads waiting for it. If <tt>sync</tt> is enabled the file is also synced to disk,
+ * so a key is not lost if the system crashes after it was added.
+ * <p/>
  * Care should be taken to use a suitable underlying {@link java.util.Map} to avoid this class being a
  * memory leak.
  *
@@ -46,10 +66,24 @@ import org.slf4j.LoggerFactory;
 public class FileIdempotentRepository extends ServiceSupport implements IdempotentRepository<String> {
     private static final transient Logger LOG = LoggerFactory.getLogger(FileIdempotentRepository.class);
     private static final String STORE_DELIMITER = "\n";
+    private static final char TOMBSTONE = '\u0000';
     private Map<String, Object> cache;
     private File fileStore;
     private long maxFileStoreSize = 1024 * 1000L; // 1mb store file
+    private boolean sync;
     private AtomicBoolean init = new AtomicBoolean();
+    private final AtomicBoolean trunking = new AtomicBoolean();
+    // lock order is syncLock before writeLock
+    private final Object syncLock = new Object();
+    private final Object writeLock = new Object();
+    // guarded by writeLock
+    private FileOutputStream fos;
+    private BufferedOutputStream out;
+    private long position;
+    private long trunkedPosition;
+    private long written;
+    // guarded by syncLock
+    private long flushed;
 
     public FileIdempotentRepository() {
         // default use a 1st level cache 
@@ -112,26 +146,23 @@ public class FileIdempotentRepository extends ServiceSupport implements Idempote
 
     @ManagedOperation(description = "Adds the key to the store")
     public boolean add(String key) {
-        synchronized (cache) {
-            if (cache.containsKey(key)) {
-                return false;
-            } else {
-                cache.put(key, key);
-                if (fileStore.length() < maxFileStoreSize) {
-                    // just append to store
-                    appendToStore(key);
-                } else {
-                    // trunk store and flush the cache
-                    trunkStore();
-                }
+        // contains does not affect the order of the cache, so the oldest added key is evicted first
+        if (cache.containsKey(key) || !putIfAbsent(key)) {
+            return false;
+        }
 
-                return true;
-            }
+        // the key is in the cache, so it is also written if the store is trunked instead
+        if (!trunkStoreIfNeeded()) {
+            appendToStore(key);
         }
+        return true;
     }
 
     @ManagedOperation(description = "Does the store contain the given key")
     public boolean contains(String key) {
+        if (cache instanceof LRUCache) {
+            return cache.containsKey(key);
+        }
         synchronized (cache) {
             return cache.containsKey(key);
         }
@@ -140,11 +171,15 @@ public class FileIdempotentRepository extends ServiceSupport implements Idempote
     @ManagedOperation(description = "Remove the key from the store")
     public boolean remove(String key) {
         boolean answer;
-        synchronized (cache) {
+        if (cache instanceof LRUCache) {
             answer = cache.remove(key) != null;
-            // trunk store and flush the cache on remove
-            trunkStore();
+        } else {
+            synchronized (cache) {
+                answer = cache.remove(key) != null;
+            }
         }
+        // tombstone the key as it may be in the store even if it has been evicted from the cache
+        appendToStore(TOMBSTONE + key);
         return answer;
     }
 
@@ -189,6 +224,21 @@ public class FileIdempotentRepository extends ServiceSupport implements Idempote
         this.maxFileStoreSize = maxFileStoreSize;
     }
 
+    @ManagedAttribute(description = "Whether the file store is synced to disk when keys are added")
+    public boolean isSync() {
+        return sync;
+    }
+
+    /**
+     * Sets whether the file store is synced to disk before a key is added or removed.
+     * <p/>
+     * The default is <tt>false</tt>, where the keys are written to the file but may be lost if the system crashes.
+     */
+    @ManagedAttribute(description = "Whether the file store is synced to disk when keys are added")
+    public void setSync(boolean sync) {
+        this.sync = sync;
+    }
+
     /**
      * Sets the cache size
      */
@@ -212,12 +262,10 @@ public class FileIdempotentRepository extends ServiceSupport implements Idempote
      */
     @ManagedOperation(description = "Reset and reloads the file store")
     public synchronized void reset() {
-        synchronized (cache) {
-            // trunk and clear, before we reload the store
-            trunkStore();
-            cache.clear();
-            loadStore();
-        }
+        // trunk and clear, before we reload the store
+        trunkStore();
+        cache.clear();
+        loadStore();
     }
 
     /**
@@ -227,20 +275,20 @@ public class FileIdempotentRepository extends ServiceSupport implements Idempote
      */
     protected void appendToStore(final String messageId) {
         LOG.debug("Appending {} to idempotent filestore: {}", messageId, fileStore);
-        FileOutputStream fos = null;
+        long id;
         try {
-            // create store if missing
-            if (!fileStore.exists()) {
-                fileStore.createNewFile();
+            synchronized (writeLock) {
+                if (out == null) {
+                    openStore();
+                }
+                byte[] data = (messageId + STORE_DELIMITER).getBytes();
+                out.write(data);
+                position += data.length;
+                id = ++written;
             }
-            // append to store
-            fos = new FileOutputStream(fileStore, true);
-            fos.write(messageId.getBytes());
-            fos.write(STORE_DELIMITER.getBytes());
+            commit(id);
         } catch (IOException e) {
             throw ObjectHelper.wrapRuntimeCamelException(e);
-        } finally {
-            IOHelper.close(fos, "Appending to file idempotent repository", LOG);
         }
     }
 
@@ -249,18 +297,16 @@ public class FileIdempotentRepository extends ServiceSupport implements Idempote
      * to the file store.
      */
     protected void trunkStore() {
-        LOG.info("Trunking idempotent filestore: {}", fileStore);
-        FileOutputStream fos = null;
+        // only one thread trunks the store at any time
+        while (!trunking.compareAndSet(false, true)) {
+            Thread.yield();
+        }
         try {
-            fos = new FileOutputStream(fileStore);
-            for (String key : cache.keySet()) {
-                fos.write(key.getBytes());
-                fos.write(STORE_DELIMITER.getBytes());
-            }
+            doTrunkStore();
         } catch (IOException e) {
             throw ObjectHelper.wrapRuntimeCamelException(e);
         } finally {
-            IOHelper.close(fos, "Trunking file idempotent repository", LOG);
+            trunking.set(false);
         }
     }
 
@@ -275,20 +321,22 @@ public class FileIdempotentRepository extends ServiceSupport implements Idempote
         }
 
         cache.clear();
-        Scanner scanner = null;
+        BufferedReader reader = null;
         try {
-            scanner = new Scanner(fileStore);
-            scanner.useDelimiter(STORE_DELIMITER);
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine();
-                cache.put(line, line);
+            // read the log line by line, so it does not have to fit in memory
+            reader = IOHelper.buffered(new InputStreamReader(new FileInputStream(fileStore)));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.length() > 0 && line.charAt(0) == TOMBSTONE) {
+                    cache.remove(line.substring(1));
+                } else if (line.length() > 0) {
+                    cache.put(line, line);
+                }
             }
         } catch (IOException e) {
             throw ObjectHelper.wrapRuntimeCamelException(e);
         } finally {
-            if (scanner != null) {
-                scanner.close();
-            }
+            IOHelper.close(reader, "Loading file idempotent repository", LOG);
         }
 
         LOG.debug("Loaded {} to the 1st level cache from idempotent filestore: {}", cache.size(), fileStore);
@@ -304,10 +352,157 @@ public class FileIdempotentRepository extends ServiceSupport implements Idempote
 
     @Override
     protected void doStop() throws Exception {
-        // reset will trunk and clear the cache
-        trunkStore();
+        // the store is up to date so just close it and clear the cache
+        synchronized (syncLock) {
+            synchronized (writeLock) {
+                closeStore();
+            }
+        }
         cache.clear();
         init.set(false);
     }
 
+    private boolean putIfAbsent(String key) {
+        if (cache instanceof LRUCache) {
+            return ((LRUCache<String, Object>) cache).putIfAbsent(key, key) == null;
+        }
+        synchronized (cache) {
+            if (cache.containsKey(key)) {
+                return false;
+            }
+            cache.put(key, key);
+            return true;
+        }
+    }
+
+    /**
+     * Flushes the store up to the given append. The thread which holds the sync lock flushes
+     * the appends of all the threads waiting for it, so the file is flushed once for the group.
+     */
+    private void commit(long id) throws IOException {
+        synchronized (syncLock) {
+            if (flushed >= id) {
+                // another thread flushed our append
+                return;
+            }
+            FileChannel channel;
+            long last;
+            synchronized (writeLock) {
+                out.flush();
+                channel = fos.getChannel();
+                last = written;
+            }
+            if (sync) {
+                // sync outside the write lock so other threads can append meanwhile
+                channel.force(false);
+            }
+            flushed = last;
+        }
+    }
+
+    private boolean trunkStoreIfNeeded() {
+        boolean trunk;
+        synchronized (writeLock) {
+            if (out == null && fileStore.exists()) {
+                position = fileStore.length();
+            }
+            // also wait for the store to double so it is not trunked on every add if the cache is large
+            trunk = position >= maxFileStoreSize && position >= 2 * trunkedPosition;
+        }
+        if (trunk && trunking.compareAndSet(false, true)) {
+            try {
+                doTrunkStore();
+            } catch (IOException e) {
+                throw ObjectHelper.wrapRuntimeCamelException(e);
+            } finally {
+                trunking.set(false);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void doTrunkStore() throws IOException {
+        LOG.info("Trunking idempotent filestore: {}", fileStore);
+
+        long start;
+        synchronized (writeLock) {
+            if (out == null) {
+                openStore();
+            }
+            out.flush();
+            start = position;
+        }
+
+        // write the cache to a new store while other threads keep appending to the current store
+        List<String> keys = new ArrayList<String>(cache.keySet());
+        File tmp = new File(fileStore.getPath() + ".tmp");
+        FileOutputStream tmpFos = new FileOutputStream(tmp);
+        try {
+            BufferedOutputStream tmpOut = new BufferedOutputStream(tmpFos);
+            for (String key : keys) {
+                tmpOut.write(key.getBytes());
+                tmpOut.write(STORE_DELIMITER.getBytes());
+            }
+            tmpOut.flush();
+
+            synchronized (syncLock) {
+                synchronized (writeLock) {
+                    // copy what was appended meanwhile, which may include tombstones for keys in the cache
+                    out.flush();
+                    FileChannel target = tmpFos.getChannel();
+                    if (start < position) {
+                        // the channel of the output stream is write only, so read the tail using a new channel
+                        FileChannel in = new FileInputStream(fileStore).getChannel();
+                        try {
+                            long offset = start;
+                            while (offset < position) {
+                                long transferred = in.transferTo(offset, position - offset, target);
+                                if (transferred <= 0) {
+                                    throw new IOException("Cannot copy the tail of idempotent filestore: " + fileStore
+                                            + " at position: " + offset + " of: " + position);
+                                }
+                                offset += transferred;
+                            }
+                        } finally {
+                            IOHelper.close(in, "Trunking file idempotent repository", LOG);
+                        }
+                    }
+                    if (sync) {
+                        target.force(false);
+                    }
+                    tmpFos.close();
+                    closeStore();
+
+                    if (!FileUtil.renameFile(tmp, fileStore, true)) {
+                        throw new IOException("Cannot replace idempotent filestore: " + fileStore + " with: " + tmp);
+                    }
+                    openStore();
+                    trunkedPosition = position;
+                    flushed = written;
+                }
+            }
+        } finally {
+            IOHelper.close(tmpFos, "Trunking file idempotent repository", LOG);
+        }
+    }
+
+    private void openStore() throws IOException {
+        // create store if missing
+        if (!fileStore.exists()) {
+            fileStore.createNewFile();
+        }
+        fos = new FileOutputStream(fileStore, true);
+        out = new BufferedOutputStream(fos);
+        position = fileStore.length();
+    }
+
+    private void closeStore() {
+        if (out != null) {
+            IOHelper.close(out, "Closing file idempotent repository", LOG);
+            out = null;
+            fos = null;
+        }
+    }
+
 }
@@ -0,0 +1,408 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.processor.idempotent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.apache.camel.api.management.ManagedAttribute;
+import org.apache.camel.api.management.ManagedOperation;
+import org.apache.camel.api.management.ManagedResource;
+import org.apache.camel.spi.IdempotentRepository;
+import org.apache.camel.support.ServiceSupport;
+import org.apache.camel.util.ServiceHelper;
+
+/**
+ * A memory based implementation of {@link org.apache.camel.spi.IdempotentRepository} which only stores
+ * a 32 bit fingerprint of each key, to remember a large number of keys in a few bytes per key.
+ * <p/>
+ * The fingerprints are stored in an open addressing table of primitive ints, so there is no object per key,
+ * and a key takes about 5.3 bytes at the default load factor of 0.75. The keys are added, looked up and
+ * removed using compare and set, so the repository only locks when a full table is replaced.
+ * <p/>
+ * As only the fingerprints are stored, a new key may have the same fingerprint as a key already in the table,
+ * and is then wrongly regarded as a duplicate. The chance of this is about the number of slots probed for the key
+ * divided by 2<sup>32</sup>, and the number of slots probed grows with the load factor. A lower load factor
+ * thus lowers the chance of false positives at the expense of memory. If false positives cannot be tolerated,
+ * then configure an exact repository. Every key is added to the exact repository as well, but its answer is
+ * only used when a fingerprint is found, so it only decides for the few keys which may be false positives.
+ * <p/>
+ * A table holds up to <tt>capacity</tt> keys. When the table is full a new table is started, and the full table
+ * is kept as the previous table, which is still looked up. The table before that is discarded. A key which is
+ * added again while only in the previous table is copied into the current table, so keys which keep being seen
+ * are not forgotten. The repository therefore remembers at least the last <tt>capacity</tt> keys, and at most
+ * twice as many.
+ *
+ * @version 
+ */
+@ManagedResource(description = "Fingerprint based idempotent repository")
+public class FingerprintIdempotentRepository extends ServiceSupport implements IdempotentRepository<String> {
+    private static final int EMPTY = 0;
+    private static final int REMOVED = 1;
+
+    private int capacity = 1000000;
+    private float loadFactor = 0.75f;
+    private IdempotentRepository<String> exactRepository;
+    private volatile Table current;
+
+    public FingerprintIdempotentRepository() {
+    }
+
+    public FingerprintIdempotentRepository(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public FingerprintIdempotentRepository(int capacity, IdempotentRepository<String> exactRepository) {
+        this.capacity = capacity;
+        this.exactRepository = exactRepository;
+    }
+
+    /**
+     * Creates a new fingerprint based repository.
+     *
+     * @param capacity  the number of keys in each table
+     */
+    public static IdempotentRepository<String> fingerprintIdempotentRepository(int capacity) {
+        return new FingerprintIdempotentRepository(capacity);
+    }
+
+    /**
+     * Creates a new fingerprint based repository, which uses the given repository to check
+     * the keys whose fingerprint is found, so there are no false positives.
+     *
+     * @param capacity  the number of keys in each table
+     * @param exactRepository  the repository with the exact keys
+     */
+    public static IdempotentRepository<String> fingerprintIdempotentRepository(int capacity, IdempotentRepository<String> exactRepository) {
+        return new FingerprintIdempotentRepository(capacity, exactRepository);
+    }
+
+    @ManagedOperation(description = "Adds the key to the store")
+    public boolean add(String key) {
+        long hash = hash(key);
+        int fingerprint = fingerprint(hash);
+
+        Table table = currentTable();
+        Boolean added = table.add(hash, fingerprint);
+        while (added == null) {
+            // the table is full so start a new table
+            table = rotate(table);
+            added = table.add(hash, fingerprint);
+        }
+        boolean found = !added;
+
+        if (exactRepository == null) {
+            return !found;
+        } else if (found) {
+            // the fingerprint may belong to another key so the exact repository decides
+            return exactRepository.add(key);
+        } else {
+            exactRepository.add(key);
+            return true;
+        }
+    }
+
+    @ManagedOperation(description = "Does the store contain the given key")
+    public boolean contains(String key) {
+        long hash = hash(key);
+        int fingerprint = fingerprint(hash);
+
+        Table table = currentTable();
+        Table prev = table.previous;
+        boolean found = table.contains(hash, fingerprint) || (prev != null && prev.contains(hash, fingerprint));
+        if (found && exactRepository != null) {
+            return exactRepository.contains(key);
+        }
+        return found;
+    }
+
+    @ManagedOperation(description = "Remove the key from the store")
+    public boolean remove(String key) {
+        if (exactRepository != null) {
+            // keep the fingerprint as it may be shared with another key, the exact repository
+            // then tells the keys apart
+            return exactRepository.remove(key);
+        }
+
+        long hash = hash(key);
+        int fingerprint = fingerprint(hash);
+        Table table = currentTable();
+        Table prev = table.previous;
+        // the key may be in both tables when it was copied from the previous table
+        boolean removed = table.remove(hash, fingerprint);
+        return (prev != null && prev.remove(hash, fingerprint)) || removed;
+    }
+
+    public boolean confirm(String key) {
+        if (exactRepository != null) {
+            return exactRepository.confirm(key);
+        }
+        return true;
+    }
+
+    @ManagedAttribute(description = "The number of keys in each table")
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @ManagedAttribute(description = "The load factor of the tables")
+    public float getLoadFactor() {
+        return loadFactor;
+    }
+
+    public void setLoadFactor(float loadFactor) {
+        this.loadFactor = loadFactor;
+    }
+
+    public IdempotentRepository<String> getExactRepository() {
+        return exactRepository;
+    }
+
+    public void setExactRepository(IdempotentRepository<String> exactRepository) {
+        this.exactRepository = exactRepository;
+    }
+
+    @ManagedAttribute(description = "The current number of fingerprints")
+    public int getSize() {
+        Table table = current;
+        Table prev = table != null ? table.previous : null;
+        return (table != null ? table.size.get() : 0) + (prev != null ? prev.size.get() : 0);
+    }
+
+    @ManagedAttribute(description = "The memory used by the fingerprints in bytes")
+    public long getMemorySize() {
+        Table table = current;
+        Table prev = table != null ? table.previous : null;
+        return 4L * ((table != null ? table.slots.length() : 0) + (prev != null ? prev.slots.length() : 0));
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        ServiceHelper.startServices(exactRepository);
+        currentTable();
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        ServiceHelper.stopServices(exactRepository);
+        synchronized (this) {
+            current = null;
+        }
+    }
+
+    private Table currentTable() {
+        Table table = current;
+        if (table == null) {
+            // the table is created on first use, so the repository can be used without being started
+            table = rotate(null);
+        }
+        return table;
+    }
+
+    private synchronized Table rotate(Table full) {
+        if (current == full) {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("Capacity must be positive, was: " + capacity);
+            }
+            if (loadFactor <= 0 || loadFactor >= 1) {
+                throw new IllegalArgumentException("LoadFactor must be between 0 and 1, was: " + loadFactor);
+            }
+            if (capacity / loadFactor >= Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Capacity is too large for the load factor: " + capacity);
+            }
+            Table table = new Table(capacity, loadFactor, full);
+            if (full != null) {
+                // wait for the adds in progress so they are seen by the adds to the new table,
+                // and discard the table before the full table
+                full.seal();
+                full.previous = null;
+            }
+            current = table;
+        }
+        return current;
+    }
+
+    /**
+     * Calculates a 64 bit hash of the key, using FNV-1a and a final mix so all bits depend on all chars.
+     */
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * The fingerprint is the upper half of the hash, and the slot is chosen from the lower half,
+     * so keys with the same fingerprint are spread over the table.
+     */
+    private static int fingerprint(long hash) {
+        int fingerprint = (int) (hash >>> 32);
+        if (fingerprint == EMPTY || fingerprint == REMOVED) {
+            fingerprint += 2;
+        }
+        return fingerprint;
+    }
+
+    /**
+     * An open addressing table with linear probing. Removed fingerprints leave a marker in their slot, which
+     * is reused by a later add. As two adds of the same fingerprint may then take different slots, an add
+     * checks the probe sequence again after taking a slot, and gives the slot back if the fingerprint is
+     * also in another slot. Two concurrent adds of the same key may then both regard it as a duplicate,
+     * which is a false positive like a shared fingerprint, but never both add it.
+     */
+    private static final class Table {
+        private final AtomicIntegerArray slots;
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicInteger used = new AtomicInteger();
+        private final AtomicInteger writers = new AtomicInteger();
+        private final int capacity;
+        private volatile Table previous;
+        private volatile boolean sealed;
+
+        private Table(int capacity, float loadFactor, Table previous) {
+            this.capacity = capacity;
+            this.slots = new AtomicIntegerArray((int) (capacity / loadFactor) + 1);
+            this.previous = previous;
+        }
+
+        /**
+         * Adds the fingerprint, unless it is in this table or in the previous table.
+         * A fingerprint only found in the previous table is added to this table.
+         *
+         * @return <tt>true</tt> if added, <tt>false</tt> if it was already in the table or the previous table,
+         *         or <tt>null</tt> if the table is full
+         */
+        private Boolean add(long hash, int fingerprint) {
+            writers.incrementAndGet();
+            try {
+                if (sealed) {
+                    return null;
+                }
+                Boolean added = insert(hash, fingerprint);
+                if (added != null && added) {
+                    Table prev = previous;
+                    if (prev != null && prev.contains(hash, fingerprint)) {
+                        return Boolean.FALSE;
+                    }
+                }
+                return added;
+            } finally {
+                writers.decrementAndGet();
+            }
+        }
+
+        /**
+         * Stops new adds to the table and waits for the adds in progress.
+         */
+        private void seal() {
+            sealed = true;
+            while (writers.get() > 0) {
+                Thread.yield();
+            }
+        }
+
+        private Boolean insert(long hash, int fingerprint) {
+            int length = slots.length();
+            int start = index(hash, length);
+            while (true) {
+                int free = -1;
+                int freeValue = EMPTY;
+                int index = start;
+                for (int probes = 0; probes < length; probes++) {
+                    int value = slots.get(index);
+                    if (value == fingerprint) {
+                        return Boolean.FALSE;
+                    } else if (value == REMOVED && free < 0) {
+                        free = index;
+                        freeValue = REMOVED;
+                    } else if (value == EMPTY) {
+                        if (free < 0) {
+                            free = index;
+                        }
+                        break;
+                    }
+                    index = index + 1 < length ? index + 1 : 0;
+                }
+
+                if (free < 0 || (freeValue == EMPTY && used.get() >= capacity)) {
+                    return null;
+                }
+                if (!slots.compareAndSet(free, freeValue, fingerprint)) {
+                    // another thread took the slot, so probe again
+                    continue;
+                }
+                if (freeValue == EMPTY) {
+                    used.incrementAndGet();
+                }
+                size.incrementAndGet();
+
+                if (find(hash, fingerprint, free) >= 0) {
+                    // another thread added the same fingerprint to another slot
+                    if (slots.compareAndSet(free, fingerprint, REMOVED)) {
+                        size.decrementAndGet();
+                    }
+                    return Boolean.FALSE;
+                }
+                return Boolean.TRUE;
+            }
+        }
+
+        private boolean contains(long hash, int fingerprint) {
+            return find(hash, fingerprint, -1) >= 0;
+        }
+
+        private boolean remove(long hash, int fingerprint) {
+            int index = find(hash, fingerprint, -1);
+            if (index >= 0 && slots.compareAndSet(index, fingerprint, REMOVED)) {
+                size.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        private int find(long hash, int fingerprint, int skip) {
+            int length = slots.length();
+            int index = index(hash, length);
+            for (int probes = 0; probes < length; probes++) {
+                int value = slots.get(index);
+                if (value == fingerprint && index != skip) {
+                    return index;
+                } else if (value == EMPTY) {
+                    return -1;
+                }
+                index = index + 1 < length ? index + 1 : 0;
+            }
+            return -1;
+        }
+
+        private static int index(long hash, int length) {
+            return (int) ((hash & 0xffffffffL) % length);
+        }
+    }
+}
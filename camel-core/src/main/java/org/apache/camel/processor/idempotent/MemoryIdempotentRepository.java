@@ -30,6 +30,9 @@ import org.apache.camel.util.LRUCache;
  * <p/>
  * Care should be taken to use a suitable underlying {@link Map} to avoid this class being a
  * memory leak.
+ * <p/>
+ * A {@link LRUCache} is used without locking, as it is thread safe. Any other {@link Map} is synchronized on.
+ * To remember a large number of keys in less memory, use the {@link FingerprintIdempotentRepository}.
  *
  * @version 
  */
@@ -78,6 +81,10 @@ public class MemoryIdempotentRepository extends ServiceSupport implements Idempo
 
     @ManagedOperation(description = "Adds the key to the store")
     public boolean add(String key) {
+        if (cache instanceof LRUCache) {
+            // the cache is thread safe and can add the key atomically
+            return ((LRUCache<String, Object>) cache).putIfAbsent(key, key) == null;
+        }
         synchronized (cache) {
             if (cache.containsKey(key)) {
                 return false;
@@ -90,6 +97,9 @@ public class MemoryIdempotentRepository extends ServiceSupport implements Idempo
 
     @ManagedOperation(description = "Does the store contain the given key")
     public boolean contains(String key) {
+        if (cache instanceof LRUCache) {
+            return cache.containsKey(key);
+        }
         synchronized (cache) {
             return cache.containsKey(key);
         }
@@ -97,6 +107,9 @@ public class MemoryIdempotentRepository extends ServiceSupport implements Idempo
 
     @ManagedOperation(description = "Remove the key from the store")
     public boolean remove(String key) {
+        if (cache instanceof LRUCache) {
+            return cache.remove(key) != null;
+        }
         synchronized (cache) {
             return cache.remove(key) != null;
         }
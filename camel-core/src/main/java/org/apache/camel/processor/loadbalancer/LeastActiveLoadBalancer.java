@@ -0,0 +1,43 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.processor.loadbalancer;
+
+import java.util.List;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+
+/**
+ * Implements the least active load balancing policy, which chooses the processor with the
+ * fewest exchanges in flight.
+ *
+ * @version 
+ */
+public class LeastActiveLoadBalancer extends LoadAwareLoadBalancer {
+
+    protected Processor chooseProcessor(List<Processor> processors, Exchange exchange) {
+        return chooseLowestCost(processors);
+    }
+
+    protected double getCost(ProcessorLoad load) {
+        return load.getInflight();
+    }
+
+    public String toString() {
+        return "LeastActiveLoadBalancer";
+    }
+}
@@ -0,0 +1,188 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.processor.loadbalancer;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.AsyncProcessor;
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.apache.camel.util.AsyncProcessorConverterHelper;
+import org.apache.camel.util.AsyncProcessorHelper;
+
+/**
+ * A base class for {@link LoadBalancer} implementations which choose the destination by its current load,
+ * such as the number of exchanges in flight or the latency of the recent exchanges.
+ * <p/>
+ * The load of each processor is tracked without locking, and the latency is an exponentially weighted
+ * moving average, so a slow processor is soon given less exchanges.
+ *
+ * @version 
+ */
+public abstract class LoadAwareLoadBalancer extends QueueLoadBalancer {
+    private final ConcurrentMap<Processor, ProcessorLoad> loads = new ConcurrentHashMap<Processor, ProcessorLoad>();
+    private final AtomicInteger counter = new AtomicInteger();
+    private double smoothingFactor = 0.2;
+
+    @Override
+    public void addProcessor(Processor processor) {
+        super.addProcessor(processor);
+        getLoad(processor);
+    }
+
+    @Override
+    public void removeProcessor(Processor processor) {
+        super.removeProcessor(processor);
+        loads.remove(processor);
+    }
+
+    @Override
+    public boolean process(final Exchange exchange, final AsyncCallback callback) {
+        List<Processor> list = getProcessors();
+        if (list.isEmpty()) {
+            // no processors but indicate we are done
+            callback.done(true);
+            return true;
+        }
+
+        Processor processor = chooseProcessor(list, exchange);
+        if (processor == null) {
+            throw new IllegalStateException("No processors could be chosen to process " + exchange);
+        }
+
+        final ProcessorLoad load = getLoad(processor);
+        final long start = load.begin();
+        AsyncProcessor albp = AsyncProcessorConverterHelper.convert(processor);
+        return AsyncProcessorHelper.process(albp, exchange, new AsyncCallback() {
+            public void done(boolean doneSync) {
+                load.done(start, smoothingFactor);
+                callback.done(doneSync);
+            }
+        });
+    }
+
+    /**
+     * Gets the load of the given processor.
+     */
+    public ProcessorLoad getLoad(Processor processor) {
+        ProcessorLoad answer = loads.get(processor);
+        if (answer == null) {
+            answer = new ProcessorLoad();
+            ProcessorLoad existing = loads.putIfAbsent(processor, answer);
+            if (existing != null) {
+                answer = existing;
+            }
+        }
+        return answer;
+    }
+
+    public double getSmoothingFactor() {
+        return smoothingFactor;
+    }
+
+    /**
+     * Sets the weight of the latest exchange in the moving average of the latency, between 0 and 1.
+     * A higher factor reacts faster to latency changes.
+     * <p/>
+     * Is by default <tt>0.2</tt>
+     */
+    public void setSmoothingFactor(double smoothingFactor) {
+        if (smoothingFactor <= 0 || smoothingFactor > 1) {
+            throw new IllegalArgumentException("The smoothingFactor must be between 0 and 1, was: " + smoothingFactor);
+        }
+        this.smoothingFactor = smoothingFactor;
+    }
+
+    /**
+     * Gets the cost of sending an exchange to a processor with the given load, the lower the better.
+     */
+    protected abstract double getCost(ProcessorLoad load);
+
+    /**
+     * Chooses the processor with the lowest cost. The scan starts at the next processor each time,
+     * so the exchanges are spread round robin between processors with the same cost.
+     */
+    protected Processor chooseLowestCost(List<Processor> processors) {
+        int size = processors.size();
+        int start = (counter.getAndIncrement() & Integer.MAX_VALUE) % size;
+        Processor answer = null;
+        double lowest = Double.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            Processor processor = processors.get((start + i) % size);
+            double cost = getCost(getLoad(processor));
+            if (answer == null || cost < lowest) {
+                answer = processor;
+                lowest = cost;
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * The load of a processor.
+     */
+    public static final class ProcessorLoad {
+        private final AtomicInteger inflight = new AtomicInteger();
+        private final AtomicLong latency = new AtomicLong(Double.doubleToLongBits(0));
+        private final AtomicLong count = new AtomicLong();
+
+        /**
+         * Gets the number of exchanges currently being processed.
+         */
+        public int getInflight() {
+            return inflight.get();
+        }
+
+        /**
+         * Gets the moving average of the latency in nanos, or <tt>0</tt> if no exchanges has been processed yet.
+         */
+        public double getLatency() {
+            return Double.longBitsToDouble(latency.get());
+        }
+
+        /**
+         * Gets the number of exchanges which has been processed.
+         */
+        public long getCount() {
+            return count.get();
+        }
+
+        long begin() {
+            inflight.incrementAndGet();
+            return System.nanoTime();
+        }
+
+        void done(long start, double smoothingFactor) {
+            double sample = System.nanoTime() - start;
+            inflight.decrementAndGet();
+            boolean first = count.getAndIncrement() == 0;
+            while (true) {
+                long bits = latency.get();
+                double current = Double.longBitsToDouble(bits);
+                double updated = first ? sample : current + smoothingFactor * (sample - current);
+                if (latency.compareAndSet(bits, Double.doubleToLongBits(updated))) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.processor.loadbalancer;
+
+import java.util.List;
+import java.util.Random;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+
+/**
+ * Implements the power of two choices load balancing policy, which picks two processors at random
+ * and chooses the one with the lower latency weighted by the exchanges in flight.
+ * <p/>
+ * This avoids the slow processors nearly as well as {@link LeastLatencyLoadBalancer}, but does not look
+ * at every processor, and does not send all the exchanges to the same processor when the loads are stale.
+ *
+ * @version 
+ */
+public class PowerOfTwoChoicesLoadBalancer extends LeastLatencyLoadBalancer {
+    private final Random random = new Random();
+
+    protected Processor chooseProcessor(List<Processor> processors, Exchange exchange) {
+        int size = processors.size();
+        if (size == 1) {
+            return processors.get(0);
+        }
+        int first = random.nextInt(size);
+        // pick another processor than the first
+        int second = (first + 1 + random.nextInt(size - 1)) % size;
+
+        Processor a = processors.get(first);
+        Processor b = processors.get(second);
+        return getCost(getLoad(a)) <= getCost(getLoad(b)) ? a : b;
+    }
+
+    public String toString() {
+        return "PowerOfTwoChoicesLoadBalancer";
+    }
+}
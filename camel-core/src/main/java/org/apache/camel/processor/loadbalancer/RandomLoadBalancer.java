@@ -17,6 +17,7 @@
 package org.apache.camel.processor.loadbalancer;
 
 import java.util.List;
+import java.util.Random;
 
 import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
@@ -27,15 +28,10 @@ import org.apache.camel.Processor;
  * @version 
  */
 public class RandomLoadBalancer extends QueueLoadBalancer {
+    private final Random random = new Random();
 
-    protected synchronized Processor chooseProcessor(List<Processor> processors, Exchange exchange) {
-        int size = processors.size();
-        while (true) {
-            int index = (int) Math.round(Math.random() * size);
-            if (index < size) {
-                return processors.get(index);
-            }
-        }
+    protected Processor chooseProcessor(List<Processor> processors, Exchange exchange) {
+        return processors.get(random.nextInt(processors.size()));
     }
 
     public String toString() {
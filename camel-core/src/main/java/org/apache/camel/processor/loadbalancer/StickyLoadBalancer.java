@@ -16,10 +16,10 @@
  */
 package org.apache.camel.processor.loadbalancer;
 
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.apache.camel.Exchange;
 import org.apache.camel.Expression;
@@ -29,14 +29,22 @@ import org.apache.camel.Processor;
  * Implements a sticky load balancer using an {@link Expression} to calculate
  * a correlation key to perform the sticky load balancing; rather like jsessionid in the web
  * or JMSXGroupID in JMS.
+ * <p/>
+ * The correlation keys are hashed into a fixed number of hash groups, and each group sticks to the
+ * processor chosen by the delegate load balancer for the first exchange of the group. When a processor
+ * is removed only its own groups are moved to other processors. If the number of hash groups is zero
+ * or less the processor is chosen by consistent hashing of the correlation key, which needs no state
+ * per key at all.
  *
  * @version 
  */
 public class StickyLoadBalancer extends QueueLoadBalancer {
+    private static final int VIRTUAL_NODES = 100;
     private Expression correlationExpression;
     private QueueLoadBalancer loadBalancer;
     private int numberOfHashGroups = 64 * 1024;
-    private final Map<Object, Processor> stickyMap = new HashMap<Object, Processor>();
+    private final AtomicReference<AtomicReferenceArray<Processor>> stickyGroups = new AtomicReference<AtomicReferenceArray<Processor>>();
+    private final AtomicReference<HashRing> hashRing = new AtomicReference<HashRing>();
 
     public StickyLoadBalancer(Expression correlationExpression) {
         this(correlationExpression, new RoundRobinLoadBalancer());
@@ -51,30 +59,36 @@ public class StickyLoadBalancer extends QueueLoadBalancer {
         return correlationExpression;
     }
 
-    protected synchronized Processor chooseProcessor(List<Processor> processors, Exchange exchange) {
+    protected Processor chooseProcessor(List<Processor> processors, Exchange exchange) {
         Object value = correlationExpression.evaluate(exchange, Object.class);
         Object key = getStickyKey(value);
+        int hash = key != null ? key.hashCode() : 0;
 
-        Processor processor;
-        synchronized (stickyMap) {
-            processor = stickyMap.get(key);
-            if (processor == null) {
-                processor = loadBalancer.chooseProcessor(processors, exchange);
-                stickyMap.put(key, processor);
+        if (numberOfHashGroups <= 0) {
+            return getHashRing(processors).get(hash);
+        }
+
+        AtomicReferenceArray<Processor> groups = getStickyGroups();
+        int group = (hash & Integer.MAX_VALUE) % groups.length();
+        while (true) {
+            Processor processor = groups.get(group);
+            if (processor != null) {
+                return processor;
             }
+            processor = loadBalancer.chooseProcessor(processors, exchange);
+            if (groups.compareAndSet(group, null, processor)) {
+                return processor;
+            }
+            // another exchange of the same group got there first so use its processor
         }
-        return processor;
     }
 
     @Override
     public void removeProcessor(Processor processor) {
-        synchronized (stickyMap) {
-            Iterator<Map.Entry<Object, Processor>> iter = stickyMap.entrySet().iterator();
-            while (iter.hasNext()) {
-                Map.Entry<Object, Processor> entry = iter.next();
-                if (processor.equals(entry.getValue())) {
-                    iter.remove();
-                }
+        AtomicReferenceArray<Processor> groups = stickyGroups.get();
+        if (groups != null) {
+            for (int i = 0; i < groups.length(); i++) {
+                groups.compareAndSet(i, processor, null);
             }
         }
         super.removeProcessor(processor);
@@ -89,18 +103,19 @@ public class StickyLoadBalancer extends QueueLoadBalancer {
 
     public void setNumberOfHashGroups(int numberOfHashGroups) {
         this.numberOfHashGroups = numberOfHashGroups;
+        stickyGroups.set(null);
     }
 
     // Implementation methods
     //-------------------------------------------------------------------------
 
     /**
-     * A strategy to create the key for the sticky load balancing map.
+     * A strategy to create the key for the sticky load balancing.
      * The default implementation uses the hash code of the value
-     * then modulos by the numberOfHashGroups to avoid the sticky map getting too big
+     * then modulos by the numberOfHashGroups to bound the number of sticky groups
      *
      * @param value the correlation value
-     * @return the key to be used in the sticky map
+     * @return the key to be used to choose the processor, its hash code selects the hash group
      */
     protected Object getStickyKey(Object value) {
         int hashCode = 37;
@@ -113,8 +128,83 @@ public class StickyLoadBalancer extends QueueLoadBalancer {
         return hashCode;
     }
 
+    private AtomicReferenceArray<Processor> getStickyGroups() {
+        AtomicReferenceArray<Processor> answer = stickyGroups.get();
+        if (answer == null) {
+            stickyGroups.compareAndSet(null, new AtomicReferenceArray<Processor>(numberOfHashGroups));
+            answer = stickyGroups.get();
+        }
+        return answer;
+    }
+
+    private HashRing getHashRing(List<Processor> processors) {
+        HashRing answer = hashRing.get();
+        if (answer == null || !answer.isFor(processors)) {
+            // the ring is rebuilt after the processors changed, which is rare
+            answer = new HashRing(processors);
+            hashRing.set(answer);
+        }
+        return answer;
+    }
+
     public String toString() {
         return "StickyLoadBalancer";
     }
 
+    /**
+     * An immutable consistent hash ring with a number of virtual nodes per processor.
+     */
+    private static final class HashRing {
+        private final List<Processor> processors;
+        private final int[] hashes;
+        private final Processor[] owners;
+
+        private HashRing(List<Processor> processors) {
+            Processor[] list = processors.toArray(new Processor[processors.size()]);
+            this.processors = Arrays.asList(list);
+            long[] nodes = new long[list.length * VIRTUAL_NODES];
+            for (int i = 0; i < list.length; i++) {
+                int seed = System.identityHashCode(list[i]);
+                for (int j = 0; j < VIRTUAL_NODES; j++) {
+                    // keep the index of the processor in the low bits so the nodes sort by hash
+                    long hash = mix(seed * 31 + j);
+                    nodes[i * VIRTUAL_NODES + j] = (hash << 32) | i;
+                }
+            }
+            Arrays.sort(nodes);
+            hashes = new int[nodes.length];
+            owners = new Processor[nodes.length];
+            for (int i = 0; i < nodes.length; i++) {
+                hashes[i] = (int) (nodes[i] >> 32);
+                owners[i] = list[(int) nodes[i]];
+            }
+        }
+
+        private boolean isFor(List<Processor> list) {
+            return processors.equals(list);
+        }
+
+        private Processor get(int key) {
+            if (owners.length == 0) {
+                return null;
+            }
+            int index = Arrays.binarySearch(hashes, mix(key));
+            if (index < 0) {
+                index = -index - 1;
+            }
+            return owners[index < owners.length ? index : 0];
+        }
+
+        private static int mix(int hash) {
+            // the finalizer of murmur3 to spread the bits
+            int h = hash;
+            h ^= h >>> 16;
+            h *= 0x85ebca6b;
+            h ^= h >>> 13;
+            h *= 0xc2b2ae35;
+            h ^= h >>> 16;
+            return h;
+        }
+    }
+
 }
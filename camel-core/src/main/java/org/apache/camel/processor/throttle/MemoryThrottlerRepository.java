@@ -0,0 +1,122 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.processor.throttle;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.camel.spi.ThrottlerRepository;
+import org.apache.camel.support.ServiceSupport;
+
+/**
+ * A memory based implementation of {@link org.apache.camel.spi.ThrottlerRepository}, which shares
+ * the quotas between the throttlers in the same JVM.
+ * <p/>
+ * Only the quota of the latest period is kept for each key.
+ *
+ * @version 
+ */
+public class MemoryThrottlerRepository extends ServiceSupport implements ThrottlerRepository {
+    private final ConcurrentMap<String, Quota> quotas = new ConcurrentHashMap<String, Quota>();
+
+    /**
+     * Creates a new memory based repository.
+     */
+    public static ThrottlerRepository memoryThrottlerRepository() {
+        return new MemoryThrottlerRepository();
+    }
+
+    public long lease(String key, long period, long periodMillis, long maximumRequests, long requests) {
+        Quota quota = quotaFor(key, period);
+        if (quota == null) {
+            // the period is over
+            return 0;
+        }
+        while (true) {
+            long used = quota.used.get();
+            long leased = Math.min(requests, maximumRequests - used);
+            if (leased <= 0) {
+                return 0;
+            }
+            if (quota.used.compareAndSet(used, used + leased)) {
+                return leased;
+            }
+        }
+    }
+
+    public void release(String key, long period, long requests) {
+        Quota quota = quotas.get(key);
+        if (quota == null || quota.period != period) {
+            return;
+        }
+        while (true) {
+            long used = quota.used.get();
+            if (quota.used.compareAndSet(used, Math.max(0, used - requests))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of requests used of the quota of the given period.
+     */
+    public long getUsed(String key, long period) {
+        Quota quota = quotas.get(key);
+        return quota != null && quota.period == period ? quota.used.get() : 0;
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        // noop
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        quotas.clear();
+    }
+
+    private Quota quotaFor(String key, long period) {
+        while (true) {
+            Quota quota = quotas.get(key);
+            if (quota == null) {
+                quota = new Quota(period);
+                Quota existing = quotas.putIfAbsent(key, quota);
+                if (existing == null) {
+                    return quota;
+                }
+                quota = existing;
+            }
+            if (quota.period == period) {
+                return quota;
+            } else if (quota.period > period) {
+                return null;
+            }
+            // replace the quota of an earlier period
+            quotas.replace(key, quota, new Quota(period));
+        }
+    }
+
+    private static final class Quota {
+        private final long period;
+        private final AtomicLong used = new AtomicLong();
+
+        private Quota(long period) {
+            this.period = period;
+        }
+    }
+}
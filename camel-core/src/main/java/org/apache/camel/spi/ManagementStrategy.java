@@ -233,4 +233,21 @@ public interface ManagementStrategy extends Service {
      */
     ManagementStatisticsLevel getStatisticsLevel();
 
+    /**
+     * Sets whether to record the processing times in a histogram, so the processing time
+     * percentiles are available for the managed routes and processors.
+     * <p/>
+     * Default is false.
+     *
+     * @param enabled <tt>true</tt> to record the processing times in a histogram
+     */
+    void setProcessingTimeHistogramEnabled(boolean enabled);
+
+    /**
+     * Whether to record the processing times in a histogram
+     *
+     * @return <tt>true</tt> if enabled
+     */
+    boolean isProcessingTimeHistogramEnabled();
+
 }
@@ -0,0 +1,114 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.spi;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.apache.camel.Service;
+
+/**
+ * The memory and disk shared by the stream caches of a {@link org.apache.camel.CamelContext}.
+ * <p/>
+ * The stream caches buffer their content in chunks of heap memory, which are pooled and reused.
+ * Content above the threshold of a stream cache can be kept in chunks of direct memory, as long as
+ * the direct memory limit is not reached, before the content is spooled to disk. The spool quota
+ * limits the disk space used by all the stream caches together.
+ *
+ * @version 
+ */
+public interface StreamCacheSpool extends Service {
+
+    /**
+     * Gets the size of the memory chunks.
+     */
+    int getChunkSize();
+
+    /**
+     * Takes a chunk of heap memory from the pool, or allocates a new chunk if the pool is empty.
+     *
+     * @return the chunk
+     */
+    byte[] acquireChunk();
+
+    /**
+     * Returns a chunk of heap memory to the pool.
+     *
+     * @param chunk the chunk which is no longer used
+     */
+    void releaseChunk(byte[] chunk);
+
+    /**
+     * Takes a chunk of direct memory from the pool, or allocates a new chunk if the pool is empty.
+     *
+     * @return the chunk, or <tt>null</tt> if the direct memory is disabled or the limit is reached
+     */
+    ByteBuffer acquireDirectChunk();
+
+    /**
+     * Returns a chunk of direct memory to the pool.
+     *
+     * @param chunk the chunk which is no longer used
+     */
+    void releaseDirectChunk(ByteBuffer chunk);
+
+    /**
+     * Creates a new spool file.
+     *
+     * @param directory the directory of the file, or <tt>null</tt> to use the default temporary directory
+     * @return the new and empty file
+     * @throws IOException is thrown if the file could not be created
+     */
+    File createSpoolFile(File directory) throws IOException;
+
+    /**
+     * Reserves disk space for spooled content.
+     *
+     * @param bytes the number of bytes to spool
+     * @return <tt>true</tt> if reserved, or <tt>false</tt> if the spool quota would be exceeded
+     */
+    boolean reserveSpool(long bytes);
+
+    /**
+     * Releases disk space of spooled content which has been deleted.
+     *
+     * @param bytes the number of bytes released
+     */
+    void releaseSpool(long bytes);
+
+    /**
+     * Whether spooled content should be read by mapping the spool file into memory.
+     */
+    boolean isMappedReads();
+
+    /**
+     * Gets the heap memory currently used by the stream caches, not counting the pooled chunks.
+     */
+    long getMemoryUsed();
+
+    /**
+     * Gets the direct memory currently used by the stream caches.
+     */
+    long getDirectMemoryUsed();
+
+    /**
+     * Gets the disk space currently used by the stream caches.
+     */
+    long getSpoolUsed();
+
+}
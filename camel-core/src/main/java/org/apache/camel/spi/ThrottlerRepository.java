@@ -0,0 +1,58 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.spi;
+
+import org.apache.camel.Service;
+
+/**
+ * Access to a repository of request quotas shared by a number of
+ * <a href="http://camel.apache.org/throttler.html">Throttlers</a>, to throttle exchanges
+ * across Camel instances.
+ * <p/>
+ * The time is divided in periods, which are numbered by dividing the time in millis by the period
+ * length, so all the instances agree on the periods as long as their clocks are in sync. A throttler
+ * leases a batch of requests from the quota of a period, and uses the batch locally before it leases
+ * another batch.
+ *
+ * @version 
+ */
+public interface ThrottlerRepository extends Service {
+
+    /**
+     * Leases a number of requests from the quota of the given period.
+     *
+     * @param key the key of the quota, such as the correlation key
+     * @param period the number of the period
+     * @param periodMillis the length of the period in millis, which a repository that expires the
+     *                     quotas must keep the quota of the period for at least
+     * @param maximumRequests the maximum number of requests in the period
+     * @param requests the number of requests to lease
+     * @return the number of requests leased, which is less than asked for when the quota is almost
+     *         used up, or <tt>0</tt> if the quota is used up
+     */
+    long lease(String key, long period, long periodMillis, long maximumRequests, long requests);
+
+    /**
+     * Returns unused requests to the quota of the given period.
+     *
+     * @param key the key of the quota, such as the correlation key
+     * @param period the number of the period
+     * @param requests the number of unused requests
+     */
+    void release(String key, long period, long requests);
+
+}
@@ -19,6 +19,7 @@ package org.apache.camel.support;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -26,6 +27,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -40,6 +42,13 @@ import org.slf4j.LoggerFactory;
  * This implementation supports thread safe and non thread safe, in the manner you can enable locking or not.
  * By default locking is enabled and thus we are thread safe.
  * <p/>
+ * By default the purge task scans all the entries in the map to find the expired entries. When the map holds
+ * a large number of entries you can enable the time wheel, where the entries are also kept in a ring of buckets
+ * by their expire time (one bucket per purge poll time). Then the purge task only visits the buckets which
+ * has expired since the last purge, which makes adding, removing and expiring entries constant time operations.
+ * An entry which is removed or replaced is taken out of its bucket right away, so the wheel never holds more
+ * entries than the map.
+ * <p/>
  * You must provide a {@link java.util.concurrent.ScheduledExecutorService} in the constructor which is used
  * to schedule a background task which check for old entries to purge. This implementation will shutdown the scheduler
  * if its being stopped.
@@ -48,6 +57,8 @@ import org.slf4j.LoggerFactory;
  */
 public class DefaultTimeoutMap<K, V> extends ServiceSupport implements TimeoutMap<K, V>, Runnable {
 
+    public static final int TIME_WHEEL_SIZE = 512;
+
     protected final transient Logger log = LoggerFactory.getLogger(getClass());
 
     private final ConcurrentMap<K, TimeoutMapEntry<K, V>> map = new ConcurrentHashMap<K, TimeoutMapEntry<K, V>>();
@@ -55,6 +66,9 @@ public class DefaultTimeoutMap<K, V> extends ServiceSupport implements TimeoutMa
     private final long purgePollTime;
     private final Lock lock = new ReentrantLock();
     private boolean useLock = true;
+    // the time wheel with buckets of entries by their expire time, is null if not in use
+    private final AtomicReferenceArray<Set<TimeoutMapEntry<K, V>>> wheel;
+    private volatile long lastPurgedTick = -1;
 
     public DefaultTimeoutMap(ScheduledExecutorService executor) {
         this(executor, 1000);
@@ -65,10 +79,25 @@ public class DefaultTimeoutMap<K, V> extends ServiceSupport implements TimeoutMa
     }
 
     public DefaultTimeoutMap(ScheduledExecutorService executor, long requestMapPollTimeMillis, boolean useLock) {
+        this(executor, requestMapPollTimeMillis, useLock, false);
+    }
+
+    public DefaultTimeoutMap(ScheduledExecutorService executor, long requestMapPollTimeMillis, boolean useLock, boolean useTimeWheel) {
         ObjectHelper.notNull(executor, "ScheduledExecutorService");
         this.executor = executor;
         this.purgePollTime = requestMapPollTimeMillis;
         this.useLock = useLock;
+        if (useTimeWheel) {
+            if (requestMapPollTimeMillis <= 0) {
+                throw new IllegalArgumentException("The purge poll time must be a positive number when using time wheel, was: " + requestMapPollTimeMillis);
+            }
+            wheel = new AtomicReferenceArray<Set<TimeoutMapEntry<K, V>>>(TIME_WHEEL_SIZE);
+            for (int i = 0; i < TIME_WHEEL_SIZE; i++) {
+                wheel.set(i, Collections.newSetFromMap(new ConcurrentHashMap<TimeoutMapEntry<K, V>, Boolean>()));
+            }
+        } else {
+            wheel = null;
+        }
         schedulePoll();
     }
 
@@ -92,13 +121,20 @@ public class DefaultTimeoutMap<K, V> extends ServiceSupport implements TimeoutMa
     }
 
     public void put(K key, V value, long timeoutMillis) {
-        TimeoutMapEntry<K, V> entry = new TimeoutMapEntry<K, V>(key, value, timeoutMillis);
+        TimeoutMapEntry<K, V> entry = wheel != null
+            ? new WheelEntry<K, V>(key, value, timeoutMillis) : new TimeoutMapEntry<K, V>(key, value, timeoutMillis);
         if (useLock) {
             lock.lock();
         }
         try {
-            map.put(key, entry);
+            TimeoutMapEntry<K, V> old = map.put(key, entry);
             updateExpireTime(entry);
+            if (wheel != null) {
+                if (old != null) {
+                    removeFromWheel(old);
+                }
+                addToWheel(entry, currentTick());
+            }
         } finally {
             if (useLock) {
                 lock.unlock();
@@ -114,6 +150,9 @@ public class DefaultTimeoutMap<K, V> extends ServiceSupport implements TimeoutMa
         }
         try {
             entry = map.remove(key);
+            if (wheel != null && entry != null) {
+                removeFromWheel(entry);
+            }
         } finally {
             if (useLock) {
                 lock.unlock();
@@ -144,6 +183,26 @@ public class DefaultTimeoutMap<K, V> extends ServiceSupport implements TimeoutMa
         return map.size();
     }
 
+    /**
+     * Whether the time wheel is in use for finding the expired entries
+     */
+    public boolean isUseTimeWheel() {
+        return wheel != null;
+    }
+
+    /**
+     * Gets the number of entries in the time wheel, which is 0 if the time wheel is not in use
+     */
+    public int getTimeWheelSize() {
+        int answer = 0;
+        if (wheel != null) {
+            for (int i = 0; i < TIME_WHEEL_SIZE; i++) {
+                answer += wheel.get(i).size();
+            }
+        }
+        return answer;
+    }
+
     /**
      * The timer task which purges old requests and schedules another poll
      */
@@ -174,11 +233,15 @@ public class DefaultTimeoutMap<K, V> extends ServiceSupport implements TimeoutMa
         }
         try {
             // need to find the expired entries and add to the expired list
-            for (Map.Entry<K, TimeoutMapEntry<K, V>> entry : map.entrySet()) {
-                if (entry.getValue().getExpireTime() < now) {
-                    if (isValidForEviction(entry.getValue())) {
-                        log.debug("Evicting inactive entry ID: {}", entry.getValue());
-                        expired.add(entry.getValue());
+            if (wheel != null) {
+                purgeTimeWheel(now, expired);
+            } else {
+                for (Map.Entry<K, TimeoutMapEntry<K, V>> entry : map.entrySet()) {
+                    if (entry.getValue().getExpireTime() < now) {
+                        if (isValidForEviction(entry.getValue())) {
+                            log.debug("Evicting inactive entry ID: {}", entry.getValue());
+                            expired.add(entry.getValue());
+                        }
                     }
                 }
             }
@@ -196,20 +259,28 @@ public class DefaultTimeoutMap<K, V> extends ServiceSupport implements TimeoutMa
                     }
                 });
 
-                List<K> evicts = new ArrayList<K>(expired.size());
+                List<TimeoutMapEntry<K, V>> evicts = new ArrayList<TimeoutMapEntry<K, V>>(expired.size());
                 try {
                     // now fire eviction notification
                     for (TimeoutMapEntry<K, V> entry : expired) {
                         boolean evict = onEviction(entry.getKey(), entry.getValue());
                         if (evict) {
                             // okay this entry should be evicted
-                            evicts.add(entry.getKey());
+                            evicts.add(entry);
+                        } else if (wheel != null) {
+                            // the eviction was vetoed so keep the entry in the wheel so we try again on next purge
+                            addToWheel(entry, currentTick());
                         }
                     }
                 } finally {
                     // and must remove from list after we have fired the notifications
-                    for (K key : evicts) {
-                        map.remove(key);
+                    for (TimeoutMapEntry<K, V> entry : evicts) {
+                        if (wheel != null) {
+                            // only remove if the entry has not been replaced in the meantime
+                            map.remove(entry.getKey(), entry);
+                        } else {
+                            map.remove(entry.getKey());
+                        }
                     }
                 }
             }
@@ -241,6 +312,82 @@ public class DefaultTimeoutMap<K, V> extends ServiceSupport implements TimeoutMa
         executor.scheduleWithFixedDelay(this, 0, purgePollTime, TimeUnit.MILLISECONDS);
     }
 
+    /**
+     * Finds the expired entries in the buckets of the time wheel which have expired since the last purge.
+     *
+     * @param now     the current time
+     * @param expired list to add the expired entries
+     */
+    private void purgeTimeWheel(long now, List<TimeoutMapEntry<K, V>> expired) {
+        long tick = tickOf(now);
+        long from = lastPurgedTick + 1;
+        if (lastPurgedTick < 0 || tick - from >= TIME_WHEEL_SIZE) {
+            // first purge (or we are far behind) so visit all the buckets in the wheel
+            from = tick - TIME_WHEEL_SIZE + 1;
+        }
+
+        // entries which has not yet expired must be re-added after we have visited the buckets,
+        // as they may belong to a bucket we have yet to visit, or the bucket we are visiting
+        List<TimeoutMapEntry<K, V>> pending = new ArrayList<TimeoutMapEntry<K, V>>();
+        for (long t = from; t <= tick; t++) {
+            Iterator<TimeoutMapEntry<K, V>> it = wheel.get(bucketOf(t)).iterator();
+            while (it.hasNext()) {
+                TimeoutMapEntry<K, V> entry = it.next();
+                it.remove();
+                ((WheelEntry<K, V>) entry).bucket = -1;
+                if (map.get(entry.getKey()) != entry) {
+                    // the entry was removed or replaced while we visited the bucket so discard it
+                    continue;
+                }
+                if (entry.getExpireTime() < now && isValidForEviction(entry)) {
+                    log.debug("Evicting inactive entry ID: {}", entry);
+                    expired.add(entry);
+                } else {
+                    pending.add(entry);
+                }
+            }
+        }
+        for (TimeoutMapEntry<K, V> entry : pending) {
+            // the expire time may have been updated since the entry was added to the wheel
+            addToWheel(entry, Math.max(tickOf(entry.getExpireTime()), tick));
+        }
+
+        // the current tick is not over yet so we must visit its bucket again on next purge
+        lastPurgedTick = tick - 1;
+    }
+
+    private void addToWheel(TimeoutMapEntry<K, V> entry, long minimumTick) {
+        long tick = Math.max(tickOf(entry.getExpireTime()), minimumTick);
+        int bucket = bucketOf(tick);
+        WheelEntry<K, V> wheelEntry = (WheelEntry<K, V>) entry;
+        if (wheelEntry.bucket != bucket) {
+            removeFromWheel(entry);
+            wheelEntry.bucket = bucket;
+            wheel.get(bucket).add(entry);
+        }
+    }
+
+    private void removeFromWheel(TimeoutMapEntry<K, V> entry) {
+        WheelEntry<K, V> wheelEntry = (WheelEntry<K, V>) entry;
+        int bucket = wheelEntry.bucket;
+        if (bucket >= 0) {
+            wheel.get(bucket).remove(entry);
+            wheelEntry.bucket = -1;
+        }
+    }
+
+    private long currentTick() {
+        return tickOf(currentTime());
+    }
+
+    private long tickOf(long time) {
+        return time / purgePollTime;
+    }
+
+    private static int bucketOf(long tick) {
+        return (int) (tick % TIME_WHEEL_SIZE);
+    }
+
     /**
      * A hook to allow derivations to avoid evicting the current entry
      */
@@ -268,10 +415,27 @@ public class DefaultTimeoutMap<K, V> extends ServiceSupport implements TimeoutMa
         }
     }
 
+    /**
+     * An entry which knows its bucket in the time wheel, so it can be taken out of the wheel when it is removed.
+     */
+    private static final class WheelEntry<K, V> extends TimeoutMapEntry<K, V> {
+        private volatile int bucket = -1;
+
+        private WheelEntry(K key, V value, long timeout) {
+            super(key, value, timeout);
+        }
+    }
+
     @Override
     protected void doStop() throws Exception {
         // clear map if we stop
         map.clear();
+        if (wheel != null) {
+            for (int i = 0; i < TIME_WHEEL_SIZE; i++) {
+                wheel.get(i).clear();
+            }
+            lastPurgedTick = -1;
+        }
     }
 
 }
@@ -0,0 +1,226 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.support;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.apache.camel.RuntimeCamelException;
+import org.apache.camel.util.IOHelper;
+import org.apache.camel.util.ObjectHelper;
+
+/**
+ * {@link Iterator} which tokenizes a {@link File} using a single token as delimiter.
+ * <p/>
+ * The file is accessed as memory mapped windows and the token is matched directly on the bytes,
+ * which avoids decoding all the content as characters and running regular expressions on it as
+ * a {@link java.util.Scanner} does. Only the content between the tokens is decoded, which happens
+ * when the token is returned by {@link #next()}.
+ * <p/>
+ * The tokens are returned using the same semantics as a {@link java.util.Scanner} using the token as delimiter.
+ * The token must be encoded using a charset where the encoded token cannot match in the middle of another
+ * character, which is the case for UTF-8 and single byte charsets, see {@link #isSupportedCharset(Charset)}.
+ */
+public class MappedFileTokenIterator implements Iterator<Object>, Closeable {
+
+    public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private final File file;
+    private final byte[] token;
+    private final Charset charset;
+    private final int windowSize;
+    private final RandomAccessFile raf;
+    private final FileChannel channel;
+    private final long size;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+    private String image;
+    private boolean closed;
+
+    public MappedFileTokenIterator(File file, String token, Charset charset) throws IOException {
+        this(file, token, charset, DEFAULT_WINDOW_SIZE);
+    }
+
+    public MappedFileTokenIterator(File file, String token, Charset charset, int windowSize) throws IOException {
+        ObjectHelper.notNull(file, "file");
+        ObjectHelper.notNull(token, "token");
+        if (token.length() == 0) {
+            // the token may be whitespace so do not use notEmpty as it trims the token
+            throw new IllegalArgumentException("token must not be empty");
+        }
+        ObjectHelper.notNull(charset, "charset");
+        this.file = file;
+        this.token = token.getBytes(charset);
+        this.charset = charset;
+        if (windowSize < this.token.length) {
+            throw new IllegalArgumentException("Window size must be at least the size of the token, was: " + windowSize);
+        }
+        this.windowSize = windowSize;
+        this.raf = new RandomAccessFile(file, "r");
+        this.channel = raf.getChannel();
+        this.size = channel.size();
+    }
+
+    /**
+     * Whether the charset is supported, which requires that an encoded token cannot match in the middle of
+     * another encoded character, which is the case for UTF-8 and for single byte charsets.
+     *
+     * @param charset the charset
+     * @return <tt>true</tt> if supported
+     */
+    public static boolean isSupportedCharset(Charset charset) {
+        return "UTF-8".equals(charset.name()) || charset.newEncoder().maxBytesPerChar() == 1.0f;
+    }
+
+    public boolean hasNext() {
+        if (image == null && !closed) {
+            try {
+                image = readNext();
+            } catch (IOException e) {
+                throw new RuntimeCamelException("Error tokenizing file: " + file, e);
+            }
+            if (image == null) {
+                // no more tokens so we are done
+                close();
+            }
+        }
+        return image != null;
+    }
+
+    public Object next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String answer = image;
+        image = null;
+        return answer;
+    }
+
+    public void remove() {
+        throw new UnsupportedOperationException("Remove is not supported by this iterator");
+    }
+
+    public void close() {
+        if (!closed) {
+            closed = true;
+            window = null;
+            IOHelper.close(channel, file.getName());
+            IOHelper.close(raf, file.getName());
+        }
+    }
+
+    private String readNext() throws IOException {
+        // skip the token if we are positioned at a token, as Scanner does
+        if (position + token.length <= size && matches(position)) {
+            position += token.length;
+        }
+        if (position >= size) {
+            return null;
+        }
+
+        long end = indexOf(position);
+        if (end < 0) {
+            // the last token is until the end of the file
+            end = size;
+        }
+        String answer = decode(position, end);
+        position = end;
+        return answer;
+    }
+
+    private boolean matches(long pos) throws IOException {
+        map(pos, token.length);
+        int index = (int) (pos - windowStart);
+        for (int i = 0; i < token.length; i++) {
+            if (window.get(index + i) != token[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long indexOf(long from) throws IOException {
+        final byte first = token[0];
+        long pos = from;
+        while (pos + token.length <= size) {
+            map(pos, token.length);
+            int index = (int) (pos - windowStart);
+            // the last index in the window where the token can start and still be inside the window
+            int last = window.limit() - token.length;
+            for (; index <= last; index++) {
+                if (window.get(index) == first && matchesInWindow(index)) {
+                    return windowStart + index;
+                }
+            }
+            // continue from where the window ended
+            pos = windowStart + index;
+        }
+        return -1;
+    }
+
+    private boolean matchesInWindow(int index) {
+        for (int i = 1; i < token.length; i++) {
+            if (window.get(index + i) != token[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String decode(long start, long end) throws IOException {
+        long length = end - start;
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Cannot decode content larger than " + Integer.MAX_VALUE + " bytes from position " + start + " in file: " + file);
+        }
+        ByteBuffer buffer;
+        if (window != null && start >= windowStart && end <= windowStart + window.limit()) {
+            // the content is inside the current window so use a slice of it
+            buffer = window.duplicate();
+            buffer.limit((int) (end - windowStart));
+            buffer.position((int) (start - windowStart));
+        } else {
+            // the content is larger than the window so map it on its own
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        }
+        return charset.decode(buffer).toString();
+    }
+
+    /**
+     * Ensures the current window maps the given range of the file, otherwise a new window starting
+     * at the given position is mapped.
+     */
+    private void map(long pos, int length) throws IOException {
+        if (window == null || pos < windowStart || pos + length > windowStart + window.limit()) {
+            windowStart = pos;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(windowSize, size - pos));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MappedFileTokenIterator[" + file + "]";
+    }
+}
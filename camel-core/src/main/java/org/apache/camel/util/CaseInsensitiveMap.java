@@ -16,9 +16,16 @@
  */
 package org.apache.camel.util;
 
-import java.util.HashMap;
-import java.util.HashSet;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 /**
@@ -30,150 +37,444 @@ import java.util.Set;
  * When copying from this map to a regular Map such as {@link java.util.HashMap} then the original keys are
  * copied over and you get the old behavior back using a regular Map with case sensitive keys.
  * <p/>
+ * The map is an open addressing hash table which computes the hash of the keys case insensitive and compares
+ * the keys using {@link String#equalsIgnoreCase(String)}, so lookups do not allocate any objects. The hash of
+ * each key is stored in the table which makes copying the map cheap, as the keys do not have to be hashed again.
+ * <p/>
+ * The entries can be removed while iterating the map, but the iterators are weakly consistent when
+ * entries are added while iterating.
+ * <p/>
  * This map is <b>not</b> designed to be thread safe as concurrent access to it is not supposed to be performed
  * by the Camel routing engine.
  *
  * @version 
  */
-public class CaseInsensitiveMap extends HashMap<String, Object> {
-    private static final long serialVersionUID = -8538318195477618308L;
+public class CaseInsensitiveMap extends AbstractMap<String, Object> implements Serializable {
+    private static final long serialVersionUID = -8538318195477618309L;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+    // marker for a removed entry, so the probing of other keys continues past the slot
+    private static final String REMOVED = new String("<removed>");
 
-    // holds a map of lower case key -> original key
-    private Map<String, String> originalKeys = new HashMap<String, String>();
-    // holds a snapshot view of current entry set
+    private final float loadFactor;
+    private transient String[] keys;
+    private transient Object[] values;
+    private transient int[] hashes;
+    private transient int size;
+    // number of slots in use including the removed entries
+    private transient int used;
+    private transient int threshold;
     private transient Set<Map.Entry<String, Object>> entrySetView;
+    private transient Set<String> keySetView;
 
     public CaseInsensitiveMap() {
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
     }
 
     public CaseInsensitiveMap(Map<? extends String, ?> map) {
-        putAll(map);
+        if (map instanceof CaseInsensitiveMap) {
+            // copy the table as is, so we do not need to hash the keys again
+            CaseInsensitiveMap other = (CaseInsensitiveMap) map;
+            this.loadFactor = other.loadFactor;
+            this.keys = other.keys.clone();
+            this.values = other.values.clone();
+            this.hashes = other.hashes.clone();
+            this.size = other.size;
+            this.used = other.used;
+            this.threshold = other.threshold;
+        } else {
+            this.loadFactor = DEFAULT_LOAD_FACTOR;
+            init(map != null ? (int) (map.size() / loadFactor) + 1 : DEFAULT_CAPACITY);
+            putAll(map);
+        }
     }
 
     public CaseInsensitiveMap(int initialCapacity, float loadFactor) {
-        super(initialCapacity, loadFactor);
-        originalKeys = new HashMap<String, String>(initialCapacity, loadFactor);
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Illegal initial capacity: " + initialCapacity);
+        }
+        if (loadFactor <= 0 || loadFactor >= 1 || Float.isNaN(loadFactor)) {
+            throw new IllegalArgumentException("Illegal load factor: " + loadFactor);
+        }
+        this.loadFactor = loadFactor;
+        init(initialCapacity);
     }
 
     public CaseInsensitiveMap(int initialCapacity) {
-        super(initialCapacity);
-        originalKeys = new HashMap<String, String>(initialCapacity);
+        this(initialCapacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    private void init(int initialCapacity) {
+        int capacity = 4;
+        while (capacity < initialCapacity) {
+            capacity <<= 1;
+        }
+        keys = new String[capacity];
+        values = new Object[capacity];
+        hashes = new int[capacity];
+        size = 0;
+        used = 0;
+        threshold = Math.min(capacity - 1, (int) (capacity * loadFactor));
+    }
+
+    /**
+     * Computes the case insensitive hash of the key, which is consistent with {@link String#equalsIgnoreCase(String)}
+     */
+    private static int hash(String key) {
+        int h = 0;
+        for (int i = 0, len = key.length(); i < len; i++) {
+            char c = key.charAt(i);
+            if (c < 128) {
+                if (c >= 'A' && c <= 'Z') {
+                    c += 'a' - 'A';
+                }
+            } else {
+                c = Character.toLowerCase(Character.toUpperCase(c));
+            }
+            h = 31 * h + c;
+        }
+        // spread the higher bits as we use the lower bits for the index
+        return h ^ (h >>> 16);
+    }
+
+    private static String asKey(Object key) {
+        return key instanceof String ? (String) key : key.toString();
+    }
+
+    private int indexOf(Object key) {
+        if (key == null) {
+            return -1;
+        }
+        String s = asKey(key);
+        int h = hash(s);
+        String[] k = keys;
+        int mask = k.length - 1;
+        int i = h & mask;
+        String current;
+        while ((current = k[i]) != null) {
+            if (current != REMOVED && hashes[i] == h && (current == s || current.equalsIgnoreCase(s))) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
     }
 
     @Override
     public Object get(Object key) {
-        String s = assembleKey(key);
-        Object answer = super.get(s);
-        if (answer == null) {
-            // fallback to lookup by original key
-            String originalKey = originalKeys.get(s);
-            answer = super.get(originalKey);
+        int i = indexOf(key);
+        return i >= 0 ? values[i] : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (int i = 0; i < keys.length; i++) {
+            String k = keys[i];
+            if (k != null && k != REMOVED && (value == null ? values[i] == null : value.equals(values[i]))) {
+                return true;
+            }
         }
-        return answer;
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
     }
 
     @Override
     public synchronized Object put(String key, Object value) {
-        // invalidate views as we mutate
-        entrySetView = null;
-        String s = assembleKey(key);
-        if (key.startsWith("Camel")) {
-            // use intern String for headers which is Camel* headers
-            // this reduces memory allocations needed for those common headers
-            originalKeys.put(s, key.intern());
+        return doPut(key, hash(key), value);
+    }
+
+    private Object doPut(String key, int h, Object value) {
+        String[] k = keys;
+        int mask = k.length - 1;
+        int i = h & mask;
+        int free = -1;
+        String current;
+        while ((current = k[i]) != null) {
+            if (current == REMOVED) {
+                if (free < 0) {
+                    free = i;
+                }
+            } else if (hashes[i] == h && (current == key || current.equalsIgnoreCase(key))) {
+                // use the new key so we preserve the case of the latest put
+                k[i] = key;
+                Object answer = values[i];
+                values[i] = value;
+                return answer;
+            }
+            i = (i + 1) & mask;
+        }
+
+        if (free >= 0) {
+            // reuse the slot of a removed entry
+            i = free;
         } else {
-            originalKeys.put(s, key);
+            used++;
+        }
+        k[i] = key;
+        values[i] = value;
+        hashes[i] = h;
+        size++;
+        if (used > threshold) {
+            rehash();
+        }
+        return null;
+    }
+
+    private void rehash() {
+        String[] oldKeys = keys;
+        Object[] oldValues = values;
+        int[] oldHashes = hashes;
+
+        // grow if the map is filled with entries, otherwise only purge the removed entries
+        int capacity = oldKeys.length;
+        if (size >= threshold / 2) {
+            capacity <<= 1;
+        }
+        keys = new String[capacity];
+        values = new Object[capacity];
+        hashes = new int[capacity];
+        threshold = Math.min(capacity - 1, (int) (capacity * loadFactor));
+        used = size;
+
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            String key = oldKeys[j];
+            if (key != null && key != REMOVED) {
+                int h = oldHashes[j];
+                int i = h & mask;
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+                values[i] = oldValues[j];
+                hashes[i] = h;
+            }
         }
-        return super.put(s, value);
     }
 
     @Override
     public synchronized void putAll(Map<? extends String, ?> map) {
-        entrySetView = null;
-        if (map != null && !map.isEmpty()) {
+        if (map == null || map.isEmpty()) {
+            return;
+        }
+        if (map instanceof CaseInsensitiveMap) {
+            // we already know the hashes of the keys
+            CaseInsensitiveMap other = (CaseInsensitiveMap) map;
+            for (int j = 0; j < other.keys.length; j++) {
+                String key = other.keys[j];
+                if (key != null && key != REMOVED) {
+                    doPut(key, other.hashes[j], other.values[j]);
+                }
+            }
+        } else {
             for (Map.Entry<? extends String, ?> entry : map.entrySet()) {
                 String key = entry.getKey();
-                Object value = entry.getValue();
-                String s = assembleKey(key);
-                if (key.startsWith("Camel")) {
-                    // use intern String for headers which is Camel* headers
-                    // this reduces memory allocations needed for those common headers
-                    originalKeys.put(s, key.intern());
-                } else {
-                    originalKeys.put(s, key);
-                }
-                super.put(s, value);
+                doPut(key, hash(key), entry.getValue());
             }
         }
     }
 
     @Override
     public synchronized Object remove(Object key) {
-        if (key == null) {
+        int i = indexOf(key);
+        if (i < 0) {
             return null;
         }
-
-        // invalidate views as we mutate
-        entrySetView = null;
-        String s = assembleKey(key);
-        originalKeys.remove(s);
-        return super.remove(s);
+        Object answer = values[i];
+        keys[i] = REMOVED;
+        values[i] = null;
+        size--;
+        return answer;
     }
 
     @Override
     public synchronized void clear() {
-        // invalidate views as we mutate
-        entrySetView = null;
-        originalKeys.clear();
-        super.clear();
+        Arrays.fill(keys, null);
+        Arrays.fill(values, null);
+        size = 0;
+        used = 0;
     }
 
     @Override
-    public boolean containsKey(Object key) {
-        if (key == null) {
-            return false;
+    public Set<Map.Entry<String, Object>> entrySet() {
+        if (entrySetView == null) {
+            entrySetView = new EntrySet();
         }
+        return entrySetView;
+    }
 
-        String s = assembleKey(key);
-        return super.containsKey(s);
+    /**
+     * Returns the keys in lower case, use {@link #entrySet()} to get the original keys.
+     */
+    @Override
+    public Set<String> keySet() {
+        if (keySetView == null) {
+            keySetView = new KeySet();
+        }
+        return keySetView;
     }
 
-    private static String assembleKey(Object key) {
-        String s = key.toString().toLowerCase();
-        if (s.startsWith("camel")) {
-            // use intern String for headers which is Camel* headers
-            // this reduces memory allocations needed for those common headers
-            s = s.intern();
+    private final class EntrySet extends AbstractSet<Map.Entry<String, Object>> {
+        @Override
+        public Iterator<Map.Entry<String, Object>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
         }
-        return s;
     }
 
-    @Override
-    public synchronized Set<Map.Entry<String, Object>> entrySet() {
-        if (entrySetView == null) {
-            // build the key set using the original keys so we retain their case
-            // when for example we copy values to another map
-            entrySetView = new HashSet<Map.Entry<String, Object>>(this.size());
-            for (final Map.Entry<String, Object> entry : super.entrySet()) {
-                Map.Entry<String, Object> view = new Map.Entry<String, Object>() {
-                    public String getKey() {
-                        String s = entry.getKey();
-                        // use the original key so we can preserve it
-                        return originalKeys.get(s);
-                    }
+    private final class KeySet extends AbstractSet<String> {
+        @Override
+        public Iterator<String> iterator() {
+            final EntryIterator it = new EntryIterator();
+            return new Iterator<String>() {
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
 
-                    public Object getValue() {
-                        return entry.getValue();
-                    }
+                public String next() {
+                    return it.next().getKey().toLowerCase();
+                }
+
+                public void remove() {
+                    it.remove();
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!containsKey(o)) {
+                return false;
+            }
+            CaseInsensitiveMap.this.remove(o);
+            return true;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+        // iterate the table at the time the iterator was created
+        private final String[] k = keys;
+        private final Object[] v = values;
+        private int next = advance(0);
+        private String last;
 
-                    public Object setValue(Object o) {
-                        return entry.setValue(o);
+        private int advance(int from) {
+            int i = from;
+            while (i < k.length && (k[i] == null || k[i] == REMOVED)) {
+                i++;
+            }
+            return i;
+        }
+
+        public boolean hasNext() {
+            if (next < k.length && k[next] == REMOVED) {
+                // the entry was removed after we advanced to it
+                next = advance(next);
+            }
+            return next < k.length;
+        }
+
+        public Map.Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final String key = k[next];
+            final Object value = v[next];
+            next = advance(next + 1);
+            last = key;
+            return new Map.Entry<String, Object>() {
+                private Object current = value;
+
+                public String getKey() {
+                    return key;
+                }
+
+                public Object getValue() {
+                    return current;
+                }
+
+                public Object setValue(Object o) {
+                    current = o;
+                    return put(key, o);
+                }
+
+                @Override
+                public boolean equals(Object o) {
+                    if (!(o instanceof Map.Entry)) {
+                        return false;
                     }
-                };
-                entrySetView.add(view);
+                    Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+                    return ObjectHelper.equal(key, e.getKey()) && ObjectHelper.equal(current, e.getValue());
+                }
+
+                @Override
+                public int hashCode() {
+                    return (key == null ? 0 : key.hashCode()) ^ (current == null ? 0 : current.hashCode());
+                }
+
+                @Override
+                public String toString() {
+                    return key + "=" + current;
+                }
+            };
+        }
+
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
             }
+            CaseInsensitiveMap.this.remove(last);
+            last = null;
         }
+    }
 
-        return entrySetView;
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        for (int i = 0; i < keys.length; i++) {
+            String key = keys[i];
+            if (key != null && key != REMOVED) {
+                out.writeObject(key);
+                out.writeObject(values[i]);
+            }
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int count = in.readInt();
+        init((int) (count / loadFactor) + 1);
+        for (int i = 0; i < count; i++) {
+            String key = (String) in.readObject();
+            doPut(key, hash(key), in.readObject());
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,286 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.util;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A case insensitive map for message headers which can be copied cheaply.
+ * <p/>
+ * The headers are stored in a {@link CaseInsensitiveMap}. When the map is copied, the copy shares the same
+ * storage which is then marked as shared and is no longer changed. The first write to the original or
+ * the copy forks a private storage for that map. This avoids copying the headers when exchanges
+ * are copied (for example by the multicast and wire tap EIPs) and the headers are only read.
+ * <p/>
+ * As {@link CaseInsensitiveMap} this map is <b>not</b> designed to be thread safe, but a map and its copies
+ * can be used by different threads, as the shared storage is only read.
+ *
+ * @version 
+ */
+public class CopyOnWriteHeaderMap extends AbstractMap<String, Object> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private Storage storage;
+    private transient Set<Map.Entry<String, Object>> entrySet;
+    private transient Set<String> keySet;
+
+    private static final class Storage implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final CaseInsensitiveMap map;
+        private volatile boolean shared;
+
+        private Storage(CaseInsensitiveMap map) {
+            this.map = map;
+        }
+    }
+
+    public CopyOnWriteHeaderMap() {
+        this.storage = new Storage(new CaseInsensitiveMap());
+    }
+
+    public CopyOnWriteHeaderMap(Map<? extends String, ?> map) {
+        this.storage = new Storage(new CaseInsensitiveMap(map));
+    }
+
+    private CopyOnWriteHeaderMap(Storage storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * Creates a copy of this map, which shares the storage with this map until either is changed.
+     *
+     * @return the copy
+     */
+    public CopyOnWriteHeaderMap copy() {
+        return new CopyOnWriteHeaderMap(share());
+    }
+
+    /**
+     * Replaces the content of this map with the content of the given map, sharing the storage
+     * until either is changed.
+     *
+     * @param other the map to copy from
+     */
+    public void copyFrom(CopyOnWriteHeaderMap other) {
+        if (other != this) {
+            storage = other.share();
+        }
+    }
+
+    /**
+     * Whether the storage of this map is currently shared with other maps
+     */
+    public boolean isShared() {
+        return storage.shared;
+    }
+
+    private Storage share() {
+        Storage answer = storage;
+        answer.shared = true;
+        return answer;
+    }
+
+    private CaseInsensitiveMap forWrite() {
+        Storage answer = storage;
+        if (answer.shared) {
+            // fork a private storage as the shared storage must not be changed
+            answer = new Storage(new CaseInsensitiveMap(answer.map));
+            storage = answer;
+        }
+        return answer.map;
+    }
+
+    @Override
+    public Object get(Object key) {
+        return storage.map.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return storage.map.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return storage.map.containsValue(value);
+    }
+
+    @Override
+    public int size() {
+        return storage.map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return storage.map.isEmpty();
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        return forWrite().put(key, value);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ?> map) {
+        if (map != null && !map.isEmpty()) {
+            forWrite().putAll(map);
+        }
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (key == null || !containsKey(key)) {
+            return null;
+        }
+        return forWrite().remove(key);
+    }
+
+    @Override
+    public void clear() {
+        if (storage.shared) {
+            // no need to copy the shared storage just to clear it
+            storage = new Storage(new CaseInsensitiveMap());
+        } else {
+            storage.map.clear();
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    /**
+     * Returns the keys in lower case as {@link CaseInsensitiveMap#keySet()}, use {@link #entrySet()} to get the original keys.
+     */
+    @Override
+    public Set<String> keySet() {
+        if (keySet == null) {
+            keySet = new KeySet();
+        }
+        return keySet;
+    }
+
+    /**
+     * A view of the keys of the current storage, where changes are written through this map.
+     */
+    private final class KeySet extends AbstractSet<String> {
+
+        @Override
+        public Iterator<String> iterator() {
+            final Iterator<String> it = storage.map.keySet().iterator();
+            return new Iterator<String>() {
+                private String lastKey;
+
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                public String next() {
+                    lastKey = it.next();
+                    return lastKey;
+                }
+
+                public void remove() {
+                    if (lastKey == null) {
+                        throw new IllegalStateException();
+                    }
+                    // remove through this map as the storage may be shared
+                    CopyOnWriteHeaderMap.this.remove(lastKey);
+                    lastKey = null;
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!containsKey(o)) {
+                return false;
+            }
+            CopyOnWriteHeaderMap.this.remove(o);
+            return true;
+        }
+
+        @Override
+        public int size() {
+            return CopyOnWriteHeaderMap.this.size();
+        }
+    }
+
+    /**
+     * A view of the entries of the current storage, where changes are written through this map.
+     */
+    private final class EntrySet extends AbstractSet<Map.Entry<String, Object>> {
+
+        @Override
+        public Iterator<Map.Entry<String, Object>> iterator() {
+            // the entry set of the case insensitive map is a snapshot with the original keys
+            final Iterator<Map.Entry<String, Object>> it = storage.map.entrySet().iterator();
+            return new Iterator<Map.Entry<String, Object>>() {
+                private String lastKey;
+
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                public Map.Entry<String, Object> next() {
+                    final Map.Entry<String, Object> entry = it.next();
+                    lastKey = entry.getKey();
+                    return new Map.Entry<String, Object>() {
+                        public String getKey() {
+                            return entry.getKey();
+                        }
+
+                        public Object getValue() {
+                            return entry.getValue();
+                        }
+
+                        public Object setValue(Object value) {
+                            return put(entry.getKey(), value);
+                        }
+                    };
+                }
+
+                public void remove() {
+                    if (lastKey == null) {
+                        throw new IllegalStateException();
+                    }
+                    CopyOnWriteHeaderMap.this.remove(lastKey);
+                    lastKey = null;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return CopyOnWriteHeaderMap.this.size();
+        }
+    }
+}
@@ -247,7 +247,10 @@ public final class FileUtil {
         return sb.toString();
     }
 
-    private static synchronized File getDefaultTempDir() {
+    /**
+     * Gets the default directory of temporary files, which is a sub folder of <tt>java.io.tmpdir</tt>.
+     */
+    public static synchronized File getDefaultTempDir() {
         if (defaultTempDir != null && defaultTempDir.exists()) {
             return defaultTempDir;
         }
@@ -27,6 +27,8 @@ import java.io.OutputStream;
 import java.io.Reader;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.UnsupportedCharsetException;
 
@@ -233,6 +235,38 @@ public final class IOHelper {
         close(closeable, null, LOG);
     }
 
+    /**
+     * Releases the memory of the given direct or memory mapped buffer now, instead of when the buffer is
+     * garbage collected. A mapped file is kept open (and its disk space is not released if the file is deleted)
+     * until its mapping is released. The buffer must not be used afterwards.
+     * <p/>
+     * If the JVM does not support releasing the buffer, the memory is released when the buffer is garbage collected.
+     *
+     * @param buffer the buffer, is ignored if not a direct buffer
+     * @return <tt>true</tt> if the buffer was released
+     */
+    public static boolean unmap(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect()) {
+            return false;
+        }
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner == null) {
+                // a slice or duplicate which does not own the memory
+                return false;
+            }
+            Method cleanMethod = cleaner.getClass().getMethod("clean");
+            cleanMethod.setAccessible(true);
+            cleanMethod.invoke(cleaner);
+            return true;
+        } catch (Exception e) {
+            LOG.trace("Cannot release buffer, it is released when garbage collected", e);
+            return false;
+        }
+    }
+
     /**
      * Closes the given resources if they are available.
      * 
@@ -20,12 +20,18 @@ import java.io.Serializable;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicLong;
 
 import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import com.googlecode.concurrentlinkedhashmap.EvictionListener;
+import org.apache.camel.util.concurrent.LongAdder;
 
 /**
  * A Least Recently Used Cache
+ * <p/>
+ * The cache is backed by a {@link ConcurrentLinkedHashMap} which records the accesses in buffers
+ * and applies them to the LRU order in batches, so reads do not block. The cache is therefore
+ * thread safe and callers should <b>not</b> synchronize on it. The hits, misses and evicted
+ * statistics are kept in {@link LongAdder}s, so they do not contend either.
  *
  * @version 
  */
@@ -33,8 +39,9 @@ public class LRUCache<K, V> implements Map<K, V>, Serializable {
     private static final long serialVersionUID = -342098639681884414L;
     
     private int maxCacheSize = 10000;
-    private final AtomicLong hits = new AtomicLong();
-    private final AtomicLong misses = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
     private ConcurrentLinkedHashMap<K, V> map;
 
     public LRUCache(int maximumCacheSize) {
@@ -53,7 +60,8 @@ public class LRUCache<K, V> implements Map<K, V>, Serializable {
     public LRUCache(int initialCapacity, int maximumCacheSize) {
         map = new ConcurrentLinkedHashMap.Builder<K, V>()
             .initialCapacity(initialCapacity)
-            .maximumWeightedCapacity(maximumCacheSize).build();
+            .maximumWeightedCapacity(maximumCacheSize)
+            .listener(new EvictionCounter<K, V>(evicted)).build();
         this.maxCacheSize = maximumCacheSize;
     }
 
@@ -61,9 +69,9 @@ public class LRUCache<K, V> implements Map<K, V>, Serializable {
     public V get(Object o) {
         V answer = map.get(o);
         if (answer != null) {
-            hits.incrementAndGet();
+            hits.increment();
         } else {
-            misses.incrementAndGet();
+            misses.increment();
         }
         return answer;
     }
@@ -85,7 +93,7 @@ public class LRUCache<K, V> implements Map<K, V>, Serializable {
 
     @Override
     public boolean containsValue(Object o) {
-        return map.containsValue(0);
+        return map.containsValue(o);
     }
 
     @Override
@@ -93,6 +101,26 @@ public class LRUCache<K, V> implements Map<K, V>, Serializable {
         return map.put(k, v);
     }
 
+    /**
+     * Puts the value if the key is not already in the cache, as an atomic operation.
+     *
+     * @return the value already in the cache, or <tt>null</tt> if the value was put
+     * @see java.util.concurrent.ConcurrentMap#putIfAbsent(Object, Object)
+     */
+    public V putIfAbsent(K k, V v) {
+        return map.putIfAbsent(k, v);
+    }
+
+    /**
+     * Replaces the value of the key if it is the given old value, as an atomic operation.
+     *
+     * @return <tt>true</tt> if the value was replaced
+     * @see java.util.concurrent.ConcurrentMap#replace(Object, Object, Object)
+     */
+    public boolean replace(K k, V oldValue, V newValue) {
+        return map.replace(k, oldValue, newValue);
+    }
+
     @Override
     public V remove(Object o) {
         return map.remove(o);
@@ -127,14 +155,21 @@ public class LRUCache<K, V> implements Map<K, V>, Serializable {
      * Gets the number of cache hits
      */
     public long getHits() {
-        return hits.get();
+        return hits.sum();
     }
 
     /**
      * Gets the number of cache misses.
      */
     public long getMisses() {
-        return misses.get();
+        return misses.sum();
+    }
+
+    /**
+     * Gets the number of entries evicted from the cache because it was full.
+     */
+    public long getEvicted() {
+        return evicted.sum();
     }
 
     /**
@@ -145,15 +180,32 @@ public class LRUCache<K, V> implements Map<K, V>, Serializable {
     }
 
     /**
-     * Rest the cache statistics such as hits and misses.
+     * Rest the cache statistics such as hits, misses and evicted.
      */
     public void resetStatistics() {
-        hits.set(0);
-        misses.set(0);
+        hits.reset();
+        misses.reset();
+        evicted.reset();
     }
 
     @Override
     public String toString() {
         return "LRUCache@" + ObjectHelper.getIdentityHashCode(this);
     }
+
+    /**
+     * Counts the evicted entries. This is a static class as the listener is serialized with the map.
+     */
+    private static final class EvictionCounter<K, V> implements EvictionListener<K, V>, Serializable {
+        private static final long serialVersionUID = 1L;
+        private final LongAdder evicted;
+
+        private EvictionCounter(LongAdder evicted) {
+            this.evicted = evicted;
+        }
+
+        public void onEviction(K key, V value) {
+            evicted.increment();
+        }
+    }
 }
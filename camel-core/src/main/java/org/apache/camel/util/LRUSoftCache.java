@@ -38,6 +38,7 @@ import java.util.Set;
  *   <li>isEmpty - To determine if the cache contains any values</li>
  *   <li>keySet - To return a set of the current keys which refers to a value</li>
  *   <li>put - To add a value to the cache</li>
+ *   <li>putIfAbsent - To add a value to the cache if the key is not in the cache</li>
  *   <li>putAll - To add values to the cache</li>
  *   <li>remove - To remove a value from the cache by its key</li>
  *   <li>size - To get the current size</li>
@@ -74,6 +75,26 @@ public class LRUSoftCache<K, V> extends LRUCache<K, V> {
         return ref != null ? ref.get() : null;
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public V putIfAbsent(K key, V value) {
+        SoftReference<V> put = new SoftReference<V>(value);
+        while (true) {
+            SoftReference<V> prev = (SoftReference<V>) super.putIfAbsent(key, (V) put);
+            if (prev == null) {
+                return null;
+            }
+            V answer = prev.get();
+            if (answer != null) {
+                return answer;
+            }
+            // the value has been reclaimed so the key is regarded as absent
+            if (replace(key, (V) prev, (V) put)) {
+                return null;
+            }
+        }
+    }
+
     @Override
     public void putAll(Map<? extends K, ? extends V> map) {
         for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
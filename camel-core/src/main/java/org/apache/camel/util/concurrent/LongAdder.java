@@ -0,0 +1,129 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.util.concurrent;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter which can be updated by many threads without contention.
+ * <p/>
+ * The counter is updated using a single {@link AtomicLong} until a thread fails to update it
+ * because another thread updated it at the same time. Then the counter is spread over a number of
+ * cells, and each thread updates the cell it is mapped to. The cells are padded so they are on
+ * different cache lines. The value of the counter is the sum of the cells, which is not a snapshot
+ * when the counter is updated while the sum is calculated.
+ * <p/>
+ * This is a simplified version of the <tt>LongAdder</tt> class of Java 8, as Camel supports Java 6.
+ *
+ * @version 
+ */
+public class LongAdder implements Serializable {
+    private static final long serialVersionUID = 6453219438290917152L;
+
+    // number of longs each cell is padded to, so each cell is on its own cache line
+    private static final int PADDING = 8;
+    private static final int MAX_CELLS = 64;
+    private static final int CELLS;
+
+    static {
+        int cells = 1;
+        int processors = Runtime.getRuntime().availableProcessors();
+        while (cells < processors && cells < MAX_CELLS) {
+            cells <<= 1;
+        }
+        CELLS = cells;
+    }
+
+    private final AtomicLong base = new AtomicLong();
+    private volatile AtomicLongArray cells;
+
+    /**
+     * Adds the given value.
+     *
+     * @param x the value to add
+     */
+    public void add(long x) {
+        AtomicLongArray cs = cells;
+        if (cs == null) {
+            long b = base.get();
+            if (base.compareAndSet(b, b + x)) {
+                return;
+            }
+            // contention so spread the counter over the cells
+            cs = createCells();
+        }
+        cs.getAndAdd(index(), x);
+    }
+
+    /**
+     * Increments the counter by one.
+     */
+    public void increment() {
+        add(1);
+    }
+
+    /**
+     * Returns the current sum.
+     *
+     * @return the sum
+     */
+    public long sum() {
+        long sum = base.get();
+        AtomicLongArray cs = cells;
+        if (cs != null) {
+            for (int i = 0; i < cs.length(); i += PADDING) {
+                sum += cs.get(i);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Resets the counter to zero. This is only reliable when the counter is not updated
+     * at the same time.
+     */
+    public void reset() {
+        base.set(0);
+        AtomicLongArray cs = cells;
+        if (cs != null) {
+            for (int i = 0; i < cs.length(); i += PADDING) {
+                cs.set(i, 0);
+            }
+        }
+    }
+
+    private synchronized AtomicLongArray createCells() {
+        if (cells == null) {
+            cells = new AtomicLongArray(CELLS * PADDING);
+        }
+        return cells;
+    }
+
+    private static int index() {
+        // spread the thread ids so threads created one after another use different cells
+        long id = Thread.currentThread().getId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return ((h ^ (h >>> 16)) & (CELLS - 1)) * PADDING;
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(sum());
+    }
+}
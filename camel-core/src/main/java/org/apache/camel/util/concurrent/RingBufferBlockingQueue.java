@@ -0,0 +1,395 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.util.concurrent;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.camel.util.ObjectHelper;
+
+/**
+ * A bounded lock-free multi producer multi consumer {@link BlockingQueue} backed by a ring buffer.
+ * <p/>
+ * Each slot in the ring carries a sequence number which tells producers and consumers whether the slot
+ * is free to write or ready to read, so offering and polling only costs a compare-and-set on the
+ * head or tail position instead of acquiring a lock and signalling a condition.
+ * <p/>
+ * The blocking operations do not use conditions, but spin briefly and then register the calling thread as waiting
+ * and park it, until a producer or consumer unparks it. Offering and polling only check whether any thread is waiting,
+ * so the hand off stays cheap for busy threads, and idle threads do not wake up until there is work for them.
+ * <p/>
+ * The capacity is rounded up to the nearest power of two (with a minimum of two). The {@link #iterator()} is a weakly consistent
+ * snapshot of the queue which does not support removal. Elements removed from the middle of the queue using {@link #remove(Object)}
+ * are replaced by a marker which the consumers skip, so their slot is only free for the producers when the consumers reach it.
+ *
+ * @version 
+ */
+public class RingBufferBlockingQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+    private static final int SPIN_TRIES = 64;
+    // marks the slot of an element which has been removed from the middle of the queue
+    private static final Object REMOVED = new Object();
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<Object> buffer;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    // number of slots marked as removed which the consumers have not yet skipped
+    private final AtomicLong removed = new AtomicLong();
+    private final Queue<Thread> waitingProducers = new ConcurrentLinkedQueue<Thread>();
+    private final Queue<Thread> waitingConsumers = new ConcurrentLinkedQueue<Thread>();
+
+    /**
+     * Creates a new ring buffer queue.
+     *
+     * @param capacity the capacity, will be rounded up to the nearest power of two (minimum two)
+     */
+    public RingBufferBlockingQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive, was " + capacity);
+        }
+        if (capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must not be larger than " + (1 << 30) + ", was " + capacity);
+        }
+        // we need at least two slots to tell a published slot from a released slot
+        int size = 2;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.mask = size - 1;
+        this.buffer = new AtomicReferenceArray<Object>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Gets the capacity of this queue (which is a power of two)
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public boolean offer(E e) {
+        ObjectHelper.notNull(e, "element");
+        while (true) {
+            long pos = tail.get();
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    buffer.set(index, e);
+                    // publish the element to the consumers
+                    sequences.set(index, pos + 1);
+                    signal(waitingConsumers);
+                    return true;
+                }
+            } else if (diff < 0) {
+                // the slot has not yet been consumed from the previous lap, so we are full
+                return false;
+            }
+            // another producer claimed the slot so try again
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        while (true) {
+            long pos = head.get();
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    // take the element atomically as a concurrent remove may mark the slot as removed
+                    Object answer = buffer.getAndSet(index, null);
+                    // release the slot to the producers for the next lap
+                    sequences.set(index, pos + capacity);
+                    signal(waitingProducers);
+                    if (answer != REMOVED) {
+                        return (E) answer;
+                    }
+                    // the element was removed so skip to the next slot
+                    removed.decrementAndGet();
+                    continue;
+                }
+            } else if (diff < 0) {
+                // the slot has not yet been published, so we are empty
+                return null;
+            }
+            // another consumer claimed the slot so try again
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        while (true) {
+            long pos = head.get();
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - (pos + 1);
+            if (diff < 0) {
+                return null;
+            }
+            Object answer = buffer.get(index);
+            if (answer == REMOVED) {
+                // the element was removed so release its slot and try the next
+                if (diff == 0 && head.compareAndSet(pos, pos + 1)) {
+                    buffer.set(index, null);
+                    sequences.set(index, pos + capacity);
+                    removed.decrementAndGet();
+                    signal(waitingProducers);
+                }
+                continue;
+            }
+            if (answer != null && head.get() == pos) {
+                return (E) answer;
+            }
+            // the slot was consumed while we peeked so try again
+        }
+    }
+
+    public void put(E e) throws InterruptedException {
+        offer(e, false, 0);
+    }
+
+    public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+        return offer(e, true, System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    public E take() throws InterruptedException {
+        return poll(false, 0);
+    }
+
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return poll(true, System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    private boolean offer(E e, boolean timed, long deadline) throws InterruptedException {
+        if (offer(e)) {
+            return true;
+        }
+        boolean waited = false;
+        try {
+            for (int tries = 0; true; tries++) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                long remaining = deadline - System.nanoTime();
+                if (timed && remaining <= 0) {
+                    return false;
+                }
+                if (tries < SPIN_TRIES) {
+                    Thread.yield();
+                    if (offer(e)) {
+                        return true;
+                    }
+                } else {
+                    waited = true;
+                    Thread current = Thread.currentThread();
+                    waitingProducers.offer(current);
+                    try {
+                        // check again once registered, so a consumer releasing a slot in between unparks us
+                        if (offer(e)) {
+                            return true;
+                        }
+                        park(timed, remaining);
+                    } finally {
+                        waitingProducers.remove(current);
+                    }
+                }
+            }
+        } finally {
+            if (waited && remainingCapacity() > 0) {
+                // we may have been unparked in place of another waiting producer, so pass the signal on
+                signal(waitingProducers);
+            }
+        }
+    }
+
+    private E poll(boolean timed, long deadline) throws InterruptedException {
+        E answer = poll();
+        if (answer != null) {
+            return answer;
+        }
+        boolean waited = false;
+        try {
+            for (int tries = 0; true; tries++) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                long remaining = deadline - System.nanoTime();
+                if (timed && remaining <= 0) {
+                    return null;
+                }
+                if (tries < SPIN_TRIES) {
+                    Thread.yield();
+                    answer = poll();
+                    if (answer != null) {
+                        return answer;
+                    }
+                } else {
+                    waited = true;
+                    Thread current = Thread.currentThread();
+                    waitingConsumers.offer(current);
+                    try {
+                        // check again once registered, so a producer publishing an element in between unparks us
+                        answer = poll();
+                        if (answer != null) {
+                            return answer;
+                        }
+                        park(timed, remaining);
+                    } finally {
+                        waitingConsumers.remove(current);
+                    }
+                }
+            }
+        } finally {
+            if (waited && size() > 0) {
+                // we may have been unparked in place of another waiting consumer, so pass the signal on
+                signal(waitingConsumers);
+            }
+        }
+    }
+
+    public int remainingCapacity() {
+        // the slots of removed elements are not free until the consumers have skipped them
+        return capacity - usedSlots();
+    }
+
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        ObjectHelper.notNull(c, "collection");
+        if (c == this) {
+            throw new IllegalArgumentException("Cannot drain a queue to itself");
+        }
+        int count = 0;
+        while (count < maxElements) {
+            E e = poll();
+            if (e == null) {
+                break;
+            }
+            c.add(e);
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.max(0, usedSlots() - removed.get());
+    }
+
+    private int usedSlots() {
+        while (true) {
+            long before = head.get();
+            long t = tail.get();
+            if (head.get() == before) {
+                // claimed but not yet consumed slots are counted, so clip to the capacity
+                return (int) Math.max(0, Math.min(capacity, t - before));
+            }
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return peek() == null;
+    }
+
+    /**
+     * Removes a single instance of the given element from the queue.
+     * <p/>
+     * The slot of the element is marked as removed, which the consumers skip when they reach it.
+     *
+     * @return <tt>true</tt> if the element was removed, <tt>false</tt> if it was not in the queue
+     *         (or was consumed concurrently)
+     */
+    @Override
+    public boolean remove(Object o) {
+        if (o == null) {
+            return false;
+        }
+        long pos = head.get();
+        long end = tail.get();
+        for (; pos < end; pos++) {
+            int index = (int) pos & mask;
+            Object e = buffer.get(index);
+            if (e != null && e != REMOVED && sequences.get(index) == pos + 1 && o.equals(e)) {
+                // only succeeds if a consumer did not take the element in the meantime
+                if (buffer.compareAndSet(index, e, REMOVED)) {
+                    removed.incrementAndGet();
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<E> iterator() {
+        List<E> answer = new ArrayList<E>();
+        long pos = head.get();
+        long end = tail.get();
+        for (; pos < end; pos++) {
+            int index = (int) pos & mask;
+            Object e = buffer.get(index);
+            if (e != null && e != REMOVED && sequences.get(index) == pos + 1) {
+                answer.add((E) e);
+            }
+        }
+        return Collections.unmodifiableList(answer).iterator();
+    }
+
+    @Override
+    public String toString() {
+        return "RingBufferBlockingQueue[capacity=" + capacity + ", size=" + size() + "]";
+    }
+
+    private void park(boolean timed, long nanos) {
+        if (timed) {
+            LockSupport.parkNanos(this, nanos);
+        } else {
+            LockSupport.park(this);
+        }
+    }
+
+    private static void signal(Queue<Thread> waiters) {
+        Thread waiter = waiters.peek();
+        if (waiter != null) {
+            LockSupport.unpark(waiter);
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.file;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+
+/**
+ * @version 
+ */
+public class FileConsumerIndexDirectoryTest extends ContextTestSupport {
+
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    @Override
+    protected void setUp() throws Exception {
+        deleteDirectory("target/indexdir");
+        super.setUp();
+    }
+
+    public void testNewFiles() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:result");
+        mock.expectedBodiesReceivedInAnyOrder("Hello World", "Bye World", "Hi World");
+
+        template.sendBodyAndHeader("file://target/indexdir/noop", "Hello World", Exchange.FILE_NAME, "hello.txt");
+        template.sendBodyAndHeader("file://target/indexdir/noop", "Bye World", Exchange.FILE_NAME, "sub/bye.txt");
+        // let the files be consumed before adding another one
+        Thread.sleep(500);
+        template.sendBodyAndHeader("file://target/indexdir/noop", "Hi World", Exchange.FILE_NAME, "hi.txt");
+
+        assertMockEndpointsSatisfied();
+
+        // the files are left in the directory but should not be consumed again
+        Thread.sleep(200);
+        assertEquals(3, mock.getReceivedCounter());
+    }
+
+    public void testRolledBackFileIsRetried() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:retry");
+        mock.expectedBodiesReceived("Hello World");
+
+        template.sendBodyAndHeader("file://target/indexdir/retry", "Hello World", Exchange.FILE_NAME, "hello.txt");
+
+        assertMockEndpointsSatisfied();
+        assertEquals(2, attempts.get());
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("file://target/indexdir/noop?noop=true&recursive=true&indexDirectory=true&initialDelay=0&delay=10")
+                    .convertBodyTo(String.class).to("mock:result");
+
+                from("file://target/indexdir/retry?indexDirectory=true&initialDelay=0&delay=10")
+                    .process(new Processor() {
+                        public void process(Exchange exchange) throws Exception {
+                            if (attempts.incrementAndGet() == 1) {
+                                throw new IllegalArgumentException("Forced");
+                            }
+                        }
+                    })
+                    .convertBodyTo(String.class).to("mock:retry");
+            }
+        };
+    }
+}
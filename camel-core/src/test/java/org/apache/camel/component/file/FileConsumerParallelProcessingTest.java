@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.file;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.impl.JndiRegistry;
+import org.apache.camel.processor.idempotent.MemoryIdempotentRepository;
+
+/**
+ * @version 
+ */
+public class FileConsumerParallelProcessingTest extends ContextTestSupport {
+
+    private final List<String> completed = new CopyOnWriteArrayList<String>();
+
+    @Override
+    protected void setUp() throws Exception {
+        deleteDirectory("target/parallel");
+        super.setUp();
+    }
+
+    @Override
+    protected JndiRegistry createRegistry() throws Exception {
+        JndiRegistry jndi = super.createRegistry();
+        jndi.bind("myRepo", new MemoryIdempotentRepository() {
+            @Override
+            public boolean add(String key) {
+                completed.add(new File(key).getName());
+                return super.add(key);
+            }
+        });
+        return jndi;
+    }
+
+    @Override
+    public boolean isUseRouteBuilder() {
+        return false;
+    }
+
+    public void testParallelProcessing() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            template.sendBodyAndHeader("file://target/parallel/move", "Hello " + i, Exchange.FILE_NAME, "hello" + i + ".txt");
+        }
+
+        context.addRoutes(new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("file://target/parallel/move?parallelProcessing=true&concurrentConsumers=5&initialDelay=0&delay=10")
+                    .convertBodyTo(String.class).to("mock:result");
+            }
+        });
+        context.start();
+
+        MockEndpoint mock = getMockEndpoint("mock:result");
+        mock.expectedMessageCount(10);
+        assertMockEndpointsSatisfied();
+
+        // the files are moved in the background
+        Thread.sleep(500);
+        for (int i = 0; i < 10; i++) {
+            assertTrue("File should be moved", new File("target/parallel/move/.camel/hello" + i + ".txt").exists());
+            assertFalse("File should not exist", new File("target/parallel/move/hello" + i + ".txt").exists());
+        }
+    }
+
+    public void testOrderedCompletion() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            template.sendBodyAndHeader("file://target/parallel/ordered", "Hello " + i, Exchange.FILE_NAME, "hello" + i + ".txt");
+        }
+
+        context.addRoutes(new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("file://target/parallel/ordered?parallelProcessing=true&orderedCompletion=true&concurrentConsumers=5"
+                        + "&idempotent=true&idempotentRepository=#myRepo&noop=true&sortBy=file:name&initialDelay=0&delay=10")
+                    .process(new Processor() {
+                        public void process(Exchange exchange) throws Exception {
+                            // the first files take the longest to process
+                            int index = exchange.getProperty(Exchange.BATCH_INDEX, Integer.class);
+                            Thread.sleep(50 * (5 - index));
+                        }
+                    })
+                    .to("mock:ordered");
+            }
+        });
+        context.start();
+
+        MockEndpoint mock = getMockEndpoint("mock:ordered");
+        mock.expectedMessageCount(5);
+        assertMockEndpointsSatisfied();
+
+        // the files are completed in the background
+        Thread.sleep(500);
+        assertEquals(5, completed.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals("hello" + i + ".txt", completed.get(i));
+        }
+    }
+}
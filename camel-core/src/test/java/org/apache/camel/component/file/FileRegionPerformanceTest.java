@@ -0,0 +1,173 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.file;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+import junit.framework.TestCase;
+import org.apache.camel.util.IOHelper;
+import org.apache.camel.util.StopWatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the throughput of transferring a file using a {@link FileRegion} with copying
+ * the file through a heap buffer, to a file and to a socket, and checks the transferred content.
+ * <p/>
+ * The file is 16 MB by default, which can be raised with the <tt>fileRegionSize</tt> system property
+ * to run it as a benchmark.
+ *
+ * @version 
+ */
+public class FileRegionPerformanceTest extends TestCase {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FileRegionPerformanceTest.class);
+    private static final long SIZE = Long.getLong("fileRegionSize", 16L * 1024 * 1024);
+    private final File source = new File("target/fileregionperf/source.dat");
+    private final File target = new File("target/fileregionperf/target.dat");
+
+    public void testFileToFile() throws Exception {
+        createSourceFile();
+
+        StopWatch watch = new StopWatch();
+        FileOutputStream fos = new FileOutputStream(target);
+        try {
+            new FileRegion(source).transferTo(fos);
+        } finally {
+            IOHelper.close(fos);
+        }
+        log("FileRegion to file", watch.stop());
+        assertEquals(SIZE, target.length());
+        assertEquals(checksum(source), checksum(target));
+
+        watch.restart();
+        copy(new FileInputStream(source), new FileOutputStream(target));
+        log("Heap buffer to file", watch.stop());
+        assertEquals(SIZE, target.length());
+        assertEquals(checksum(source), checksum(target));
+    }
+
+    public void testFileToSocket() throws Exception {
+        createSourceFile();
+
+        ServerSocketChannel server = ServerSocketChannel.open();
+        server.socket().bind(new InetSocketAddress("localhost", 0));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Long> received = executor.submit(new Drain(server));
+            SocketChannel client = SocketChannel.open(server.socket().getLocalSocketAddress());
+            StopWatch watch = new StopWatch();
+            new FileRegion(source).transferTo(client);
+            client.close();
+            assertEquals(SIZE, received.get().longValue());
+            log("FileRegion to socket", watch.stop());
+
+            received = executor.submit(new Drain(server));
+            client = SocketChannel.open(server.socket().getLocalSocketAddress());
+            watch.restart();
+            copy(new FileInputStream(source), client.socket().getOutputStream());
+            assertEquals(SIZE, received.get().longValue());
+            log("Heap buffer to socket", watch.stop());
+        } finally {
+            executor.shutdownNow();
+            server.close();
+        }
+    }
+
+    private void createSourceFile() throws Exception {
+        source.getParentFile().mkdirs();
+        if (source.length() != SIZE) {
+            RandomAccessFile raf = new RandomAccessFile(source, "rw");
+            try {
+                byte[] data = new byte[1024 * 1024];
+                for (int i = 0; i < data.length; i++) {
+                    data[i] = (byte) i;
+                }
+                for (long written = 0; written < SIZE; written += data.length) {
+                    raf.write(data);
+                }
+            } finally {
+                raf.close();
+            }
+        }
+    }
+
+    private static long checksum(File file) throws Exception {
+        CRC32 crc = new CRC32();
+        InputStream is = new FileInputStream(file);
+        try {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        } finally {
+            IOHelper.close(is);
+        }
+        return crc.getValue();
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws Exception {
+        try {
+            IOHelper.copy(in, out);
+        } finally {
+            IOHelper.close(in, out);
+        }
+    }
+
+    private static void log(String name, long millis) {
+        LOG.info("{} took {} millis at {} MB/s", new Object[]{name, millis, millis > 0 ? (SIZE / (1024 * 1024)) * 1000 / millis : SIZE});
+    }
+
+    private static final class Drain implements Callable<Long> {
+        private final ServerSocketChannel server;
+
+        private Drain(ServerSocketChannel server) {
+            this.server = server;
+        }
+
+        public Long call() throws Exception {
+            SocketChannel channel = server.accept();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+            long total = 0;
+            int read;
+            try {
+                while ((read = channel.read(buffer)) != -1) {
+                    total += read;
+                    buffer.clear();
+                }
+            } finally {
+                channel.close();
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.file;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
+
+/**
+ * @version 
+ */
+public class FileRegionTest extends ContextTestSupport {
+
+    @Override
+    protected void setUp() throws Exception {
+        deleteDirectory("target/fileregion");
+        super.setUp();
+        template.sendBodyAndHeader("file://target/fileregion", "Hello World", Exchange.FILE_NAME, "hello.txt");
+    }
+
+    public void testTransferToStream() throws Exception {
+        FileRegion region = new FileRegion(new File("target/fileregion/hello.txt"));
+        assertEquals(11, region.getCount());
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        assertEquals(11, region.transferTo(bos));
+        assertEquals("Hello World", bos.toString());
+    }
+
+    public void testTransferPartOfFileToFile() throws Exception {
+        FileRegion region = new FileRegion(new File("target/fileregion/hello.txt"), 6, 5);
+
+        FileOutputStream fos = new FileOutputStream("target/fileregion/world.txt");
+        try {
+            // use a small chunk size to transfer the region in several calls
+            assertEquals(5, region.transferTo(fos.getChannel(), 2));
+        } finally {
+            fos.close();
+        }
+
+        String content = context.getTypeConverter().convertTo(String.class, new File("target/fileregion/world.txt"));
+        assertEquals("World", content);
+    }
+
+    public void testConvertFile() throws Exception {
+        File file = new File("target/fileregion/hello.txt");
+        FileRegion region = context.getTypeConverter().convertTo(FileRegion.class, file);
+        assertNotNull(region);
+        assertEquals(file, region.getFile());
+        assertEquals(0, region.getPosition());
+        assertEquals(11, region.getCount());
+    }
+
+    public void testConvertGenericFile() throws Exception {
+        Exchange exchange = consumer.receive("file://target/fileregion?noop=true", 5000);
+        assertNotNull(exchange);
+
+        FileRegion region = exchange.getIn().getBody(FileRegion.class);
+        assertNotNull(region);
+        assertEquals("hello.txt", region.getFile().getName());
+        assertEquals(11, region.getCount());
+    }
+}
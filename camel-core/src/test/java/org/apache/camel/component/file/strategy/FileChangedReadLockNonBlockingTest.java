@@ -0,0 +1,84 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.file.strategy;
+
+import java.io.File;
+import java.io.FileOutputStream;
+
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+
+/**
+ * @version
+ */
+public class FileChangedReadLockNonBlockingTest extends ContextTestSupport {
+
+    @Override
+    protected void setUp() throws Exception {
+        deleteDirectory("target/changed/");
+        createDirectory("target/changed/in");
+        super.setUp();
+    }
+
+    public void testSlowFileDoesNotBlockOtherFiles() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:result");
+        mock.expectedMessageCount(1);
+        mock.expectedHeaderReceived(Exchange.FILE_NAME, "fastfile.dat");
+
+        // start writing the slow file, and let it be seen by the consumer
+        FileOutputStream fos = new FileOutputStream("target/changed/in/slowfile.dat");
+        fos.write(("Line 0" + LS).getBytes());
+        fos.flush();
+        Thread.sleep(200);
+
+        template.sendBodyAndHeader("file:target/changed/in", "Hello World", Exchange.FILE_NAME, "fastfile.dat");
+
+        // the fast file should be consumed while the slow file is still being written
+        for (int i = 1; i < 10; i++) {
+            fos.write(("Line " + i + LS).getBytes());
+            fos.flush();
+            Thread.sleep(100);
+        }
+        assertMockEndpointsSatisfied();
+
+        resetMocks();
+        mock.expectedMessageCount(1);
+        mock.expectedHeaderReceived(Exchange.FILE_NAME, "slowfile.dat");
+        mock.expectedFileExists("target/changed/out/slowfile.dat");
+
+        fos.close();
+
+        assertMockEndpointsSatisfied();
+
+        String content = context.getTypeConverter().convertTo(String.class, new File("target/changed/out/slowfile.dat").getAbsoluteFile());
+        String[] lines = content.split(LS);
+        assertEquals("There should be 10 lines in the file", 10, lines.length);
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("file:target/changed/in?readLock=changed&readLockNonBlocking=true&readLockCheckInterval=500&delay=50")
+                    .to("file:target/changed/out", "mock:result");
+            }
+        };
+    }
+}
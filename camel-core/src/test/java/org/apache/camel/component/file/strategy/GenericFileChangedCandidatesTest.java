@@ -0,0 +1,71 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.file.strategy;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+/**
+ * @version
+ */
+public class GenericFileChangedCandidatesTest extends TestCase {
+
+    private final AtomicInteger stats = new AtomicInteger();
+
+    public void testStableFile() throws Exception {
+        GenericFileChangedCandidates candidates = new GenericFileChangedCandidates();
+
+        assertFalse(candidates.tryAcquire("hello.txt", 0, 10, 1, stat(1000, 5)));
+        assertEquals(1, candidates.size());
+
+        // not checked again before the check interval
+        assertFalse(candidates.tryAcquire("hello.txt", 0, 10000, 1, stat(1000, 5)));
+        assertEquals(1, stats.get());
+
+        Thread.sleep(20);
+        assertTrue(candidates.tryAcquire("hello.txt", 0, 10, 1, stat(1000, 5)));
+        assertEquals(0, candidates.size());
+    }
+
+    public void testZeroLengthFileTimesOut() throws Exception {
+        GenericFileChangedCandidates candidates = new GenericFileChangedCandidates();
+
+        assertFalse(candidates.tryAcquire("empty.txt", 300, 10, 1, stat(1000, 0)));
+        Thread.sleep(20);
+        // the file is unchanged but too short, so it should still be tracked
+        assertFalse(candidates.tryAcquire("empty.txt", 300, 10, 1, stat(1000, 0)));
+        assertEquals(1, candidates.size());
+        assertEquals(2, stats.get());
+
+        Thread.sleep(400);
+        // timed out so the file is skipped without being checked
+        assertFalse(candidates.tryAcquire("empty.txt", 300, 10, 1, stat(1000, 0)));
+        assertEquals(2, stats.get());
+        assertEquals(0, candidates.size());
+    }
+
+    private Callable<GenericFileChangedCandidates.FileStat> stat(final long lastModified, final long length) {
+        return new Callable<GenericFileChangedCandidates.FileStat>() {
+            public GenericFileChangedCandidates.FileStat call() throws Exception {
+                stats.incrementAndGet();
+                return new GenericFileChangedCandidates.FileStat(lastModified, length);
+            }
+        };
+    }
+}
@@ -71,6 +71,9 @@ public class GenericFileDeleteProcessStrategyTest extends ContextTestSupport {
             return false;
         }
 
+        public void releaseRetrievedFileResources(Exchange exchange) throws GenericFileOperationFailedException {
+        }
+
         public boolean storeFile(String name, Exchange exchange) throws GenericFileOperationFailedException {
             return false;
         }
@@ -0,0 +1,133 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.seda;
+
+import java.io.File;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.TestSupport;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.impl.DefaultExchange;
+
+/**
+ * @version 
+ */
+public class PersistentBlockingQueueTest extends TestSupport {
+
+    private final CamelContext context = new DefaultCamelContext();
+    private final File dir = new File("target/seda-persistent/queue");
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        deleteDirectory("target/seda-persistent");
+    }
+
+    public void testOpenSharesQueueByDirectory() throws Exception {
+        PersistentBlockingQueue queue = PersistentBlockingQueue.open(context, dir, 0, 4096, 10);
+        assertSame(queue, PersistentBlockingQueue.open(context, new File(dir.getAbsolutePath()), 0, 4096, 10));
+        queue.put(createExchange("A"));
+
+        // still open as it was opened twice
+        queue.close();
+        assertFalse(queue.isClosed());
+        queue.close();
+        assertTrue(queue.isClosed());
+
+        // reopening creates a new queue which replays the log
+        PersistentBlockingQueue other = queue.reopen();
+        assertNotSame(queue, other);
+        assertEquals("A", other.take().getIn().getBody());
+        other.close();
+        assertTrue(other.isClosed());
+    }
+
+    public void testReplayPendingExchanges() throws Exception {
+        PersistentBlockingQueue queue = new PersistentBlockingQueue(context, dir, 0);
+        queue.put(createExchange("A"));
+        queue.put(createExchange("B"));
+        queue.put(createExchange("C"));
+
+        // A is processed, B is taken but not yet processed
+        queue.acknowledge(queue.take());
+        queue.take();
+        queue.close();
+
+        queue = new PersistentBlockingQueue(context, dir, 0);
+        assertEquals(2, queue.size());
+        assertEquals("B", queue.take().getIn().getBody());
+        Exchange c = queue.take();
+        assertEquals("C", c.getIn().getBody());
+        assertEquals("bar", c.getIn().getHeader("foo"));
+        queue.acknowledge(c);
+        queue.close();
+
+        queue = new PersistentBlockingQueue(context, dir, 0);
+        assertEquals("B", queue.take().getIn().getBody());
+        assertTrue(queue.isEmpty());
+        queue.close();
+    }
+
+    public void testClearAndRemove() throws Exception {
+        PersistentBlockingQueue queue = new PersistentBlockingQueue(context, dir, 2);
+        Exchange a = createExchange("A");
+        assertTrue(queue.offer(a));
+        assertTrue(queue.offer(createExchange("B")));
+        assertFalse("Should be full", queue.offer(createExchange("C")));
+
+        assertTrue(queue.remove(a));
+        queue.close();
+
+        queue = new PersistentBlockingQueue(context, dir, 2);
+        assertEquals(1, queue.size());
+        queue.clear();
+        queue.close();
+
+        queue = new PersistentBlockingQueue(context, dir, 2);
+        assertTrue(queue.isEmpty());
+        queue.close();
+    }
+
+    public void testSegmentsRollAndAreDeleted() throws Exception {
+        PersistentBlockingQueue queue = new PersistentBlockingQueue(context, dir, 0, 4096, 10);
+        for (int i = 0; i < 100; i++) {
+            queue.put(createExchange("Message " + i));
+        }
+        assertTrue("Should use several segments", dir.list().length > 1);
+
+        for (int i = 0; i < 99; i++) {
+            Exchange exchange = queue.take();
+            assertEquals("Message " + i, exchange.getIn().getBody());
+            queue.acknowledge(exchange);
+        }
+        assertEquals("Should only keep the segment with the pending exchange", 1, dir.list().length);
+        queue.close();
+
+        queue = new PersistentBlockingQueue(context, dir, 0, 4096, 10);
+        assertEquals(1, queue.size());
+        assertEquals("Message 99", queue.take().getIn().getBody());
+        queue.close();
+    }
+
+    private Exchange createExchange(String body) {
+        Exchange exchange = new DefaultExchange(context);
+        exchange.getIn().setBody(body);
+        exchange.getIn().setHeader("foo", "bar");
+        return exchange;
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.seda;
+
+import java.io.File;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.ResolveEndpointFailedException;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+
+/**
+ * @version 
+ */
+public class SedaPersistentTest extends ContextTestSupport {
+
+    private static final String URI = "seda:foo?persistent=true&persistentDirectory=target/seda-persistent";
+
+    @Override
+    protected void setUp() throws Exception {
+        deleteDirectory("target/seda-persistent");
+        super.setUp();
+    }
+
+    public void testReplayOnRestart() throws Exception {
+        SedaEndpoint seda = context.getEndpoint(URI, SedaEndpoint.class);
+        assertTrue(seda.isPersistent());
+
+        template.sendBody(URI, "Hello World");
+        template.sendBody(URI, "Bye World");
+        assertEquals(2, seda.getCurrentQueueSize());
+
+        // restart without processing the messages
+        context.stop();
+        CamelContext other = createCamelContext();
+        other.addRoutes(createRouteBuilder());
+        other.start();
+        try {
+            MockEndpoint mock = other.getEndpoint("mock:result", MockEndpoint.class);
+            mock.expectedBodiesReceived("Hello World", "Bye World");
+            other.startRoute("foo");
+            mock.assertIsSatisfied();
+        } finally {
+            other.stop();
+        }
+    }
+
+    public void testStopAndStartContext() throws Exception {
+        template.sendBody(URI, "Hello World");
+
+        context.stop();
+        context.start();
+
+        template.sendBody(URI, "Bye World");
+
+        MockEndpoint mock = getMockEndpoint("mock:result");
+        mock.expectedBodiesReceived("Hello World", "Bye World");
+        context.startRoute("foo");
+        assertMockEndpointsSatisfied();
+    }
+
+    public void testQueueOptions() throws Exception {
+        SedaEndpoint seda = context.getEndpoint("seda:options?persistent=true&persistentDirectory=target/seda-persistent"
+                + "&segmentSize=4096&syncBatchSize=5", SedaEndpoint.class);
+        PersistentBlockingQueue queue = assertIsInstanceOf(PersistentBlockingQueue.class, seda.getQueue());
+        assertEquals(4096, queue.getSegmentSize());
+        assertEquals(5, queue.getSyncBatchSize());
+        assertEquals(4096, seda.getSegmentSize());
+
+        // the directory is by the queue, not the endpoint uri with its options
+        assertEquals(new File("target/seda-persistent/seda-options").getAbsoluteFile(), queue.getDirectory().getAbsoluteFile());
+
+        try {
+            context.getEndpoint("seda:options?segmentSize=8192");
+            fail("Should have thrown an exception");
+        } catch (ResolveEndpointFailedException e) {
+            assertIsInstanceOf(IllegalArgumentException.class, e.getCause());
+        }
+    }
+
+    public void testEndpointCreatedQueueUsesQueueKey() throws Exception {
+        SedaEndpoint seda = new SedaEndpoint();
+        seda.setCamelContext(context);
+        seda.setEndpointUriIfNotSpecified("seda:bean?size=10");
+        seda.setPersistent(true);
+        seda.setPersistentDirectory("target/seda-persistent");
+        seda.setSegmentSize(4096);
+
+        PersistentBlockingQueue queue = assertIsInstanceOf(PersistentBlockingQueue.class, seda.getQueue());
+        assertEquals(4096, queue.getSegmentSize());
+        assertEquals(new File("target/seda-persistent/seda-bean").getAbsoluteFile(), queue.getDirectory().getAbsoluteFile());
+
+        seda.start();
+        seda.stop();
+        assertTrue(queue.isClosed());
+    }
+
+    public void testConflictingOptionsOnExistingQueue() throws Exception {
+        SedaEndpoint seda = context.getEndpoint(URI, SedaEndpoint.class);
+        assertTrue(seda.isPersistent());
+
+        // the same options are fine
+        assertSame(seda.getQueue(), context.getEndpoint(URI + "&concurrentConsumers=2", SedaEndpoint.class).getQueue());
+
+        try {
+            context.getEndpoint("seda:foo?persistent=false");
+            fail("Should have thrown an exception");
+        } catch (ResolveEndpointFailedException e) {
+            assertIsInstanceOf(IllegalArgumentException.class, e.getCause());
+        }
+
+        try {
+            context.getEndpoint("seda:foo?persistentDirectory=target/other");
+            fail("Should have thrown an exception");
+        } catch (ResolveEndpointFailedException e) {
+            assertIsInstanceOf(IllegalArgumentException.class, e.getCause());
+        }
+
+        try {
+            context.getEndpoint("seda:baz");
+            context.getEndpoint("seda:baz?persistent=true");
+            fail("Should have thrown an exception");
+        } catch (ResolveEndpointFailedException e) {
+            assertIsInstanceOf(IllegalArgumentException.class, e.getCause());
+        }
+        assertFalse(context.getEndpoint("seda:baz", SedaEndpoint.class).isPersistent());
+
+        try {
+            seda.setPersistent(false);
+            fail("Should have thrown an exception");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from(URI).routeId("foo").noAutoStartup().to("mock:result");
+            }
+        };
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.seda;
+
+import java.util.Comparator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.PriorityBlockingQueue;
+
+import org.apache.camel.CamelExecutionException;
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
+import org.apache.camel.ExchangeTimedOutException;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.impl.JndiRegistry;
+import org.apache.camel.util.concurrent.RingBufferBlockingQueue;
+
+/**
+ * @version 
+ */
+public class SedaQueueFactoryTest extends ContextTestSupport {
+
+    public void testArrayBlockingQueueFactory() throws Exception {
+        SedaEndpoint seda = context.getEndpoint("seda:array?queueFactory=#arrayQueueFactory&size=50", SedaEndpoint.class);
+        assertIsInstanceOf(ArrayBlockingQueue.class, seda.getQueue());
+        assertEquals(50, seda.getQueue().remainingCapacity());
+    }
+
+    public void testRingBufferQueueFactory() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:ring");
+        mock.expectedMessageCount(500);
+
+        for (int i = 0; i < 500; i++) {
+            template.sendBody("seda:ring?queueFactory=#ringQueueFactory", "Message " + i);
+        }
+
+        assertMockEndpointsSatisfied();
+
+        SedaEndpoint seda = context.getEndpoint("seda:ring", SedaEndpoint.class);
+        assertIsInstanceOf(RingBufferBlockingQueue.class, seda.getQueue());
+    }
+
+    public void testRingBufferQueueFactoryTimeout() throws Exception {
+        Future<String> out = template.asyncRequestBody("seda:ringTimeout?queueFactory=#ringQueueFactory&timeout=100", "World", String.class);
+        try {
+            out.get();
+            fail("Should have thrown an exception");
+        } catch (ExecutionException e) {
+            assertIsInstanceOf(CamelExecutionException.class, e.getCause());
+            assertIsInstanceOf(ExchangeTimedOutException.class, e.getCause().getCause());
+        }
+
+        SedaEndpoint seda = context.getEndpoint("seda:ringTimeout", SedaEndpoint.class);
+        assertIsInstanceOf(RingBufferBlockingQueue.class, seda.getQueue());
+        assertEquals("Timeout Exchanges should be removed from queue", 0, seda.getCurrentQueueSize());
+        assertNull(seda.getQueue().poll());
+    }
+
+    public void testPollBatchSizeKeepsOrder() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:batch");
+        mock.expectedMessageCount(200);
+        for (int i = 0; i < 200; i++) {
+            mock.message(i).body().isEqualTo("Message " + i);
+        }
+
+        for (int i = 0; i < 200; i++) {
+            template.sendBody("seda:batch", "Message " + i);
+        }
+
+        assertMockEndpointsSatisfied();
+    }
+
+    public void testPriorityQueueFactory() throws Exception {
+        SedaEndpoint seda = context.getEndpoint("seda:priority?queueFactory=#priorityQueueFactory", SedaEndpoint.class);
+        assertIsInstanceOf(PriorityBlockingQueue.class, seda.getQueue());
+
+        template.sendBodyAndHeader("seda:priority", "Low", "priority", 1);
+        template.sendBodyAndHeader("seda:priority", "High", "priority", 9);
+        template.sendBodyAndHeader("seda:priority", "Medium", "priority", 5);
+
+        assertEquals("High", seda.getQueue().take().getIn().getBody());
+        assertEquals("Medium", seda.getQueue().take().getIn().getBody());
+        assertEquals("Low", seda.getQueue().take().getIn().getBody());
+    }
+
+    @Override
+    protected JndiRegistry createRegistry() throws Exception {
+        JndiRegistry jndi = super.createRegistry();
+        jndi.bind("arrayQueueFactory", new ArrayBlockingQueueFactory<Exchange>());
+        jndi.bind("ringQueueFactory", new RingBufferBlockingQueueFactory<Exchange>());
+        jndi.bind("priorityQueueFactory", new PriorityBlockingQueueFactory<Exchange>(new Comparator<Exchange>() {
+            public int compare(Exchange e1, Exchange e2) {
+                Integer p1 = e1.getIn().getHeader("priority", Integer.class);
+                Integer p2 = e2.getIn().getHeader("priority", Integer.class);
+                return p2.compareTo(p1);
+            }
+        }));
+        return jndi;
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("seda:ring?queueFactory=#ringQueueFactory&concurrentConsumers=4&pollBatchSize=50").to("mock:ring");
+
+                from("seda:batch?pollBatchSize=25").to("mock:batch");
+            }
+        };
+    }
+}
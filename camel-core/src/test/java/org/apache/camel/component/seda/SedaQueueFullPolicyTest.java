@@ -0,0 +1,144 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.seda;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+
+/**
+ * @version 
+ */
+public class SedaQueueFullPolicyTest extends ContextTestSupport {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    public void testFail() throws Exception {
+        SedaEndpoint seda = context.getEndpoint("seda:fail?size=1", SedaEndpoint.class);
+        template.sendBody(seda, "A");
+
+        try {
+            template.sendBody(seda, "B");
+            fail("Should thrown an exception");
+        } catch (Exception e) {
+            assertIsInstanceOf(IllegalStateException.class, e.getCause());
+        }
+
+        assertEquals(1, seda.getQueueFullCount());
+        assertEquals(1, seda.getRejectedCount());
+    }
+
+    public void testBlockWithOfferTimeout() throws Exception {
+        SedaEndpoint seda = context.getEndpoint("seda:block?size=1&blockWhenFull=true&offerTimeout=200", SedaEndpoint.class);
+        template.sendBody(seda, "A");
+
+        long start = System.currentTimeMillis();
+        try {
+            template.sendBody(seda, "B");
+            fail("Should thrown an exception");
+        } catch (Exception e) {
+            assertIsInstanceOf(IllegalStateException.class, e.getCause());
+        }
+        long delta = System.currentTimeMillis() - start;
+        assertTrue("Should block for the offer timeout, was " + delta, delta >= 150);
+
+        assertEquals(1, seda.getQueueFullCount());
+        assertEquals(1, seda.getRejectedCount());
+    }
+
+    public void testBlockInterrupted() throws Exception {
+        SedaEndpoint seda = context.getEndpoint("seda:interrupt?size=1&blockWhenFull=true", SedaEndpoint.class);
+        template.sendBody(seda, "A");
+
+        Thread.currentThread().interrupt();
+        Exchange out = template.send(seda, new Processor() {
+            public void process(Exchange exchange) throws Exception {
+                exchange.getIn().setBody("B");
+            }
+        });
+        // the interrupt is kept and the exchange failed
+        assertTrue(Thread.interrupted());
+        assertIsInstanceOf(InterruptedException.class, out.getException().getCause());
+        assertEquals(1, seda.getCurrentQueueSize());
+    }
+
+    public void testOverflow() throws Exception {
+        MockEndpoint overflow = getMockEndpoint("mock:overflow");
+        overflow.expectedBodiesReceived("B", "C");
+
+        SedaEndpoint seda = context.getEndpoint("seda:overflow?size=1&queueFullPolicy=Overflow&overflowUri=mock:overflow", SedaEndpoint.class);
+        template.sendBody(seda, "A");
+        template.sendBody(seda, "B");
+        template.sendBody(seda, "C");
+
+        assertMockEndpointsSatisfied();
+        assertEquals(1, seda.getCurrentQueueSize());
+        assertEquals(2, seda.getQueueFullCount());
+        assertEquals(2, seda.getOverflowCount());
+        assertEquals(0, seda.getRejectedCount());
+    }
+
+    public void testCallerRuns() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:result");
+        mock.expectedBodiesReceivedInAnyOrder("A", "B", "C", "D");
+
+        // the producer uses another endpoint than the consumer, but the same queue
+        String uri = "seda:callerRuns?queueFullPolicy=CallerRuns";
+        template.sendBody(uri, "A");
+        // wait for the consumer to be busy with A
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // B fills the queue, and C and D are then processed by this thread
+        template.sendBody(uri, "B");
+        template.sendBody(uri, "C");
+        template.sendBody(uri, "D");
+
+        SedaEndpoint seda = context.getEndpoint(uri, SedaEndpoint.class);
+        assertEquals(2, seda.getCallerRunsCount());
+        assertEquals(Thread.currentThread().getName(), mock.getReceivedExchanges().get(0).getIn().getHeader("thread"));
+        assertEquals(Thread.currentThread().getName(), mock.getReceivedExchanges().get(1).getIn().getHeader("thread"));
+
+        release.countDown();
+        assertMockEndpointsSatisfied();
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("seda:callerRuns?size=1")
+                    .process(new Processor() {
+                        public void process(Exchange exchange) throws Exception {
+                            if ("A".equals(exchange.getIn().getBody())) {
+                                started.countDown();
+                                release.await(5, TimeUnit.SECONDS);
+                            }
+                            exchange.getIn().setHeader("thread", Thread.currentThread().getName());
+                        }
+                    })
+                    .to("mock:result");
+            }
+        };
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.vm;
+
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
+import org.apache.camel.ResolveEndpointFailedException;
+import org.apache.camel.component.seda.ArrayBlockingQueueFactory;
+import org.apache.camel.component.seda.LinkedBlockingQueueFactory;
+import org.apache.camel.component.seda.SedaEndpoint;
+import org.apache.camel.impl.JndiRegistry;
+
+/**
+ * @version 
+ */
+public class VmQueueFactoryTest extends ContextTestSupport {
+
+    public void testSameQueueFactory() throws Exception {
+        SedaEndpoint vm = context.getEndpoint("vm:factory?queueFactory=#arrayQueueFactory&size=10", SedaEndpoint.class);
+        SedaEndpoint other = context.getEndpoint("vm:factory?queueFactory=#arrayQueueFactory&concurrentConsumers=2", SedaEndpoint.class);
+        assertSame(vm.getQueue(), other.getQueue());
+    }
+
+    public void testOtherQueueFactory() throws Exception {
+        context.getEndpoint("vm:factory?queueFactory=#arrayQueueFactory&size=10");
+        try {
+            context.getEndpoint("vm:factory?queueFactory=#linkedQueueFactory");
+            fail("Should have thrown an exception");
+        } catch (ResolveEndpointFailedException e) {
+            assertIsInstanceOf(IllegalArgumentException.class, e.getCause());
+        }
+    }
+
+    @Override
+    protected JndiRegistry createRegistry() throws Exception {
+        JndiRegistry jndi = super.createRegistry();
+        jndi.bind("arrayQueueFactory", new ArrayBlockingQueueFactory<Exchange>());
+        jndi.bind("linkedQueueFactory", new LinkedBlockingQueueFactory<Exchange>());
+        return jndi;
+    }
+}
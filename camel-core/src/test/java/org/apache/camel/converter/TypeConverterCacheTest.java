@@ -0,0 +1,134 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.converter;
+
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
+import org.apache.camel.NoTypeConversionAvailableException;
+import org.apache.camel.TypeConverter;
+import org.apache.camel.impl.converter.BaseTypeConverterRegistry;
+
+/**
+ * @version 
+ */
+public class TypeConverterCacheTest extends ContextTestSupport {
+
+    private BaseTypeConverterRegistry registry;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        registry = (BaseTypeConverterRegistry) context.getTypeConverterRegistry();
+        // ensure the type converters are loaded as loading them invalidates the cache
+        registry.getTypeMappings();
+        registry.resetStatistics();
+    }
+
+    public void testCacheHits() throws Exception {
+        assertEquals(Integer.valueOf(123), context.getTypeConverter().convertTo(Integer.class, "123"));
+        assertEquals(0, registry.getHits());
+        assertEquals(1, registry.getMisses());
+
+        assertEquals(Integer.valueOf(456), context.getTypeConverter().convertTo(Integer.class, "456"));
+        assertEquals(Integer.valueOf(789), context.getTypeConverter().convertTo(Integer.class, "789"));
+        assertEquals(2, registry.getHits());
+        assertEquals(1, registry.getMisses());
+
+        registry.resetStatistics();
+        assertEquals(0, registry.getHits());
+        assertEquals(0, registry.getMisses());
+    }
+
+    public void testCacheMiss() throws Exception {
+        assertNull(context.getTypeConverter().convertTo(MyOrder.class, 123));
+        assertEquals(1, registry.getMisses());
+
+        // we should remember we cannot convert
+        assertNull(context.getTypeConverter().convertTo(MyOrder.class, 456));
+        assertEquals(1, registry.getHits());
+        assertEquals(1, registry.getMisses());
+    }
+
+    public void testAddTypeConverterAfterMiss() throws Exception {
+        assertNull(context.getTypeConverter().convertTo(MyOrder.class, 123));
+
+        registry.addTypeConverter(MyOrder.class, Integer.class, new MyOrderTypeConverter());
+
+        MyOrder order = context.getTypeConverter().convertTo(MyOrder.class, 456);
+        assertNotNull("Should convert using the added type converter", order);
+        assertEquals(456, order.getId());
+    }
+
+    public void testAddFallbackTypeConverterAfterMiss() throws Exception {
+        assertNull(context.getTypeConverter().convertTo(MyOrder.class, 123));
+
+        registry.addFallbackTypeConverter(new MyOrderTypeConverter(), false);
+
+        MyOrder order = context.getTypeConverter().convertTo(MyOrder.class, 456);
+        assertNotNull("Should convert using the added fallback type converter", order);
+        assertEquals(456, order.getId());
+    }
+
+    public void testNoConverterUsesFallbackForEachValue() throws Exception {
+        TypeConverter tc = context.getTypeConverter();
+        MyCoolBean cool = new MyCoolBean();
+
+        // the fallback converter is used, and the result depends on the value
+        cool.setCool("Camel");
+        assertEquals("This is cool: Camel", tc.convertTo(String.class, cool));
+        cool.setCool("rocks");
+        assertEquals("This is cool: rocks", tc.convertTo(String.class, cool));
+    }
+
+    private static final class MyOrder {
+        private final int id;
+
+        private MyOrder(int id) {
+            this.id = id;
+        }
+
+        public int getId() {
+            return id;
+        }
+    }
+
+    private static final class MyOrderTypeConverter implements TypeConverter {
+
+        public <T> T convertTo(Class<T> type, Object value) {
+            return convertTo(type, null, value);
+        }
+
+        public <T> T convertTo(Class<T> type, Exchange exchange, Object value) {
+            if (type == MyOrder.class && value instanceof Integer) {
+                return type.cast(new MyOrder((Integer) value));
+            }
+            return null;
+        }
+
+        public <T> T mandatoryConvertTo(Class<T> type, Object value) throws NoTypeConversionAvailableException {
+            return mandatoryConvertTo(type, null, value);
+        }
+
+        public <T> T mandatoryConvertTo(Class<T> type, Exchange exchange, Object value) throws NoTypeConversionAvailableException {
+            T answer = convertTo(type, exchange, value);
+            if (answer == null) {
+                throw new NoTypeConversionAvailableException(value, type);
+            }
+            return answer;
+        }
+    }
+}
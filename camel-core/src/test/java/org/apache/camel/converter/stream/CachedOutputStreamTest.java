@@ -27,6 +27,7 @@ import org.apache.camel.Exchange;
 import org.apache.camel.StreamCache;
 import org.apache.camel.converter.IOConverter;
 import org.apache.camel.impl.DefaultExchange;
+import org.apache.camel.impl.DefaultStreamCacheSpool;
 import org.apache.camel.impl.DefaultUnitOfWork;
 import org.apache.camel.spi.UnitOfWork;
 import org.apache.camel.util.CollectionStringBuffer;
@@ -152,4 +153,111 @@ public class CachedOutputStreamTest extends ContextTestSupport {
 
         exchange.getUnitOfWork().done(exchange);
     }
+
+    public void testCacheStreamToPooledMemory() throws IOException {
+        context.getProperties().put(CachedOutputStream.THRESHOLD, "1024");
+        DefaultStreamCacheSpool spool = (DefaultStreamCacheSpool) context.getStreamCacheSpool();
+
+        CachedOutputStream cos = new CachedOutputStream(exchange);
+        cos.write(TEST_STRING.getBytes("UTF-8"));
+        assertEquals(spool.getChunkSize(), spool.getMemoryUsed());
+
+        StreamCache cache = cos.getStreamCache();
+        assertEquals("Cached a wrong file", TEST_STRING, IOConverter.toString((InputStream)cache, null));
+
+        // the memory is returned to the pool when the exchange is done
+        exchange.getUnitOfWork().done(exchange);
+        assertEquals(0, spool.getMemoryUsed());
+        assertEquals(1, spool.getPooledChunks());
+
+        // and reused by the next stream
+        CachedOutputStream cos2 = new CachedOutputStream(exchange, false);
+        cos2.write(TEST_STRING.getBytes("UTF-8"));
+        assertEquals(0, spool.getPooledChunks());
+        cos2.close();
+        assertEquals(1, spool.getPooledChunks());
+    }
+
+    public void testCacheStreamToDirectMemory() throws IOException {
+        DefaultStreamCacheSpool spool = (DefaultStreamCacheSpool) context.getStreamCacheSpool();
+        spool.setDirectMemoryLimit(spool.getChunkSize());
+
+        CachedOutputStream cos = new CachedOutputStream(exchange);
+        cos.write(TEST_STRING.getBytes("UTF-8"));
+
+        File file = new File("./target/cachedir");
+        assertEquals("we should have no temp file", 0, file.list().length);
+        assertEquals(spool.getChunkSize(), spool.getDirectMemoryUsed());
+
+        StreamCache cache = cos.getStreamCache();
+        assertTrue("Should get the ByteBufferInputStreamCache", cache instanceof ByteBufferInputStreamCache);
+        assertEquals("Cached a wrong file", TEST_STRING, toString((InputStream)cache));
+        cache.reset();
+        assertEquals("Cached a wrong file", TEST_STRING, toString((InputStream)cache));
+
+        exchange.getUnitOfWork().done(exchange);
+        assertEquals(0, spool.getDirectMemoryUsed());
+        assertEquals(1, spool.getPooledDirectChunks());
+        assertCannotRead(cache);
+
+        // the pooled chunk is reused by the next stream
+        CachedOutputStream cos2 = new CachedOutputStream(exchange, false);
+        cos2.write(TEST_STRING.getBytes("UTF-8"));
+        assertEquals(0, spool.getPooledDirectChunks());
+        cos2.close();
+        assertEquals(1, spool.getPooledDirectChunks());
+    }
+
+    public void testCacheStreamFromDirectMemoryToFile() throws IOException {
+        DefaultStreamCacheSpool spool = (DefaultStreamCacheSpool) context.getStreamCacheSpool();
+        spool.setChunkSize(64);
+        spool.setDirectMemoryLimit(64);
+
+        CachedOutputStream cos = new CachedOutputStream(exchange);
+        // the first write is below the threshold, and the second fills the direct memory
+        byte[] data = TEST_STRING.getBytes("UTF-8");
+        cos.write(data, 0, 10);
+        cos.write(data, 10, data.length - 10);
+
+        File file = new File("./target/cachedir");
+        assertEquals("we should have a temp file", 1, file.list().length);
+        assertEquals(0, spool.getDirectMemoryUsed());
+        assertEquals(data.length, spool.getSpoolUsed());
+
+        StreamCache cache = cos.getStreamCache();
+        assertTrue("Should get the FileInputStreamCache", cache instanceof FileInputStreamCache);
+        assertEquals("Cached a wrong file", TEST_STRING, toString((InputStream)cache));
+
+        exchange.getUnitOfWork().done(exchange);
+        assertEquals(0, spool.getSpoolUsed());
+        assertEquals("we should have no temp file", 0, file.list().length);
+        // the file is unmapped, so the cache cannot be read anymore
+        assertCannotRead(cache);
+    }
+
+    private static void assertCannotRead(StreamCache cache) {
+        try {
+            ((InputStream) cache).read();
+            fail("Should have thrown an exception");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    public void testSpoolQuotaExceeded() throws IOException {
+        DefaultStreamCacheSpool spool = (DefaultStreamCacheSpool) context.getStreamCacheSpool();
+        spool.setSpoolQuota(50);
+
+        CachedOutputStream cos = new CachedOutputStream(exchange);
+        try {
+            cos.write(TEST_STRING.getBytes("UTF-8"));
+            fail("Should have thrown an exception");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("spool quota is exceeded"));
+        }
+        assertEquals(0, spool.getSpoolUsed());
+
+        exchange.getUnitOfWork().done(exchange);
+        assertEquals("we should have no temp file", 0, new File("./target/cachedir").list().length);
+    }
 }
@@ -16,6 +16,11 @@
  */
 package org.apache.camel.impl;
 
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.TreeSet;
+
 import junit.framework.TestCase;
 import org.apache.camel.Message;
 
@@ -128,6 +133,31 @@ public class DefaultMessageHeaderTest extends TestCase {
         assertTrue(msg.getHeaders().isEmpty());
     }
 
+    public void testHeaderKeySet() {
+        Message msg = new DefaultMessage();
+        msg.setHeader("Foo", "cheese");
+        msg.setHeader("BAR", "beer");
+
+        // the keys are in lower case as with the case insensitive map
+        Set<String> keys = msg.getHeaders().keySet();
+        assertEquals(2, keys.size());
+        assertTrue(keys.containsAll(Arrays.asList("foo", "bar")));
+        assertTrue(keys.contains("FOO"));
+        assertEquals(new TreeSet<String>(Arrays.asList("bar", "foo")), new TreeSet<String>(keys));
+
+        // removing a key from a copy does not change the original
+        Message copy = msg.copy();
+        Iterator<String> it = copy.getHeaders().keySet().iterator();
+        while (it.hasNext()) {
+            if ("foo".equals(it.next())) {
+                it.remove();
+            }
+        }
+        assertEquals("[bar]", copy.getHeaders().keySet().toString());
+        assertEquals(2, msg.getHeaders().keySet().size());
+        assertEquals("cheese", msg.getHeader("foo"));
+    }
+
     public void testRemoveHeaderWithNullArg() {
         Message msg = new DefaultMessage();
         assertNull(msg.getHeader("foo"));
@@ -16,8 +16,20 @@
  */
 package org.apache.camel.impl;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.camel.Consumer;
 import org.apache.camel.ContextTestSupport;
 import org.apache.camel.Endpoint;
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
 import org.apache.camel.Producer;
 
 /**
@@ -42,4 +54,67 @@ public class DefaultProducerCacheTest extends ContextTestSupport {
         cache.stop();
     }
 
+    public void testCacheProducerConcurrentAcquire() throws Exception {
+        final ProducerCache cache = new ProducerCache(this, context);
+        cache.start();
+
+        final MyEndpoint endpoint = new MyEndpoint();
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        List<Future<Producer>> futures = new ArrayList<Future<Producer>>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(executor.submit(new Callable<Producer>() {
+                public Producer call() throws Exception {
+                    latch.await();
+                    Producer producer = cache.acquireProducer(endpoint);
+                    cache.releaseProducer(endpoint, producer);
+                    return producer;
+                }
+            }));
+        }
+        latch.countDown();
+
+        Producer first = futures.get(0).get();
+        for (Future<Producer> future : futures) {
+            assertSame("Should use the same singleton producer", first, future.get());
+        }
+        executor.shutdownNow();
+
+        assertEquals("Should only create the singleton producer once", 1, endpoint.getCreated());
+        assertEquals(1, cache.size());
+        cache.stop();
+    }
+
+    private final class MyEndpoint extends DefaultEndpoint {
+        private final AtomicInteger created = new AtomicInteger();
+
+        private MyEndpoint() {
+            super("my:endpoint", context);
+        }
+
+        public Producer createProducer() throws Exception {
+            created.incrementAndGet();
+            // slow creation so the other threads try to acquire the producer meanwhile
+            Thread.sleep(50);
+            return new DefaultProducer(this) {
+                public void process(Exchange exchange) throws Exception {
+                    // noop
+                }
+            };
+        }
+
+        public Consumer createConsumer(Processor processor) throws Exception {
+            throw new UnsupportedOperationException();
+        }
+
+        public boolean isSingleton() {
+            return true;
+        }
+
+        public int getCreated() {
+            return created.get();
+        }
+    }
+
 }
@@ -82,6 +82,24 @@ public class ManagedCamelContextTest extends ManagementTestSupport {
         mbeanServer.invoke(on, "stop", null, null);
     }
 
+    public void testManagedCamelContextTypeConverterCache() throws Exception {
+        MBeanServer mbeanServer = getMBeanServer();
+
+        ObjectName on = ObjectName.getInstance("org.apache.camel:context=localhost/camel-1,type=context,name=\"camel-1\"");
+
+        mbeanServer.invoke(on, "resetTypeConverterCacheStatistics", null, null);
+        assertEquals(0L, mbeanServer.getAttribute(on, "TypeConverterCacheHits"));
+        assertEquals(0L, mbeanServer.getAttribute(on, "TypeConverterCacheMisses"));
+
+        context.getTypeConverter().convertTo(Integer.class, "123");
+        context.getTypeConverter().convertTo(Integer.class, "456");
+
+        assertEquals(1L, mbeanServer.getAttribute(on, "TypeConverterCacheHits"));
+        assertEquals(1L, mbeanServer.getAttribute(on, "TypeConverterCacheMisses"));
+        Integer size = (Integer) mbeanServer.getAttribute(on, "TypeConverterCacheSize");
+        assertTrue("Should have cached type pairs", size > 0);
+    }
+
     public void testManagedCamelContextCreateEndpoint() throws Exception {
         MBeanServer mbeanServer = getMBeanServer();
 
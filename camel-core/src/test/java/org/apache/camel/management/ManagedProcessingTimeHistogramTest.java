@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.management;
+
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.builder.RouteBuilder;
+
+/**
+ * @version 
+ */
+public class ManagedProcessingTimeHistogramTest extends ManagementTestSupport {
+
+    @Override
+    protected CamelContext createCamelContext() throws Exception {
+        CamelContext context = super.createCamelContext();
+        context.getManagementStrategy().setProcessingTimeHistogramEnabled(true);
+        return context;
+    }
+
+    public void testProcessingTimePercentiles() throws Exception {
+        MBeanServer mbeanServer = getMBeanServer();
+
+        ObjectName route = ObjectName.getInstance("org.apache.camel:context=localhost/camel-1,type=routes,name=\"route1\"");
+        ObjectName processor = ObjectName.getInstance("org.apache.camel:context=localhost/camel-1,type=processors,name=\"delay\"");
+
+        assertEquals(Boolean.TRUE, mbeanServer.getAttribute(route, "ProcessingTimeHistogramEnabled"));
+        assertEquals(Boolean.TRUE, mbeanServer.getAttribute(processor, "ProcessingTimeHistogramEnabled"));
+
+        for (int i = 0; i < 5; i++) {
+            template.sendBody("direct:start", "Hello World");
+        }
+
+        Long p50 = (Long) mbeanServer.getAttribute(processor, "P50ProcessingTime");
+        Long p99 = (Long) mbeanServer.getAttribute(processor, "P99ProcessingTime");
+        Long p999 = (Long) mbeanServer.getAttribute(processor, "P999ProcessingTime");
+        assertTrue("Should be at least the delay, was " + p50, p50 >= 20);
+        assertTrue(p99 >= p50);
+        assertTrue(p999 >= p99);
+
+        Long max = (Long) mbeanServer.getAttribute(processor, "MaxProcessingTime");
+        Long p100 = (Long) mbeanServer.invoke(processor, "processingTimePercentile", new Object[]{100d}, new String[]{"double"});
+        // the highest percentile is the highest value in the bucket of the max processing time
+        assertTrue("Should be at least the max, was " + p100, p100 >= max);
+
+        Long routeP50 = (Long) mbeanServer.getAttribute(route, "P50ProcessingTime");
+        assertTrue("Should be at least the delay, was " + routeP50, routeP50 >= 20);
+
+        // start a new recording window
+        mbeanServer.invoke(processor, "resetProcessingTimeHistogram", null, null);
+        assertEquals(0L, mbeanServer.getAttribute(processor, "P50ProcessingTime"));
+        assertEquals(5L, mbeanServer.getAttribute(processor, "ExchangesCompleted"));
+
+        // and disable it
+        mbeanServer.setAttribute(processor, new Attribute("ProcessingTimeHistogramEnabled", Boolean.FALSE));
+        template.sendBody("direct:start", "Hello World");
+        assertEquals(0L, mbeanServer.getAttribute(processor, "P50ProcessingTime"));
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("direct:start")
+                    .delay(20).id("delay")
+                    .to("mock:result");
+            }
+        };
+    }
+}
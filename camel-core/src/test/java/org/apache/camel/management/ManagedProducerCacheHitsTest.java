@@ -63,6 +63,9 @@ public class ManagedProducerCacheHitsTest extends ManagementTestSupport {
         assertEquals(0, hits.longValue());
         Long misses = (Long) mbeanServer.getAttribute(on, "Misses");
         assertEquals(3, misses.longValue());
+        // the messages are sent by a single thread so there is no contention
+        Long contentions = (Long) mbeanServer.getAttribute(on, "LockContentions");
+        assertEquals(0, contentions.longValue());
 
 
         // now send a message to a and b so we have 2 hits
@@ -59,6 +59,12 @@ public class ManagedSedaEndpointTest extends ManagementTestSupport {
 
         size = (Integer) mbeanServer.getAttribute(name, "CurrentQueueSize");
         assertEquals(0, size.intValue());
+
+        Long full = (Long) mbeanServer.getAttribute(name, "QueueFullCount");
+        assertEquals(0, full.intValue());
+        Long rejected = (Long) mbeanServer.getAttribute(name, "RejectedCount");
+        assertEquals(0, rejected.intValue());
+        mbeanServer.invoke(name, "resetQueueFullStatistics", null, null);
     }
 
     @Override
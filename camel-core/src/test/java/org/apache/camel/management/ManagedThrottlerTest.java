@@ -88,6 +88,12 @@ public class ManagedThrottlerTest extends ManagementTestSupport {
         total = (Long) mbeanServer.getAttribute(routeName, "TotalProcessingTime");
 
         assertTrue("Should be around 5 sec now: was " + total, total > 3500);
+
+        // some of the exchanges should have been delayed
+        Long throttled = (Long) mbeanServer.getAttribute(throttlerName, "ThrottledExchanges");
+        assertTrue("Should have throttled exchanges: was " + throttled, throttled > 0);
+        Long burst = (Long) mbeanServer.getAttribute(throttlerName, "MaximumBurst");
+        assertEquals(2, burst.longValue());
     }
 
     @Override
@@ -0,0 +1,123 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.management.mbean;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+/**
+ * @version 
+ */
+public class HistogramTest extends TestCase {
+
+    public void testEmpty() {
+        Histogram histogram = new Histogram(3600000);
+        assertEquals(0, histogram.getTotalCount());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(0, histogram.getValueAtPercentile(99.9));
+    }
+
+    public void testExactForSmallValues() {
+        Histogram histogram = new Histogram(3600000);
+        for (int i = 1; i <= 100; i++) {
+            histogram.recordValue(i);
+        }
+
+        assertEquals(100, histogram.getTotalCount());
+        assertEquals(1, histogram.getValueAtPercentile(0));
+        assertEquals(50, histogram.getValueAtPercentile(50));
+        assertEquals(99, histogram.getValueAtPercentile(99));
+        assertEquals(100, histogram.getValueAtPercentile(100));
+    }
+
+    public void testPrecisionForLargeValues() {
+        Histogram histogram = new Histogram(3600000);
+        for (int i = 1; i <= 100000; i++) {
+            histogram.recordValue(i);
+        }
+
+        assertWithinPrecision(50000, histogram.getValueAtPercentile(50));
+        assertWithinPrecision(99000, histogram.getValueAtPercentile(99));
+        assertWithinPrecision(99900, histogram.getValueAtPercentile(99.9));
+    }
+
+    public void testTailLatency() {
+        Histogram histogram = new Histogram(3600000);
+        for (int i = 0; i < 990; i++) {
+            histogram.recordValue(5);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.recordValue(2000);
+        }
+
+        assertEquals(5, histogram.getValueAtPercentile(50));
+        assertEquals(5, histogram.getValueAtPercentile(99));
+        assertWithinPrecision(2000, histogram.getValueAtPercentile(99.9));
+    }
+
+    public void testOutOfRange() {
+        Histogram histogram = new Histogram(3600000);
+        histogram.recordValue(-5);
+        histogram.recordValue(Long.MAX_VALUE);
+
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(3600000, histogram.getValueAtPercentile(100));
+    }
+
+    public void testReset() {
+        Histogram histogram = new Histogram(3600000);
+        histogram.recordValue(123);
+        histogram.reset();
+        assertEquals(0, histogram.getTotalCount());
+
+        histogram.recordValue(7);
+        assertEquals(7, histogram.getValueAtPercentile(50));
+    }
+
+    public void testConcurrentRecording() throws Exception {
+        final Histogram histogram = new Histogram(3600000);
+        final int threads = 8;
+        final int times = 20000;
+        final CountDownLatch latch = new CountDownLatch(threads);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.submit(new Runnable() {
+                public void run() {
+                    for (int j = 0; j < times; j++) {
+                        histogram.recordValue(j % 1000);
+                    }
+                    latch.countDown();
+                }
+            });
+        }
+
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        executor.shutdownNow();
+
+        assertEquals(threads * times, histogram.getTotalCount());
+    }
+
+    private static void assertWithinPrecision(long expected, long actual) {
+        long delta = expected / 64 + 1;
+        assertTrue("Expected " + expected + " but was " + actual, Math.abs(expected - actual) <= delta);
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.management.mbean;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+/**
+ * @version 
+ */
+public class StatisticTest extends TestCase {
+
+    public void testCounter() {
+        Statistic stat = new Statistic("counter", null, Statistic.UpdateMode.COUNTER);
+        stat.increment();
+        stat.updateValue(5);
+        assertEquals(6, stat.getValue());
+        assertEquals(2, stat.getUpdateCount());
+
+        stat.reset();
+        assertEquals(0, stat.getValue());
+        assertEquals(0, stat.getUpdateCount());
+    }
+
+    public void testValue() {
+        Statistic stat = new Statistic("value", null, Statistic.UpdateMode.VALUE);
+        stat.updateValue(5);
+        stat.updateValue(3);
+        assertEquals(3, stat.getValue());
+    }
+
+    public void testDifference() {
+        Statistic stat = new Statistic("difference", null, Statistic.UpdateMode.DIFFERENCE);
+        stat.updateValue(5);
+        assertEquals(5, stat.getValue());
+        stat.updateValue(8);
+        assertEquals(3, stat.getValue());
+    }
+
+    public void testMinimumAndMaximum() {
+        Statistic min = new Statistic("min", null, Statistic.UpdateMode.MINIMUM);
+        Statistic max = new Statistic("max", null, Statistic.UpdateMode.MAXIMUM);
+        assertEquals(0, min.getValue());
+        assertEquals(0, max.getValue());
+
+        for (long value : new long[]{5, 3, 8, 4}) {
+            min.updateValue(value);
+            max.updateValue(value);
+        }
+        assertEquals(3, min.getValue());
+        assertEquals(8, max.getValue());
+
+        min.reset();
+        max.reset();
+        assertEquals(0, min.getValue());
+        assertEquals(0, max.getValue());
+        min.updateValue(7);
+        max.updateValue(7);
+        assertEquals(7, min.getValue());
+        assertEquals(7, max.getValue());
+    }
+
+    public void testConcurrentUpdates() throws Exception {
+        final Statistic counter = new Statistic("counter", null, Statistic.UpdateMode.COUNTER);
+        final Statistic min = new Statistic("min", null, Statistic.UpdateMode.MINIMUM);
+        final Statistic max = new Statistic("max", null, Statistic.UpdateMode.MAXIMUM);
+        final int threads = 8;
+        final int times = 50000;
+        final CountDownLatch latch = new CountDownLatch(threads);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            final int offset = i;
+            executor.submit(new Runnable() {
+                public void run() {
+                    for (int j = 0; j < times; j++) {
+                        counter.increment();
+                        min.updateValue(offset + j);
+                        max.updateValue(offset + j);
+                    }
+                    latch.countDown();
+                }
+            });
+        }
+
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        executor.shutdownNow();
+
+        assertEquals(threads * times, counter.getValue());
+        assertEquals(threads * times, counter.getUpdateCount());
+        assertEquals(0, min.getValue());
+        assertEquals(threads - 1 + times - 1, max.getValue());
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.processor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+
+/**
+ * @version 
+ */
+public class DelayerAsyncDelayedParallelTest extends ContextTestSupport {
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger maxActive = new AtomicInteger();
+
+    public void testDelayedExchangesRunInParallel() throws Exception {
+        MockEndpoint resultEndpoint = getMockEndpoint("mock:result");
+        resultEndpoint.expectedMessageCount(5);
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 5; i++) {
+            template.asyncSendBody("direct:start", "Message " + i);
+        }
+        resultEndpoint.assertIsSatisfied();
+        long delta = System.currentTimeMillis() - start;
+
+        // the slow processor would take at least 5 x 500 millis if run one by one
+        assertTrue("The delayed exchanges should run in parallel, but max active was " + maxActive.get(), maxActive.get() > 1);
+        assertTrue("Should take less than 2.5 sec but was " + delta, delta < 2500);
+    }
+
+    protected RouteBuilder createRouteBuilder() {
+        return new RouteBuilder() {
+            public void configure() {
+                from("direct:start").delay(100).asyncDelayed()
+                    .process(new Processor() {
+                        public void process(Exchange exchange) throws Exception {
+                            int count = active.incrementAndGet();
+                            try {
+                                while (true) {
+                                    int max = maxActive.get();
+                                    if (count <= max || maxActive.compareAndSet(max, count)) {
+                                        break;
+                                    }
+                                }
+                                Thread.sleep(500);
+                            } finally {
+                                active.decrementAndGet();
+                            }
+                        }
+                    })
+                    .to("mock:result");
+            }
+        };
+    }
+}
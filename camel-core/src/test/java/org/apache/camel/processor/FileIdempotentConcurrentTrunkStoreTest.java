@@ -0,0 +1,130 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.processor;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.camel.TestSupport;
+import org.apache.camel.processor.idempotent.FileIdempotentRepository;
+import org.apache.camel.spi.IdempotentRepository;
+import org.apache.camel.util.LRUCache;
+
+/**
+ * @version 
+ */
+public class FileIdempotentConcurrentTrunkStoreTest extends TestSupport {
+
+    private File store = new File("target/idempotentfilestore.dat");
+
+    public void testConcurrentAddWhileTrunking() throws Exception {
+        if (store.exists()) {
+            store.delete();
+        }
+
+        // small max size so the store is trunked while other threads are adding keys
+        final FileIdempotentRepository repo = new FileIdempotentRepository(store, new LRUCache<String, Object>(1000));
+        repo.setMaxFileStoreSize(500);
+        repo.setSync(true);
+        repo.start();
+
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+        for (int i = 0; i < 10; i++) {
+            final int thread = i;
+            futures.add(executor.submit(new Callable<Boolean>() {
+                public Boolean call() throws Exception {
+                    boolean added = true;
+                    for (int j = 0; j < 50; j++) {
+                        added &= repo.add("key-" + thread + "-" + j);
+                    }
+                    return added;
+                }
+            }));
+        }
+        for (Future<Boolean> future : futures) {
+            assertTrue(future.get());
+        }
+        executor.shutdownNow();
+
+        assertTrue(repo.remove("key-0-0"));
+        repo.stop();
+
+        // all the keys should be in the store, except the removed key
+        IdempotentRepository<String> repo2 = FileIdempotentRepository.fileIdempotentRepository(store);
+        repo2.start();
+        assertFalse(repo2.contains("key-0-0"));
+        for (int i = 0; i < 10; i++) {
+            for (int j = i == 0 ? 1 : 0; j < 50; j++) {
+                assertTrue("Should contain key-" + i + "-" + j, repo2.contains("key-" + i + "-" + j));
+            }
+        }
+        repo2.stop();
+    }
+
+    public void testAppendWhileTrunking() throws Exception {
+        if (store.exists()) {
+            store.delete();
+        }
+
+        final AtomicBoolean appended = new AtomicBoolean();
+        final FileIdempotentRepository[] holder = new FileIdempotentRepository[1];
+        LRUCache<String, Object> cache = new LRUCache<String, Object>(1000) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public Set<String> keySet() {
+                // the keys are taken when the store is trunked, so append a key after the snapshot is taken
+                // which then must be copied from the old store
+                Set<String> keys = new HashSet<String>(super.keySet());
+                if (appended.compareAndSet(false, true)) {
+                    assertTrue(holder[0].add("appended-while-trunking"));
+                }
+                return keys;
+            }
+        };
+        FileIdempotentRepository repo = new FileIdempotentRepository(store, cache);
+        holder[0] = repo;
+        repo.setMaxFileStoreSize(100);
+        repo.start();
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(repo.add("key-" + i));
+        }
+        assertTrue("The store should have been trunked", appended.get());
+        repo.stop();
+
+        assertFalse("The temporary store should be removed", new File(store.getPath() + ".tmp").exists());
+
+        IdempotentRepository<String> repo2 = FileIdempotentRepository.fileIdempotentRepository(store);
+        repo2.start();
+        assertTrue("Should contain the key appended while trunking", repo2.contains("appended-while-trunking"));
+        for (int i = 0; i < 50; i++) {
+            assertTrue("Should contain key-" + i, repo2.contains("key-" + i));
+        }
+        repo2.stop();
+    }
+
+}
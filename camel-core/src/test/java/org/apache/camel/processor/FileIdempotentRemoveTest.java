@@ -63,11 +63,14 @@ public class FileIdempotentRemoveTest extends ContextTestSupport {
 
         assertMockEndpointsSatisfied();
 
-        // remove should flush file so we will only see B in the file
+        // remove should tombstone A in the file so we will only see B when the file is loaded
         repo.remove("A");
 
-        String data = context.getTypeConverter().convertTo(String.class, store);
-        assertEquals("B\n", data);
+        IdempotentRepository<String> repo2 = FileIdempotentRepository.fileIdempotentRepository(store);
+        repo2.start();
+        assertFalse(repo2.contains("A"));
+        assertTrue(repo2.contains("B"));
+        repo2.stop();
     }
 
     protected RouteBuilder createRouteBuilder() {
@@ -0,0 +1,179 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.processor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.processor.idempotent.FingerprintIdempotentRepository;
+import org.apache.camel.processor.idempotent.MemoryIdempotentRepository;
+
+/**
+ * @version 
+ */
+public class FingerprintIdempotentRepositoryTest extends ContextTestSupport {
+
+    private FingerprintIdempotentRepository repo = new FingerprintIdempotentRepository(100);
+
+    public void testDuplicateMessagesAreFilteredOut() throws Exception {
+        MockEndpoint result = getMockEndpoint("mock:result");
+        result.expectedBodiesReceived("one", "two", "three");
+
+        template.sendBodyAndHeader("direct:start", "one", "messageId", "1");
+        template.sendBodyAndHeader("direct:start", "two", "messageId", "2");
+        template.sendBodyAndHeader("direct:start", "one", "messageId", "1");
+        template.sendBodyAndHeader("direct:start", "two", "messageId", "2");
+        template.sendBodyAndHeader("direct:start", "three", "messageId", "3");
+
+        assertMockEndpointsSatisfied();
+        assertEquals(3, repo.getSize());
+    }
+
+    public void testAddContainsRemove() throws Exception {
+        assertTrue(repo.add("A"));
+        assertFalse(repo.add("A"));
+        assertTrue(repo.contains("A"));
+        assertFalse(repo.contains("B"));
+
+        assertTrue(repo.remove("A"));
+        assertFalse(repo.contains("A"));
+        assertFalse(repo.remove("A"));
+        assertTrue(repo.add("A"));
+    }
+
+    public void testRotateTables() throws Exception {
+        for (int i = 0; i < 250; i++) {
+            assertTrue(repo.add("key" + i));
+        }
+
+        // the last two tables are kept
+        assertFalse(repo.contains("key0"));
+        assertFalse(repo.contains("key99"));
+        assertTrue(repo.contains("key100"));
+        assertTrue(repo.contains("key249"));
+        assertFalse(repo.add("key150"));
+        // the key is copied from the previous table into the current table
+        assertEquals(151, repo.getSize());
+    }
+
+    public void testKeyFromPreviousTableIsKept() throws Exception {
+        for (int i = 0; i < 150; i++) {
+            assertTrue(repo.add("key" + i));
+        }
+        assertFalse(repo.add("key0"));
+
+        // start another table, so the table with the first keys is discarded
+        for (int i = 150; i < 250; i++) {
+            assertTrue(repo.add("key" + i));
+        }
+        assertFalse(repo.contains("key1"));
+        assertTrue(repo.contains("key0"));
+    }
+
+    public void testRemovedSlotsAreReused() throws Exception {
+        assertTrue(repo.add("A"));
+        long memory = repo.getMemorySize();
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(repo.remove("A"));
+            assertTrue(repo.add("A"));
+        }
+        assertEquals(1, repo.getSize());
+        // the table was never full, so there is still only one table
+        assertEquals(memory, repo.getMemorySize());
+    }
+
+    public void testConcurrentAddSameKeys() throws Exception {
+        final FingerprintIdempotentRepository concurrent = new FingerprintIdempotentRepository(10000);
+        final AtomicInteger added = new AtomicInteger();
+        runConcurrently(new Runnable() {
+            public void run() {
+                for (int i = 0; i < 5000; i++) {
+                    if (concurrent.add("key" + i)) {
+                        added.incrementAndGet();
+                    }
+                }
+            }
+        });
+
+        // each key is added at most once
+        assertTrue("Added " + added.get(), added.get() <= 5000);
+        assertTrue("Added " + added.get(), added.get() >= 4990);
+    }
+
+    public void testConcurrentAddRotateTables() throws Exception {
+        final FingerprintIdempotentRepository concurrent = new FingerprintIdempotentRepository(1000);
+        final AtomicInteger added = new AtomicInteger();
+        final AtomicInteger thread = new AtomicInteger();
+        runConcurrently(new Runnable() {
+            public void run() {
+                String prefix = "thread" + thread.incrementAndGet() + "-";
+                for (int i = 0; i < 2000; i++) {
+                    if (concurrent.add(prefix + i)) {
+                        added.incrementAndGet();
+                    }
+                }
+            }
+        });
+
+        // no key is lost or added twice while the tables are replaced
+        assertTrue("Added " + added.get(), added.get() >= 7990);
+        // only the last two tables are kept, the adds racing with the rotation may overshoot a little
+        assertTrue("Size " + concurrent.getSize(), concurrent.getSize() <= 2000 + 8);
+    }
+
+    public void testExactRepository() throws Exception {
+        FingerprintIdempotentRepository exact = new FingerprintIdempotentRepository(100,
+                MemoryIdempotentRepository.memoryIdempotentRepository(100));
+        exact.start();
+
+        assertTrue(exact.add("A"));
+        assertFalse(exact.add("A"));
+        assertTrue(exact.contains("A"));
+
+        assertTrue(exact.remove("A"));
+        assertFalse(exact.contains("A"));
+        assertTrue(exact.add("A"));
+
+        exact.stop();
+    }
+
+    private static void runConcurrently(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.submit(task);
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(20, TimeUnit.SECONDS));
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("direct:start")
+                    .idempotentConsumer(header("messageId"), repo)
+                    .to("mock:result");
+            }
+        };
+    }
+}
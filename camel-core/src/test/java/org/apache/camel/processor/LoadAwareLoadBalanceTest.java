@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.processor;
+
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+
+/**
+ * @version 
+ */
+public class LoadAwareLoadBalanceTest extends ContextTestSupport {
+    protected MockEndpoint x;
+    protected MockEndpoint y;
+    protected MockEndpoint z;
+    protected MockEndpoint slow;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        x = getMockEndpoint("mock:x");
+        y = getMockEndpoint("mock:y");
+        z = getMockEndpoint("mock:z");
+        slow = getMockEndpoint("mock:slow");
+    }
+
+    public void testLeastActiveSpreadsIdleProcessors() throws Exception {
+        // no exchanges are in flight when sending one at a time, so the processors take turns
+        x.expectedBodiesReceived("A", "D");
+        y.expectedBodiesReceived("B", "E");
+        z.expectedBodiesReceived("C", "F");
+
+        for (String body : new String[]{"A", "B", "C", "D", "E", "F"}) {
+            template.sendBody("direct:leastActive", body);
+        }
+
+        assertMockEndpointsSatisfied();
+    }
+
+    public void testLeastLatencyAvoidsSlowProcessor() throws Exception {
+        assertAvoidsSlowProcessor("direct:leastLatency");
+    }
+
+    public void testPowerOfTwoChoicesAvoidsSlowProcessor() throws Exception {
+        assertAvoidsSlowProcessor("direct:powerOfTwoChoices");
+    }
+
+    private void assertAvoidsSlowProcessor(String uri) throws Exception {
+        x.expectedMinimumMessageCount(15);
+        slow.expectedMinimumMessageCount(1);
+
+        for (int i = 0; i < 20; i++) {
+            template.sendBody(uri, "Hello World");
+        }
+
+        assertMockEndpointsSatisfied();
+        // the slow processor is only tried until its latency is known
+        assertTrue("Should avoid the slow processor, was " + slow.getReceivedCounter(), slow.getReceivedCounter() <= 5);
+    }
+
+    protected RouteBuilder createRouteBuilder() {
+        return new RouteBuilder() {
+            public void configure() {
+                from("direct:leastActive").loadBalance().
+                leastActive().to("mock:x", "mock:y", "mock:z");
+
+                from("direct:leastLatency").loadBalance().
+                leastLatency().to("mock:x", "direct:slow");
+
+                from("direct:powerOfTwoChoices").loadBalance().
+                powerOfTwoChoices().to("mock:x", "direct:slow");
+
+                from("direct:slow").delay(50).to("mock:slow");
+            }
+        };
+    }
+
+}
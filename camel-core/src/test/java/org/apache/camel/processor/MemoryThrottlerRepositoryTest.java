@@ -0,0 +1,155 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.processor;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.processor.throttle.MemoryThrottlerRepository;
+
+/**
+ * @version 
+ */
+public class MemoryThrottlerRepositoryTest extends ContextTestSupport {
+
+    private static final long PERIOD = 60000;
+
+    private MemoryThrottlerRepository repo = new MemoryThrottlerRepository();
+
+    public void testLease() throws Exception {
+        assertEquals(4, repo.lease("foo", 1, 1000, 10, 4));
+        assertEquals(4, repo.lease("foo", 1, 1000, 10, 4));
+        // only 2 requests left of the quota
+        assertEquals(2, repo.lease("foo", 1, 1000, 10, 4));
+        assertEquals(0, repo.lease("foo", 1, 1000, 10, 4));
+        assertEquals(10, repo.getUsed("foo", 1));
+
+        // a new period has a new quota
+        assertEquals(4, repo.lease("foo", 2, 1000, 10, 4));
+        // and the earlier period is over
+        assertEquals(0, repo.lease("foo", 1, 1000, 10, 4));
+        assertEquals(4, repo.lease("bar", 1, 1000, 10, 4));
+    }
+
+    public void testRelease() throws Exception {
+        assertEquals(10, repo.lease("foo", 1, 1000, 10, 10));
+        assertEquals(0, repo.lease("foo", 1, 1000, 10, 1));
+
+        repo.release("foo", 1, 3);
+        assertEquals(7, repo.getUsed("foo", 1));
+        assertEquals(3, repo.lease("foo", 1, 1000, 10, 5));
+
+        // releasing another period is ignored
+        repo.release("foo", 2, 3);
+        assertEquals(10, repo.getUsed("foo", 1));
+    }
+
+    public void testThrottlersShareQuota() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:result");
+        mock.expectedMessageCount(6);
+
+        long period = System.currentTimeMillis() / PERIOD;
+        for (int i = 0; i < 3; i++) {
+            template.sendBody("direct:a", "a" + i);
+            template.sendBody("direct:b", "b" + i);
+        }
+        assertMockEndpointsSatisfied();
+
+        if (period != System.currentTimeMillis() / PERIOD) {
+            // a new period started while sending so the quota was split over two periods
+            return;
+        }
+
+        // each throttler leased a batch of 5 requests
+        assertEquals(10, repo.getUsed("throttler", period));
+
+        // the unused requests are returned when the throttlers are stopped
+        context.stopRoute("a");
+        context.stopRoute("b");
+        assertEquals(6, repo.getUsed("throttler", period));
+    }
+
+    public void testConcurrentThrottlersReturnUnusedRequests() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:result");
+        mock.expectedMessageCount(50);
+
+        long period = System.currentTimeMillis() / PERIOD;
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        for (int i = 0; i < 50; i++) {
+            final String body = "m" + i;
+            executor.submit(new Callable<Object>() {
+                public Object call() throws Exception {
+                    template.sendBody(body.hashCode() % 2 == 0 ? "direct:a" : "direct:b", body);
+                    return null;
+                }
+            });
+        }
+        assertMockEndpointsSatisfied();
+        executor.shutdownNow();
+
+        if (period != System.currentTimeMillis() / PERIOD) {
+            return;
+        }
+
+        // no leased request is lost when threads lease at the same time
+        context.stopRoute("a");
+        context.stopRoute("b");
+        assertEquals(50, repo.getUsed("throttler", period));
+    }
+
+    public void testCorrelatedQuotas() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:result");
+        mock.expectedMessageCount(4);
+
+        long period = System.currentTimeMillis() / PERIOD;
+        template.sendBodyAndHeader("direct:c", "a", "key", "foo");
+        template.sendBodyAndHeader("direct:c", "b", "key", "foo");
+        template.sendBodyAndHeader("direct:c", "c", "key", "bar");
+        template.sendBodyAndHeader("direct:c", "d", "key", "foo");
+        assertMockEndpointsSatisfied();
+
+        if (period != System.currentTimeMillis() / PERIOD) {
+            return;
+        }
+        assertEquals(5, repo.getUsed("foo", period));
+        assertEquals(5, repo.getUsed("bar", period));
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            public void configure() throws Exception {
+                from("direct:a").routeId("a")
+                    .throttle(100).timePeriodMillis(PERIOD).throttlerRepository(repo).leaseSize(5)
+                    .to("mock:result");
+
+                from("direct:b").routeId("b")
+                    .throttle(100).timePeriodMillis(PERIOD).throttlerRepository(repo).leaseSize(5)
+                    .to("mock:result");
+
+                from("direct:c")
+                    .throttle(100).timePeriodMillis(PERIOD).correlationExpression(header("key"))
+                        .throttlerRepository(repo).leaseSize(5)
+                    .to("mock:result");
+            }
+        };
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.processor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.processor.aggregate.AggregationStrategy;
+
+/**
+ * @version 
+ */
+public class SplitParallelMaxInFlightTest extends ContextTestSupport {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    public void testSplitParallelMaxInFlight() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            sb.append("Message ").append(i).append("\n");
+        }
+
+        MockEndpoint mock = getMockEndpoint("mock:result");
+        mock.expectedBodiesReceived(200);
+
+        template.sendBody("direct:start", sb.toString());
+
+        assertMockEndpointsSatisfied();
+
+        assertTrue("Should not have more than 5 in flight, was: " + maxInFlight.get(), maxInFlight.get() <= 5);
+        assertEquals(0, inFlight.get());
+    }
+
+    @Override
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("direct:start")
+                    .split(body().tokenize("\n"), new MyCountingAggregationStrategy())
+                        .streaming().parallelProcessing().maxInFlight(5)
+                        .process(new Processor() {
+                            public void process(Exchange exchange) throws Exception {
+                                int current = inFlight.incrementAndGet();
+                                if (current > maxInFlight.get()) {
+                                    maxInFlight.set(current);
+                                }
+                                Thread.sleep(5);
+                            }
+                        })
+                    .end()
+                    .to("mock:result");
+            }
+        };
+    }
+
+    private final class MyCountingAggregationStrategy implements AggregationStrategy {
+
+        public Exchange aggregate(Exchange oldExchange, Exchange newExchange) {
+            inFlight.decrementAndGet();
+            if (oldExchange == null) {
+                newExchange.getIn().setBody(1);
+                return newExchange;
+            }
+            int count = oldExchange.getIn().getBody(Integer.class);
+            oldExchange.getIn().setBody(count + 1);
+            return oldExchange;
+        }
+    }
+
+}
@@ -16,9 +16,14 @@
  */
 package org.apache.camel.processor;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.processor.loadbalancer.StickyLoadBalancer;
 
 public class StickyLoadBalanceTest extends ContextTestSupport {
     protected MockEndpoint x;
@@ -39,6 +44,10 @@ public class StickyLoadBalanceTest extends ContextTestSupport {
             public void configure() {
                 from("direct:start").loadBalance().
                 sticky(header("foo")).to("mock:x", "mock:y", "mock:z");
+
+                StickyLoadBalancer hashed = new StickyLoadBalancer(header("foo"));
+                hashed.setNumberOfHashGroups(0);
+                from("direct:hashed").loadBalance(hashed).to("mock:x", "mock:y", "mock:z");
             }
         };
     }
@@ -60,4 +69,25 @@ public class StickyLoadBalanceTest extends ContextTestSupport {
         assertMockEndpointsSatisfied();
     }
 
-}
\ No newline at end of file
+    public void testConsistentHashing() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            for (int key = 0; key < 30; key++) {
+                template.sendBodyAndHeader("direct:hashed", "Hello", "foo", key);
+            }
+        }
+
+        // each key should stick to one endpoint
+        Set<Object> seen = new HashSet<Object>();
+        for (MockEndpoint mock : new MockEndpoint[]{x, y, z}) {
+            Set<Object> keys = new HashSet<Object>();
+            for (Exchange exchange : mock.getReceivedExchanges()) {
+                keys.add(exchange.getIn().getHeader("foo"));
+            }
+            for (Object key : keys) {
+                assertTrue("Key " + key + " sent to more than one endpoint", seen.add(key));
+            }
+        }
+        assertEquals(30, seen.size());
+    }
+
+}
@@ -20,6 +20,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 import org.apache.camel.ContextTestSupport;
+import org.apache.camel.Exchange;
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.component.mock.MockEndpoint;
 import org.apache.camel.impl.DefaultExchange;
@@ -91,6 +92,41 @@ public class ThrottlerTest extends ContextTestSupport {
         assertFalse(next.isActive());
     }
 
+    public void testMaximumBurst() throws Exception {
+        Throttler throttler = new Throttler(null, constant(2), 100, null);
+        throttler.setMaximumBurst(6);
+
+        assertEquals(0, throttler.calculateDelay(new DefaultExchange(context)));
+        assertEquals(0, throttler.calculateDelay(new DefaultExchange(context)));
+        assertTrue(throttler.calculateDelay(new DefaultExchange(context)) > 0);
+        assertEquals(1, throttler.getThrottledExchanges());
+
+        // be idle for a couple of periods so the unused requests are carried over
+        Thread.sleep(500);
+        for (int i = 0; i < 6; i++) {
+            assertEquals(0, throttler.calculateDelay(new DefaultExchange(context)));
+        }
+        assertTrue(throttler.calculateDelay(new DefaultExchange(context)) > 0);
+        assertEquals(2, throttler.getThrottledExchanges());
+    }
+
+    public void testCorrelationExpression() throws Exception {
+        Throttler throttler = new Throttler(null, constant(1), 1000, null);
+        throttler.setCorrelationExpression(header("key"));
+
+        // each key has its own time slots
+        Exchange a = new DefaultExchange(context);
+        a.getIn().setHeader("key", "A");
+        Exchange b = new DefaultExchange(context);
+        b.getIn().setHeader("key", "B");
+
+        assertEquals(0, throttler.calculateDelay(a));
+        assertEquals(0, throttler.calculateDelay(b));
+        assertTrue(throttler.calculateDelay(a) > 0);
+        assertTrue(throttler.calculateDelay(b) > 0);
+        assertEquals(2, throttler.getCorrelationKeys());
+    }
+
     public void testConfigurationWithConstantExpression() throws Exception {
         MockEndpoint resultEndpoint = resolveMandatoryEndpoint("mock:result", MockEndpoint.class);
         resultEndpoint.expectedMessageCount(messageCount);
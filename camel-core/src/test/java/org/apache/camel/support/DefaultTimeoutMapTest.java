@@ -222,4 +222,130 @@ public class DefaultTimeoutMapTest extends TestCase {
         assertEquals(0, map.size());
     }
 
+    public void testTimeWheelPurge() throws Exception {
+        DefaultTimeoutMap<String, Integer> map = new DefaultTimeoutMap<String, Integer>(executor, 100, true, true);
+        assertTrue(map.isUseTimeWheel());
+
+        map.put("A", 123, 50);
+        map.put("B", 456, 5000);
+        assertEquals(2, map.size());
+
+        Thread.sleep(350);
+
+        // only A should have been timed out
+        assertEquals(1, map.size());
+        assertEquals(Integer.valueOf(456), map.get("B"));
+    }
+
+    public void testTimeWheelRemoveAndReplace() throws Exception {
+        final List<String> keys = new ArrayList<String>();
+        final List<Integer> values = new ArrayList<Integer>();
+
+        DefaultTimeoutMap<String, Integer> map = new DefaultTimeoutMap<String, Integer>(executor, 100, true, true) {
+            @Override
+            public boolean onEviction(String key, Integer value) {
+                keys.add(key);
+                values.add(value);
+                return true;
+            }
+        };
+
+        map.put("A", 1, 50);
+        map.put("B", 2, 50);
+        map.remove("A");
+        // replace B with a longer timeout
+        map.put("B", 3, 5000);
+
+        Thread.sleep(350);
+        map.purge();
+
+        // nothing should be evicted
+        assertEquals(0, keys.size());
+        assertEquals(1, map.size());
+        assertEquals(Integer.valueOf(3), map.get("B"));
+    }
+
+    public void testTimeWheelRemovesEntries() throws Exception {
+        DefaultTimeoutMap<String, Integer> map = new DefaultTimeoutMap<String, Integer>(executor, 100, true, true);
+
+        for (int i = 0; i < 1000; i++) {
+            map.put("A", i, 5000);
+        }
+        map.put("B", 1, 5000);
+        assertEquals(2, map.getTimeWheelSize());
+
+        map.remove("A");
+        map.remove("B");
+        assertEquals(0, map.getTimeWheelSize());
+    }
+
+    public void testTimeWheelExpiredInCorrectOrder() throws Exception {
+        final List<String> keys = new ArrayList<String>();
+
+        DefaultTimeoutMap<String, Integer> map = new DefaultTimeoutMap<String, Integer>(executor, 100, true, true) {
+            @Override
+            public boolean onEviction(String key, Integer value) {
+                keys.add(key);
+                return true;
+            }
+        };
+
+        map.put("A", 1, 50);
+        map.put("B", 2, 30);
+        map.put("C", 3, 40);
+        map.put("D", 4, 20);
+        // is not expired
+        map.put("F", 6, 5000);
+
+        Thread.sleep(250);
+
+        // force purge
+        map.purge();
+
+        assertEquals(4, keys.size());
+        assertEquals("D", keys.get(0));
+        assertEquals("B", keys.get(1));
+        assertEquals("C", keys.get(2));
+        assertEquals("A", keys.get(3));
+
+        assertEquals(1, map.size());
+    }
+
+    public void testTimeWheelExpiredNotEvicted() throws Exception {
+        final List<String> keys = new ArrayList<String>();
+        final boolean[] gold = new boolean[1];
+
+        DefaultTimeoutMap<String, Integer> map = new DefaultTimeoutMap<String, Integer>(executor, 100, true, true) {
+            @Override
+            public boolean onEviction(String key, Integer value) {
+                // do not evict special key until we allow it
+                if ("gold".equals(key) && !gold[0]) {
+                    return false;
+                }
+                keys.add(key);
+                return true;
+            }
+        };
+
+        map.put("A", 1, 50);
+        map.put("gold", 9, 50);
+
+        Thread.sleep(250);
+        map.purge();
+
+        // keep the gold in the map
+        assertEquals(1, keys.size());
+        assertEquals("A", keys.get(0));
+        assertEquals(1, map.size());
+
+        // the vetoed entry should be tried again on the next purge
+        gold[0] = true;
+        Thread.sleep(250);
+        map.purge();
+
+        assertEquals(2, keys.size());
+        assertEquals("gold", keys.get(1));
+        assertEquals(0, map.size());
+    }
+
 }
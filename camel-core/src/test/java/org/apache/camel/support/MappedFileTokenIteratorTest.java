@@ -0,0 +1,122 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.support;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+import org.apache.camel.TestSupport;
+
+/**
+ * @version 
+ */
+public class MappedFileTokenIteratorTest extends TestSupport {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        deleteDirectory("target/tokenizer");
+        createDirectory("target/tokenizer");
+    }
+
+    public void testSameAsScanner() throws Exception {
+        assertSameAsScanner("a\nb\nc", "\n");
+        assertSameAsScanner("a\n\nb", "\n");
+        assertSameAsScanner("a\nb\n", "\n");
+        assertSameAsScanner("\na\nb", "\n");
+        assertSameAsScanner("\n\na", "\n");
+        assertSameAsScanner("\n", "\n");
+        assertSameAsScanner("", "\n");
+        assertSameAsScanner("abc", "\n");
+        assertSameAsScanner("Hello World", " ");
+    }
+
+    public void testMultiByteToken() throws Exception {
+        assertSameAsScanner("a##b##c", "##");
+        assertSameAsScanner("a#b##c###d", "##");
+        assertSameAsScanner("##a##", "##");
+    }
+
+    public void testMultiByteCharacters() throws Exception {
+        assertSameAsScanner("æbler,øl,ål,€", ",");
+        assertSameAsScanner("aøbøc", "ø");
+    }
+
+    public void testSmallWindow() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append("Line ").append(i).append("\r\n");
+        }
+        // use a tiny window so tokens and the delimiters span multiple windows
+        for (int window = 2; window < 20; window++) {
+            assertSameAsScanner(sb.toString(), "\r\n", window);
+        }
+    }
+
+    public void testClose() throws Exception {
+        File file = writeFile("a,b,c");
+        MappedFileTokenIterator it = new MappedFileTokenIterator(file, ",", UTF8);
+        assertEquals("a", it.next());
+        it.close();
+        assertFalse(it.hasNext());
+    }
+
+    public void testSupportedCharset() throws Exception {
+        assertTrue(MappedFileTokenIterator.isSupportedCharset(UTF8));
+        assertTrue(MappedFileTokenIterator.isSupportedCharset(Charset.forName("ISO-8859-1")));
+        assertTrue(MappedFileTokenIterator.isSupportedCharset(Charset.forName("US-ASCII")));
+        assertFalse(MappedFileTokenIterator.isSupportedCharset(Charset.forName("UTF-16")));
+    }
+
+    private void assertSameAsScanner(String content, String token) throws Exception {
+        assertSameAsScanner(content, token, MappedFileTokenIterator.DEFAULT_WINDOW_SIZE);
+    }
+
+    private void assertSameAsScanner(String content, String token, int windowSize) throws Exception {
+        File file = writeFile(content);
+
+        List<Object> expected = new ArrayList<Object>();
+        Scanner scanner = new Scanner(file, "UTF-8").useDelimiter(token);
+        while (scanner.hasNext()) {
+            expected.add(scanner.next());
+        }
+        scanner.close();
+
+        List<Object> actual = new ArrayList<Object>();
+        MappedFileTokenIterator it = new MappedFileTokenIterator(file, token, UTF8, windowSize);
+        while (it.hasNext()) {
+            actual.add(it.next());
+        }
+        it.close();
+
+        assertEquals("Tokenizing " + content, expected, actual);
+    }
+
+    private File writeFile(String content) throws Exception {
+        File file = new File("target/tokenizer/data.txt");
+        FileOutputStream fos = new FileOutputStream(file);
+        fos.write(content.getBytes("UTF-8"));
+        fos.close();
+        return file;
+    }
+}
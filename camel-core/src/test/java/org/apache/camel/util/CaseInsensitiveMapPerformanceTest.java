@@ -0,0 +1,151 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+import org.apache.camel.Exchange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the lookup and copy performance of {@link CaseInsensitiveMap} with a map
+ * which lower cases the keys, as the {@link CaseInsensitiveMap} did before.
+ *
+ * @version 
+ */
+public class CaseInsensitiveMapPerformanceTest extends TestCase {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CaseInsensitiveMapPerformanceTest.class);
+    private static final String[] KEYS = {
+        Exchange.FILE_NAME, Exchange.FILE_NAME_ONLY, Exchange.BREADCRUMB_ID, Exchange.CONTENT_TYPE,
+        "JMSCorrelationID", "JMSMessageID", "JMSDestination", "Content-Length", "Host", "User-Agent"
+    };
+    private final int times = 200000;
+
+    public void testLookupPerformance() {
+        Map<String, Object> map = new CaseInsensitiveMap();
+        Map<String, Object> lowerCase = new LowerCaseKeyMap();
+        for (String key : KEYS) {
+            map.put(key, key);
+            lowerCase.put(key, key);
+        }
+
+        // warm up
+        lookup(map, times);
+        lookup(lowerCase, times);
+
+        StopWatch watch = new StopWatch();
+        long hits = lookup(map, times);
+        LOG.info("CaseInsensitiveMap took {} to do {} lookups", TimeUtils.printDuration(watch.stop()), hits);
+
+        watch.restart();
+        hits = lookup(lowerCase, times);
+        LOG.info("Lower case key map took {} to do {} lookups", TimeUtils.printDuration(watch.stop()), hits);
+
+        assertEquals(times * KEYS.length * 2, hits);
+    }
+
+    public void testCopyPerformance() {
+        Map<String, Object> map = new CaseInsensitiveMap();
+        Map<String, Object> lowerCase = new LowerCaseKeyMap();
+        for (String key : KEYS) {
+            map.put(key, key);
+            lowerCase.put(key, key);
+        }
+
+        // warm up
+        copy(map, true, times);
+        copy(lowerCase, false, times);
+
+        StopWatch watch = new StopWatch();
+        long size = copy(map, true, times);
+        LOG.info("CaseInsensitiveMap took {} to copy {} times", TimeUtils.printDuration(watch.stop()), times);
+
+        watch.restart();
+        size += copy(lowerCase, false, times);
+        LOG.info("Lower case key map took {} to copy {} times", TimeUtils.printDuration(watch.stop()), times);
+
+        assertEquals(times * KEYS.length * 2, size);
+    }
+
+    private static long lookup(Map<String, Object> map, int times) {
+        long hits = 0;
+        for (int i = 0; i < times; i++) {
+            for (String key : KEYS) {
+                if (map.get(key) != null) {
+                    hits++;
+                }
+                if (map.containsKey(key.toUpperCase())) {
+                    hits++;
+                }
+            }
+        }
+        return hits;
+    }
+
+    private static long copy(Map<String, Object> map, boolean caseInsensitive, int times) {
+        long size = 0;
+        for (int i = 0; i < times; i++) {
+            Map<String, Object> copy = caseInsensitive ? new CaseInsensitiveMap(map) : new LowerCaseKeyMap(map);
+            size += copy.size();
+        }
+        return size;
+    }
+
+    /**
+     * A map which lower cases the keys on every operation, as the previous implementation of
+     * {@link CaseInsensitiveMap} did.
+     */
+    private static final class LowerCaseKeyMap extends HashMap<String, Object> {
+        private static final long serialVersionUID = 1L;
+        private final Map<String, String> originalKeys = new HashMap<String, String>();
+
+        private LowerCaseKeyMap() {
+        }
+
+        private LowerCaseKeyMap(Map<String, Object> map) {
+            putAll(map);
+        }
+
+        @Override
+        public Object get(Object key) {
+            return super.get(key.toString().toLowerCase());
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return super.containsKey(key.toString().toLowerCase());
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            String s = key.toLowerCase();
+            originalKeys.put(s, key);
+            return super.put(s, value);
+        }
+
+        @Override
+        public void putAll(Map<? extends String, ?> map) {
+            for (Map.Entry<? extends String, ?> entry : map.entrySet()) {
+                put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+}
@@ -512,5 +512,85 @@ public class CaseInsensitiveMapTest extends TestCase {
         // Thread.sleep(9999999);
     }
 
+    public void testRemoveWhileIterating() {
+        Map<String, Object> map = new CaseInsensitiveMap();
+        for (int i = 0; i < 100; i++) {
+            map.put("Key" + i, i);
+        }
+
+        Iterator<Map.Entry<String, Object>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Object> entry = it.next();
+            if ((Integer) entry.getValue() % 2 == 0) {
+                it.remove();
+            }
+        }
+
+        assertEquals(50, map.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i % 2 != 0, map.containsKey("KEY" + i));
+        }
+    }
+
+    public void testGrowAndReuseRemovedEntries() {
+        Map<String, Object> map = new CaseInsensitiveMap();
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 1000; i++) {
+                map.put("Header" + i, round);
+            }
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(round, map.remove("HEADER" + i));
+            }
+            assertTrue(map.isEmpty());
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            map.put("Header" + i, i);
+        }
+        assertEquals(1000, map.size());
+        assertEquals(999, map.get("header999"));
+    }
+
+    public void testUnicodeKeys() {
+        Map<String, Object> map = new CaseInsensitiveMap();
+        map.put("Stra\u00dfe", "street");
+        map.put("\u00c6bler", "apples");
+
+        assertEquals("street", map.get("STRA\u00dfE"));
+        assertEquals("apples", map.get("\u00e6BLER"));
+        assertEquals("\u00c6bler", findOriginalKey(map, "\u00e6bler"));
+    }
+
+    private static String findOriginalKey(Map<String, Object> map, String key) {
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(key)) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    public void testEntrySetValueWritesThrough() {
+        Map<String, Object> map = new CaseInsensitiveMap();
+        map.put("Foo", "cheese");
+
+        Map.Entry<String, Object> entry = map.entrySet().iterator().next();
+        assertEquals("cheese", entry.setValue("cake"));
+        assertEquals("cake", entry.getValue());
+        assertEquals("cake", map.get("foo"));
+    }
+
+    public void testEqualsRegularMap() {
+        Map<String, Object> map = new CaseInsensitiveMap();
+        map.put("Foo", "cheese");
+        map.put("Bar", 123);
+
+        Map<String, Object> other = new HashMap<String, Object>();
+        other.put("Foo", "cheese");
+        other.put("Bar", 123);
+
+        assertEquals(other, map);
+        assertEquals(other.hashCode(), map.hashCode());
+    }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.util;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import junit.framework.TestCase;
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.impl.DefaultExchange;
+
+/**
+ * @version 
+ */
+public class CopyOnWriteHeaderMapTest extends TestCase {
+
+    public void testCaseInsensitive() {
+        CopyOnWriteHeaderMap map = new CopyOnWriteHeaderMap();
+        map.put("Foo", "cheese");
+        assertEquals("cheese", map.get("foo"));
+        assertEquals("cheese", map.get("FOO"));
+        assertTrue(map.containsKey("fOO"));
+
+        // the original keys are kept
+        Map<String, Object> other = new HashMap<String, Object>(map);
+        assertEquals("cheese", other.get("Foo"));
+        assertNull(other.get("foo"));
+    }
+
+    public void testCopyIsSharedUntilWrite() {
+        CopyOnWriteHeaderMap map = new CopyOnWriteHeaderMap();
+        map.put("foo", "cheese");
+        map.put("bar", "beer");
+
+        CopyOnWriteHeaderMap copy = map.copy();
+        assertTrue(map.isShared());
+        assertTrue(copy.isShared());
+        assertEquals(map, copy);
+
+        copy.put("foo", "wine");
+        assertFalse(copy.isShared());
+        assertEquals("cheese", map.get("foo"));
+        assertEquals("wine", copy.get("foo"));
+
+        map.remove("bar");
+        assertFalse(map.isShared());
+        assertNull(map.get("bar"));
+        assertEquals("beer", copy.get("bar"));
+    }
+
+    public void testClearAndCopyFrom() {
+        CopyOnWriteHeaderMap map = new CopyOnWriteHeaderMap();
+        map.put("foo", "cheese");
+        CopyOnWriteHeaderMap copy = map.copy();
+
+        copy.clear();
+        assertTrue(copy.isEmpty());
+        assertEquals("cheese", map.get("foo"));
+
+        copy.copyFrom(map);
+        assertEquals("cheese", copy.get("foo"));
+        copy.put("bar", "beer");
+        assertFalse(map.containsKey("bar"));
+    }
+
+    public void testEntrySetWritesThrough() {
+        CopyOnWriteHeaderMap map = new CopyOnWriteHeaderMap();
+        map.put("foo", "cheese");
+        map.put("bar", "beer");
+        CopyOnWriteHeaderMap copy = map.copy();
+
+        for (Map.Entry<String, Object> entry : copy.entrySet()) {
+            if ("foo".equals(entry.getKey())) {
+                entry.setValue("wine");
+            }
+        }
+        Iterator<Map.Entry<String, Object>> it = copy.entrySet().iterator();
+        while (it.hasNext()) {
+            if ("bar".equals(it.next().getKey())) {
+                it.remove();
+            }
+        }
+
+        assertEquals("wine", copy.get("foo"));
+        assertFalse(copy.containsKey("bar"));
+        assertEquals("cheese", map.get("foo"));
+        assertEquals("beer", map.get("bar"));
+    }
+
+    public void testExchangeCopySharesHeaders() {
+        Exchange exchange = new DefaultExchange(new DefaultCamelContext());
+        exchange.getIn().setHeader("foo", "cheese");
+
+        Exchange copy = exchange.copy();
+        assertEquals("cheese", copy.getIn().getHeader("foo"));
+        assertTrue(((CopyOnWriteHeaderMap) exchange.getIn().getHeaders()).isShared());
+
+        copy.getIn().setHeader("foo", "wine");
+        copy.getIn().removeHeaders("f*");
+        exchange.getIn().setHeader("bar", "beer");
+        assertEquals("cheese", exchange.getIn().getHeader("foo"));
+        assertNull(copy.getIn().getHeader("foo"));
+        assertNull(copy.getIn().getHeader("bar"));
+    }
+}
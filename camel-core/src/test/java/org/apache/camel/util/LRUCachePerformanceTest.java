@@ -0,0 +1,112 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.TestCase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the throughput and hit rate of {@link LRUCache} with a synchronized {@link LinkedHashMap}
+ * in access order, when used by many threads at the same time.
+ *
+ * @version 
+ */
+public class LRUCachePerformanceTest extends TestCase {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LRUCachePerformanceTest.class);
+    private static final int CAPACITY = 1000;
+    private static final int KEYS = 5000;
+    private final int threads = 8;
+    private final int times = 100000;
+
+    public void testConcurrentPerformance() throws Exception {
+        // the keys are skewed so some keys are used more often than others, as endpoints usually are
+        final int[] keys = new int[times];
+        Random random = new Random(1);
+        for (int i = 0; i < times; i++) {
+            keys[i] = (int) (KEYS * Math.pow(random.nextDouble(), 3));
+        }
+
+        // warm up
+        run(new LRUCache<Integer, Integer>(CAPACITY), keys);
+        run(synchronizedLinkedHashMap(), keys);
+
+        LRUCache<Integer, Integer> cache = new LRUCache<Integer, Integer>(CAPACITY);
+        StopWatch watch = new StopWatch();
+        long hits = run(cache, keys);
+        LOG.info("LRUCache took {} to do {} lookups with {} hits and {} evicted",
+                new Object[]{TimeUtils.printDuration(watch.stop()), threads * times, hits, cache.getEvicted()});
+        assertEquals(hits, cache.getHits());
+
+        watch.restart();
+        hits = run(synchronizedLinkedHashMap(), keys);
+        LOG.info("Synchronized LinkedHashMap took {} to do {} lookups with {} hits",
+                new Object[]{TimeUtils.printDuration(watch.stop()), threads * times, hits});
+    }
+
+    private long run(final Map<Integer, Integer> map, final int[] keys) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Long>> futures = new ArrayList<Future<Long>>();
+        for (int t = 0; t < threads; t++) {
+            final int offset = t * (times / threads);
+            futures.add(executor.submit(new Callable<Long>() {
+                public Long call() throws Exception {
+                    long hits = 0;
+                    for (int i = 0; i < times; i++) {
+                        Integer key = keys[(offset + i) % times];
+                        if (map.get(key) != null) {
+                            hits++;
+                        } else {
+                            map.put(key, key);
+                        }
+                    }
+                    return hits;
+                }
+            }));
+        }
+
+        long hits = 0;
+        for (Future<Long> future : futures) {
+            hits += future.get();
+        }
+        executor.shutdownNow();
+        return hits;
+    }
+
+    private static Map<Integer, Integer> synchronizedLinkedHashMap() {
+        return Collections.synchronizedMap(new LinkedHashMap<Integer, Integer>(CAPACITY, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) {
+                return size() > CAPACITY;
+            }
+        });
+    }
+}
@@ -91,6 +91,21 @@ public class LRUCacheTest extends TestCase {
         assertEquals(1, cache.getMisses());
     }
 
+    public void testLRUCacheEvicted() {
+        for (int i = 0; i < 15; i++) {
+            cache.put("K" + i, new MyService());
+        }
+
+        assertEquals(10, cache.size());
+        assertEquals(5, cache.getEvicted());
+        // the least recently used entries are evicted
+        assertNull(cache.get("K0"));
+        assertNotNull(cache.get("K14"));
+
+        cache.resetStatistics();
+        assertEquals(0, cache.getEvicted());
+    }
+
     private static final class MyService implements Service {
         public void start() throws Exception {
         }
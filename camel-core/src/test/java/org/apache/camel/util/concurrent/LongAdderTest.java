@@ -0,0 +1,73 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.util.concurrent;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+/**
+ * @version 
+ */
+public class LongAdderTest extends TestCase {
+
+    public void testAdd() {
+        LongAdder adder = new LongAdder();
+        assertEquals(0, adder.sum());
+
+        adder.increment();
+        adder.add(10);
+        adder.add(-3);
+        assertEquals(8, adder.sum());
+        assertEquals("8", adder.toString());
+
+        adder.reset();
+        assertEquals(0, adder.sum());
+    }
+
+    public void testConcurrentAdd() throws Exception {
+        final LongAdder adder = new LongAdder();
+        final int threads = 8;
+        final int times = 100000;
+        final CountDownLatch latch = new CountDownLatch(threads);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.submit(new Runnable() {
+                public void run() {
+                    for (int j = 0; j < times; j++) {
+                        adder.increment();
+                    }
+                    latch.countDown();
+                }
+            });
+        }
+
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        executor.shutdownNow();
+
+        assertEquals(threads * times, adder.sum());
+
+        adder.reset();
+        assertEquals(0, adder.sum());
+        adder.add(5);
+        assertEquals(5, adder.sum());
+    }
+}
@@ -0,0 +1,227 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.util.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+/**
+ * @version 
+ */
+public class RingBufferBlockingQueueTest extends TestCase {
+
+    public void testCapacityRoundedToPowerOfTwo() throws Exception {
+        RingBufferBlockingQueue<String> queue = new RingBufferBlockingQueue<String>(5);
+        assertEquals(8, queue.getCapacity());
+        assertEquals(8, queue.remainingCapacity());
+    }
+
+    public void testOfferPollOrder() throws Exception {
+        RingBufferBlockingQueue<String> queue = new RingBufferBlockingQueue<String>(4);
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+
+        // wrap around the ring a few times
+        for (int lap = 0; lap < 3; lap++) {
+            assertTrue(queue.offer("A"));
+            assertTrue(queue.offer("B"));
+            assertTrue(queue.offer("C"));
+            assertTrue(queue.offer("D"));
+            assertFalse("Should be full", queue.offer("E"));
+            assertEquals(4, queue.size());
+            assertEquals(0, queue.remainingCapacity());
+
+            assertEquals("A", queue.peek());
+            assertEquals("A", queue.poll());
+            assertEquals("B", queue.poll());
+            assertEquals("C", queue.poll());
+            assertEquals("D", queue.poll());
+            assertNull(queue.poll());
+            assertEquals(0, queue.size());
+        }
+    }
+
+    public void testDrainToAndIterator() throws Exception {
+        RingBufferBlockingQueue<Integer> queue = new RingBufferBlockingQueue<Integer>(16);
+        for (int i = 0; i < 10; i++) {
+            queue.put(i);
+        }
+
+        List<Integer> snapshot = new ArrayList<Integer>(queue);
+        assertEquals(10, snapshot.size());
+        assertEquals(Integer.valueOf(0), snapshot.get(0));
+
+        List<Integer> drained = new ArrayList<Integer>();
+        assertEquals(4, queue.drainTo(drained, 4));
+        assertEquals(6, queue.size());
+        assertEquals(6, queue.drainTo(drained));
+        assertEquals(10, drained.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Integer.valueOf(i), drained.get(i));
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    public void testRemove() throws Exception {
+        RingBufferBlockingQueue<String> queue = new RingBufferBlockingQueue<String>(4);
+        queue.put("A");
+        queue.put("B");
+        queue.put("C");
+
+        assertFalse(queue.remove("D"));
+        assertTrue(queue.remove("B"));
+        assertFalse("Should only be removed once", queue.remove("B"));
+        assertEquals(2, queue.size());
+        assertEquals("[A, C]", new ArrayList<String>(queue).toString());
+
+        // removing the head should be skipped by peek as well
+        assertTrue(queue.remove("A"));
+        assertEquals("C", queue.peek());
+        assertEquals(1, queue.size());
+
+        // the removed slots are free again for the next lap
+        queue.put("D");
+        queue.put("E");
+        queue.put("F");
+        assertEquals(0, queue.remainingCapacity());
+        assertEquals("C", queue.poll());
+        assertEquals("D", queue.poll());
+        assertEquals("E", queue.poll());
+        assertEquals("F", queue.poll());
+        assertNull(queue.poll());
+        assertEquals(0, queue.size());
+    }
+
+    public void testTimeouts() throws Exception {
+        RingBufferBlockingQueue<String> queue = new RingBufferBlockingQueue<String>(1);
+        assertEquals(2, queue.getCapacity());
+        assertNull(queue.poll(50, TimeUnit.MILLISECONDS));
+        assertTrue(queue.offer("A", 50, TimeUnit.MILLISECONDS));
+        assertTrue(queue.offer("A", 50, TimeUnit.MILLISECONDS));
+        assertFalse(queue.offer("B", 50, TimeUnit.MILLISECONDS));
+        assertEquals("A", queue.poll(50, TimeUnit.MILLISECONDS));
+        assertEquals("A", queue.poll(50, TimeUnit.MILLISECONDS));
+        assertNull(queue.poll(50, TimeUnit.MILLISECONDS));
+    }
+
+    public void testWaitingThreadsAreUnparked() throws Exception {
+        final RingBufferBlockingQueue<String> queue = new RingBufferBlockingQueue<String>(2);
+        final List<String> taken = Collections.synchronizedList(new ArrayList<String>());
+        Thread consumer = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    taken.add(queue.take());
+                    taken.add(queue.take());
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+            }
+        });
+        consumer.start();
+
+        // the idle consumer is parked until it is unparked, rather than waking up to poll
+        awaitWaiting(consumer);
+        queue.put("A");
+        awaitWaiting(consumer);
+        queue.put("B");
+        consumer.join(5000);
+        assertEquals(2, taken.size());
+
+        queue.put("C");
+        queue.put("D");
+        Thread producer = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    queue.put("E");
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+            }
+        });
+        producer.start();
+        awaitWaiting(producer);
+        assertEquals("C", queue.take());
+        producer.join(5000);
+        assertFalse(producer.isAlive());
+        assertEquals(2, queue.size());
+    }
+
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (thread.getState() != Thread.State.WAITING) {
+            assertTrue("Thread should be waiting, was " + thread.getState(), System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    public void testConcurrentProducersAndConsumers() throws Exception {
+        final int producers = 4;
+        final int consumers = 4;
+        final int perProducer = 25000;
+        final RingBufferBlockingQueue<Integer> queue = new RingBufferBlockingQueue<Integer>(64);
+        final Set<Integer> received = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+        final CountDownLatch done = new CountDownLatch(producers * perProducer);
+
+        ExecutorService executor = Executors.newFixedThreadPool(producers + consumers);
+        for (int p = 0; p < producers; p++) {
+            final int offset = p * perProducer;
+            executor.submit(new Runnable() {
+                public void run() {
+                    try {
+                        for (int i = 0; i < perProducer; i++) {
+                            queue.put(offset + i);
+                        }
+                    } catch (InterruptedException e) {
+                        // ignore
+                    }
+                }
+            });
+        }
+        for (int c = 0; c < consumers; c++) {
+            executor.submit(new Runnable() {
+                public void run() {
+                    try {
+                        while (true) {
+                            Integer value = queue.take();
+                            if (!received.add(value)) {
+                                fail("Duplicate value " + value);
+                            }
+                            done.countDown();
+                        }
+                    } catch (InterruptedException e) {
+                        // stopping
+                    }
+                }
+            });
+        }
+
+        assertTrue("Should receive all values", done.await(30, TimeUnit.SECONDS));
+        executor.shutdownNow();
+        assertEquals(producers * perProducer, received.size());
+        assertTrue(queue.isEmpty());
+    }
+
+}
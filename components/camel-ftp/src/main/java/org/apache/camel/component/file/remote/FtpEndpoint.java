@@ -16,6 +16,7 @@
  */
 package org.apache.camel.component.file.remote;
 
+import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.camel.FailedToCreateConsumerException;
@@ -89,17 +90,19 @@ public class FtpEndpoint<T extends FTPFile> extends RemoteFileEndpoint<FTPFile>
 
         // then lookup ftp client parameters and set those
         if (ftpClientParameters != null) {
+            // use a copy of the parameters as they are removed when set, and several clients may be created
+            Map<String, Object> parameters = new HashMap<String, Object>(ftpClientParameters);
             // setting soTimeout has to be done later on FTPClient (after it has connected)
-            Object timeout = ftpClientParameters.remove("soTimeout");
+            Object timeout = parameters.remove("soTimeout");
             if (timeout != null) {
                 soTimeout = getCamelContext().getTypeConverter().convertTo(int.class, timeout);
             }
             // and we want to keep data timeout so we can log it later
-            timeout = ftpClientParameters.remove("dataTimeout");
+            timeout = parameters.remove("dataTimeout");
             if (timeout != null) {
                 dataTimeout = getCamelContext().getTypeConverter().convertTo(int.class, dataTimeout);
             }
-            IntrospectionSupport.setProperties(client, ftpClientParameters);
+            IntrospectionSupport.setProperties(client, parameters);
         }
         
         if (ftpClientConfigParameters != null) {
@@ -107,7 +110,7 @@ public class FtpEndpoint<T extends FTPFile> extends RemoteFileEndpoint<FTPFile>
             if (ftpClientConfig == null) {
                 ftpClientConfig = new FTPClientConfig();
             }
-            IntrospectionSupport.setProperties(ftpClientConfig, ftpClientConfigParameters);
+            IntrospectionSupport.setProperties(ftpClientConfig, new HashMap<String, Object>(ftpClientConfigParameters));
         }
 
         if (dataTimeout > 0) {
@@ -124,6 +127,12 @@ public class FtpEndpoint<T extends FTPFile> extends RemoteFileEndpoint<FTPFile>
         return operations;
     }
 
+    @Override
+    public boolean isMultipleConnectionsSupported() {
+        // a custom client cannot be shared between several connections
+        return ftpClient == null;
+    }
+
     protected FTPClient createFtpClient() throws Exception {
         return new FTPClient();
     }
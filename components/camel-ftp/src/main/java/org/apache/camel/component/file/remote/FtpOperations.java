@@ -53,6 +53,9 @@ public class FtpOperations implements RemoteFileOperations<FTPFile> {
     protected final FTPClient client;
     protected final FTPClientConfig clientConfig;
     protected RemoteFileEndpoint<FTPFile> endpoint;
+    // the download being streamed, and the directory to change back to when its done
+    private InputStream retrievedStream;
+    private String retrievedStepwiseDirectory;
 
     public FtpOperations(FTPClient client, FTPClientConfig clientConfig) {
         this.client = client;
@@ -191,6 +194,11 @@ public class FtpOperations implements RemoteFileOperations<FTPFile> {
     }
 
     public void disconnect() throws GenericFileOperationFailedException {
+        // any download being streamed is aborted
+        IOHelper.close(retrievedStream, "retrieve stream", log);
+        retrievedStream = null;
+        retrievedStepwiseDirectory = null;
+
         // logout before disconnecting
         try {
             log.trace("Client logout");
@@ -303,10 +311,8 @@ public class FtpOperations implements RemoteFileOperations<FTPFile> {
         OutputStream os = null;
         boolean result;
         try {
-            os = new ByteArrayOutputStream();
             GenericFile<FTPFile> target = (GenericFile<FTPFile>) exchange.getProperty(FileComponent.FILE_EXCHANGE_FILE);
             ObjectHelper.notNull(target, "Exchange should have the " + FileComponent.FILE_EXCHANGE_FILE + " set");
-            target.setBody(os);
 
             String remoteName = name;
             String currentDir = null;
@@ -324,8 +330,24 @@ public class FtpOperations implements RemoteFileOperations<FTPFile> {
                 remoteName = FileUtil.stripPath(name);
             }
 
-            log.trace("Client retrieveFile: {}", remoteName);
-            result = client.retrieveFile(remoteName, os);
+            if (endpoint.getConfiguration().isStreamDownload()) {
+                log.trace("Client retrieveFileStream: {}", remoteName);
+                InputStream is = client.retrieveFileStream(remoteName);
+                target.setBody(is);
+                result = is != null;
+                if (result) {
+                    // the client is busy until the stream has been consumed, so the stream is released
+                    // and we change back to the current directory when the exchange is done
+                    retrievedStream = is;
+                    retrievedStepwiseDirectory = currentDir;
+                    return true;
+                }
+            } else {
+                os = new ByteArrayOutputStream();
+                target.setBody(os);
+                log.trace("Client retrieveFile: {}", remoteName);
+                result = client.retrieveFile(remoteName, os);
+            }
 
             // change back to current directory
             if (endpoint.getConfiguration().isStepwise()) {
@@ -341,6 +363,30 @@ public class FtpOperations implements RemoteFileOperations<FTPFile> {
         return result;
     }
 
+    public void releaseRetrievedFileResources(Exchange exchange) throws GenericFileOperationFailedException {
+        InputStream is = retrievedStream;
+        if (is == null) {
+            return;
+        }
+        retrievedStream = null;
+        String currentDir = retrievedStepwiseDirectory;
+        retrievedStepwiseDirectory = null;
+
+        IOHelper.close(is, "retrieve stream", log);
+        try {
+            // the transfer must be completed before the client can be used again
+            boolean completed = client.completePendingCommand();
+            log.trace("Client completePendingCommand: {}", completed);
+        } catch (IOException e) {
+            throw new GenericFileOperationFailedException(client.getReplyCode(), client.getReplyString(), e.getMessage(), e);
+        }
+
+        // change back to current directory
+        if (currentDir != null) {
+            changeCurrentDirectory(currentDir);
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private boolean retrieveFileToFileInLocalWorkDirectory(String name, Exchange exchange) throws GenericFileOperationFailedException {
         File temp;
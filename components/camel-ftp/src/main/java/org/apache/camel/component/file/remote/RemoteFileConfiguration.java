@@ -48,6 +48,7 @@ public abstract class RemoteFileConfiguration extends GenericFileConfiguration {
     private boolean throwExceptionOnConnectFailed;
     private String siteCommand;
     private boolean stepwise = true;
+    private boolean streamDownload;
     private PathSeparator separator = PathSeparator.Auto;
 
     public RemoteFileConfiguration() {
@@ -246,6 +247,23 @@ public abstract class RemoteFileConfiguration extends GenericFileConfiguration {
         this.stepwise = stepwise;
     }
 
+    public boolean isStreamDownload() {
+        return streamDownload;
+    }
+
+    /**
+     * Sets whether the remote file is streamed into the message body as its downloaded, instead of
+     * downloading the whole file into memory before routing.
+     * <p/>
+     * The connection is busy until the message has been processed, so use <tt>parallelProcessing</tt>
+     * to download several files at the same time.
+     *
+     * @param streamDownload whether to stream the download into the message body
+     */
+    public void setStreamDownload(boolean streamDownload) {
+        this.streamDownload = streamDownload;
+    }
+
     public PathSeparator getSeparator() {
         return separator;
     }
@@ -17,19 +17,31 @@
 package org.apache.camel.component.file.remote;
 
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.camel.Exchange;
 import org.apache.camel.Processor;
+import org.apache.camel.ThreadPoolRejectedPolicy;
+import org.apache.camel.component.file.FileComponent;
 import org.apache.camel.component.file.GenericFile;
 import org.apache.camel.component.file.GenericFileConsumer;
 import org.apache.camel.component.file.GenericFileOperationFailedException;
+import org.apache.camel.spi.ThreadPoolProfile;
 import org.apache.camel.util.FileUtil;
 
 /**
  * Base class for remote file consumers.
+ * <p/>
+ * If <tt>parallelProcessing</tt> is enabled, the files are downloaded and processed by a pool of worker threads,
+ * each using its own connection from a pool of connections, while the next directory listing continues
+ * on the connection of the consumer.
  */
 public abstract class RemoteFileConsumer<T> extends GenericFileConsumer<T> {
     protected boolean loggedIn;
+    private RemoteFileOperationsPool<T> connectionPool;
+    private ExecutorService downloadPool;
+    private final AtomicInteger pendingDownloads = new AtomicInteger();
 
     public RemoteFileConsumer(RemoteFileEndpoint<T> endpoint, Processor processor, RemoteFileOperations<T> operations) {
         super(endpoint, processor, operations);
@@ -87,16 +99,100 @@ public abstract class RemoteFileConsumer<T> extends GenericFileConsumer<T> {
     }
 
     @Override
-    protected void processExchange(Exchange exchange) {
+    protected void processExchange(final Exchange exchange) {
         // mark the exchange to be processed synchronously as the ftp client is not thread safe
         // and we must execute the callbacks in the same thread as this consumer
         exchange.setProperty(Exchange.UNIT_OF_WORK_PROCESS_SYNC, Boolean.TRUE);
-        super.processExchange(exchange);
+
+        if (downloadPool == null) {
+            super.processExchange(exchange);
+            return;
+        }
+
+        // hand over the file to a worker which downloads and processes it using a pooled connection,
+        // and the pool will run the tasks in this thread if its busy
+        final RemoteFileOperationsPool<T> pool = connectionPool;
+        pendingDownloads.incrementAndGet();
+        downloadPool.execute(new Runnable() {
+            public void run() {
+                try {
+                    processExchangeUsingPooledConnection(exchange, pool);
+                } finally {
+                    pendingDownloads.decrementAndGet();
+                }
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private void processExchangeUsingPooledConnection(Exchange exchange, RemoteFileOperationsPool<T> pool) {
+        RemoteFileOperations<T> pooled;
+        try {
+            pooled = pool.acquire();
+        } catch (Exception e) {
+            // remove file from the in progress list so it can be picked up on the next poll
+            GenericFile<T> file = (GenericFile<T>) exchange.getProperty(FileComponent.FILE_EXCHANGE_FILE);
+            endpoint.getInProgressRepository().remove(file.getAbsoluteFilePath());
+            handleException(e);
+            return;
+        }
+
+        try {
+            // the exchange is processed synchronously so the file is done before the connection is released
+            processExchange(exchange, pooled);
+        } finally {
+            pool.release(pooled);
+        }
+    }
+
+    @Override
+    protected boolean isUseWorkerPool() {
+        // the clients are not thread safe so we use a pool of connections instead
+        return false;
+    }
+
+    @Override
+    public int getPendingExchangesSize() {
+        // files handed over to the workers are also pending
+        return super.getPendingExchangesSize() + pendingDownloads.get();
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        super.doStart();
+
+        if (getEndpoint().isParallelProcessing()) {
+            if (!getEndpoint().isMultipleConnectionsSupported()) {
+                log.warn("Cannot use parallelProcessing with a custom client as it cannot be shared between connections to: "
+                        + remoteServer() + ". The files will be processed one at a time.");
+                return;
+            }
+            int size = getEndpoint().getConcurrentConsumers();
+            connectionPool = new RemoteFileOperationsPool<T>(getEndpoint(), size);
+
+            // use a bounded pool where the polling thread will process the file itself if all workers are busy
+            ThreadPoolProfile profile = new ThreadPoolProfile("RemoteFileDownload");
+            profile.setPoolSize(size);
+            profile.setMaxPoolSize(size);
+            profile.setMaxQueueSize(size);
+            profile.setRejectedPolicy(ThreadPoolRejectedPolicy.CallerRuns);
+            downloadPool = getEndpoint().getCamelContext().getExecutorServiceManager().newThreadPool(this, "RemoteFileDownload", profile);
+        }
     }
 
     @Override
     protected void doStop() throws Exception {
         super.doStop();
+
+        if (downloadPool != null) {
+            getEndpoint().getCamelContext().getExecutorServiceManager().shutdown(downloadPool);
+            downloadPool = null;
+        }
+        if (connectionPool != null) {
+            // connections still in use are disconnected when the workers are done with them
+            connectionPool.close();
+            connectionPool = null;
+        }
         disconnect();
     }
 
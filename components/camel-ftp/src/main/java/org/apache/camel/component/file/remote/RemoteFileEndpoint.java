@@ -131,6 +131,14 @@ public abstract class RemoteFileEndpoint<T> extends GenericFileEndpoint<T> {
      */
     public abstract RemoteFileOperations<T> createRemoteFileOperations() throws Exception;
 
+    /**
+     * Whether several connections to the remote server can be created using {@link #createRemoteFileOperations()},
+     * which is required to download files in parallel.
+     */
+    public boolean isMultipleConnectionsSupported() {
+        return true;
+    }
+
     /**
      * Returns human readable server information for logging purpose
      */
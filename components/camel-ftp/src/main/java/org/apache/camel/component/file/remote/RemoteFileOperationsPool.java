@@ -0,0 +1,164 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.file.remote;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+import org.apache.camel.component.file.GenericFileOperationFailedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A pool of connections to the remote server of an endpoint, so files can be downloaded over several
+ * connections at the same time.
+ * <p/>
+ * A connection is only used by one thread at a time, as the clients are not thread safe. Connections which
+ * has been idle for a while are checked with a noop command before they are reused, and connections which
+ * has been lost are replaced with new connections.
+ */
+public class RemoteFileOperationsPool<T> {
+    private static final transient Logger LOG = LoggerFactory.getLogger(RemoteFileOperationsPool.class);
+    private final RemoteFileEndpoint<T> endpoint;
+    private final Semaphore permits;
+    private final BlockingQueue<IdleConnection<T>> idle = new LinkedBlockingQueue<IdleConnection<T>>();
+    private long validateAfterIdle = 5000;
+    private volatile boolean closed;
+
+    public RemoteFileOperationsPool(RemoteFileEndpoint<T> endpoint, int maxConnections) {
+        this.endpoint = endpoint;
+        this.permits = new Semaphore(maxConnections);
+    }
+
+    /**
+     * Acquires a connection, waiting until one is available if all the connections are in use.
+     *
+     * @return a connected and logged in operations
+     * @throws Exception is thrown if a new connection could not be created
+     */
+    public RemoteFileOperations<T> acquire() throws Exception {
+        if (closed) {
+            throw new IllegalStateException("Connection pool to " + endpoint.remoteServerInformation() + " is closed");
+        }
+        permits.acquire();
+        try {
+            IdleConnection<T> connection;
+            while ((connection = idle.poll()) != null) {
+                if (isUsable(connection)) {
+                    return connection.operations;
+                }
+                disconnect(connection.operations);
+            }
+            return connect();
+        } catch (Exception e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Releases the connection back to the pool.
+     *
+     * @param operations the connection acquired from this pool
+     */
+    public void release(RemoteFileOperations<T> operations) {
+        try {
+            if (closed || !operations.isConnected()) {
+                disconnect(operations);
+            } else {
+                idle.offer(new IdleConnection<T>(operations));
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Closes the pool and disconnects the idle connections. Connections in use are disconnected when released.
+     */
+    public void close() {
+        closed = true;
+        IdleConnection<T> connection;
+        while ((connection = idle.poll()) != null) {
+            disconnect(connection.operations);
+        }
+    }
+
+    /**
+     * Gets the number of idle connections.
+     */
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    public long getValidateAfterIdle() {
+        return validateAfterIdle;
+    }
+
+    /**
+     * Sets the time in millis a connection can be idle before its checked with a noop command when reused.
+     */
+    public void setValidateAfterIdle(long validateAfterIdle) {
+        this.validateAfterIdle = validateAfterIdle;
+    }
+
+    private RemoteFileOperations<T> connect() throws Exception {
+        RemoteFileOperations<T> operations = endpoint.createRemoteFileOperations();
+        LOG.debug("Creating new connection to: {}", endpoint.remoteServerInformation());
+        boolean loggedIn = operations.connect(endpoint.getConfiguration());
+        if (!loggedIn) {
+            disconnect(operations);
+            throw new GenericFileOperationFailedException("Cannot connect/login to: " + endpoint.remoteServerInformation());
+        }
+        return operations;
+    }
+
+    private boolean isUsable(IdleConnection<T> connection) {
+        try {
+            if (!connection.operations.isConnected()) {
+                return false;
+            }
+            if (System.currentTimeMillis() - connection.idleSince > validateAfterIdle) {
+                return connection.operations.sendNoop();
+            }
+            return true;
+        } catch (GenericFileOperationFailedException e) {
+            LOG.debug("Connection to: " + endpoint.remoteServerInformation() + " is no longer usable due: " + e.getMessage(), e);
+            return false;
+        }
+    }
+
+    private void disconnect(RemoteFileOperations<T> operations) {
+        try {
+            if (operations.isConnected()) {
+                operations.disconnect();
+            }
+        } catch (GenericFileOperationFailedException e) {
+            LOG.warn("Error occurred while disconnecting from " + endpoint.remoteServerInformation() + " due: " + e.getMessage() + ". This exception will be ignored.");
+        }
+    }
+
+    private static final class IdleConnection<T> {
+        private final RemoteFileOperations<T> operations;
+        private final long idleSince = System.currentTimeMillis();
+
+        private IdleConnection(RemoteFileOperations<T> operations) {
+            this.operations = operations;
+        }
+    }
+}
@@ -58,6 +58,9 @@ public class SftpOperations implements RemoteFileOperations<ChannelSftp.LsEntry>
     private SftpEndpoint endpoint;
     private ChannelSftp channel;
     private Session session;
+    // the download being streamed, and the directory to change back to when its done
+    private InputStream retrievedStream;
+    private String retrievedStepwiseDirectory;
 
     /**
      * Extended user info which supports interactive keyboard mode, by entering the password.
@@ -267,6 +270,11 @@ public class SftpOperations implements RemoteFileOperations<ChannelSftp.LsEntry>
     }
 
     public void disconnect() throws GenericFileOperationFailedException {
+        // any download being streamed is aborted
+        IOHelper.close(retrievedStream, "retrieve stream", LOG);
+        retrievedStream = null;
+        retrievedStepwiseDirectory = null;
+
         if (session != null && session.isConnected()) {
             session.disconnect();
         }
@@ -480,11 +488,9 @@ public class SftpOperations implements RemoteFileOperations<ChannelSftp.LsEntry>
     private boolean retrieveFileToStreamInBody(String name, Exchange exchange) throws GenericFileOperationFailedException {
         OutputStream os = null;
         try {
-            os = new ByteArrayOutputStream();
             GenericFile<ChannelSftp.LsEntry> target =
                     (GenericFile<ChannelSftp.LsEntry>) exchange.getProperty(FileComponent.FILE_EXCHANGE_FILE);
             ObjectHelper.notNull(target, "Exchange should have the " + FileComponent.FILE_EXCHANGE_FILE + " set");
-            target.setBody(os);
 
             String remoteName = name;
             String currentDir = null;
@@ -504,6 +510,16 @@ public class SftpOperations implements RemoteFileOperations<ChannelSftp.LsEntry>
 
             // use input stream which works with Apache SSHD used for testing
             InputStream is = channel.get(remoteName);
+            if (endpoint.getConfiguration().isStreamDownload()) {
+                // the channel is busy until the stream has been consumed, so the stream is released
+                // and we change back to the current directory when the exchange is done
+                target.setBody(is);
+                retrievedStream = is;
+                retrievedStepwiseDirectory = currentDir;
+                return true;
+            }
+            os = new ByteArrayOutputStream();
+            target.setBody(os);
             IOHelper.copyAndCloseInput(is, os);
 
             // change back to current directory
@@ -521,6 +537,23 @@ public class SftpOperations implements RemoteFileOperations<ChannelSftp.LsEntry>
         }
     }
 
+    public void releaseRetrievedFileResources(Exchange exchange) throws GenericFileOperationFailedException {
+        InputStream is = retrievedStream;
+        if (is == null) {
+            return;
+        }
+        retrievedStream = null;
+        String currentDir = retrievedStepwiseDirectory;
+        retrievedStepwiseDirectory = null;
+
+        IOHelper.close(is, "retrieve stream", LOG);
+
+        // change back to current directory
+        if (currentDir != null) {
+            changeCurrentDirectory(currentDir);
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private boolean retrieveFileToFileInLocalWorkDirectory(String name, Exchange exchange) throws GenericFileOperationFailedException {
         File temp;
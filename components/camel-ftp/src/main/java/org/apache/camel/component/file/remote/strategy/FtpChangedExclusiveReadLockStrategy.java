@@ -17,12 +17,14 @@
 package org.apache.camel.component.file.remote.strategy;
 
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import org.apache.camel.Exchange;
 import org.apache.camel.component.file.GenericFile;
 import org.apache.camel.component.file.GenericFileEndpoint;
 import org.apache.camel.component.file.GenericFileExclusiveReadLockStrategy;
 import org.apache.camel.component.file.GenericFileOperations;
+import org.apache.camel.component.file.strategy.GenericFileChangedCandidates;
 import org.apache.camel.util.StopWatch;
 import org.apache.commons.net.ftp.FTPFile;
 import org.slf4j.Logger;
@@ -32,13 +34,19 @@ public class FtpChangedExclusiveReadLockStrategy implements GenericFileExclusive
     private static final transient Logger LOG = LoggerFactory.getLogger(FtpChangedExclusiveReadLockStrategy.class);
     private long timeout;
     private long checkInterval = 5000;
+    private boolean nonBlocking;
+    private final GenericFileChangedCandidates candidates = new GenericFileChangedCandidates();
 
     @Override
     public void prepareOnStartup(GenericFileOperations<FTPFile> tGenericFileOperations, GenericFileEndpoint<FTPFile> tGenericFileEndpoint) throws Exception {
-        // noop
+        candidates.clear();
     }
 
     public boolean acquireExclusiveReadLock(GenericFileOperations<FTPFile> operations, GenericFile<FTPFile> file, Exchange exchange) throws Exception {
+        if (nonBlocking) {
+            return acquireExclusiveReadLockNonBlocking(operations, file);
+        }
+
         boolean exclusive = false;
 
         LOG.trace("Waiting for exclusive read lock to file: " + file);
@@ -106,6 +114,22 @@ public class FtpChangedExclusiveReadLockStrategy implements GenericFileExclusive
         return exclusive;
     }
 
+    private boolean acquireExclusiveReadLockNonBlocking(final GenericFileOperations<FTPFile> operations, final GenericFile<FTPFile> file) throws Exception {
+        Callable<GenericFileChangedCandidates.FileStat> stat = new Callable<GenericFileChangedCandidates.FileStat>() {
+            public GenericFileChangedCandidates.FileStat call() throws Exception {
+                List<FTPFile> files = operations.listFiles(file.getParent());
+                for (FTPFile f : files) {
+                    if (f.getName().equals(file.getFileName())) {
+                        return new GenericFileChangedCandidates.FileStat(f.getTimestamp().getTimeInMillis(), f.getSize());
+                    }
+                }
+                return null;
+            }
+        };
+        // We consider that zero-length files are files in progress on some FTP servers
+        return candidates.tryAcquire(file.getAbsoluteFilePath(), timeout, checkInterval, 1, stat);
+    }
+
     private boolean sleep() {
         LOG.trace("Exclusive read lock not granted. Sleeping for " + checkInterval + " millis.");
         try {
@@ -138,4 +162,12 @@ public class FtpChangedExclusiveReadLockStrategy implements GenericFileExclusive
         this.checkInterval = checkInterval;
     }
 
+    public boolean isNonBlocking() {
+        return nonBlocking;
+    }
+
+    public void setNonBlocking(boolean nonBlocking) {
+        this.nonBlocking = nonBlocking;
+    }
+
 }
\ No newline at end of file
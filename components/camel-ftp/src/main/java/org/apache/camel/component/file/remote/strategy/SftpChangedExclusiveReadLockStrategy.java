@@ -17,6 +17,7 @@
 package org.apache.camel.component.file.remote.strategy;
 
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import com.jcraft.jsch.ChannelSftp;
 import org.apache.camel.Exchange;
@@ -24,6 +25,7 @@ import org.apache.camel.component.file.GenericFile;
 import org.apache.camel.component.file.GenericFileEndpoint;
 import org.apache.camel.component.file.GenericFileExclusiveReadLockStrategy;
 import org.apache.camel.component.file.GenericFileOperations;
+import org.apache.camel.component.file.strategy.GenericFileChangedCandidates;
 import org.apache.camel.util.StopWatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,13 +34,19 @@ public class SftpChangedExclusiveReadLockStrategy implements GenericFileExclusiv
     private static final transient Logger LOG = LoggerFactory.getLogger(SftpChangedExclusiveReadLockStrategy.class);
     private long timeout;
     private long checkInterval = 5000;
+    private boolean nonBlocking;
+    private final GenericFileChangedCandidates candidates = new GenericFileChangedCandidates();
 
     @Override
     public void prepareOnStartup(GenericFileOperations<ChannelSftp.LsEntry> tGenericFileOperations, GenericFileEndpoint<ChannelSftp.LsEntry> tGenericFileEndpoint) throws Exception {
-        // noop
+        candidates.clear();
     }
 
     public boolean acquireExclusiveReadLock(GenericFileOperations<ChannelSftp.LsEntry> operations, GenericFile<ChannelSftp.LsEntry> file, Exchange exchange) throws Exception {
+        if (nonBlocking) {
+            return acquireExclusiveReadLockNonBlocking(operations, file);
+        }
+
         boolean exclusive = false;
 
         LOG.trace("Waiting for exclusive read lock to file: " + file);
@@ -106,6 +114,22 @@ public class SftpChangedExclusiveReadLockStrategy implements GenericFileExclusiv
         return exclusive;
     }
 
+    private boolean acquireExclusiveReadLockNonBlocking(final GenericFileOperations<ChannelSftp.LsEntry> operations, final GenericFile<ChannelSftp.LsEntry> file) throws Exception {
+        Callable<GenericFileChangedCandidates.FileStat> stat = new Callable<GenericFileChangedCandidates.FileStat>() {
+            public GenericFileChangedCandidates.FileStat call() throws Exception {
+                List<ChannelSftp.LsEntry> files = operations.listFiles(file.getParent());
+                for (ChannelSftp.LsEntry f : files) {
+                    if (f.getFilename().equals(file.getFileName())) {
+                        return new GenericFileChangedCandidates.FileStat(f.getAttrs().getATime(), f.getAttrs().getSize());
+                    }
+                }
+                return null;
+            }
+        };
+        // We consider that zero-length files are files in progress on some FTP servers
+        return candidates.tryAcquire(file.getAbsoluteFilePath(), timeout, checkInterval, 1, stat);
+    }
+
     private boolean sleep() {
         LOG.trace("Exclusive read lock not granted. Sleeping for " + checkInterval + " millis.");
         try {
@@ -138,4 +162,12 @@ public class SftpChangedExclusiveReadLockStrategy implements GenericFileExclusiv
         this.checkInterval = checkInterval;
     }
 
+    public boolean isNonBlocking() {
+        return nonBlocking;
+    }
+
+    public void setNonBlocking(boolean nonBlocking) {
+        this.nonBlocking = nonBlocking;
+    }
+
 }
\ No newline at end of file
@@ -118,6 +118,10 @@ public final class SftpProcessStrategyFactory {
                 if (checkInterval != null) {
                     readLockStrategy.setCheckInterval(checkInterval);
                 }
+                Boolean nonBlocking = (Boolean) params.get("readLockNonBlocking");
+                if (nonBlocking != null) {
+                    ((SftpChangedExclusiveReadLockStrategy) readLockStrategy).setNonBlocking(nonBlocking);
+                }
                 return readLockStrategy;
             }
         }
@@ -0,0 +1,65 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.file.remote;
+
+import java.io.File;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.junit.Test;
+
+/**
+ * Unit test to test downloading files in parallel over pooled connections, streaming the content into the route.
+ */
+public class FromFtpParallelProcessingTest extends FtpServerTestSupport {
+
+    protected String getFtpUrl() {
+        return "ftp://admin@localhost:" + getPort() + "/parallel?password=admin&delete=true";
+    }
+
+    @Test
+    public void testParallelStreamDownload() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:result");
+        mock.expectedBodiesReceivedInAnyOrder("Hello 0", "Hello 1", "Hello 2", "Hello 3", "Hello 4",
+                "Hello 5", "Hello 6", "Hello 7", "Hello 8", "Hello 9");
+
+        for (int i = 0; i < 10; i++) {
+            template.sendBodyAndHeader(getFtpUrl(), "Hello " + i, Exchange.FILE_NAME, "hello" + i + ".txt");
+        }
+
+        assertMockEndpointsSatisfied();
+
+        Thread.sleep(500);
+
+        // assert the files are deleted using the pooled connections
+        for (int i = 0; i < 10; i++) {
+            File file = new File(FTP_ROOT_DIR + "/parallel/hello" + i + ".txt");
+            assertFalse("The file should have been deleted", file.getAbsoluteFile().exists());
+        }
+    }
+
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            public void configure() throws Exception {
+                from(getFtpUrl() + "&parallelProcessing=true&concurrentConsumers=3&streamDownload=true&delay=100")
+                    .convertBodyTo(String.class)
+                    .to("mock:result");
+            }
+        };
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.processor.throttle.hazelcast;
+
+import java.util.concurrent.TimeUnit;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import org.apache.camel.spi.ThrottlerRepository;
+import org.apache.camel.support.ServiceSupport;
+
+/**
+ * A Hazelcast based {@link ThrottlerRepository}, which shares the quotas between the throttlers
+ * of all the members of the cluster.
+ * <p/>
+ * The used requests of each period are kept in a distributed map keyed by the key and the period,
+ * and are updated with compare and set, so no cluster wide lock is needed. The entries expire
+ * after the time to live, which should be longer than the time period of the throttlers.
+ */
+public class HazelcastThrottlerRepository extends ServiceSupport implements ThrottlerRepository {
+
+    private String repositoryName;
+    private IMap<String, Long> repo;
+    private HazelcastInstance hazelcastInstance;
+    private long timeToLive = 60000;
+
+    public HazelcastThrottlerRepository(HazelcastInstance hazelcastInstance) {
+        this(hazelcastInstance, HazelcastThrottlerRepository.class.getSimpleName());
+    }
+
+    public HazelcastThrottlerRepository(HazelcastInstance hazelcastInstance, String repositoryName) {
+        this.repositoryName = repositoryName;
+        this.hazelcastInstance = hazelcastInstance;
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        repo = hazelcastInstance.getMap(repositoryName);
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        // noop
+    }
+
+    public long lease(String key, long period, long periodMillis, long maximumRequests, long requests) {
+        String entry = entryKey(key, period);
+        // the entry is created within the period, so it must live at least the length of the period,
+        // and another period on top covers for the clocks of the members not being quite in sync
+        long ttl = Math.max(timeToLive, 2 * periodMillis);
+        while (true) {
+            Long used = repo.get(entry);
+            long leased = Math.min(requests, maximumRequests - (used != null ? used : 0));
+            if (leased <= 0) {
+                return 0;
+            }
+            if (used == null) {
+                if (repo.putIfAbsent(entry, leased, ttl, TimeUnit.MILLISECONDS) == null) {
+                    return leased;
+                }
+            } else if (repo.replace(entry, used, used + leased)) {
+                return leased;
+            }
+        }
+    }
+
+    public void release(String key, long period, long requests) {
+        String entry = entryKey(key, period);
+        while (true) {
+            Long used = repo.get(entry);
+            if (used == null || repo.replace(entry, used, Math.max(0, used - requests))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of requests used of the quota of the given period.
+     */
+    public long getUsed(String key, long period) {
+        Long used = repo.get(entryKey(key, period));
+        return used != null ? used : 0;
+    }
+
+    public String getRepositoryName() {
+        return repositoryName;
+    }
+
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Sets the time in millis after which the used requests of a period are removed from the map.
+     * <p/>
+     * A time to live shorter than twice the time period of a throttler is extended for its periods.
+     */
+    public void setTimeToLive(long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    private static String entryKey(String key, long period) {
+        return key + ":" + period;
+    }
+
+}
@@ -0,0 +1,132 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.processor.throttle.hazelcast;
+
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.mock.MockEndpoint;
+import org.apache.camel.test.junit4.CamelTestSupport;
+import org.junit.Test;
+
+public class HazelcastThrottlerRepositoryTest extends CamelTestSupport {
+
+    private static final long PERIOD = 60000;
+
+    private IMap<String, Long> cache;
+    private HazelcastThrottlerRepository repo;
+    private HazelcastThrottlerRepository otherRepo;
+    private HazelcastInstance hazelcastInstance;
+
+    public void setUp() throws Exception {
+        hazelcastInstance = Hazelcast.newHazelcastInstance(null);
+        cache = hazelcastInstance.getMap("myRepo");
+        repo = new HazelcastThrottlerRepository(hazelcastInstance, "myRepo");
+        // another repository on the same map acts as another Camel instance
+        otherRepo = new HazelcastThrottlerRepository(hazelcastInstance, "myRepo");
+        super.setUp();
+        cache.clear();
+    }
+
+    public void tearDown() throws Exception {
+        super.tearDown();
+        cache.clear();
+        hazelcastInstance.getLifecycleService().shutdown();
+    }
+
+    @Test
+    public void testLease() throws Exception {
+        assertEquals(4, repo.lease("foo", 1, 1000, 10, 4));
+        assertEquals(4, otherRepo.lease("foo", 1, 1000, 10, 4));
+        // only 2 requests left of the quota
+        assertEquals(2, repo.lease("foo", 1, 1000, 10, 4));
+        assertEquals(0, otherRepo.lease("foo", 1, 1000, 10, 4));
+        assertEquals(10, repo.getUsed("foo", 1));
+
+        // the quotas of other periods and keys are not affected
+        assertEquals(4, repo.lease("foo", 2, 1000, 10, 4));
+        assertEquals(4, repo.lease("bar", 1, 1000, 10, 4));
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void testRelease() throws Exception {
+        assertEquals(10, repo.lease("foo", 1, 1000, 10, 10));
+        assertEquals(0, otherRepo.lease("foo", 1, 1000, 10, 1));
+
+        repo.release("foo", 1, 3);
+        assertEquals(7, otherRepo.getUsed("foo", 1));
+        assertEquals(3, otherRepo.lease("foo", 1, 1000, 10, 5));
+
+        // releasing an unknown period is ignored
+        repo.release("foo", 2, 3);
+        assertEquals(0, repo.getUsed("foo", 2));
+    }
+
+    @Test
+    public void testTimeToLiveShorterThanPeriod() throws Exception {
+        repo.setTimeToLive(100);
+        assertEquals(4, repo.lease("foo", 1, 1000, 10, 4));
+
+        // the quota is kept while the period may still be going on
+        Thread.sleep(500);
+        assertEquals(4, otherRepo.getUsed("foo", 1));
+        assertEquals(6, otherRepo.lease("foo", 1, 1000, 10, 10));
+    }
+
+    @Test
+    public void testThrottlersShareQuota() throws Exception {
+        MockEndpoint mock = getMockEndpoint("mock:out");
+        mock.expectedMessageCount(6);
+
+        long period = System.currentTimeMillis() / PERIOD;
+        for (int i = 0; i < 3; i++) {
+            template.sendBody("direct:a", "a" + i);
+            template.sendBody("direct:b", "b" + i);
+        }
+        assertMockEndpointsSatisfied();
+
+        if (period != System.currentTimeMillis() / PERIOD) {
+            // a new period started while sending so the quota was split over two periods
+            return;
+        }
+
+        // each throttler leased a batch of 5 requests
+        assertEquals(10, repo.getUsed("throttler", period));
+
+        // the unused requests are returned when the throttlers are stopped
+        context.stop();
+        assertEquals(6, repo.getUsed("throttler", period));
+    }
+
+    protected RouteBuilder createRouteBuilder() throws Exception {
+        return new RouteBuilder() {
+            @Override
+            public void configure() throws Exception {
+                from("direct:a")
+                    .throttle(100).timePeriodMillis(PERIOD).throttlerRepository(repo).leaseSize(5)
+                    .to("mock:out");
+
+                from("direct:b")
+                    .throttle(100).timePeriodMillis(PERIOD).throttlerRepository(otherRepo).leaseSize(5)
+                    .to("mock:out");
+            }
+        };
+    }
+
+}
@@ -317,6 +317,10 @@ public class JmsComponent extends DefaultComponent implements ApplicationContext
         getConfiguration().setRequestTimeout(requestTimeout);
     }
 
+    public void setRequestTimeoutWheel(boolean requestTimeoutWheel) {
+        getConfiguration().setRequestTimeoutWheel(requestTimeoutWheel);
+    }
+
     public void setTransferExchange(boolean transferExchange) {
         getConfiguration().setTransferExchange(transferExchange);
     }
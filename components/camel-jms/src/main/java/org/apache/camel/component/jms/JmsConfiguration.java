@@ -84,6 +84,7 @@ public class JmsConfiguration implements Cloneable {
     private long recoveryInterval = -1;
     private long receiveTimeout = -1;
     private long requestTimeout = 20000L;
+    private boolean requestTimeoutWheel;
     private int idleTaskExecutionLimit = 1;
     private int idleConsumerLimit = 1;
     private int maxConcurrentConsumers;
@@ -1088,6 +1089,18 @@ public class JmsConfiguration implements Cloneable {
         this.requestTimeout = requestTimeout;
     }
 
+    public boolean isRequestTimeoutWheel() {
+        return requestTimeoutWheel;
+    }
+
+    /**
+     * Sets whether to use a time wheel to find the requests which has timed out, instead of scanning
+     * all the pending requests every second. This is recommended when there is a large number of pending requests.
+     */
+    public void setRequestTimeoutWheel(boolean requestTimeoutWheel) {
+        this.requestTimeoutWheel = requestTimeoutWheel;
+    }
+
     public String getReplyTo() {
         return replyToDestination;
     }
@@ -615,6 +615,11 @@ public class JmsEndpoint extends DefaultEndpoint implements HeaderFilterStrategy
         return getConfiguration().getRequestTimeout();
     }
 
+    @ManagedAttribute
+    public boolean isRequestTimeoutWheel() {
+        return getConfiguration().isRequestTimeoutWheel();
+    }
+
     public TaskExecutor getTaskExecutor() {
         return getConfiguration().getTaskExecutor();
     }
@@ -920,6 +925,14 @@ public class JmsEndpoint extends DefaultEndpoint implements HeaderFilterStrategy
         getConfiguration().setRequestTimeout(requestTimeout);
     }
 
+    /**
+     * Whether to use a time wheel for the request timeouts, which is not exposed as a managed attribute
+     * as it only takes effect when the reply manager is created.
+     */
+    public void setRequestTimeoutWheel(boolean requestTimeoutWheel) {
+        getConfiguration().setRequestTimeoutWheel(requestTimeoutWheel);
+    }
+
     @ManagedAttribute
     @Deprecated
     public void setSubscriptionDurable(boolean subscriptionDurable) {
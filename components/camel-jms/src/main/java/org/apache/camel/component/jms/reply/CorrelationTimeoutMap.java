@@ -35,6 +35,10 @@ public class CorrelationTimeoutMap extends DefaultTimeoutMap<String, ReplyHandle
         super(executor, requestMapPollTimeMillis);
     }
 
+    public CorrelationTimeoutMap(ScheduledExecutorService executor, long requestMapPollTimeMillis, boolean useTimeWheel) {
+        super(executor, requestMapPollTimeMillis, true, useTimeWheel);
+    }
+
     public void setListener(CorrelationListener listener) {
         // there is only one listener needed
         this.listener = listener;
@@ -204,7 +204,7 @@ public abstract class ReplyManagerSupport extends ServiceSupport implements Repl
         ObjectHelper.notNull(endpoint, "endpoint", this);
 
         // purge for timeout every second
-        correlation = new CorrelationTimeoutMap(executorService, 1000);
+        correlation = new CorrelationTimeoutMap(executorService, 1000, endpoint.getConfiguration().isRequestTimeoutWheel());
         ServiceHelper.startService(correlation);
 
         // create JMS listener and start it
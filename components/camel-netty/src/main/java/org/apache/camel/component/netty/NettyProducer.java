@@ -16,6 +16,8 @@
  */
 package org.apache.camel.component.netty;
 
+import java.io.File;
+import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
@@ -26,6 +28,8 @@ import org.apache.camel.CamelException;
 import org.apache.camel.Exchange;
 import org.apache.camel.NoTypeConversionAvailableException;
 import org.apache.camel.ServicePoolAware;
+import org.apache.camel.component.file.FileRegion;
+import org.apache.camel.component.file.GenericFile;
 import org.apache.camel.impl.DefaultAsyncProducer;
 import org.apache.camel.impl.DefaultExchange;
 import org.apache.camel.util.CamelLogger;
@@ -38,6 +42,7 @@ import org.jboss.netty.channel.ChannelFactory;
 import org.jboss.netty.channel.ChannelFuture;
 import org.jboss.netty.channel.ChannelFutureListener;
 import org.jboss.netty.channel.ChannelPipeline;
+import org.jboss.netty.channel.DefaultFileRegion;
 import org.jboss.netty.channel.group.ChannelGroup;
 import org.jboss.netty.channel.group.ChannelGroupFuture;
 import org.jboss.netty.channel.group.DefaultChannelGroup;
@@ -145,12 +150,30 @@ public class NettyProducer extends DefaultAsyncProducer implements ServicePoolAw
             exchange.setProperty(Exchange.CHARSET_NAME, IOHelper.normalizeCharset(getConfiguration().getCharsetName()));
         }
 
+        // transfer a file body as a file region, so the file is sent without copying it through the heap,
+        // which is created before the channel is opened, so there is no channel to release if it fails
+        final DefaultFileRegion fileRegion;
+        try {
+            fileRegion = createFileRegion(body, exchange);
+        } catch (IOException e) {
+            exchange.setException(e);
+            callback.done(true);
+            return true;
+        }
+        if (fileRegion != null) {
+            body = fileRegion;
+        }
+
         ChannelFuture channelFuture;
         final Channel channel;
         try {
             channelFuture = openConnection(exchange, callback);
             channel = openChannel(channelFuture);
         } catch (Exception e) {
+            if (fileRegion != null) {
+                // the file region is not going to be written so close the file
+                fileRegion.releaseExternalResources();
+            }
             exchange.setException(e);
             callback.done(true);
             return true;
@@ -165,6 +188,10 @@ public class NettyProducer extends DefaultAsyncProducer implements ServicePoolAw
         future.addListener(new ChannelFutureListener() {
             public void operationComplete(ChannelFuture channelFuture) throws Exception {
                 LOG.debug("Operation complete {}", channelFuture);
+                if (fileRegion != null) {
+                    // the file region has been transferred (or failed) so close the file
+                    fileRegion.releaseExternalResources();
+                }
                 if (!channelFuture.isSuccess()) {
                     // no success the set the caused exception and signal callback and break
                     exchange.setException(channelFuture.getCause());
@@ -206,6 +233,28 @@ public class NettyProducer extends DefaultAsyncProducer implements ServicePoolAw
         return false;
     }
 
+    /**
+     * Creates a Netty file region for the body if the body is a file and the file can be written to the
+     * socket as is, which is when using TCP without SSL and without any encoders.
+     *
+     * @return the file region, or <tt>null</tt> to write the body as usual
+     */
+    protected DefaultFileRegion createFileRegion(Object body, Exchange exchange) throws IOException {
+        if (!(body instanceof File) && !(body instanceof GenericFile)) {
+            return null;
+        }
+        if (!configuration.isTcp() || configuration.isSsl() || !configuration.getEncoders().isEmpty()) {
+            return null;
+        }
+
+        FileRegion region = exchange.getContext().getTypeConverter().convertTo(FileRegion.class, exchange, body);
+        if (region == null) {
+            return null;
+        }
+        LOG.trace("Using file region to transfer: {}", region);
+        return new DefaultFileRegion(region.openChannel(), region.getPosition(), region.getCount());
+    }
+
     protected void setupTCPCommunication() throws Exception {
         if (channelFactory == null) {
             ExecutorService bossExecutor = context.getExecutorServiceManager().newThreadPool(this, "NettyTCPBoss",
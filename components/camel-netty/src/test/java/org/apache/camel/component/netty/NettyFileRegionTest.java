@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.camel.component.netty;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.apache.camel.converter.IOConverter;
+import org.apache.camel.util.IOHelper;
+import org.junit.Test;
+
+/**
+ * Sends a file body without any encoders, so it is written to the socket as a file region.
+ *
+ * @version 
+ */
+public class NettyFileRegionTest extends BaseNettyTest {
+
+    @Test
+    public void testSendFileAsFileRegion() throws Exception {
+        File file = new File("src/test/data/message1.txt");
+        byte[] expected = IOConverter.toBytes(IOConverter.toInputStream(file));
+
+        final ServerSocket server = new ServerSocket(getPort());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<byte[]> received = executor.submit(new Callable<byte[]>() {
+                public byte[] call() throws Exception {
+                    Socket socket = server.accept();
+                    try {
+                        InputStream is = socket.getInputStream();
+                        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                        IOHelper.copy(is, bos);
+                        return bos.toByteArray();
+                    } finally {
+                        socket.close();
+                    }
+                }
+            });
+
+            Exchange out = template.send("netty:tcp://localhost:{{port}}?sync=false&allowDefaultCodec=false&disconnect=true",
+                    new Processor() {
+                        public void process(Exchange exchange) throws Exception {
+                            exchange.getIn().setBody(new File("src/test/data/message1.txt"));
+                        }
+                    });
+            assertNull(out.getException());
+
+            // the file is received as is, as the file region is written without any encoding
+            assertArrayEquals(expected, received.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+            server.close();
+        }
+    }
+
+    @Test
+    public void testSendMissingFile() throws Exception {
+        Exchange out = template.send("netty:tcp://localhost:{{port}}?sync=false&allowDefaultCodec=false",
+                new Processor() {
+                    public void process(Exchange exchange) throws Exception {
+                        exchange.getIn().setBody(new File("target/nosuchfile.txt"));
+                    }
+                });
+
+        // the file region fails before a connection is opened, so there is no server needed
+        assertNotNull(out.getException());
+    }
+}